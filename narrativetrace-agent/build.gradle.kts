@@ -18,6 +18,7 @@ tasks.jar {
     manifest {
         attributes(
             "Premain-Class" to "ai.narrativetrace.agent.NarrativeTraceAgent",
+            "Agent-Class" to "ai.narrativetrace.agent.NarrativeTraceAgent",
             "Can-Retransform-Classes" to "true"
         )
     }
@@ -0,0 +1,203 @@
+package ai.narrativetrace.agent;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.invoke.SwitchPoint;
+
+/**
+ * Bootstrap for the {@code invokedynamic} call sites the agent injects into instrumented methods.
+ *
+ * <p>Each site is linked to the {@link AgentRuntime} method of the same name, guarded by a shared
+ * {@link SwitchPoint}. While tracing is disabled the site is linked to a no-op instead, which the
+ * JIT inlines away together with the argument loads, so a disabled agent costs nothing per call.
+ * Enabling or disabling tracing invalidates the switch point; each site then relinks itself on its
+ * next call.
+ *
+ * <p>Sites in methods with {@code @OnError} templates are linked by {@link #linkOnError}, which
+ * resolves the templates' exception types once against the instrumented class's loader and binds
+ * the resulting dispatch table into the site, so a throw costs no class lookups.
+ *
+ * <p>Classes of Java 11 and later pass their method ids as constants computed by {@link #register}
+ * when the class links, so their transformed bytecode can be cached and loaded by another JVM.
+ */
+public final class AgentBootstrap {
+
+  private static final MethodHandle RELINK;
+
+  static {
+    try {
+      RELINK =
+          MethodHandles.lookup()
+              .findStatic(
+                  AgentBootstrap.class,
+                  "relink",
+                  MethodType.methodType(Object.class, Site.class, Object[].class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private static volatile LinkState state = new LinkState(new SwitchPoint(), true);
+
+  private AgentBootstrap() {}
+
+  private record LinkState(SwitchPoint switchPoint, boolean enabled) {}
+
+  private record Site(
+      MutableCallSite callSite, String name, int methodId, OnErrorTable onErrors) {}
+
+  /**
+   * Registers an instrumented method with {@link AgentRuntime} when its class first resolves the
+   * method's id constant. Referenced from instrumented bytecode only, so transformed classes carry
+   * no ids assigned by the JVM that transformed them.
+   *
+   * @param lookup the instrumented class's lookup, which names the declaring class
+   * @param methodName the method name
+   * @param type {@code int.class}
+   * @param narratedTemplate the {@code @Narrated} template, or empty for none
+   * @param redacted one {@code '1'} or {@code '0'} per parameter, for {@code @NotTraced}
+   * @param paramNames the parameter names
+   * @return the method id
+   */
+  public static int register(
+      MethodHandles.Lookup lookup,
+      String methodName,
+      Class<?> type,
+      String narratedTemplate,
+      String redacted,
+      String... paramNames) {
+    var flags = new boolean[paramNames.length];
+    for (int i = 0; i < flags.length; i++) {
+      flags[i] = redacted.charAt(i) == '1';
+    }
+    return AgentRuntime.register(
+        lookup.lookupClass().getName(),
+        methodName,
+        paramNames,
+        flags,
+        narratedTemplate.isEmpty() ? null : narratedTemplate);
+  }
+
+  /**
+   * Links one injected call site. Referenced from instrumented bytecode only.
+   *
+   * @param lookup the caller's lookup (unused; targets live in {@link AgentRuntime})
+   * @param name the {@link AgentRuntime} method to call
+   * @param type the call site type
+   * @param methodId the instrumented method's registered id
+   * @return a relinkable call site
+   */
+  public static CallSite link(
+      MethodHandles.Lookup lookup, String name, MethodType type, int methodId) {
+    return link(new Site(new MutableCallSite(type), name, methodId, null));
+  }
+
+  /**
+   * Links a call site whose target needs the method's {@code @OnError} templates. Referenced from
+   * instrumented bytecode only.
+   *
+   * @param lookup the caller's lookup, whose class loader resolves the exception types
+   * @param name the {@link AgentRuntime} method to call
+   * @param type the call site type
+   * @param methodId the instrumented method's registered id
+   * @param onErrors alternating templates and exception type descriptors, in declaration order
+   * @return a relinkable call site
+   */
+  public static CallSite linkOnError(
+      MethodHandles.Lookup lookup,
+      String name,
+      MethodType type,
+      int methodId,
+      String... onErrors) {
+    var templates = new String[onErrors.length / 2];
+    var exceptionDescriptors = new String[templates.length];
+    for (int i = 0; i < templates.length; i++) {
+      templates[i] = onErrors[2 * i];
+      exceptionDescriptors[i] = onErrors[2 * i + 1];
+    }
+    var table =
+        OnErrorTable.resolve(
+            templates, exceptionDescriptors, lookup.lookupClass().getClassLoader());
+    return link(new Site(new MutableCallSite(type), name, methodId, table));
+  }
+
+  private static CallSite link(Site site) {
+    site.callSite().setTarget(target(site));
+    return site.callSite();
+  }
+
+  static boolean isEnabled() {
+    return state.enabled();
+  }
+
+  /** Switches every linked site between the runtime and a no-op. */
+  static synchronized void setEnabled(boolean enabled) {
+    var current = state;
+    if (current.enabled() == enabled) {
+      return;
+    }
+    state = new LinkState(new SwitchPoint(), enabled);
+    SwitchPoint.invalidateAll(new SwitchPoint[] {current.switchPoint()});
+  }
+
+  private static MethodHandle target(Site site) {
+    var current = state;
+    var type = site.callSite().type();
+    var linked = current.enabled() ? runtimeHandle(site) : MethodHandles.empty(type);
+    var relink =
+        MethodHandles.insertArguments(RELINK, 0, site)
+            .asCollector(Object[].class, type.parameterCount())
+            .asType(type);
+    return current.switchPoint().guardWithTest(linked, relink);
+  }
+
+  private static Object relink(Site site, Object[] args) throws Throwable {
+    var target = target(site);
+    site.callSite().setTarget(target);
+    return target.invokeWithArguments(args);
+  }
+
+  private static MethodHandle runtimeHandle(Site site) {
+    var name = site.name();
+    var type = site.callSite().type();
+    int methodId = site.methodId();
+    if (site.onErrors() != null) {
+      // (Throwable, Object[]) sites; the table and the method id are bound here.
+      var handler =
+          findRuntime(
+              name,
+              MethodType.methodType(
+                  type.returnType(),
+                  OnErrorTable.class,
+                  Throwable.class,
+                  int.class,
+                  Object[].class));
+      return MethodHandles.insertArguments(
+          MethodHandles.insertArguments(handler, 2, methodId), 0, site.onErrors());
+    }
+    if ("enterMethod".equals(name)) {
+      // Sites carry the method id as a bootstrap constant instead of an argument.
+      var enter = findRuntime(name, type.insertParameterTypes(0, int.class));
+      return MethodHandles.insertArguments(enter, 0, methodId);
+    }
+    if ("exitMethodWithReturn".equals(name)) {
+      // Primitive return values are passed unboxed and only boxed here, while enabled.
+      var exit = findRuntime(name, MethodType.methodType(void.class, Object.class));
+      return type.parameterCount() == 0
+          ? MethodHandles.insertArguments(exit, 0, (Object) null)
+          : exit.asType(type);
+    }
+    return findRuntime(name, type);
+  }
+
+  private static MethodHandle findRuntime(String name, MethodType type) {
+    try {
+      return MethodHandles.lookup().findStatic(AgentRuntime.class, name, type);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("No AgentRuntime." + name + type, e);
+    }
+  }
+}
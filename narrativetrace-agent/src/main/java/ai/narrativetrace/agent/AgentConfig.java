@@ -1,16 +1,114 @@
 package ai.narrativetrace.agent;
 
 import ai.narrativetrace.core.config.ConfigResolver;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-/** Configuration record for the Java agent specifying which packages to instrument. */
-public record AgentConfig(List<String> packages) {
+/**
+ * Configuration record for the Java agent specifying which packages to instrument and how.
+ *
+ * @param packages internal-name prefixes of the packages to instrument, or class-name globs such as
+ *     {@code com/example/*Service}
+ * @param excludes patterns of the same forms for classes not to instrument, which override less
+ *     specific {@code packages}
+ * @param mode what the injected bytecode records
+ * @param trivial which trivial methods are left uninstrumented
+ * @param cacheDirectory where transformed classes are cached across restarts, or {@code null} to
+ *     transform every class on load
+ */
+public record AgentConfig(
+    List<String> packages,
+    List<String> excludes,
+    Mode mode,
+    TrivialMethods trivial,
+    Path cacheDirectory) {
 
   private static final int KEY_VALUE_PAIR = 2;
 
+  // Matchers are immutable, so a racing caller at worst compiles an equal one.
+  private static volatile CompiledMatcher lastCompiled;
+
+  /** What instrumented methods record. */
+  public enum Mode {
+    /** Every call is entered and exited; the context's level decides what is kept. */
+    TRACE,
+    /**
+     * Only calls that throw are recorded, from their exception handler; successful calls run no
+     * injected code at all.
+     */
+    ERRORS;
+
+    static Mode parse(String value) {
+      try {
+        return valueOf(value.trim().toUpperCase());
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Invalid agent mode: " + value.trim(), e);
+      }
+    }
+  }
+
+  /**
+   * Which methods are too trivial to instrument. A method annotated with {@code @Traced},
+   * {@code @Narrated} or {@code @OnError} is always instrumented.
+   *
+   * @param skip whether to skip getters, setters, constant returns, record accessors, {@code
+   *     equals}, {@code hashCode} and {@code toString}
+   * @param maxInstructions when skipping, also skip methods that call nothing and have at most this
+   *     many bytecode instructions; {@code 0} disables this check
+   */
+  public record TrivialMethods(boolean skip, int maxInstructions) {
+
+    /** Skips accessors, constant returns and object methods, but no other small methods. */
+    public static final TrivialMethods DEFAULT = new TrivialMethods(true, 0);
+
+    /** Instruments every method. */
+    public static final TrivialMethods NONE = new TrivialMethods(false, 0);
+
+    public TrivialMethods {
+      if (maxInstructions < 0) {
+        throw new IllegalArgumentException(
+            "Trivial instruction count must not be negative: " + maxInstructions);
+      }
+    }
+
+    static TrivialMethods parse(String trivial, String instructions) {
+      boolean skip =
+          switch (trivial.trim().toLowerCase()) {
+            case "skip" -> true;
+            case "trace" -> false;
+            default ->
+                throw new IllegalArgumentException("Invalid trivial setting: " + trivial.trim());
+          };
+      try {
+        return new TrivialMethods(skip, Integer.parseInt(instructions.trim()));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(
+            "Invalid trivial instruction count: " + instructions.trim(), e);
+      }
+    }
+  }
+
+  public AgentConfig(
+      List<String> packages, Mode mode, TrivialMethods trivial, Path cacheDirectory) {
+    this(packages, List.of(), mode, trivial, cacheDirectory);
+  }
+
+  public AgentConfig(List<String> packages, Mode mode, TrivialMethods trivial) {
+    this(packages, mode, trivial, null);
+  }
+
+  public AgentConfig(List<String> packages, Mode mode) {
+    this(packages, mode, TrivialMethods.DEFAULT);
+  }
+
+  public AgentConfig(List<String> packages) {
+    this(packages, Mode.TRACE);
+  }
+
   public static AgentConfig parse(String agentArgs) {
     return parse(agentArgs, Thread.currentThread().getContextClassLoader());
   }
@@ -19,11 +117,34 @@ public record AgentConfig(List<String> packages) {
     if (agentArgs != null && !agentArgs.isBlank()) {
       var config = parseKeyValuePairs(agentArgs);
       var packages = parsePackages(config.getOrDefault("packages", ""));
-      return new AgentConfig(packages);
+      var trivial =
+          TrivialMethods.parse(
+              config.getOrDefault("trivial", "skip"),
+              config.getOrDefault("trivialInstructions", "0"));
+      return new AgentConfig(
+          packages,
+          parsePackages(config.getOrDefault("exclude", "")),
+          Mode.parse(config.getOrDefault("mode", "trace")),
+          trivial,
+          parseCacheDirectory(config.getOrDefault("cache", "")));
     }
     var resolver = new ConfigResolver(classLoader);
     var packagesValue = resolver.resolve("narrativetrace.packages", "");
-    return new AgentConfig(parsePackages(packagesValue));
+    var modeValue = resolver.resolve("narrativetrace.mode", "trace");
+    var trivial =
+        TrivialMethods.parse(
+            resolver.resolve("narrativetrace.trivial", "skip"),
+            resolver.resolve("narrativetrace.trivialInstructions", "0"));
+    return new AgentConfig(
+        parsePackages(packagesValue),
+        parsePackages(resolver.resolve("narrativetrace.exclude", "")),
+        Mode.parse(modeValue),
+        trivial,
+        parseCacheDirectory(resolver.resolve("narrativetrace.cache", "")));
+  }
+
+  private static Path parseCacheDirectory(String value) {
+    return value.isBlank() ? null : Path.of(value.trim());
   }
 
   private static Map<String, String> parseKeyValuePairs(String agentArgs) {
@@ -53,6 +174,11 @@ public record AgentConfig(List<String> packages) {
         .toList();
   }
 
+  /**
+   * Converts a pattern such as {@code com.example.*} to the internal-name prefix {@code
+   * com/example/}. A last segment with a wildcard inside, such as {@code com.example.*Service},
+   * stays a class-name glob: {@code com/example/*Service}.
+   */
   static String normalizePackage(String pkg) {
     var normalized = pkg.trim();
     if (normalized.endsWith(".**")) {
@@ -60,20 +186,95 @@ public record AgentConfig(List<String> packages) {
     } else if (normalized.endsWith(".*")) {
       normalized = normalized.substring(0, normalized.length() - 2);
     }
+    int lastSegment = normalized.lastIndexOf('.') + 1;
+    if (normalized.lastIndexOf('*', lastSegment - 1) >= 0) {
+      throw new IllegalArgumentException(
+          "Wildcards are only supported in the last segment: " + pkg.trim());
+    }
     normalized = normalized.replace('.', '/');
-    if (!normalized.endsWith("/")) {
+    if (!normalized.endsWith("/") && normalized.indexOf('*', lastSegment) < 0) {
       normalized = normalized + "/";
     }
     return normalized;
   }
 
+  /**
+   * Returns this config with one more package to instrument.
+   *
+   * @param pattern a package pattern as accepted by {@code packages=}, e.g. {@code com.example.*}
+   * @return the extended config, or this config if the package is already included
+   * @throws IllegalArgumentException if {@code pattern} is blank
+   */
+  public AgentConfig withPackage(String pattern) {
+    if (pattern == null || pattern.isBlank()) {
+      throw new IllegalArgumentException("Package pattern must not be blank");
+    }
+    var pkg = normalizePackage(pattern);
+    if (packages.contains(pkg)) {
+      return this;
+    }
+    var extended = new ArrayList<>(packages);
+    extended.add(pkg);
+    return new AgentConfig(List.copyOf(extended), excludes, mode, trivial, cacheDirectory);
+  }
+
+  /**
+   * Returns this config without a package.
+   *
+   * @param pattern a package pattern as accepted by {@code packages=}
+   * @return the reduced config, or this config if the package was not included
+   */
+  public AgentConfig withoutPackage(String pattern) {
+    var pkg = normalizePackage(pattern);
+    if (!packages.contains(pkg)) {
+      return this;
+    }
+    return new AgentConfig(
+        packages.stream().filter(p -> !p.equals(pkg)).toList(),
+        excludes,
+        mode,
+        trivial,
+        cacheDirectory);
+  }
+
+  /**
+   * Returns whether a class instrumented under both configs gets the same bytecode.
+   *
+   * @param other the config to compare with
+   * @return {@code true} if mode and trivial-method settings are equal
+   */
+  boolean instrumentsLike(AgentConfig other) {
+    return mode == other.mode && trivial.equals(other.trivial);
+  }
+
+  /** Converts a normalized package such as {@code com/example/} back to {@code com.example}. */
+  static String displayPackage(String pkg) {
+    var name = pkg.endsWith("/") ? pkg.substring(0, pkg.length() - 1) : pkg;
+    return name.replace('/', '.');
+  }
+
+  /**
+   * Returns whether a class is selected for instrumentation. The patterns are compiled once and
+   * reused while the same config is asked again.
+   *
+   * @param className the internal class name, e.g. {@code com/example/OrderService}
+   * @return {@code true} if the class is included and not excluded
+   */
   public boolean shouldTransform(String className) {
-    if (packages.isEmpty()) return false;
-    for (var pkg : packages) {
-      if (className.startsWith(pkg)) {
-        return true;
-      }
+    return matcher().matches(className);
+  }
+
+  /** Returns the include and exclude patterns compiled into a matcher. */
+  ClassNameMatcher matcher() {
+    var compiled = lastCompiled;
+    if (compiled != null && compiled.config().equals(this)) {
+      return compiled.matcher();
     }
-    return false;
+    var matcher = ClassNameMatcher.compile(packages, excludes);
+    lastCompiled = new CompiledMatcher(this, matcher);
+    return matcher;
   }
+
+  /** A config's compiled matcher; records cannot hold it in an instance field. */
+  private record CompiledMatcher(AgentConfig config, ClassNameMatcher matcher) {}
 }
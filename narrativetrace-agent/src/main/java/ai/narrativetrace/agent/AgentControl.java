@@ -0,0 +1,143 @@
+package ai.narrativetrace.agent;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.instrument.UnmodifiableClassException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Changes which packages the agent instruments while the JVM runs.
+ *
+ * <p>Adding a package retransforms its already-loaded classes; removing one retransforms them
+ * again without instrumentation, which restores their original bytecode. Only classes whose
+ * instrumentation actually changes are retransformed. If the JVM does not support
+ * retransformation, changes apply to classes loaded afterwards.
+ *
+ * <pre>{@code
+ * NarrativeTraceAgent.control().addPackage("com.example.billing.*");
+ * }</pre>
+ *
+ * <p>When the agent is attached to a running JVM, the control is also registered as the MBean
+ * {@value #OBJECT_NAME}.
+ */
+public final class AgentControl implements AgentControlMBean {
+
+  /** Object name of the registered MBean. */
+  public static final String OBJECT_NAME = "ai.narrativetrace:type=AgentControl";
+
+  private final Instrumentation instrumentation;
+  private final NarrativeClassFileTransformer transformer;
+  private volatile AgentConfig config;
+
+  private AgentControl(AgentConfig config, Instrumentation instrumentation) {
+    this.config = config;
+    this.instrumentation = instrumentation;
+    this.transformer = new NarrativeClassFileTransformer(() -> this.config);
+  }
+
+  /**
+   * Registers the agent's transformer and instruments matching classes that are already loaded.
+   * Without configured packages no loaded class can match, so they are not scanned.
+   */
+  static AgentControl install(AgentConfig config, Instrumentation instrumentation) {
+    var control = new AgentControl(config, instrumentation);
+    instrumentation.addTransformer(control.transformer, true);
+    if (!config.packages().isEmpty()) {
+      control.retransform(new AgentConfig(List.of(), config.mode(), config.trivial()), config);
+    }
+    return control;
+  }
+
+  /**
+   * Returns the current config.
+   *
+   * @return the config new and retransformed classes are instrumented with
+   */
+  public AgentConfig config() {
+    return config;
+  }
+
+  /**
+   * Returns the instrumented packages.
+   *
+   * @return package names such as {@code com.example.app}
+   */
+  public List<String> packages() {
+    return config.packages().stream().map(AgentConfig::displayPackage).toList();
+  }
+
+  /**
+   * Replaces the config, retransforming every loaded class whose instrumentation changes.
+   *
+   * @param next the new config
+   * @throws IllegalStateException if a loaded class cannot be retransformed
+   */
+  public synchronized void apply(AgentConfig next) {
+    var previous = config;
+    config = next;
+    retransform(previous, next);
+  }
+
+  @Override
+  public String[] getPackages() {
+    return packages().toArray(String[]::new);
+  }
+
+  @Override
+  public String getMode() {
+    return config.mode().name();
+  }
+
+  @Override
+  public synchronized void addPackage(String pattern) {
+    apply(config.withPackage(pattern));
+  }
+
+  @Override
+  public synchronized void removePackage(String pattern) {
+    apply(config.withoutPackage(pattern));
+  }
+
+  /** Registers this control as {@value #OBJECT_NAME} unless an earlier attach already did. */
+  void registerMBean() {
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    } catch (InstanceAlreadyExistsException e) {
+      // Registered by an earlier attach.
+    } catch (JMException e) {
+      throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+    }
+  }
+
+  private void retransform(AgentConfig previous, AgentConfig next) {
+    if (!instrumentation.isRetransformClassesSupported()) {
+      return;
+    }
+    var before = previous.matcher();
+    var after = next.matcher();
+    var changed = new ArrayList<Class<?>>();
+    for (Class<?> type : instrumentation.getAllLoadedClasses()) {
+      if (!instrumentation.isModifiableClass(type)) {
+        continue;
+      }
+      var className = type.getName().replace('.', '/');
+      boolean selected = after.matches(className);
+      if (before.matches(className) != selected
+          || (selected && !previous.instrumentsLike(next))) {
+        changed.add(type);
+      }
+    }
+    if (changed.isEmpty()) {
+      return;
+    }
+    try {
+      instrumentation.retransformClasses(changed.toArray(Class<?>[]::new));
+    } catch (UnmodifiableClassException e) {
+      throw new IllegalStateException("Cannot retransform " + changed, e);
+    }
+  }
+}
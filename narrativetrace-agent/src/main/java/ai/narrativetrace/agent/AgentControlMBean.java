@@ -0,0 +1,36 @@
+package ai.narrativetrace.agent;
+
+/**
+ * JMX view of {@link AgentControl}, registered as {@value AgentControl#OBJECT_NAME} when the agent
+ * is attached to a running JVM.
+ */
+public interface AgentControlMBean {
+
+  /**
+   * Returns the instrumented packages.
+   *
+   * @return package names such as {@code com.example.app}
+   */
+  String[] getPackages();
+
+  /**
+   * Returns the agent mode.
+   *
+   * @return {@code TRACE} or {@code ERRORS}
+   */
+  String getMode();
+
+  /**
+   * Starts instrumenting a package, retransforming its already-loaded classes.
+   *
+   * @param pattern a package pattern as accepted by {@code packages=}, e.g. {@code com.example.*}
+   */
+  void addPackage(String pattern);
+
+  /**
+   * Stops instrumenting a package, restoring the original bytecode of its loaded classes.
+   *
+   * @param pattern a package pattern as accepted by {@code packages=}
+   */
+  void removePackage(String pattern);
+}
@@ -1,72 +1,330 @@
 package ai.narrativetrace.agent;
 
+import ai.narrativetrace.core.config.ConfigResolver;
+import ai.narrativetrace.core.config.NarrativeTraceConfig;
+import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.context.CapturePlan;
 import ai.narrativetrace.core.context.NarrativeContext;
+import ai.narrativetrace.core.context.NoopNarrativeContext;
+import ai.narrativetrace.core.context.SignatureResolver;
 import ai.narrativetrace.core.context.ThreadLocalNarrativeContext;
+import ai.narrativetrace.core.event.MethodDescriptor;
 import ai.narrativetrace.core.event.MethodSignature;
-import ai.narrativetrace.core.event.ParameterCapture;
+import ai.narrativetrace.core.render.ToStringPolicy;
 import ai.narrativetrace.core.render.ValueRenderer;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /** Runtime support for the Java agent providing the shared NarrativeContext and ValueRenderer. */
 public final class AgentRuntime {
 
-  private static final ValueRenderer VALUE_RENDERER = new ValueRenderer();
+  private static final ValueRenderer VALUE_RENDERER =
+      new ValueRenderer(ToStringPolicy.fromConfig(new ConfigResolver()));
+  private static final String REDACTED = "[REDACTED]";
+  private static final Object[] NO_ARGS = new Object[0];
   private static volatile NarrativeContext context = new ThreadLocalNarrativeContext();
+  private static volatile NarrativeTraceConfig levelConfig;
+  private static final Consumer<TracingLevel> LEVEL_LISTENER = level -> relinkCallSites();
+  private static final Object CALL_SITE_LOCK = new Object();
+  // Grown under CALL_SITE_LOCK; the volatile write publishes new entries to instrumented code.
+  private static volatile AgentCallSite[] callSites = new AgentCallSite[256];
+  private static int callSiteCount;
+  // Guarded by CALL_SITE_LOCK; lets a retransformed class reuse the ids of its methods.
+  private static final Map<CallSiteKey, Integer> CALL_SITE_IDS = new HashMap<>();
+  private static final StackWalker CALLER =
+      StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+  // Per instrumented class, so tables are resolved against its loader and unloaded with it.
+  private static final ClassValue<Map<LegacyOnErrorKey, OnErrorTable>> LEGACY_ON_ERROR_TABLES =
+      new ClassValue<>() {
+        @Override
+        protected Map<LegacyOnErrorKey, OnErrorTable> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
 
   private AgentRuntime() {}
 
   public static void setContext(NarrativeContext ctx) {
-    context = ctx;
+    setContext(ctx, null);
   }
 
-  public static NarrativeContext getContext() {
-    return context;
+  /**
+   * Sets the context together with the config that controls its level. While the level is {@code
+   * OFF} the injected call sites are linked to a no-op, so instrumented methods run at full speed
+   * without checking the context; {@link NarrativeTraceConfig#setLevel} relinks them.
+   *
+   * @param ctx the context instrumented methods record into
+   * @param config the context's config, or {@code null} if its level is not known
+   */
+  public static void setContext(NarrativeContext ctx, NarrativeTraceConfig config) {
+    if (ctx == context && config == levelConfig) {
+      return;
+    }
+    synchronized (AgentRuntime.class) {
+      if (config != levelConfig) {
+        if (levelConfig != null) {
+          levelConfig.removeLevelListener(LEVEL_LISTENER);
+        }
+        if (config != null) {
+          config.addLevelListener(LEVEL_LISTENER);
+        }
+        levelConfig = config;
+      }
+      context = ctx;
+      relinkCallSites();
+    }
   }
 
-  public static void enterMethod(String className, String methodName) {
-    context.enterMethod(new MethodSignature(className, methodName, List.of()));
+  private static synchronized void relinkCallSites() {
+    var config = levelConfig;
+    AgentBootstrap.setEnabled(
+        !(context instanceof NoopNarrativeContext)
+            && (config == null || config.level() != TracingLevel.OFF));
   }
 
-  public static void enterMethod(
+  public static NarrativeContext getContext() {
+    return context;
+  }
+
+  /**
+   * Registers an instrumented method and returns the id its injected bytecode passes to {@link
+   * #enterMethod(int, Object[])}. Called once per method when its class is transformed; a method
+   * registered again with the same metadata, as on retransformation, keeps its id.
+   *
+   * @param className name of the declaring class
+   * @param methodName the method name
+   * @param paramNames the parameter names
+   * @param redacted per-parameter {@code @NotTraced} flags
+   * @param narratedTemplate the {@code @Narrated} template, or {@code null}
+   * @return the method id
+   */
+  public static int register(
       String className,
       String methodName,
       String[] paramNames,
-      Object[] paramValues,
       boolean[] redacted,
       String narratedTemplate) {
-    if (!context.isActive()) return;
-    var narration = resolveNarration(narratedTemplate, paramNames, paramValues, redacted);
-    var captures = buildCaptures(paramNames, paramValues, redacted);
-    context.enterMethod(
-        new MethodSignature(className, methodName, List.copyOf(captures), narration, null));
+    var descriptor = MethodDescriptor.register(className, methodName, paramNames, redacted);
+    var key = new CallSiteKey(descriptor, narratedTemplate);
+    synchronized (CALL_SITE_LOCK) {
+      var existing = CALL_SITE_IDS.get(key);
+      if (existing != null) {
+        return existing;
+      }
+      var sites = callSites;
+      if (callSiteCount == sites.length) {
+        sites = Arrays.copyOf(sites, sites.length * 2);
+      }
+      sites[callSiteCount] = new AgentCallSite(descriptor, narratedTemplate);
+      callSites = sites;
+      CALL_SITE_IDS.put(key, callSiteCount);
+      return callSiteCount++;
+    }
+  }
+
+  // Descriptors are interned, so identity equality is enough.
+  private record CallSiteKey(MethodDescriptor descriptor, String narratedTemplate) {}
+
+  public static void enterMethod(int methodId) {
+    var ctx = context;
+    if (!ctx.isActive()) return;
+    var callSite = callSites[methodId];
+    if (callSite.narratedTemplate() == null) {
+      ctx.enterMethod(callSite.bareSignature());
+    } else {
+      enterMethod(methodId, NO_ARGS);
+    }
+  }
+
+  public static void enterMethod(int methodId, Object[] paramValues) {
+    var ctx = context;
+    if (!ctx.isActive()) return;
+    ctx.enterMethod(callSites[methodId], paramValues);
+  }
+
+  // Arity- and type-specialized entry points for methods without @OnError. They box arguments
+  // only when the context keeps them raw, and render every value through VALUE_RENDERER, so type
+  // renderers and toString policies apply as on the generic path. Primitives are rendered without
+  // boxing unless one of those applies to their wrapper type.
+
+  public static void enterMethod(int methodId, int arg0) {
+    var ctx = context;
+    if (!ctx.isActive()) return;
+    var callSite = callSites[methodId];
+    switch (entry(ctx, callSite)) {
+      case RAW -> ctx.enterMethod(callSite, new Object[] {arg0});
+      case RENDERED ->
+          ctx.enterMethod(callSite.signature(new Object[] {callSite.capture(0, arg0)}));
+      case ENTERED -> {}
+    }
+  }
+
+  public static void enterMethod(int methodId, long arg0) {
+    var ctx = context;
+    if (!ctx.isActive()) return;
+    var callSite = callSites[methodId];
+    switch (entry(ctx, callSite)) {
+      case RAW -> ctx.enterMethod(callSite, new Object[] {arg0});
+      case RENDERED ->
+          ctx.enterMethod(callSite.signature(new Object[] {callSite.capture(0, arg0)}));
+      case ENTERED -> {}
+    }
+  }
+
+  public static void enterMethod(int methodId, double arg0) {
+    var ctx = context;
+    if (!ctx.isActive()) return;
+    var callSite = callSites[methodId];
+    switch (entry(ctx, callSite)) {
+      case RAW -> ctx.enterMethod(callSite, new Object[] {arg0});
+      case RENDERED ->
+          ctx.enterMethod(callSite.signature(new Object[] {callSite.capture(0, arg0)}));
+      case ENTERED -> {}
+    }
+  }
+
+  public static void enterMethod(int methodId, Object arg0) {
+    var ctx = context;
+    if (!ctx.isActive()) return;
+    var callSite = callSites[methodId];
+    switch (entry(ctx, callSite)) {
+      case RAW -> ctx.enterMethod(callSite, new Object[] {arg0});
+      case RENDERED ->
+          ctx.enterMethod(callSite.signature(new Object[] {callSite.capture(0, arg0)}));
+      case ENTERED -> {}
+    }
+  }
+
+  public static void enterMethod(int methodId, Object arg0, Object arg1) {
+    var ctx = context;
+    if (!ctx.isActive()) return;
+    var callSite = callSites[methodId];
+    switch (entry(ctx, callSite)) {
+      case RAW -> ctx.enterMethod(callSite, new Object[] {arg0, arg1});
+      case RENDERED ->
+          ctx.enterMethod(
+              callSite.signature(
+                  new Object[] {callSite.capture(0, arg0), callSite.capture(1, arg1)}));
+      case ENTERED -> {}
+    }
+  }
+
+  public static void enterMethod(int methodId, Object arg0, Object arg1, Object arg2) {
+    var ctx = context;
+    if (!ctx.isActive()) return;
+    var callSite = callSites[methodId];
+    switch (entry(ctx, callSite)) {
+      case RAW -> ctx.enterMethod(callSite, new Object[] {arg0, arg1, arg2});
+      case RENDERED ->
+          ctx.enterMethod(
+              callSite.signature(
+                  new Object[] {
+                    callSite.capture(0, arg0), callSite.capture(1, arg1), callSite.capture(2, arg2)
+                  }));
+      case ENTERED -> {}
+    }
+  }
+
+  /** How a specialized entry point passes its arguments, as decided by {@link #entry}. */
+  private enum Entry {
+    /** The context keeps the raw arguments and renders them later, if at all. */
+    RAW,
+    /** The signature is built now from the rendered arguments. */
+    RENDERED,
+    /** The call was entered without parameter values; nothing is left to do. */
+    ENTERED
   }
 
-  private static List<ParameterCapture> buildCaptures(
-      String[] paramNames, Object[] paramValues, boolean[] redacted) {
-    var captures = new ArrayList<ParameterCapture>(paramNames.length);
-    for (int i = 0; i < paramNames.length; i++) {
-      var rendered = redacted[i] ? "[REDACTED]" : VALUE_RENDERER.render(paramValues[i]);
-      captures.add(new ParameterCapture(paramNames[i], rendered, redacted[i]));
+  /** Decides how to enter a call on an active context, entering it at once if no value is kept. */
+  private static Entry entry(NarrativeContext ctx, AgentCallSite callSite) {
+    var plan = ctx.capturePlan();
+    if (!callSite.rendersOnEntry(plan)) {
+      return Entry.RAW;
+    }
+    if (!plan.parameterValues()) {
+      ctx.enterMethod(callSite.bareSignature());
+      return Entry.ENTERED;
     }
-    return captures;
+    return Entry.RENDERED;
+  }
+
+  /** Signature source for one instrumented method; rendering is left to the context's timing. */
+  private record AgentCallSite(
+      MethodDescriptor descriptor, String narratedTemplate, MethodSignature bareSignature)
+      implements SignatureResolver {
+
+    AgentCallSite(MethodDescriptor descriptor, String narratedTemplate) {
+      this(descriptor, narratedTemplate, new MethodSignature(descriptor, null, null, null));
+    }
+
+    /**
+     * Whether the signature can be built on entry without the raw arguments. Contexts that keep
+     * only failed calls ({@code ERRORS}) render arguments after the call throws, and narration
+     * templates interpolate raw values.
+     */
+    boolean rendersOnEntry(CapturePlan plan) {
+      return plan.returnValue() && (narratedTemplate == null || !plan.narration());
+    }
+
+    Object capture(int index, Object value) {
+      return descriptor.isRedacted(index) ? REDACTED : VALUE_RENDERER.capture(value);
+    }
+
+    Object capture(int index, int value) {
+      return descriptor.isRedacted(index) ? REDACTED : VALUE_RENDERER.renderInt(value);
+    }
+
+    Object capture(int index, long value) {
+      return descriptor.isRedacted(index) ? REDACTED : VALUE_RENDERER.renderLong(value);
+    }
+
+    Object capture(int index, double value) {
+      return descriptor.isRedacted(index) ? REDACTED : VALUE_RENDERER.renderDouble(value);
+    }
+
+    MethodSignature signature(Object[] values) {
+      return MethodSignature.deferred(descriptor, values, null, null);
+    }
+
+    @Override
+    public MethodSignature resolve(Object[] args, CapturePlan plan) {
+      var narration =
+          plan.narration() ? resolveNarration(narratedTemplate, descriptor, args) : null;
+      var values = plan.parameterValues() ? captureValues(descriptor, args) : null;
+      return MethodSignature.deferred(descriptor, values, narration, null);
+    }
+  }
+
+  private static Object[] captureValues(MethodDescriptor descriptor, Object[] paramValues) {
+    var values = new Object[descriptor.parameterCount()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = descriptor.isRedacted(i) ? REDACTED : VALUE_RENDERER.capture(paramValues[i]);
+    }
+    return values;
   }
 
   private static String resolveNarration(
-      String template, String[] paramNames, Object[] paramValues, boolean[] redacted) {
+      String template, MethodDescriptor descriptor, Object[] paramValues) {
     if (template == null) {
       return null;
     }
     var valueMap = new java.util.LinkedHashMap<String, Object>();
-    for (int i = 0; i < paramNames.length; i++) {
-      valueMap.put(paramNames[i], redacted[i] ? "[REDACTED]" : paramValues[i]);
+    for (int i = 0; i < descriptor.parameterCount(); i++) {
+      valueMap.put(
+          descriptor.parameterName(i), descriptor.isRedacted(i) ? REDACTED : paramValues[i]);
     }
     return ai.narrativetrace.core.template.TemplateParser.resolve(template, valueMap);
   }
 
   public static void exitMethodWithReturn(Object returnValue) {
-    if (!context.isActive()) return;
-    context.exitMethodWithReturn(VALUE_RENDERER.render(returnValue));
+    var ctx = context;
+    if (!ctx.isActive()) return;
+    ctx.exitMethodWithReturn(
+        ctx.capturePlan().returnValue() ? VALUE_RENDERER.render(returnValue) : null);
   }
 
   public static void exitMethodWithException(Throwable exception) {
@@ -77,44 +335,89 @@ public final class AgentRuntime {
     context.exitMethodWithException(exception, errorContext);
   }
 
+  /**
+   * Records a failed call of a method instrumented in {@linkplain AgentConfig.Mode#ERRORS
+   * errors-only} mode. Called from the method's exception handler; failures of the callers the
+   * exception propagates through are nested above it by the context.
+   *
+   * @param exception the exception leaving the method
+   * @param methodId the method's registered id
+   * @param paramValues the parameter values at the time of the throw
+   */
+  public static void recordFailure(Throwable exception, int methodId, Object[] paramValues) {
+    var ctx = context;
+    if (!ctx.isActive()) return;
+    ctx.recordFailure(callSites[methodId], paramValues, exception, null);
+  }
+
+  /**
+   * Like {@link #recordFailure(Throwable, int, Object[])}, for methods with {@code @OnError}
+   * templates. Used by class files too old for {@code invokedynamic}.
+   */
+  public static void recordFailure(
+      Throwable exception,
+      String[] templates,
+      String[] exceptionDescriptors,
+      int methodId,
+      Object[] paramValues) {
+    recordFailure(
+        legacyOnErrorTable(CALLER.getCallerClass(), methodId, templates, exceptionDescriptors),
+        exception,
+        methodId,
+        paramValues);
+  }
+
+  /** Target of {@code recordFailure} sites linked with the method's {@code @OnError}. */
+  static void recordFailure(
+      OnErrorTable onErrors, Throwable exception, int methodId, Object[] paramValues) {
+    var ctx = context;
+    if (!ctx.isActive()) return;
+    var errorContext = resolveErrorContext(onErrors, exception, methodId, paramValues);
+    ctx.recordFailure(callSites[methodId], paramValues, exception, errorContext);
+  }
+
+  /**
+   * Resolves the {@code @OnError} template matching {@code exception}. Used by class files too old
+   * for {@code invokedynamic}, which call it directly: the exception types are resolved against the
+   * calling class's loader on the method's first throw and reused afterwards.
+   */
   public static String resolveErrorContext(
       Throwable exception,
       String[] templates,
       String[] exceptionDescriptors,
-      String[] paramNames,
-      Object[] paramValues,
-      boolean[] redacted) {
-    var bestTemplate = findBestTemplate(exception, templates, exceptionDescriptors);
-    if (bestTemplate == null) return null;
-    return resolveNarration(bestTemplate, paramNames, paramValues, redacted);
-  }
-
-  private static String findBestTemplate(
-      Throwable exception, String[] templates, String[] exceptionDescriptors) {
-    String bestTemplate = null;
-    Class<?> bestExceptionType = null;
-    for (int i = 0; i < templates.length; i++) {
-      var exceptionType = descriptorToClass(exceptionDescriptors[i]);
-      if (exceptionType != null && exceptionType.isInstance(exception)) {
-        if (bestExceptionType == null || bestExceptionType.isAssignableFrom(exceptionType)) {
-          bestTemplate = templates[i];
-          bestExceptionType = exceptionType;
-        }
-      }
-    }
-    return bestTemplate;
+      int methodId,
+      Object[] paramValues) {
+    return resolveErrorContext(
+        legacyOnErrorTable(CALLER.getCallerClass(), methodId, templates, exceptionDescriptors),
+        exception,
+        methodId,
+        paramValues);
   }
 
-  private static Class<?> descriptorToClass(String descriptor) {
-    // Convert "Ljava/lang/IllegalArgumentException;" to "java.lang.IllegalArgumentException"
-    if (descriptor.startsWith("L") && descriptor.endsWith(";")) {
-      var className = descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
-      try {
-        return Class.forName(className);
-      } catch (ClassNotFoundException e) {
-        return null;
-      }
-    }
-    return null;
+  /** Target of {@code resolveErrorContext} sites linked with the method's {@code @OnError}. */
+  static String resolveErrorContext(
+      OnErrorTable onErrors, Throwable exception, int methodId, Object[] paramValues) {
+    var template = onErrors.match(exception);
+    if (template == null) return null;
+    return resolveNarration(template, callSites[methodId].descriptor(), paramValues);
   }
+
+  /**
+   * Returns the {@code @OnError} table of a method in a class too old for {@code invokedynamic},
+   * resolving the exception types against {@code owner}'s loader as {@link
+   * AgentBootstrap#linkOnError} does against the call site's lookup.
+   */
+  private static OnErrorTable legacyOnErrorTable(
+      Class<?> owner, int methodId, String[] templates, String[] exceptionDescriptors) {
+    // Ids are shared by methods with equal metadata, so the templates are part of the key.
+    return LEGACY_ON_ERROR_TABLES
+        .get(owner)
+        .computeIfAbsent(
+            new LegacyOnErrorKey(
+                methodId, Arrays.asList(templates), Arrays.asList(exceptionDescriptors)),
+            key -> OnErrorTable.resolve(templates, exceptionDescriptors, owner.getClassLoader()));
+  }
+
+  private record LegacyOnErrorKey(
+      int methodId, List<String> templates, List<String> exceptionDescriptors) {}
 }
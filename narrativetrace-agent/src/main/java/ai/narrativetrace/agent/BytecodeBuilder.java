@@ -1,16 +1,72 @@
 package ai.narrativetrace.agent;
 
 import java.util.Map;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
+/**
+ * Base for the builders that emit calls into {@link AgentRuntime}.
+ *
+ * <p>A method id is either an {@code Integer} registered when the class was transformed, or a
+ * {@link ConstantDynamic} from {@link #registration} that registers the method when the
+ * instrumented class first links it. Only the latter keeps transformed bytecode valid in another
+ * JVM.
+ */
 class BytecodeBuilder {
 
+  private static final Handle BOOTSTRAP =
+      new Handle(
+          Opcodes.H_INVOKESTATIC,
+          "ai/narrativetrace/agent/AgentBootstrap",
+          "link",
+          "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;"
+              + "Ljava/lang/invoke/MethodType;I)Ljava/lang/invoke/CallSite;",
+          false);
+
+  private static final Handle REGISTER_BOOTSTRAP =
+      new Handle(
+          Opcodes.H_INVOKESTATIC,
+          "ai/narrativetrace/agent/AgentBootstrap",
+          "register",
+          "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;"
+              + "Ljava/lang/String;Ljava/lang/String;[Ljava/lang/String;)I",
+          false);
+
+  private static final Handle ON_ERROR_BOOTSTRAP =
+      new Handle(
+          Opcodes.H_INVOKESTATIC,
+          "ai/narrativetrace/agent/AgentBootstrap",
+          "linkOnError",
+          "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;"
+              + "Ljava/lang/invoke/MethodType;I[Ljava/lang/String;)Ljava/lang/invoke/CallSite;",
+          false);
+
   protected final MethodVisitor mv;
+  protected final boolean invokeDynamic;
 
-  BytecodeBuilder(MethodVisitor mv) {
+  BytecodeBuilder(MethodVisitor mv, boolean invokeDynamic) {
     this.mv = mv;
+    this.invokeDynamic = invokeDynamic;
+  }
+
+  /**
+   * Returns the constant that registers a method with {@link AgentRuntime} when its class is
+   * linked, for class files of Java 11 and later.
+   */
+  static ConstantDynamic registration(
+      String methodName, String[] paramNames, boolean[] redacted, String narratedTemplate) {
+    var mask = new StringBuilder(redacted.length);
+    for (var flag : redacted) {
+      mask.append(flag ? '1' : '0');
+    }
+    var args = new Object[2 + paramNames.length];
+    args[0] = narratedTemplate == null ? "" : narratedTemplate;
+    args[1] = mask.toString();
+    System.arraycopy(paramNames, 0, args, 2, paramNames.length);
+    return new ConstantDynamic(methodName, "I", REGISTER_BOOTSTRAP, args);
   }
 
   protected void pushInt(int value) {
@@ -93,17 +149,83 @@ class BytecodeBuilder {
         Opcodes.INVOKESTATIC, "ai/narrativetrace/agent/AgentRuntime", method, descriptor, false);
   }
 
-  void boxReturnValue(int opcode, String methodDesc) {
+  /**
+   * Calls an {@link AgentRuntime} method through an {@code invokedynamic} site linked by {@link
+   * AgentBootstrap}, or directly for class files too old for {@code invokedynamic}.
+   */
+  void callAgent(String method, String descriptor, Object methodId) {
+    if (invokeDynamic) {
+      mv.visitInvokeDynamicInsn(method, descriptor, BOOTSTRAP, methodId);
+    } else {
+      callAgentRuntime(method, descriptor);
+    }
+  }
+
+  /**
+   * Calls an {@link AgentRuntime} method that takes the method's {@code @OnError} dispatch table
+   * through an {@code invokedynamic} site. The templates and exception types travel as bootstrap
+   * constants, resolved once when the site is linked. Requires {@link #invokeDynamic}.
+   */
+  void callAgentWithOnErrors(
+      String method, String descriptor, Object methodId, MethodMetadata.OnErrorEntry[] onErrors) {
+    var bootstrapArgs = new Object[1 + 2 * onErrors.length];
+    bootstrapArgs[0] = methodId;
+    for (int i = 0; i < onErrors.length; i++) {
+      bootstrapArgs[1 + 2 * i] = onErrors[i].template();
+      bootstrapArgs[2 + 2 * i] = onErrors[i].exceptionDescriptor();
+    }
+    mv.visitInvokeDynamicInsn(method, descriptor, ON_ERROR_BOOTSTRAP, bootstrapArgs);
+  }
+
+  /** Pushes the method id a direct {@code enterMethod} call takes as its first argument. */
+  void pushEnterMethodId(Object methodId) {
+    if (!invokeDynamic) {
+      pushMethodId(methodId);
+    }
+  }
+
+  /** Pushes a method id as an argument value. */
+  protected void pushMethodId(Object methodId) {
+    if (methodId instanceof Integer id) {
+      pushInt(id);
+    } else {
+      mv.visitLdcInsn(methodId);
+    }
+  }
+
+  /**
+   * Calls {@code enterMethod}; {@code descriptor} omits the method id, which {@code invokedynamic}
+   * sites receive as a bootstrap constant.
+   */
+  void callEnterMethod(String descriptor, Object methodId) {
+    if (invokeDynamic) {
+      mv.visitInvokeDynamicInsn("enterMethod", descriptor, BOOTSTRAP, methodId);
+    } else {
+      callAgentRuntime("enterMethod", "(I" + descriptor.substring(1));
+    }
+  }
+
+  /**
+   * Passes a copy of the value being returned to {@code exitMethodWithReturn}. Dynamic sites take
+   * primitives unboxed, so a disabled site does not box them either.
+   */
+  void emitReturnExit(int opcode, String methodDesc, Object methodId) {
     if (opcode == Opcodes.RETURN) {
+      if (invokeDynamic) {
+        callAgent("exitMethodWithReturn", "()V", methodId);
+        return;
+      }
       mv.visitInsn(Opcodes.ACONST_NULL);
-      return;
-    }
-    if (opcode == Opcodes.ARETURN) {
-      mv.visitInsn(Opcodes.DUP);
+      callAgentRuntime("exitMethodWithReturn", "(Ljava/lang/Object;)V");
       return;
     }
     var returnType = Type.getReturnType(methodDesc);
     mv.visitInsn(returnType.getSize() == 2 ? Opcodes.DUP2 : Opcodes.DUP);
+    if (invokeDynamic && opcode != Opcodes.ARETURN) {
+      callAgent("exitMethodWithReturn", "(" + returnType.getDescriptor() + ")V", methodId);
+      return;
+    }
     emitBoxingCall(returnType.getSort());
+    callAgent("exitMethodWithReturn", "(Ljava/lang/Object;)V", methodId);
   }
 }
@@ -0,0 +1,175 @@
+package ai.narrativetrace.agent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decides which classes to instrument from include and exclude patterns, compiled into a trie over
+ * internal class names.
+ *
+ * <p>A class name is matched in one walk from the root, which stops at the first character no
+ * pattern continues with, so the JDK and library classes that make up most loaded classes are
+ * rejected after a few characters. The most specific pattern on the walk decides: a package rule
+ * applies to the package and its subpackages, and a class-name glob of the package a class is
+ * directly in overrides it. Where an include and an exclude are equally specific, the exclude wins.
+ * Classes of the JDK are excluded unless a pattern includes them explicitly, since the bootstrap
+ * loader cannot see the agent's runtime classes.
+ */
+final class ClassNameMatcher {
+
+  private static final List<String> JDK_PACKAGES = List.of("java/", "jdk/", "sun/", "com/sun/");
+
+  private final Node root = new Node();
+  private final boolean empty;
+
+  private ClassNameMatcher(List<String> includes, List<String> excludes) {
+    this.empty = includes.isEmpty();
+    for (var pattern : JDK_PACKAGES) {
+      add(pattern, Rule.EXCLUDE);
+    }
+    for (var pattern : includes) {
+      add(pattern, Rule.INCLUDE);
+    }
+    for (var pattern : excludes) {
+      add(pattern, Rule.EXCLUDE);
+    }
+  }
+
+  /**
+   * Compiles normalized patterns, as produced by {@link AgentConfig#normalizePackage}.
+   *
+   * @param includes package prefixes such as {@code com/example/} and class globs such as {@code
+   *     com/example/*Service}
+   * @param excludes patterns of the same forms, which override less specific includes
+   * @return the matcher
+   */
+  static ClassNameMatcher compile(List<String> includes, List<String> excludes) {
+    return new ClassNameMatcher(includes, excludes);
+  }
+
+  /** Returns whether a class, given by internal name, is selected for instrumentation. */
+  boolean matches(String className) {
+    if (empty) {
+      return false;
+    }
+    var node = root;
+    var rule = Rule.NONE;
+    for (int i = 0; node != null; i++) {
+      if (node.rule != Rule.NONE) {
+        rule = node.rule;
+      }
+      if (node.globs != null && className.indexOf('/', i) < 0) {
+        var globRule = node.matchGlobs(className, i);
+        if (globRule != Rule.NONE) {
+          return globRule == Rule.INCLUDE;
+        }
+      }
+      if (i == className.length()) {
+        break;
+      }
+      node = node.child(className.charAt(i));
+    }
+    return rule == Rule.INCLUDE;
+  }
+
+  private void add(String pattern, Rule rule) {
+    int packageEnd = pattern.lastIndexOf('/') + 1;
+    boolean glob = packageEnd < pattern.length();
+    var node = root;
+    for (int i = 0; i < packageEnd; i++) {
+      node = node.childOrCreate(pattern.charAt(i));
+    }
+    if (glob) {
+      node.addGlob(pattern.substring(packageEnd), rule);
+    } else {
+      node.rule = rule;
+    }
+  }
+
+  private enum Rule {
+    NONE,
+    INCLUDE,
+    EXCLUDE
+  }
+
+  private record Glob(String pattern, Rule rule) {}
+
+  private static final class Node {
+
+    private char[] labels = new char[0];
+    private Node[] children = new Node[0];
+    private Rule rule = Rule.NONE;
+    private List<Glob> globs;
+
+    Node child(char label) {
+      for (int i = 0; i < labels.length; i++) {
+        if (labels[i] == label) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    Node childOrCreate(char label) {
+      var child = child(label);
+      if (child == null) {
+        child = new Node();
+        labels = Arrays.copyOf(labels, labels.length + 1);
+        children = Arrays.copyOf(children, children.length + 1);
+        labels[labels.length - 1] = label;
+        children[children.length - 1] = child;
+      }
+      return child;
+    }
+
+    void addGlob(String pattern, Rule rule) {
+      if (globs == null) {
+        globs = new ArrayList<>();
+      }
+      globs.add(new Glob(pattern, rule));
+    }
+
+    Rule matchGlobs(String className, int simpleNameStart) {
+      var result = Rule.NONE;
+      for (var glob : globs) {
+        if (globMatches(glob.pattern(), className, simpleNameStart)) {
+          if (glob.rule() == Rule.EXCLUDE) {
+            return Rule.EXCLUDE;
+          }
+          result = Rule.INCLUDE;
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Matches a glob against {@code name} from {@code start}; {@code *} matches any run of
+   * characters. Only the last star is backtracked to, so matching is linear in practice.
+   */
+  static boolean globMatches(String pattern, String name, int start) {
+    int p = 0;
+    int n = start;
+    int star = -1;
+    int resume = 0;
+    while (n < name.length()) {
+      if (p < pattern.length() && pattern.charAt(p) == '*') {
+        star = p++;
+        resume = n;
+      } else if (p < pattern.length() && pattern.charAt(p) == name.charAt(n)) {
+        p++;
+        n++;
+      } else if (star >= 0) {
+        p = star + 1;
+        n = ++resume;
+      } else {
+        return false;
+      }
+    }
+    while (p < pattern.length() && pattern.charAt(p) == '*') {
+      p++;
+    }
+    return p == pattern.length();
+  }
+}
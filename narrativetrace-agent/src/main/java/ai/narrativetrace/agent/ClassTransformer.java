@@ -6,19 +6,49 @@ import org.objectweb.asm.ClassWriter;
 /** Orchestrates ASM class transformation by coordinating visitors and metadata collection. */
 public final class ClassTransformer {
 
+  private static final int JAVA_11_MAJOR_VERSION = 55;
+  private static final int MAJOR_VERSION_OFFSET = 6;
+
   private ClassTransformer() {}
 
   public static byte[] transform(byte[] classfileBuffer, String className) {
+    return transform(classfileBuffer, className, AgentConfig.Mode.TRACE);
+  }
+
+  public static byte[] transform(
+      byte[] classfileBuffer, String className, AgentConfig.Mode mode) {
+    return transform(classfileBuffer, className, mode, AgentConfig.TrivialMethods.NONE);
+  }
+
+  public static byte[] transform(
+      byte[] classfileBuffer,
+      String className,
+      AgentConfig.Mode mode,
+      AgentConfig.TrivialMethods trivialMethods) {
     var reader = new ClassReader(classfileBuffer);
 
-    // Pass 1: collect metadata (parameter names, annotations)
-    var collector = new MethodMetadataCollector();
+    // Pass 1: collect metadata (parameter names, annotations, trivial bodies)
+    var collector = new MethodMetadataCollector(trivialMethods);
     reader.accept(collector, 0);
 
     // Pass 2: transform with metadata
     var writer = new ClassWriter(reader, ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
-    var visitor = new NarrativeClassVisitor(writer, className, collector.getMetadata());
+    var visitor = new NarrativeClassVisitor(writer, className, collector.getMetadata(), mode);
     reader.accept(visitor, ClassReader.EXPAND_FRAMES);
     return writer.toByteArray();
   }
+
+  /**
+   * Returns whether a class file transforms into bytecode that any JVM can load. Class files of
+   * Java 11 and later register their methods when they link; older ones embed JVM-local method ids.
+   */
+  static boolean isPortable(byte[] classfileBuffer) {
+    if (classfileBuffer.length < MAJOR_VERSION_OFFSET + 2) {
+      return false;
+    }
+    int major =
+        ((classfileBuffer[MAJOR_VERSION_OFFSET] & 0xFF) << 8)
+            | (classfileBuffer[MAJOR_VERSION_OFFSET + 1] & 0xFF);
+    return major >= JAVA_11_MAJOR_VERSION;
+  }
 }
@@ -4,32 +4,66 @@ import ai.narrativetrace.agent.MethodMetadata.OnErrorEntry;
 import java.util.Arrays;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
 
 final class ErrorHandlerBuilder extends BytecodeBuilder {
 
-  ErrorHandlerBuilder(MethodVisitor mv) {
-    super(mv);
+  private static final String ON_ERROR_ARRAYS = "[Ljava/lang/String;[Ljava/lang/String;I";
+
+  ErrorHandlerBuilder(MethodVisitor mv, boolean invokeDynamic) {
+    super(mv, invokeDynamic);
   }
 
-  void emit(
-      MethodMetadata.OnErrorEntry[] onErrors,
-      int paramNamesLocal,
-      int paramValuesLocal,
-      int redactedLocal) {
+  void emit(MethodMetadata.OnErrorEntry[] onErrors, Object methodId, int paramValuesLocal) {
+    mv.visitInsn(Opcodes.DUP);
     mv.visitInsn(Opcodes.DUP);
+
+    if (invokeDynamic) {
+      mv.visitVarInsn(Opcodes.ALOAD, paramValuesLocal);
+      callAgentWithOnErrors(
+          "resolveErrorContext",
+          "(Ljava/lang/Throwable;[Ljava/lang/Object;)Ljava/lang/String;",
+          methodId,
+          onErrors);
+    } else {
+      emitOnErrorArrays(onErrors, methodId);
+      mv.visitVarInsn(Opcodes.ALOAD, paramValuesLocal);
+      callAgentRuntime(
+          "resolveErrorContext",
+          "(Ljava/lang/Throwable;" + ON_ERROR_ARRAYS + "[Ljava/lang/Object;)Ljava/lang/String;");
+    }
+    callAgent(
+        "exitMethodWithException", "(Ljava/lang/Throwable;Ljava/lang/String;)V", methodId);
+  }
+
+  /**
+   * Reports a call of an errors-only method that is throwing, leaving the exception on the stack.
+   * The parameters are boxed from their locals, so they show any reassignment before the throw.
+   */
+  void emitRecordFailure(
+      MethodMetadata.OnErrorEntry[] onErrors, Object methodId, Type[] argTypes, int slotOffset) {
     mv.visitInsn(Opcodes.DUP);
+    if (onErrors == null) {
+      pushMethodId(methodId);
+      emitBoxedValueArray(argTypes, slotOffset);
+      callAgent("recordFailure", "(Ljava/lang/Throwable;I[Ljava/lang/Object;)V", methodId);
+    } else if (invokeDynamic) {
+      emitBoxedValueArray(argTypes, slotOffset);
+      callAgentWithOnErrors(
+          "recordFailure", "(Ljava/lang/Throwable;[Ljava/lang/Object;)V", methodId, onErrors);
+    } else {
+      emitOnErrorArrays(onErrors, methodId);
+      emitBoxedValueArray(argTypes, slotOffset);
+      callAgentRuntime(
+          "recordFailure", "(Ljava/lang/Throwable;" + ON_ERROR_ARRAYS + "[Ljava/lang/Object;)V");
+    }
+  }
 
+  /** Pushes the templates, exception descriptors and method id the direct calls take. */
+  private void emitOnErrorArrays(MethodMetadata.OnErrorEntry[] onErrors, Object methodId) {
     emitStringArray(Arrays.stream(onErrors).map(OnErrorEntry::template).toArray(String[]::new));
     emitStringArray(
         Arrays.stream(onErrors).map(OnErrorEntry::exceptionDescriptor).toArray(String[]::new));
-
-    mv.visitVarInsn(Opcodes.ALOAD, paramNamesLocal);
-    mv.visitVarInsn(Opcodes.ALOAD, paramValuesLocal);
-    mv.visitVarInsn(Opcodes.ALOAD, redactedLocal);
-
-    callAgentRuntime(
-        "resolveErrorContext",
-        "(Ljava/lang/Throwable;[Ljava/lang/String;[Ljava/lang/String;[Ljava/lang/String;[Ljava/lang/Object;[Z)Ljava/lang/String;");
-    callAgentRuntime("exitMethodWithException", "(Ljava/lang/Throwable;Ljava/lang/String;)V");
+    pushMethodId(methodId);
   }
 }
@@ -1,7 +1,11 @@
 package ai.narrativetrace.agent;
 
 record MethodMetadata(
-    String[] parameterNames, boolean[] redacted, String narratedTemplate, OnErrorEntry[] onErrors) {
+    String[] parameterNames,
+    boolean[] redacted,
+    String narratedTemplate,
+    OnErrorEntry[] onErrors,
+    boolean trivial) {
 
   record OnErrorEntry(String template, String exceptionDescriptor) {}
 }
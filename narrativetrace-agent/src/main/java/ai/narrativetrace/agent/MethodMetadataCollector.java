@@ -2,20 +2,35 @@ package ai.narrativetrace.agent;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.RecordComponentVisitor;
 import org.objectweb.asm.Type;
 
 final class MethodMetadataCollector extends ClassVisitor {
 
+  private static final Set<String> OBJECT_METHODS =
+      Set.of("equals(Ljava/lang/Object;)Z", "hashCode()I", "toString()Ljava/lang/String;");
+
   private final Map<String, MethodMetadata> metadata = new HashMap<>();
+  private final Set<String> recordAccessors = new HashSet<>();
+  private final AgentConfig.TrivialMethods trivialMethods;
 
   MethodMetadataCollector() {
+    this(AgentConfig.TrivialMethods.NONE);
+  }
+
+  MethodMetadataCollector(AgentConfig.TrivialMethods trivialMethods) {
     super(Opcodes.ASM9);
+    this.trivialMethods = trivialMethods;
   }
 
   Map<String, MethodMetadata> getMetadata() {
@@ -26,6 +41,14 @@ final class MethodMetadataCollector extends ClassVisitor {
     return name + descriptor;
   }
 
+  @Override
+  public RecordComponentVisitor visitRecordComponent(
+      String name, String descriptor, String signature) {
+    // Record components are visited before methods.
+    recordAccessors.add(key(name, "()" + descriptor));
+    return null;
+  }
+
   @Override
   public MethodVisitor visitMethod(
       int access, String name, String descriptor, String signature, String[] exceptions) {
@@ -46,6 +69,8 @@ final class MethodMetadataCollector extends ClassVisitor {
     private boolean hasMethodParameters;
     private String narratedTemplate;
     private final List<MethodMetadata.OnErrorEntry> onErrors = new ArrayList<>();
+    private final MethodShape shape = new MethodShape();
+    private boolean traced;
 
     MethodMetadataVisitor(String name, String descriptor, int access, int paramCount) {
       super(Opcodes.ASM9);
@@ -67,6 +92,9 @@ final class MethodMetadataCollector extends ClassVisitor {
       if ("Lai/narrativetrace/core/annotation/OnErrors;".equals(descriptor)) {
         return onErrorsContainerVisitor();
       }
+      if ("Lai/narrativetrace/core/annotation/Traced;".equals(descriptor)) {
+        traced = true;
+      }
       return null;
     }
 
@@ -150,13 +178,80 @@ final class MethodMetadataCollector extends ClassVisitor {
       return null;
     }
 
+    @Override
+    public void visitInsn(int opcode) {
+      shape.add(opcode);
+    }
+
+    @Override
+    public void visitIntInsn(int opcode, int operand) {
+      shape.add(opcode);
+    }
+
+    @Override
+    public void visitVarInsn(int opcode, int varIndex) {
+      shape.add(opcode);
+    }
+
+    @Override
+    public void visitTypeInsn(int opcode, String type) {
+      shape.add(opcode);
+    }
+
+    @Override
+    public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+      shape.add(opcode);
+    }
+
+    @Override
+    public void visitMethodInsn(
+        int opcode, String owner, String name, String descriptor, boolean isInterface) {
+      shape.add(opcode);
+    }
+
+    @Override
+    public void visitInvokeDynamicInsn(
+        String name, String descriptor, Handle bootstrapMethodHandle, Object... bootstrapArgs) {
+      shape.add(Opcodes.INVOKEDYNAMIC);
+    }
+
+    @Override
+    public void visitJumpInsn(int opcode, Label label) {
+      shape.add(opcode);
+    }
+
+    @Override
+    public void visitLdcInsn(Object value) {
+      shape.add(Opcodes.LDC);
+    }
+
+    @Override
+    public void visitIincInsn(int varIndex, int increment) {
+      shape.add(Opcodes.IINC);
+    }
+
+    @Override
+    public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+      shape.add(Opcodes.TABLESWITCH);
+    }
+
+    @Override
+    public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+      shape.add(Opcodes.LOOKUPSWITCH);
+    }
+
+    @Override
+    public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+      shape.add(Opcodes.MULTIANEWARRAY);
+    }
+
     @Override
     public void visitLocalVariable(
         String name,
         String lvDescriptor,
         String lvSignature,
-        org.objectweb.asm.Label start,
-        org.objectweb.asm.Label end,
+        Label start,
+        Label end,
         int index) {
       if (hasMethodParameters) {
         return; // MethodParameters takes priority
@@ -198,7 +293,21 @@ final class MethodMetadataCollector extends ClassVisitor {
       String[] names = allNull && parameterNames.length > 0 ? null : parameterNames;
       var errors = onErrors.isEmpty() ? null : onErrors.toArray(new MethodMetadata.OnErrorEntry[0]);
       metadata.put(
-          key(name, descriptor), new MethodMetadata(names, redacted, narratedTemplate, errors));
+          key(name, descriptor),
+          new MethodMetadata(names, redacted, narratedTemplate, errors, isTrivial()));
+    }
+
+    private boolean isTrivial() {
+      if (!trivialMethods.skip() || traced || narratedTemplate != null || !onErrors.isEmpty()) {
+        return false;
+      }
+      var key = key(name, descriptor);
+      if ((access & Opcodes.ACC_STATIC) == 0
+          && (OBJECT_METHODS.contains(key) || recordAccessors.contains(key))) {
+        return true;
+      }
+      return shape.hasCode()
+          && (shape.isAccessor() || shape.isLeafWithin(trivialMethods.maxInstructions()));
     }
   }
 }
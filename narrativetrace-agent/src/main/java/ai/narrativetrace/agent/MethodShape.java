@@ -0,0 +1,71 @@
+package ai.narrativetrace.agent;
+
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Records the instructions of a method body to recognize bodies too trivial to trace: field
+ * getters and setters, constant returns, empty bodies and small leaf methods.
+ */
+final class MethodShape {
+
+  private static final int PREFIX_LENGTH = 5;
+
+  private final int[] prefix = new int[PREFIX_LENGTH];
+  private int instructions;
+  private boolean leaf = true;
+
+  /** Adds an instruction; method calls and {@code athrow} make the method a non-leaf. */
+  void add(int opcode) {
+    if (instructions < PREFIX_LENGTH) {
+      prefix[instructions] = opcode;
+    }
+    instructions++;
+    if (opcode == Opcodes.ATHROW
+        || opcode == Opcodes.INVOKEDYNAMIC
+        || (opcode >= Opcodes.INVOKEVIRTUAL && opcode <= Opcodes.INVOKEINTERFACE)) {
+      leaf = false;
+    }
+  }
+
+  /** Returns whether the method has a body; abstract and native methods have none. */
+  boolean hasCode() {
+    return instructions > 0;
+  }
+
+  /** Returns whether the body only reads or writes a field, returns a constant, or is empty. */
+  boolean isAccessor() {
+    return switch (instructions) {
+      case 1 -> prefix[0] == Opcodes.RETURN;
+      case 2 -> (isConstant(prefix[0]) || prefix[0] == Opcodes.GETSTATIC) && isReturn(prefix[1]);
+      case 3 ->
+          (prefix[0] == Opcodes.ALOAD && prefix[1] == Opcodes.GETFIELD && isReturn(prefix[2]))
+              || (isLoad(prefix[0])
+                  && prefix[1] == Opcodes.PUTSTATIC
+                  && prefix[2] == Opcodes.RETURN);
+      case 4 -> isSetter() && prefix[3] == Opcodes.RETURN;
+      case 5 -> isSetter() && prefix[3] == Opcodes.ALOAD && prefix[4] == Opcodes.ARETURN;
+      default -> false;
+    };
+  }
+
+  /** Returns whether the body calls nothing and has at most {@code max} instructions. */
+  boolean isLeafWithin(int max) {
+    return leaf && instructions <= max;
+  }
+
+  private boolean isSetter() {
+    return prefix[0] == Opcodes.ALOAD && isLoad(prefix[1]) && prefix[2] == Opcodes.PUTFIELD;
+  }
+
+  private static boolean isConstant(int opcode) {
+    return (opcode >= Opcodes.ACONST_NULL && opcode <= Opcodes.SIPUSH) || opcode == Opcodes.LDC;
+  }
+
+  private static boolean isLoad(int opcode) {
+    return opcode >= Opcodes.ILOAD && opcode <= Opcodes.ALOAD;
+  }
+
+  private static boolean isReturn(int opcode) {
+    return opcode >= Opcodes.IRETURN && opcode <= Opcodes.ARETURN;
+  }
+}
@@ -2,13 +2,28 @@ package ai.narrativetrace.agent;
 
 import java.lang.instrument.ClassFileTransformer;
 import java.security.ProtectionDomain;
+import java.util.function.Supplier;
 
 /** ClassFileTransformer that selects classes for trace instrumentation based on package filters. */
 public final class NarrativeClassFileTransformer implements ClassFileTransformer {
 
-  private final AgentConfig config;
+  private final Supplier<AgentConfig> config;
+  private volatile Selection selection;
+
+  /** A config and its compiled patterns, recompiled only when the config changes. */
+  private record Selection(AgentConfig config, ClassNameMatcher matcher) {}
 
   public NarrativeClassFileTransformer(AgentConfig config) {
+    this(() -> config);
+  }
+
+  /**
+   * Creates a transformer that reads the config on every class, so package changes apply to
+   * classes loaded or retransformed afterwards.
+   *
+   * @param config supplies the current config
+   */
+  public NarrativeClassFileTransformer(Supplier<AgentConfig> config) {
     this.config = config;
   }
 
@@ -19,10 +34,21 @@ public final class NarrativeClassFileTransformer implements ClassFileTransformer
       Class<?> classBeingRedefined,
       ProtectionDomain protectionDomain,
       byte[] classfileBuffer) {
-    if (className == null || !config.shouldTransform(className)) {
-      return null; // no transformation
+    var current = config.get();
+    var selected = selection;
+    if (selected == null || selected.config() != current) {
+      selected = new Selection(current, current.matcher());
+      selection = selected;
+    }
+    if (className == null || !selected.matcher().matches(className)) {
+      return null; // no transformation; on retransformation this restores the original bytecode
     }
 
-    return ClassTransformer.transform(classfileBuffer, className);
+    if (current.cacheDirectory() != null) {
+      return new TransformCache(current.cacheDirectory())
+          .transform(classfileBuffer, className, current);
+    }
+    return ClassTransformer.transform(
+        classfileBuffer, className, current.mode(), current.trivial());
   }
 }
@@ -5,17 +5,42 @@ import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 
-/** ASM ClassVisitor that delegates to {@link NarrativeMethodVisitor} for eligible methods. */
+/**
+ * ASM ClassVisitor that delegates to {@link NarrativeMethodVisitor} for eligible methods, leaving
+ * constructors and trivial methods uninstrumented.
+ */
 public final class NarrativeClassVisitor extends ClassVisitor {
 
   private final String className;
   private final Map<String, MethodMetadata> metadata;
+  private final AgentConfig.Mode mode;
+  private boolean invokeDynamic;
+  private boolean constantDynamic;
 
   public NarrativeClassVisitor(
-      ClassVisitor cv, String className, Map<String, MethodMetadata> metadata) {
+      ClassVisitor cv,
+      String className,
+      Map<String, MethodMetadata> metadata,
+      AgentConfig.Mode mode) {
     super(Opcodes.ASM9, cv);
     this.className = className;
     this.metadata = metadata;
+    this.mode = mode;
+  }
+
+  @Override
+  public void visit(
+      int version,
+      int access,
+      String name,
+      String signature,
+      String superName,
+      String[] interfaces) {
+    // Class files before Java 7 cannot contain invokedynamic; they call AgentRuntime directly.
+    invokeDynamic = (version & 0xFFFF) >= Opcodes.V1_7;
+    // From Java 11 methods register when their class links, so the bytecode is JVM-independent.
+    constantDynamic = (version & 0xFFFF) >= Opcodes.V11;
+    super.visit(version, access, name, signature, superName, interfaces);
   }
 
   @Override
@@ -26,6 +51,18 @@ public final class NarrativeClassVisitor extends ClassVisitor {
       return mv;
     }
     var methodMetadata = metadata.get(MethodMetadataCollector.key(name, descriptor));
-    return new NarrativeMethodVisitor(mv, access, name, descriptor, className, methodMetadata);
+    if (methodMetadata != null && methodMetadata.trivial()) {
+      return mv;
+    }
+    return new NarrativeMethodVisitor(
+        mv,
+        access,
+        name,
+        descriptor,
+        className,
+        methodMetadata,
+        invokeDynamic,
+        constantDynamic,
+        mode == AgentConfig.Mode.ERRORS);
   }
 }
@@ -3,16 +3,21 @@ package ai.narrativetrace.agent;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
 import org.objectweb.asm.commons.AdviceAdapter;
 
 /**
  * ASM AdviceAdapter that injects trace capture calls with try-catch-rethrow for exception tracking.
+ *
+ * <p>In {@linkplain AgentConfig.Mode#ERRORS errors-only} mode nothing is injected on the success
+ * path: only the catch handler is installed, and it reports the failed call with the parameter
+ * locals as they are when the exception passes through.
  */
 public final class NarrativeMethodVisitor extends AdviceAdapter {
 
-  private final String methodName;
-  private final String className;
   private final MethodMetadata metadata;
+  private final Object methodId;
+  private final boolean errorsOnly;
   private final Label tryStart = new Label();
   private final Label tryEnd = new Label();
   private final Label catchHandler = new Label();
@@ -26,37 +31,63 @@ public final class NarrativeMethodVisitor extends AdviceAdapter {
       String name,
       String descriptor,
       String className,
-      MethodMetadata metadata) {
+      MethodMetadata metadata,
+      boolean invokeDynamic,
+      boolean constantDynamic,
+      boolean errorsOnly) {
     super(Opcodes.ASM9, mv, access, name, descriptor);
-    this.methodName = name;
-    this.className = className.replace('/', '.');
     this.metadata = metadata;
-    this.paramCaptureBuilder = new ParamCaptureBuilder(mv);
-    this.errorHandlerBuilder = new ErrorHandlerBuilder(mv);
+    this.errorsOnly = errorsOnly;
+    this.methodId = methodId(className.replace('/', '.'), name, metadata, constantDynamic);
+    this.paramCaptureBuilder = new ParamCaptureBuilder(mv, invokeDynamic);
+    this.errorHandlerBuilder = new ErrorHandlerBuilder(mv, invokeDynamic);
+  }
+
+  /**
+   * Registers the method once, so each call passes only its id: when the class links the id's
+   * constant if the class file supports {@code ConstantDynamic}, otherwise now, at transform time.
+   */
+  private static Object methodId(
+      String className, String methodName, MethodMetadata metadata, boolean constantDynamic) {
+    var paramNames = new String[0];
+    var redacted = new boolean[0];
+    String narratedTemplate = null;
+    if (metadata != null && metadata.parameterNames() != null) {
+      paramNames = ParamCaptureBuilder.resolveParamNames(metadata.parameterNames());
+      redacted = metadata.redacted();
+      narratedTemplate = metadata.narratedTemplate();
+    }
+    if (constantDynamic) {
+      return BytecodeBuilder.registration(methodName, paramNames, redacted, narratedTemplate);
+    }
+    return AgentRuntime.register(className, methodName, paramNames, redacted, narratedTemplate);
   }
 
   @Override
   protected void onMethodEnter() {
-    if (metadata != null && metadata.parameterNames() != null) {
-      storedLocals =
-          paramCaptureBuilder.emit(
-              className, methodName, metadata, methodDesc, methodAccess, this::newLocal);
-    } else {
-      mv.visitLdcInsn(className);
-      mv.visitLdcInsn(methodName);
-      paramCaptureBuilder.callAgentRuntime(
-          "enterMethod", "(Ljava/lang/String;Ljava/lang/String;)V");
+    // Errors-only handlers read the parameters from their locals instead.
+    if (!errorsOnly) {
+      emitEnter();
     }
 
     mv.visitTryCatchBlock(tryStart, tryEnd, catchHandler, "java/lang/Throwable");
     mv.visitLabel(tryStart);
   }
 
+  private void emitEnter() {
+    if (metadata != null && metadata.parameterNames() != null) {
+      storedLocals =
+          paramCaptureBuilder.emit(methodId, metadata, methodDesc, methodAccess, this::newLocal);
+    } else {
+      paramCaptureBuilder.pushEnterMethodId(methodId);
+      paramCaptureBuilder.callEnterMethod("()V", methodId);
+    }
+  }
+
   @Override
   protected void onMethodExit(int opcode) {
-    if (opcode != ATHROW) {
-      paramCaptureBuilder.boxReturnValue(opcode, methodDesc);
-      paramCaptureBuilder.callAgentRuntime("exitMethodWithReturn", "(Ljava/lang/Object;)V");
+    if (opcode != ATHROW && !errorsOnly) {
+      paramCaptureBuilder.emitReturnExit(opcode, methodDesc, methodId);
     }
   }
 
@@ -65,21 +96,34 @@ public final class NarrativeMethodVisitor extends AdviceAdapter {
     mv.visitLabel(tryEnd);
     mv.visitLabel(catchHandler);
 
-    if (hasOnErrors() && storedLocals != null) {
-      errorHandlerBuilder.emit(
-          metadata.onErrors(),
-          storedLocals.paramNames(),
-          storedLocals.paramValues(),
-          storedLocals.redacted());
+    if (errorsOnly) {
+      var onErrors = hasOnErrors() ? metadata.onErrors() : null;
+      errorHandlerBuilder.emitRecordFailure(
+          onErrors, methodId, capturedArgumentTypes(), slotOffset());
+    } else if (hasOnErrors() && storedLocals != null) {
+      errorHandlerBuilder.emit(metadata.onErrors(), methodId, storedLocals.paramValues());
     } else {
       mv.visitInsn(Opcodes.DUP);
-      errorHandlerBuilder.callAgentRuntime("exitMethodWithException", "(Ljava/lang/Throwable;)V");
+      errorHandlerBuilder.callAgent(
+          "exitMethodWithException", "(Ljava/lang/Throwable;)V", methodId);
     }
     mv.visitInsn(Opcodes.ATHROW);
 
     super.visitMaxs(maxStack, maxLocals);
   }
 
+  /** The argument types the registered descriptor has names for; none without metadata. */
+  private Type[] capturedArgumentTypes() {
+    if (metadata == null || metadata.parameterNames() == null) {
+      return new Type[0];
+    }
+    return Type.getArgumentTypes(methodDesc);
+  }
+
+  private int slotOffset() {
+    return (methodAccess & Opcodes.ACC_STATIC) != 0 ? 0 : 1;
+  }
+
   private boolean hasOnErrors() {
     return metadata != null && metadata.onErrors() != null;
   }
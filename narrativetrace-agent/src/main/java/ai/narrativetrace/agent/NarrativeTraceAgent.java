@@ -2,15 +2,55 @@ package ai.narrativetrace.agent;
 
 import java.lang.instrument.Instrumentation;
 
-/** Java agent entry point ({@code premain}) that registers the class file transformer. */
+/**
+ * Java agent entry points: {@code premain} for {@code -javaagent} and {@code agentmain} for
+ * attaching to a running JVM. Both register the class file transformer; {@link #control()}
+ * changes the instrumented packages afterwards.
+ */
 public final class NarrativeTraceAgent {
 
+  private static volatile AgentControl control;
+
   private NarrativeTraceAgent() {}
 
   public static void premain(String agentArgs, Instrumentation inst) {
     var config = AgentConfig.parse(agentArgs);
     if (inst != null) {
-      inst.addTransformer(new NarrativeClassFileTransformer(config));
+      control = AgentControl.install(config, inst);
+    }
+  }
+
+  /**
+   * Attaches the agent to a running JVM, instrumenting already-loaded classes in the configured
+   * packages and registering the {@link AgentControlMBean}. Attaching again applies the new
+   * arguments to the installed agent instead of installing a second transformer.
+   *
+   * @param agentArgs the same arguments {@code -javaagent} accepts
+   * @param inst the JVM's instrumentation
+   */
+  public static synchronized void agentmain(String agentArgs, Instrumentation inst) {
+    var config = AgentConfig.parse(agentArgs);
+    var current = control;
+    if (current == null) {
+      current = AgentControl.install(config, inst);
+      control = current;
+    } else {
+      current.apply(config);
+    }
+    current.registerMBean();
+  }
+
+  /**
+   * Returns the control of the installed agent.
+   *
+   * @return the agent control
+   * @throws IllegalStateException if the agent was not loaded
+   */
+  public static AgentControl control() {
+    var current = control;
+    if (current == null) {
+      throw new IllegalStateException("NarrativeTrace agent is not installed");
     }
+    return current;
   }
 }
@@ -0,0 +1,42 @@
+package ai.narrativetrace.agent;
+
+/**
+ * Instruments class files at build time, so an application runs traced without {@code -javaagent}
+ * and without weaving classes while it starts.
+ *
+ * <p>Woven classes are the same classes the agent would produce for the given config, and need
+ * only this module and {@code narrativetrace-core} on the runtime classpath. Only class files of
+ * Java 11 and later can be woven ahead of time: older class files embed method ids that are only
+ * valid in the JVM that transformed them.
+ */
+public final class OfflineWeaver {
+
+  private final AgentConfig config;
+  private final ClassNameMatcher matcher;
+
+  public OfflineWeaver(AgentConfig config) {
+    this.config = config;
+    this.matcher = config.matcher();
+  }
+
+  /**
+   * Weaves a class file if its class is in one of the configured packages.
+   *
+   * @param classfileBuffer the compiled class file
+   * @param className the internal class name, e.g. {@code com/example/OrderService}
+   * @return the woven class file, or {@code classfileBuffer} for classes outside the packages
+   * @throws IllegalArgumentException if the class is selected but compiled for Java 10 or earlier
+   */
+  public byte[] weave(byte[] classfileBuffer, String className) {
+    if (!matcher.matches(className)) {
+      return classfileBuffer;
+    }
+    if (!ClassTransformer.isPortable(classfileBuffer)) {
+      throw new IllegalArgumentException(
+          "Cannot weave "
+              + className
+              + " ahead of time: class files before Java 11 are unsupported");
+    }
+    return ClassTransformer.transform(classfileBuffer, className, config.mode(), config.trivial());
+  }
+}
@@ -0,0 +1,81 @@
+package ai.narrativetrace.agent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * The {@code @OnError} templates of one instrumented method with their exception types resolved,
+ * ordered most specific type first, so the first entry the exception is an instance of wins.
+ */
+final class OnErrorTable {
+
+  private final Class<?>[] types;
+  private final String[] templates;
+
+  private OnErrorTable(Class<?>[] types, String[] templates) {
+    this.types = types;
+    this.templates = templates;
+  }
+
+  /**
+   * Resolves each entry's exception type once. Entries whose type cannot be loaded never match.
+   *
+   * @param templates the {@code @OnError} templates, in declaration order
+   * @param exceptionDescriptors matching type descriptors, e.g. {@code Ljava/io/IOException;}
+   * @param loader the loader of the instrumented class
+   */
+  static OnErrorTable resolve(
+      String[] templates, String[] exceptionDescriptors, ClassLoader loader) {
+    var entries = new ArrayList<Entry>(templates.length);
+    for (int i = 0; i < templates.length; i++) {
+      var type = descriptorToClass(exceptionDescriptors[i], loader);
+      if (type != null) {
+        entries.add(new Entry(type, templates[i]));
+      }
+    }
+    // Throwables form a single-inheritance chain, so among matching types the deepest is the
+    // most specific. The sort is stable: declaration order breaks ties.
+    entries.sort(Comparator.comparingInt((Entry entry) -> depth(entry.type())).reversed());
+    return new OnErrorTable(
+        entries.stream().map(Entry::type).toArray(Class<?>[]::new),
+        entries.stream().map(Entry::template).toArray(String[]::new));
+  }
+
+  /**
+   * Returns the template for the most specific type {@code exception} is an instance of.
+   *
+   * @param exception the thrown exception
+   * @return the template, or {@code null} if no entry matches
+   */
+  String match(Throwable exception) {
+    for (int i = 0; i < types.length; i++) {
+      if (types[i].isInstance(exception)) {
+        return templates[i];
+      }
+    }
+    return null;
+  }
+
+  private static int depth(Class<?> type) {
+    int depth = 0;
+    for (var current = type.getSuperclass(); current != null; current = current.getSuperclass()) {
+      depth++;
+    }
+    return depth;
+  }
+
+  private static Class<?> descriptorToClass(String descriptor, ClassLoader loader) {
+    // Convert "Ljava/lang/IllegalArgumentException;" to "java.lang.IllegalArgumentException"
+    if (descriptor.startsWith("L") && descriptor.endsWith(";")) {
+      var className = descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+      try {
+        return Class.forName(className, false, loader);
+      } catch (ClassNotFoundException | LinkageError e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  private record Entry(Class<?> type, String template) {}
+}
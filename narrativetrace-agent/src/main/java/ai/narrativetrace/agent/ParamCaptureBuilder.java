@@ -1,5 +1,6 @@
 package ai.narrativetrace.agent;
 
+import java.util.Map;
 import java.util.function.Function;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
@@ -7,54 +8,70 @@ import org.objectweb.asm.Type;
 
 final class ParamCaptureBuilder extends BytecodeBuilder {
 
-  ParamCaptureBuilder(MethodVisitor mv) {
-    super(mv);
+  ParamCaptureBuilder(MethodVisitor mv, boolean invokeDynamic) {
+    super(mv, invokeDynamic);
   }
 
-  record StoredLocals(int paramNames, int paramValues, int redacted) {}
+  private static final int MAX_SPECIALIZED_ARITY = 3;
+
+  // byte and short render like int; boolean, char and float keep their boxed rendering.
+  private static final Map<Integer, String> UNBOXED_DESCRIPTORS =
+      Map.of(
+          Type.BYTE, "(I)V",
+          Type.SHORT, "(I)V",
+          Type.INT, "(I)V",
+          Type.LONG, "(J)V",
+          Type.DOUBLE, "(D)V");
+
+  record StoredLocals(int paramValues) {}
 
   StoredLocals emit(
-      String className,
-      String methodName,
+      Object methodId,
       MethodMetadata metadata,
       String methodDesc,
       int methodAccess,
       Function<Type, Integer> localAllocator) {
-    var paramNames = metadata.parameterNames();
-    var redacted = metadata.redacted();
     var argTypes = Type.getArgumentTypes(methodDesc);
     boolean isStatic = (methodAccess & Opcodes.ACC_STATIC) != 0;
     int slotOffset = isStatic ? 0 : 1;
     boolean storeForOnError = metadata.onErrors() != null;
 
-    mv.visitLdcInsn(className);
-    mv.visitLdcInsn(methodName);
-
-    emitStringArray(resolveParamNames(paramNames));
-    int paramNamesLocal =
-        storeLocalIfNeeded(storeForOnError, "[Ljava/lang/String;", localAllocator);
-
+    pushEnterMethodId(methodId);
+    if (!storeForOnError && argTypes.length <= MAX_SPECIALIZED_ARITY) {
+      emitSpecializedEnter(argTypes, slotOffset, methodId);
+      return new StoredLocals(-1);
+    }
     emitBoxedValueArray(argTypes, slotOffset);
     int paramValuesLocal =
         storeLocalIfNeeded(storeForOnError, "[Ljava/lang/Object;", localAllocator);
 
-    emitBooleanArray(redacted);
-    int redactedLocal = storeLocalIfNeeded(storeForOnError, "[Z", localAllocator);
+    callEnterMethod("([Ljava/lang/Object;)V", methodId);
 
-    if (metadata.narratedTemplate() != null) {
-      mv.visitLdcInsn(metadata.narratedTemplate());
-    } else {
-      mv.visitInsn(Opcodes.ACONST_NULL);
-    }
-
-    callAgentRuntime(
-        "enterMethod",
-        "(Ljava/lang/String;Ljava/lang/String;[Ljava/lang/String;[Ljava/lang/Object;[ZLjava/lang/String;)V");
+    return new StoredLocals(paramValuesLocal);
+  }
 
-    return new StoredLocals(paramNamesLocal, paramValuesLocal, redactedLocal);
+  /**
+   * Calls the {@code enterMethod} overload matching the arguments, passing them on the operand
+   * stack instead of in a freshly allocated array. A single int-like, long or double argument is
+   * passed unboxed.
+   */
+  private void emitSpecializedEnter(Type[] argTypes, int slotOffset, Object methodId) {
+    if (argTypes.length == 1 && UNBOXED_DESCRIPTORS.containsKey(argTypes[0].getSort())) {
+      mv.visitVarInsn(argTypes[0].getOpcode(Opcodes.ILOAD), slotOffset);
+      callEnterMethod(UNBOXED_DESCRIPTORS.get(argTypes[0].getSort()), methodId);
+      return;
+    }
+    var descriptor = new StringBuilder("(");
+    int slot = slotOffset;
+    for (var argType : argTypes) {
+      loadAndBox(argType, slot);
+      slot += argType.getSize();
+      descriptor.append("Ljava/lang/Object;");
+    }
+    callEnterMethod(descriptor.append(")V").toString(), methodId);
   }
 
-  private static String[] resolveParamNames(String[] paramNames) {
+  static String[] resolveParamNames(String[] paramNames) {
     var resolved = new String[paramNames.length];
     for (int i = 0; i < paramNames.length; i++) {
       resolved[i] = paramNames[i] != null ? paramNames[i] : "arg" + i;
@@ -0,0 +1,127 @@
+package ai.narrativetrace.agent;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import org.objectweb.asm.ClassWriter;
+
+/**
+ * On-disk cache of transformed class files, so a restarted JVM loads instrumented classes without
+ * weaving them again.
+ *
+ * <p>Entries are keyed by a SHA-256 hash of the original class bytes, the class name, the settings
+ * that shape the instrumentation, and the agent and ASM builds, so a changed class, config or agent
+ * never reuses a stale entry. Only class files of Java 11 and later are cached: their methods
+ * register when the class links, whereas older class files embed ids assigned by the JVM that
+ * transformed them. Entries are replaced atomically; an entry that cannot be read or written is
+ * transformed as if there were no cache.
+ */
+final class TransformCache {
+
+  private static final HexFormat HEX = HexFormat.of();
+  private static final String AGENT_FINGERPRINT = agentFingerprint();
+
+  private final Path directory;
+
+  TransformCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /** Transforms a class, or returns the bytes an earlier transformation stored. */
+  byte[] transform(byte[] classfileBuffer, String className, AgentConfig config) {
+    if (!ClassTransformer.isPortable(classfileBuffer)) {
+      return weave(classfileBuffer, className, config);
+    }
+    var entry = entry(key(classfileBuffer, className, config));
+    var cached = read(entry);
+    if (cached != null) {
+      return cached;
+    }
+    var transformed = weave(classfileBuffer, className, config);
+    write(entry, transformed);
+    return transformed;
+  }
+
+  private static byte[] weave(byte[] classfileBuffer, String className, AgentConfig config) {
+    return ClassTransformer.transform(classfileBuffer, className, config.mode(), config.trivial());
+  }
+
+  Path entry(String key) {
+    return directory.resolve(key.substring(0, 2)).resolve(key + ".class");
+  }
+
+  static String key(byte[] classfileBuffer, String className, AgentConfig config) {
+    var digest = sha256();
+    var settings = AGENT_FINGERPRINT + '\n' + config.mode() + '\n' + config.trivial();
+    digest.update((settings + '\n' + className + '\n').getBytes(StandardCharsets.UTF_8));
+    digest.update(classfileBuffer);
+    return HEX.formatHex(digest.digest());
+  }
+
+  private static byte[] read(Path entry) {
+    try {
+      return Files.readAllBytes(entry);
+    } catch (IOException e) {
+      return null; // not cached yet, or unreadable
+    }
+  }
+
+  private static void write(Path entry, byte[] transformed) {
+    Path temp = null;
+    try {
+      Files.createDirectories(entry.getParent());
+      temp = Files.createTempFile(entry.getParent(), entry.getFileName().toString(), ".tmp");
+      Files.write(temp, transformed);
+      Files.move(
+          temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      // The cache is best effort; the class is transformed on the next start instead.
+      deleteQuietly(temp);
+    }
+  }
+
+  private static void deleteQuietly(Path path) {
+    if (path == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      // Left for the next cleanup of the cache directory.
+    }
+  }
+
+  /** Identifies the agent jar and ASM build, which together determine the transformed bytes. */
+  private static String agentFingerprint() {
+    var fingerprint = new StringBuilder("asm ");
+    fingerprint.append(ClassWriter.class.getPackage().getImplementationVersion());
+    var codeSource = TransformCache.class.getProtectionDomain().getCodeSource();
+    if (codeSource == null) {
+      return fingerprint.toString();
+    }
+    try {
+      var location = Path.of(codeSource.getLocation().toURI());
+      if (Files.isRegularFile(location)) {
+        var jar = Files.readAllBytes(location);
+        fingerprint.append(" agent ").append(HEX.formatHex(sha256().digest(jar)));
+      }
+    } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+      // Not loaded from a local jar; the ASM version alone identifies the build.
+    }
+    return fingerprint.toString();
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+    }
+  }
+}
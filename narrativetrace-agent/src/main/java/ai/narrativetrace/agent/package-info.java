@@ -2,9 +2,18 @@
  * Java agent for bytecode-level trace instrumentation via ASM.
  *
  * <p>{@link ai.narrativetrace.agent.NarrativeTraceAgent} is the agent entry point ({@code
- * premain}). {@link ai.narrativetrace.agent.NarrativeClassFileTransformer} selects classes for
- * instrumentation based on package filters. {@link ai.narrativetrace.agent.NarrativeMethodVisitor}
- * injects trace capture calls using ASM's {@code AdviceAdapter} with try-catch-rethrow for
- * exception tracking. Requires ASM 9.7+.
+ * premain} and {@code agentmain}); {@link ai.narrativetrace.agent.AgentControl} changes the
+ * instrumented packages at runtime. {@link ai.narrativetrace.agent.NarrativeClassFileTransformer}
+ * selects classes for instrumentation with a {@link ai.narrativetrace.agent.ClassNameMatcher},
+ * which compiles include and exclude patterns into a trie. {@link
+ * ai.narrativetrace.agent.NarrativeMethodVisitor} injects trace capture calls using ASM's {@code
+ * AdviceAdapter} with try-catch-rethrow for exception tracking. Injected calls go through {@code
+ * invokedynamic} sites linked by {@link ai.narrativetrace.agent.AgentBootstrap}, which become
+ * no-ops while tracing is off. In {@link ai.narrativetrace.agent.AgentConfig.Mode#ERRORS} mode only
+ * the exception handler is injected. {@link ai.narrativetrace.agent.MethodMetadataCollector}
+ * classifies trivial methods, such as accessors, which are left uninstrumented. {@link
+ * ai.narrativetrace.agent.TransformCache} keeps transformed classes on disk across restarts, and
+ * {@link ai.narrativetrace.agent.OfflineWeaver} instruments class files at build time for
+ * deployments without the agent. Requires ASM 9.7+.
  */
 package ai.narrativetrace.agent;
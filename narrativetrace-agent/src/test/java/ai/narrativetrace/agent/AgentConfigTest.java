@@ -20,6 +20,14 @@ class AgentConfigTest {
     assertThat(config.shouldTransform("org/other/Class")).isFalse();
   }
 
+  @Test
+  void compilesPackageFilterOncePerConfig() {
+    var config = AgentConfig.parse("packages=com.example");
+
+    assertThat(config.matcher()).isSameAs(config.matcher());
+    assertThat(AgentConfig.parse("packages=org.acme").matcher()).isNotSameAs(config.matcher());
+  }
+
   @Test
   void emptyPackagesTransformsNothing() {
     var config = AgentConfig.parse("");
@@ -90,17 +98,135 @@ class AgentConfigTest {
     assertThat(config.shouldTransform("com/examplefoo/Service")).isFalse();
   }
 
+  @Test
+  void excludedPackagesOverrideIncludedOnes() {
+    var config =
+        AgentConfig.parse("packages=com.example,exclude=com.example.generated;com.example.*Dto");
+
+    assertThat(config.shouldTransform("com/example/Service")).isTrue();
+    assertThat(config.shouldTransform("com/example/generated/Mapper")).isFalse();
+    assertThat(config.shouldTransform("com/example/OrderDto")).isFalse();
+    assertThat(config.shouldTransform("com/example/app/OrderDto")).isTrue();
+    assertThat(config.withPackage("org.acme").excludes()).isEqualTo(config.excludes());
+  }
+
+  @Test
+  void classNameGlobsSelectClassesOfOnePackage() {
+    var config = AgentConfig.parse("packages=com.example.*Service");
+
+    assertThat(config.packages()).containsExactly("com/example/*Service");
+    assertThat(config.shouldTransform("com/example/OrderService")).isTrue();
+    assertThat(config.shouldTransform("com/example/OrderRepository")).isFalse();
+    assertThat(config.shouldTransform("com/example/app/OrderService")).isFalse();
+    assertThat(AgentConfig.displayPackage("com/example/*Service"))
+        .isEqualTo("com.example.*Service");
+  }
+
+  @Test
+  void rejectsWildcardsBeforeTheLastSegment() {
+    assertThatThrownBy(() -> AgentConfig.parse("packages=com.*.service"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Wildcards are only supported in the last segment: com.*.service");
+  }
+
+  @Test
+  void defaultsToTraceMode() {
+    assertThat(AgentConfig.parse("packages=com.example").mode())
+        .isEqualTo(AgentConfig.Mode.TRACE);
+  }
+
+  @Test
+  void parsesErrorsMode() {
+    var config = AgentConfig.parse("packages=com.example,mode=errors");
+
+    assertThat(config.mode()).isEqualTo(AgentConfig.Mode.ERRORS);
+  }
+
+  @Test
+  void rejectsUnknownMode() {
+    assertThatThrownBy(() -> AgentConfig.parse("packages=com.example,mode=sometimes"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Invalid agent mode: sometimes");
+  }
+
+  @Test
+  void skipsAccessorsButNoOtherSmallMethodsByDefault() {
+    assertThat(AgentConfig.parse("packages=com.example").trivial())
+        .isEqualTo(AgentConfig.TrivialMethods.DEFAULT);
+  }
+
+  @Test
+  void parsesTrivialMethodSettings() {
+    var config = AgentConfig.parse("packages=com.example,trivialInstructions=8");
+
+    assertThat(config.trivial()).isEqualTo(new AgentConfig.TrivialMethods(true, 8));
+    assertThat(AgentConfig.parse("packages=com.example,trivial=trace").trivial().skip()).isFalse();
+    assertThat(config.withPackage("org.acme").trivial()).isEqualTo(config.trivial());
+  }
+
+  @Test
+  void rejectsInvalidTrivialMethodSettings() {
+    assertThatThrownBy(() -> AgentConfig.parse("packages=com.example,trivial=sometimes"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Invalid trivial setting: sometimes");
+    assertThatThrownBy(() -> AgentConfig.parse("packages=com.example,trivialInstructions=few"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Invalid trivial instruction count: few");
+    assertThatThrownBy(() -> AgentConfig.parse("packages=com.example,trivialInstructions=-1"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void parsesCacheDirectory() {
+    var config = AgentConfig.parse("packages=com.example,cache=build/narrativetrace-cache");
+
+    assertThat(config.cacheDirectory()).isEqualTo(Path.of("build/narrativetrace-cache"));
+    assertThat(config.withPackage("org.acme").cacheDirectory()).isEqualTo(config.cacheDirectory());
+    assertThat(AgentConfig.parse("packages=com.example").cacheDirectory()).isNull();
+  }
+
+  @Test
+  void addsAndRemovesPackagesKeepingMode() {
+    var config = AgentConfig.parse("packages=com.example,mode=errors");
+
+    var extended = config.withPackage("org.acme.*");
+    var reduced = extended.withoutPackage("com.example");
+
+    assertThat(extended.withPackage("org.acme")).isSameAs(extended);
+    assertThat(extended.shouldTransform("org/acme/Billing")).isTrue();
+    assertThat(reduced.shouldTransform("com/example/Service")).isFalse();
+    assertThat(reduced.shouldTransform("org/acme/Billing")).isTrue();
+    assertThat(reduced.mode()).isEqualTo(AgentConfig.Mode.ERRORS);
+    assertThatThrownBy(() -> config.withPackage(" "))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void readsModeFromConfigResolver(@org.junit.jupiter.api.io.TempDir Path tempDir)
+      throws Exception {
+    Files.writeString(
+        tempDir.resolve("narrativetrace.properties"),
+        "narrativetrace.packages=com.example.app\nnarrativetrace.mode=ERRORS\n");
+    var classLoader = new URLClassLoader(new URL[] {tempDir.toUri().toURL()}, null);
+
+    assertThat(AgentConfig.parse(null, classLoader).mode()).isEqualTo(AgentConfig.Mode.ERRORS);
+  }
+
   @Test
   void fallsBackToConfigResolverWhenNoCliArgs(@org.junit.jupiter.api.io.TempDir Path tempDir)
       throws Exception {
     Files.writeString(
         tempDir.resolve("narrativetrace.properties"),
-        "narrativetrace.packages=com.example.app;com.example.shared\n");
+        "narrativetrace.packages=com.example.app;com.example.shared\n"
+            + "narrativetrace.exclude=com.example.shared.internal\n"
+            + "narrativetrace.trivialInstructions=6\n");
     var classLoader = new URLClassLoader(new URL[] {tempDir.toUri().toURL()}, null);
     var config = AgentConfig.parse(null, classLoader);
 
     assertThat(config.shouldTransform("com/example/app/Service")).isTrue();
     assertThat(config.shouldTransform("com/example/shared/Util")).isTrue();
+    assertThat(config.shouldTransform("com/example/shared/internal/Cache")).isFalse();
     assertThat(config.shouldTransform("org/other/Foo")).isFalse();
+    assertThat(config.trivial()).isEqualTo(new AgentConfig.TrivialMethods(true, 6));
   }
 }
@@ -0,0 +1,107 @@
+package ai.narrativetrace.agent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.narrativetrace.agent.sample.Calculator;
+import java.lang.instrument.ClassFileTransformer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class AgentControlTest {
+
+  private static final String CALCULATOR = "ai/narrativetrace/agent/sample/Calculator";
+
+  private final List<ClassFileTransformer> transformers = new ArrayList<>();
+  private final List<List<Class<?>>> retransformed = new ArrayList<>();
+  private int scans;
+
+  private final StubInstrumentation instrumentation =
+      new StubInstrumentation() {
+        @Override
+        public void addTransformer(ClassFileTransformer transformer) {
+          transformers.add(transformer);
+        }
+
+        @Override
+        public boolean isRetransformClassesSupported() {
+          return true;
+        }
+
+        @Override
+        public boolean isModifiableClass(Class<?> theClass) {
+          return theClass != String.class;
+        }
+
+        @Override
+        public Class<?>[] getAllLoadedClasses() {
+          scans++;
+          return new Class<?>[] {String.class, Calculator.class, AgentConfig.class};
+        }
+
+        @Override
+        public void retransformClasses(Class<?>... classes) {
+          retransformed.add(List.of(classes));
+        }
+      };
+
+  @Test
+  void installInstrumentsMatchingLoadedClasses() {
+    var config = AgentConfig.parse("packages=ai.narrativetrace.agent.sample");
+
+    AgentControl.install(config, instrumentation);
+
+    assertThat(transformers).hasSize(1);
+    assertThat(retransformed).containsExactly(List.of(Calculator.class));
+  }
+
+  @Test
+  void installWithoutPackagesDoesNotScanLoadedClasses() {
+    var control = AgentControl.install(AgentConfig.parse("mode=errors"), instrumentation);
+
+    assertThat(scans).isZero();
+    assertThat(retransformed).isEmpty();
+
+    control.addPackage("ai.narrativetrace.agent.sample");
+
+    assertThat(retransformed).containsExactly(List.of(Calculator.class));
+  }
+
+  @Test
+  void addingAndRemovingPackagesRetransformsOnlyAffectedClasses() throws Exception {
+    var control = AgentControl.install(AgentConfig.parse("packages=com.example"), instrumentation);
+    assertThat(retransformed).isEmpty();
+
+    control.addPackage("ai.narrativetrace.agent.sample.*");
+    control.addPackage("ai.narrativetrace.agent.sample");
+
+    assertThat(retransformed).containsExactly(List.of(Calculator.class));
+    assertThat(control.getPackages())
+        .containsExactly("com.example", "ai.narrativetrace.agent.sample");
+    assertThat(transform(CALCULATOR)).isNotNull();
+
+    control.removePackage("ai.narrativetrace.agent.sample");
+
+    assertThat(retransformed).hasSize(2);
+    assertThat(control.packages()).containsExactly("com.example");
+    assertThat(transform(CALCULATOR)).isNull();
+  }
+
+  @Test
+  void changingModeRetransformsInstrumentedClasses() {
+    var config = AgentConfig.parse("packages=ai.narrativetrace.agent");
+    var control = AgentControl.install(config, instrumentation);
+    retransformed.clear();
+
+    control.apply(AgentConfig.parse("packages=ai.narrativetrace.agent,mode=errors"));
+
+    assertThat(retransformed).containsExactly(List.of(Calculator.class, AgentConfig.class));
+    assertThat(control.getMode()).isEqualTo("ERRORS");
+  }
+
+  private byte[] transform(String className) throws Exception {
+    var bytes =
+        getClass().getClassLoader().getResourceAsStream(className + ".class").readAllBytes();
+    return transformers.get(0).transform(null, className, Calculator.class, null, bytes);
+  }
+}
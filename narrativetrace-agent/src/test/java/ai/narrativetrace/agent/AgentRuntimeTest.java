@@ -4,7 +4,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import ai.narrativetrace.core.config.NarrativeTraceConfig;
 import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.context.ContextSnapshot;
+import ai.narrativetrace.core.context.NarrativeContext;
 import ai.narrativetrace.core.context.ThreadLocalNarrativeContext;
+import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.tree.DefaultTraceTree;
+import ai.narrativetrace.core.tree.TraceTree;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -26,7 +33,8 @@ class AgentRuntimeTest {
 
   @Test
   void enterMethodWithoutParameters() {
-    AgentRuntime.enterMethod("MyClass", "myMethod");
+    AgentRuntime.enterMethod(
+        AgentRuntime.register("MyClass", "myMethod", new String[0], new boolean[0], null));
     AgentRuntime.exitMethodWithReturn("result");
 
     var tree = context.captureTrace();
@@ -43,18 +51,23 @@ class AgentRuntimeTest {
     offContext.reset();
     AgentRuntime.setContext(offContext);
 
-    AgentRuntime.enterMethod(
-        "MyClass",
-        "myMethod",
-        new String[] {"x"},
-        new Object[] {"val"},
-        new boolean[] {false},
-        null);
+    AgentRuntime.enterMethod(registerMyMethod(null), new Object[] {"val"});
     AgentRuntime.exitMethodWithReturn("result");
 
     assertThat(offContext.captureTrace().roots()).isEmpty();
   }
 
+  @Test
+  void entryWithoutArgumentsSkipsInactiveContext() {
+    var inactive = new InactiveContext();
+    AgentRuntime.setContext(inactive);
+
+    AgentRuntime.enterMethod(
+        AgentRuntime.register("MyClass", "ping", new String[0], new boolean[0], null));
+
+    assertThat(inactive.entered).hasValue(0);
+  }
+
   @Test
   void skipsExitMethodWithReturnRenderingWhenContextIsNotActive() {
     var offConfig = new NarrativeTraceConfig(TracingLevel.OFF);
@@ -67,6 +80,160 @@ class AgentRuntimeTest {
     assertThat(offContext.captureTrace().roots()).isEmpty();
   }
 
+  @Test
+  void narrativeLevelSkipsRenderingParameterAndReturnValues() {
+    var narrativeContext =
+        new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.NARRATIVE));
+    narrativeContext.reset();
+    AgentRuntime.setContext(narrativeContext);
+    var renders = new AtomicInteger();
+    var value =
+        new Object() {
+          @Override
+          public String toString() {
+            renders.incrementAndGet();
+            return "value";
+          }
+        };
+
+    AgentRuntime.enterMethod(registerMyMethod(null), new Object[] {value});
+    AgentRuntime.exitMethodWithReturn(value);
+
+    var root = narrativeContext.captureTrace().roots().get(0);
+    assertThat(root.signature().parameters().get(0).name()).isEqualTo("x");
+    assertThat(root.signature().parameters().get(0).renderedValue()).isEmpty();
+    assertThat(renders.get()).isEqualTo(1); // the return value only
+  }
+
+  @Test
+  void errorsLevelSkipsRenderingReturnValue() {
+    var errorsContext =
+        new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.ERRORS));
+    errorsContext.reset();
+    AgentRuntime.setContext(errorsContext);
+    var renders = new AtomicInteger();
+    var value =
+        new Object() {
+          @Override
+          public String toString() {
+            renders.incrementAndGet();
+            return "value";
+          }
+        };
+
+    AgentRuntime.enterMethod(registerMyMethod(null), new Object[] {value});
+    AgentRuntime.exitMethodWithReturn(value);
+
+    assertThat(renders.get()).isZero();
+  }
+
+  @Test
+  void errorsLevelRendersParametersOnExceptionPath() {
+    var errorsContext =
+        new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.ERRORS));
+    errorsContext.reset();
+    AgentRuntime.setContext(errorsContext);
+
+    AgentRuntime.enterMethod(registerMyMethod("Processing {x}"), new Object[] {42});
+    AgentRuntime.exitMethodWithException(new IllegalStateException("boom"), null);
+
+    var root = errorsContext.captureTrace().roots().get(0);
+    assertThat(root.signature().parameters().get(0).renderedValue()).isEqualTo("42");
+    assertThat(root.signature().narration()).isEqualTo("Processing 42");
+  }
+
+  @Test
+  void registeringSameMethodTwiceSharesDescriptor() {
+    int first = registerMyMethod(null);
+    int second = registerMyMethod(null);
+
+    AgentRuntime.enterMethod(first, new Object[] {"a"});
+    AgentRuntime.exitMethodWithReturn(null);
+    AgentRuntime.enterMethod(second, new Object[] {"b"});
+    AgentRuntime.exitMethodWithReturn(null);
+
+    var roots = context.captureTrace().roots();
+    assertThat(roots.get(0).signature().descriptor())
+        .isSameAs(roots.get(1).signature().descriptor());
+    assertThat(roots.get(1).signature().parameters().get(0).renderedValue()).isEqualTo("\"b\"");
+  }
+
+  @Test
+  void reregisteringMethodReusesItsId() {
+    assertThat(registerMyMethod(null)).isEqualTo(registerMyMethod(null));
+    assertThat(registerMyMethod("Processing {x}")).isNotEqualTo(registerMyMethod(null));
+  }
+
+  @Test
+  void specializedEntryRendersPrimitiveAndRedactsFlaggedParameter() {
+    int id =
+        AgentRuntime.register(
+            "MyClass", "charge", new String[] {"cents"}, new boolean[] {true}, null);
+
+    AgentRuntime.enterMethod(registerMyMethod(null), 42L);
+    AgentRuntime.exitMethodWithReturn(null);
+    AgentRuntime.enterMethod(id, 1999);
+    AgentRuntime.exitMethodWithReturn(null);
+
+    var roots = context.captureTrace().roots();
+    assertThat(roots.get(0).signature().parameters().get(0).renderedValue()).isEqualTo("42");
+    assertThat(roots.get(1).signature().parameters().get(0).renderedValue())
+        .isEqualTo("[REDACTED]");
+  }
+
+  @Test
+  void specializedEntryKeepsArgumentsForExceptionPathAtErrorsLevel() {
+    var errorsContext =
+        new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.ERRORS));
+    errorsContext.reset();
+    AgentRuntime.setContext(errorsContext);
+
+    AgentRuntime.enterMethod(registerMyMethod("Processing {x}"), 7);
+    AgentRuntime.exitMethodWithException(new IllegalStateException("boom"), null);
+
+    var root = errorsContext.captureTrace().roots().get(0);
+    assertThat(root.signature().parameters().get(0).renderedValue()).isEqualTo("7");
+    assertThat(root.signature().narration()).isEqualTo("Processing 7");
+  }
+
+  @Test
+  void specializedEntryAtNarrativeLevelRendersNoValues() {
+    var narrativeContext =
+        new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.NARRATIVE));
+    narrativeContext.reset();
+    AgentRuntime.setContext(narrativeContext);
+    var renders = new AtomicInteger();
+    var value =
+        new Object() {
+          @Override
+          public String toString() {
+            renders.incrementAndGet();
+            return "value";
+          }
+        };
+    int id =
+        AgentRuntime.register("MyClass", "pair", new String[] {"a", "b"}, new boolean[2], null);
+
+    AgentRuntime.enterMethod(id, value, value);
+    AgentRuntime.exitMethodWithReturn(null);
+
+    assertThat(narrativeContext.captureTrace().roots()).hasSize(1);
+    assertThat(renders).hasValue(0);
+  }
+
+  @Test
+  void resolveErrorContextUsesRegisteredParameterNames() {
+    var result =
+        AgentRuntime.resolveErrorContext(
+            new IllegalArgumentException("boom"),
+            new String[] {"Error for {x}"},
+            new String[] {"Ljava/lang/IllegalArgumentException;"},
+            registerMyMethod(null),
+            new Object[] {42});
+
+    assertThat(result).isEqualTo("Error for 42");
+  }
+
   @Test
   void resolveErrorContextReturnsNullForNonMatchingException() {
     var result =
@@ -74,9 +241,8 @@ class AgentRuntimeTest {
             new RuntimeException("boom"),
             new String[] {"Error for {x}"},
             new String[] {"Ljava/lang/IllegalArgumentException;"},
-            new String[] {"x"},
-            new Object[] {"val"},
-            new boolean[] {false});
+            registerMyMethod(null),
+            new Object[] {"val"});
 
     assertThat(result).isNull();
   }
@@ -88,9 +254,8 @@ class AgentRuntimeTest {
             new RuntimeException("boom"),
             new String[] {"Error"},
             new String[] {"InvalidDescriptor"},
-            new String[] {"x"},
-            new Object[] {"val"},
-            new boolean[] {false});
+            registerMyMethod(null),
+            new Object[] {"val"});
 
     assertThat(result).isNull();
   }
@@ -102,10 +267,48 @@ class AgentRuntimeTest {
             new RuntimeException("boom"),
             new String[] {"Error for {x}"},
             new String[] {"Lcom/nonexistent/FakeException;"},
-            new String[] {"x"},
-            new Object[] {"val"},
-            new boolean[] {false});
+            registerMyMethod(null),
+            new Object[] {"val"});
 
     assertThat(result).isNull();
   }
+
+  private static int registerMyMethod(String narratedTemplate) {
+    return AgentRuntime.register(
+        "MyClass", "myMethod", new String[] {"x"}, new boolean[] {false}, narratedTemplate);
+  }
+
+  /** Reports itself inactive and counts the calls it is asked to record anyway. */
+  private static final class InactiveContext implements NarrativeContext {
+    final AtomicInteger entered = new AtomicInteger();
+
+    @Override
+    public boolean isActive() {
+      return false;
+    }
+
+    @Override
+    public void enterMethod(MethodSignature signature) {
+      entered.incrementAndGet();
+    }
+
+    @Override
+    public void exitMethodWithReturn(String renderedReturnValue) {}
+
+    @Override
+    public void exitMethodWithException(Throwable exception, String errorContext) {}
+
+    @Override
+    public TraceTree captureTrace() {
+      return new DefaultTraceTree(List.of());
+    }
+
+    @Override
+    public void reset() {}
+
+    @Override
+    public ContextSnapshot snapshot() {
+      return () -> () -> {};
+    }
+  }
 }
@@ -0,0 +1,57 @@
+package ai.narrativetrace.agent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ClassNameMatcherTest {
+
+  @Test
+  void mostSpecificPatternDecides() {
+    var matcher =
+        ClassNameMatcher.compile(
+            List.of("com/example/", "com/example/internal/api/"),
+            List.of("com/example/internal/"));
+
+    assertThat(matcher.matches("com/example/Service")).isTrue();
+    assertThat(matcher.matches("com/example/internal/Cache")).isFalse();
+    assertThat(matcher.matches("com/example/internal/api/Endpoint")).isTrue();
+    assertThat(matcher.matches("com/examples/Service")).isFalse();
+    assertThat(matcher.matches("com/exa")).isFalse();
+  }
+
+  @Test
+  void excludeWinsOverAnEquallySpecificInclude() {
+    var matcher =
+        ClassNameMatcher.compile(
+            List.of("com/example/", "com/example/*Service"),
+            List.of("com/example/", "com/example/Legacy*"));
+
+    assertThat(matcher.matches("com/example/Repository")).isFalse();
+    assertThat(matcher.matches("com/example/OrderService")).isTrue();
+    assertThat(matcher.matches("com/example/LegacyService")).isFalse();
+  }
+
+  @Test
+  void rejectsJdkClassesUnlessIncludedExplicitly() {
+    var matcher = ClassNameMatcher.compile(List.of("java/", "com/"), List.of());
+    var jdkExcluded = ClassNameMatcher.compile(List.of("com/"), List.of());
+
+    assertThat(matcher.matches("java/lang/String")).isTrue();
+    assertThat(jdkExcluded.matches("com/sun/proxy/Proxy1")).isFalse();
+    assertThat(jdkExcluded.matches("com/example/Service")).isTrue();
+    assertThat(jdkExcluded.matches("jdk/internal/Unsafe")).isFalse();
+    assertThat(ClassNameMatcher.compile(List.of(), List.of()).matches("com/example/A")).isFalse();
+  }
+
+  @Test
+  void globsMatchStarsAnywhereInTheSimpleName() {
+    assertThat(ClassNameMatcher.globMatches("*Service", "a/OrderService", 2)).isTrue();
+    assertThat(ClassNameMatcher.globMatches("Order*", "a/OrderService", 2)).isTrue();
+    assertThat(ClassNameMatcher.globMatches("*der*vi*", "a/OrderService", 2)).isTrue();
+    assertThat(ClassNameMatcher.globMatches("*Service", "a/OrderServices", 2)).isFalse();
+    assertThat(ClassNameMatcher.globMatches("Order", "a/OrderService", 2)).isFalse();
+    assertThat(ClassNameMatcher.globMatches("*", "a/Order$1", 2)).isTrue();
+  }
+}
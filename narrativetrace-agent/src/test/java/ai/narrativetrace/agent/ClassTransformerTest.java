@@ -1,14 +1,24 @@
 package ai.narrativetrace.agent;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
+import ai.narrativetrace.core.config.NarrativeTraceConfig;
+import ai.narrativetrace.core.config.TracingLevel;
 import ai.narrativetrace.core.context.ThreadLocalNarrativeContext;
 import ai.narrativetrace.core.event.ParameterCapture;
 import ai.narrativetrace.core.event.TraceOutcome;
+import java.util.ArrayList;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
 
 class ClassTransformerTest {
 
@@ -171,6 +181,43 @@ class ClassTransformerTest {
     assertThat(root.signature().errorContext()).isEqualTo("Transfer failed for amount -50");
   }
 
+  @Test
+  void errorsModeResolvesOnErrorContextFromParameterLocals() throws Exception {
+    var originalBytes =
+        getClass()
+            .getClassLoader()
+            .getResourceAsStream("ai/narrativetrace/agent/sample/AnnotatedService.class")
+            .readAllBytes();
+
+    var transformed =
+        ClassTransformer.transform(
+            originalBytes,
+            "ai/narrativetrace/agent/sample/AnnotatedService",
+            AgentConfig.Mode.ERRORS);
+
+    var loader =
+        new ByteArrayClassLoader(
+            getClass().getClassLoader(),
+            transformed,
+            "ai.narrativetrace.agent.sample.AnnotatedService");
+    var clazz = loader.loadClass("ai.narrativetrace.agent.sample.AnnotatedService");
+    var instance = clazz.getDeclaredConstructor().newInstance();
+    var transfer = clazz.getMethod("transfer", String.class, String.class, int.class);
+
+    transfer.invoke(instance, "alice", "bob", 50);
+    assertThat(context.captureTrace().isEmpty()).isTrue();
+    try {
+      transfer.invoke(instance, "alice", "bob", -50);
+    } catch (Exception e) {
+      // expected
+    }
+
+    var root = context.captureTrace().roots().get(0);
+    assertThat(root.outcome()).isInstanceOf(TraceOutcome.Threw.class);
+    assertThat(root.signature().errorContext()).isEqualTo("Transfer failed for amount -50");
+    assertThat(root.signature().parameters().get(0).renderedValue()).isEqualTo("\"alice\"");
+  }
+
   @Test
   void transformedClassRedactsNotTracedParameter() throws Exception {
     var originalBytes =
@@ -271,6 +318,181 @@ class ClassTransformerTest {
     assertThat(tree.roots().get(0).signature().parameters()).isEmpty();
   }
 
+  @Test
+  void callSitesBecomeNoOpsWhileLevelIsOff() throws Exception {
+    var config = new NarrativeTraceConfig(TracingLevel.DETAIL);
+    var configured = new ThreadLocalNarrativeContext(config);
+    AgentRuntime.setContext(configured, config);
+    var originalBytes =
+        getClass()
+            .getClassLoader()
+            .getResourceAsStream("ai/narrativetrace/agent/sample/Calculator.class")
+            .readAllBytes();
+    var transformed =
+        ClassTransformer.transform(originalBytes, "ai/narrativetrace/agent/sample/Calculator");
+    var loader =
+        new ByteArrayClassLoader(
+            getClass().getClassLoader(), transformed, "ai.narrativetrace.agent.sample.Calculator");
+    var clazz = loader.loadClass("ai.narrativetrace.agent.sample.Calculator");
+    var instance = clazz.getDeclaredConstructor().newInstance();
+    var add = clazz.getMethod("add", int.class, int.class);
+
+    add.invoke(instance, 1, 2);
+    config.setLevel(TracingLevel.OFF);
+    add.invoke(instance, 3, 4);
+    assertThat(AgentBootstrap.isEnabled()).isFalse();
+    config.setLevel(TracingLevel.DETAIL);
+    add.invoke(instance, 5, 6);
+
+    var roots = configured.captureTrace().roots();
+    assertThat(roots).hasSize(2);
+    assertThat(((TraceOutcome.Returned) roots.get(1).outcome()).renderedValue()).isEqualTo("11");
+  }
+
+  @Test
+  void classFilesBeforeJava7CallRuntimeDirectly() throws Exception {
+    var cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    cw.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, "test/Legacy", null, "java/lang/Object", null);
+    var init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+    init.visitCode();
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+    init.visitInsn(Opcodes.RETURN);
+    init.visitMaxs(1, 1);
+    init.visitEnd();
+    var mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "identity", "(J)J", null, null);
+    mv.visitCode();
+    mv.visitVarInsn(Opcodes.LLOAD, 1);
+    mv.visitInsn(Opcodes.LRETURN);
+    mv.visitMaxs(2, 3);
+    mv.visitEnd();
+    cw.visitEnd();
+
+    var transformed = ClassTransformer.transform(cw.toByteArray(), "test/Legacy");
+    var loader = new ByteArrayClassLoader(getClass().getClassLoader(), transformed, "test.Legacy");
+    var clazz = loader.loadClass("test.Legacy");
+    var instance = clazz.getDeclaredConstructor().newInstance();
+    clazz.getMethod("identity", long.class).invoke(instance, 5L);
+
+    var root = context.captureTrace().roots().get(0);
+    assertThat(root.signature().methodName()).isEqualTo("identity");
+    assertThat(((TraceOutcome.Returned) root.outcome()).renderedValue()).isEqualTo("5");
+  }
+
+  @Test
+  void classFilesBeforeJava7ResolveOnErrorTypesWithTheirOwnLoader() throws Exception {
+    var exception = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    exception.visit(
+        Opcodes.V1_6,
+        Opcodes.ACC_PUBLIC,
+        "test/CardDeclined",
+        null,
+        "java/lang/RuntimeException",
+        null);
+    var exceptionInit = exception.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+    exceptionInit.visitCode();
+    exceptionInit.visitVarInsn(Opcodes.ALOAD, 0);
+    exceptionInit.visitMethodInsn(
+        Opcodes.INVOKESPECIAL, "java/lang/RuntimeException", "<init>", "()V", false);
+    exceptionInit.visitInsn(Opcodes.RETURN);
+    exceptionInit.visitMaxs(1, 1);
+    exceptionInit.visitEnd();
+    exception.visitEnd();
+
+    var cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    cw.visit(
+        Opcodes.V1_6, Opcodes.ACC_PUBLIC, "test/LegacyPayments", null, "java/lang/Object", null);
+    var init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+    init.visitCode();
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+    init.visitInsn(Opcodes.RETURN);
+    init.visitMaxs(1, 1);
+    init.visitEnd();
+    var mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "charge", "()V", null, null);
+    var av = mv.visitAnnotation("Lai/narrativetrace/core/annotation/OnError;", true);
+    av.visit("value", "Card declined");
+    av.visit("exception", Type.getType("Ltest/CardDeclined;"));
+    av.visitEnd();
+    mv.visitCode();
+    mv.visitTypeInsn(Opcodes.NEW, "test/CardDeclined");
+    mv.visitInsn(Opcodes.DUP);
+    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "test/CardDeclined", "<init>", "()V", false);
+    mv.visitInsn(Opcodes.ATHROW);
+    mv.visitMaxs(2, 1);
+    mv.visitEnd();
+    cw.visitEnd();
+
+    // Only this loader sees test.CardDeclined; the agent's own loader does not.
+    var loader = new MultiClassLoader(getClass().getClassLoader());
+    loader.addClass("test.CardDeclined", exception.toByteArray());
+    loader.addClass(
+        "test.LegacyPayments",
+        ClassTransformer.transform(cw.toByteArray(), "test/LegacyPayments"));
+    var clazz = loader.loadClass("test.LegacyPayments");
+    try {
+      clazz.getMethod("charge").invoke(clazz.getDeclaredConstructor().newInstance());
+    } catch (Exception e) {
+      // expected
+    }
+
+    var root = context.captureTrace().roots().get(0);
+    assertThat(root.outcome()).isInstanceOf(TraceOutcome.Threw.class);
+    assertThat(root.signature().errorContext()).isEqualTo("Card declined");
+  }
+
+  @Test
+  void transformedBytesRegisterTheirMethodsWhereverTheyAreLoaded() throws Exception {
+    var originalBytes =
+        getClass()
+            .getClassLoader()
+            .getResourceAsStream("ai/narrativetrace/agent/sample/AnnotatedService.class")
+            .readAllBytes();
+    var transformed =
+        ClassTransformer.transform(
+            originalBytes, "ai/narrativetrace/agent/sample/AnnotatedService");
+    var methodIds = new ArrayList<Object>();
+    new ClassReader(transformed)
+        .accept(
+            new ClassVisitor(Opcodes.ASM9) {
+              @Override
+              public MethodVisitor visitMethod(
+                  int access, String name, String desc, String signature, String[] exceptions) {
+                return new MethodVisitor(Opcodes.ASM9) {
+                  @Override
+                  public void visitInvokeDynamicInsn(
+                      String name, String desc, Handle bootstrap, Object... bootstrapArgs) {
+                    methodIds.add(bootstrapArgs[0]);
+                  }
+                };
+              }
+            },
+            0);
+
+    assertThat(methodIds).isNotEmpty().allMatch(ConstantDynamic.class::isInstance);
+    for (var password : new String[] {"first", "second"}) {
+      var loader =
+          new ByteArrayClassLoader(
+              getClass().getClassLoader(),
+              transformed,
+              "ai.narrativetrace.agent.sample.AnnotatedService");
+      var clazz = loader.loadClass("ai.narrativetrace.agent.sample.AnnotatedService");
+      clazz
+          .getMethod("login", String.class, String.class)
+          .invoke(clazz.getDeclaredConstructor().newInstance(), "alice", password);
+    }
+
+    var roots = context.captureTrace().roots();
+    assertThat(roots).hasSize(2);
+    for (var root : roots) {
+      assertThat(root.signature().className())
+          .isEqualTo("ai.narrativetrace.agent.sample.AnnotatedService");
+      assertThat(root.signature().parameters())
+          .extracting(ParameterCapture::name, ParameterCapture::redacted)
+          .containsExactly(tuple("username", false), tuple("password", true));
+    }
+  }
+
   @Test
   void untransformedClassesPassThrough() {
     var config = AgentConfig.parse("packages=ai.narrativetrace.test");
@@ -392,6 +614,41 @@ class ClassTransformerTest {
             new ParameterCapture("f", "1.5", false));
   }
 
+  @Test
+  void specializedEntryPointsRenderArgumentsLikeBoxedPath() throws Exception {
+    var originalBytes =
+        getClass()
+            .getClassLoader()
+            .getResourceAsStream("ai/narrativetrace/agent/sample/TypeVariety.class")
+            .readAllBytes();
+
+    var transformed =
+        ClassTransformer.transform(originalBytes, "ai/narrativetrace/agent/sample/TypeVariety");
+
+    var loader =
+        new ByteArrayClassLoader(
+            getClass().getClassLoader(), transformed, "ai.narrativetrace.agent.sample.TypeVariety");
+    var clazz = loader.loadClass("ai.narrativetrace.agent.sample.TypeVariety");
+    var instance = clazz.getDeclaredConstructor().newInstance();
+    clazz.getMethod("doubled", long.class).invoke(instance, 21L);
+    clazz.getMethod("halved", double.class).invoke(instance, 5.0);
+    clazz.getMethod("incremented", short.class).invoke(instance, (short) 9);
+    clazz.getMethod("joined", String.class, int.class, char.class).invoke(instance, "a", 2, 'z');
+
+    var roots = context.captureTrace().roots();
+    assertThat(roots.get(0).signature().parameters())
+        .containsExactly(new ParameterCapture("amount", "21", false));
+    assertThat(roots.get(1).signature().parameters())
+        .containsExactly(new ParameterCapture("value", "5.0", false));
+    assertThat(roots.get(2).signature().parameters())
+        .containsExactly(new ParameterCapture("value", "9", false));
+    assertThat(roots.get(3).signature().parameters())
+        .containsExactly(
+            new ParameterCapture("prefix", "\"a\"", false),
+            new ParameterCapture("count", "2", false),
+            new ParameterCapture("suffix", "z", false));
+  }
+
   @Test
   void noParamMethodProducesEmptyParameterList() throws Exception {
     var originalBytes =
@@ -690,4 +947,36 @@ class ClassTransformerTest {
     assertThat(tree.roots()).hasSize(1);
     assertThat(tree.roots().get(0).signature().methodName()).isEqualTo("value");
   }
+
+  @Test
+  void trivialMethodsAreLeftUninstrumented() throws Exception {
+    var originalBytes =
+        getClass()
+            .getClassLoader()
+            .getResourceAsStream("ai/narrativetrace/agent/sample/Account.class")
+            .readAllBytes();
+
+    var transformed =
+        ClassTransformer.transform(
+            originalBytes,
+            "ai/narrativetrace/agent/sample/Account",
+            AgentConfig.Mode.TRACE,
+            AgentConfig.TrivialMethods.DEFAULT);
+
+    var loader =
+        new ByteArrayClassLoader(
+            getClass().getClassLoader(), transformed, "ai.narrativetrace.agent.sample.Account");
+    var clazz = loader.loadClass("ai.narrativetrace.agent.sample.Account");
+    var instance = clazz.getDeclaredConstructor().newInstance();
+    clazz.getMethod("setOwner", String.class).invoke(instance, "alice");
+    clazz.getMethod("getOwner").invoke(instance);
+    clazz.getMethod("deposit", long.class).invoke(instance, 500L);
+    clazz.getMethod("getBalance").invoke(instance);
+    clazz.getMethod("toString").invoke(instance);
+
+    var tree = context.captureTrace();
+    assertThat(tree.roots())
+        .extracting(node -> node.signature().methodName())
+        .containsExactly("deposit", "getBalance");
+  }
 }
@@ -2,6 +2,7 @@ package ai.narrativetrace.agent;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.objectweb.asm.ClassReader;
 
@@ -88,4 +89,64 @@ class MethodMetadataCollectorTest {
         .isEqualTo("Transfer error for amount {amount}");
     assertThat(transferMeta.onErrors()[1].exceptionDescriptor()).isEqualTo("Ljava/lang/Throwable;");
   }
+
+  @Test
+  void classifiesAccessorsConstantsAndObjectMethodsAsTrivial() throws Exception {
+    var metadata = collect("Account", AgentConfig.TrivialMethods.DEFAULT);
+
+    assertThat(metadata.get("getOwner()Ljava/lang/String;").trivial()).isTrue();
+    assertThat(metadata.get("setOwner(Ljava/lang/String;)V").trivial()).isTrue();
+    assertThat(
+            metadata
+                .get("owner(Ljava/lang/String;)Lai/narrativetrace/agent/sample/Account;")
+                .trivial())
+        .isTrue();
+    assertThat(metadata.get("currency()Ljava/lang/String;").trivial()).isTrue();
+    assertThat(metadata.get("equals(Ljava/lang/Object;)Z").trivial()).isTrue();
+    assertThat(metadata.get("hashCode()I").trivial()).isTrue();
+    assertThat(metadata.get("toString()Ljava/lang/String;").trivial()).isTrue();
+    assertThat(metadata.get("getBalance()J").trivial()).as("@Traced").isFalse();
+    assertThat(metadata.get("deposit(J)V").trivial()).isFalse();
+    assertThat(
+            metadata.get("withdraw(J)Lai/narrativetrace/agent/sample/Account$Entry;").trivial())
+        .isFalse();
+  }
+
+  @Test
+  void smallLeafMethodsAreTrivialWithinTheInstructionThreshold() throws Exception {
+    var metadata = collect("Account", new AgentConfig.TrivialMethods(true, 8));
+
+    assertThat(metadata.get("deposit(J)V").trivial()).isTrue();
+    assertThat(metadata.get("fee(J)J").trivial()).isFalse();
+    assertThat(
+            metadata.get("withdraw(J)Lai/narrativetrace/agent/sample/Account$Entry;").trivial())
+        .isFalse();
+  }
+
+  @Test
+  void recordAccessorsAreTrivial() throws Exception {
+    var metadata = collect("Account$Entry", AgentConfig.TrivialMethods.DEFAULT);
+
+    assertThat(metadata.get("memo()Ljava/lang/String;").trivial()).isTrue();
+    assertThat(metadata.get("amount()J").trivial()).isTrue();
+  }
+
+  @Test
+  void nothingIsTrivialWhenSkippingIsOff() throws Exception {
+    var metadata = collect("Account", AgentConfig.TrivialMethods.NONE);
+
+    assertThat(metadata.values()).noneMatch(MethodMetadata::trivial);
+  }
+
+  private Map<String, MethodMetadata> collect(
+      String simpleName, AgentConfig.TrivialMethods trivialMethods) throws Exception {
+    var bytes =
+        getClass()
+            .getClassLoader()
+            .getResourceAsStream("ai/narrativetrace/agent/sample/" + simpleName + ".class")
+            .readAllBytes();
+    var collector = new MethodMetadataCollector(trivialMethods);
+    new ClassReader(bytes).accept(collector, 0);
+    return collector.getMetadata();
+  }
 }
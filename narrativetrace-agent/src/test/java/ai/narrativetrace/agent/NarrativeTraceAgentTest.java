@@ -32,4 +32,19 @@ class NarrativeTraceAgentTest {
     assertThat(registered).hasSize(1);
     assertThat(registered.get(0)).isInstanceOf(NarrativeClassFileTransformer.class);
   }
+
+  @Test
+  void premainExposesControlForTheInstalledTransformer() {
+    NarrativeTraceAgent.premain(
+        "packages=ai.narrativetrace.test",
+        new StubInstrumentation() {
+          @Override
+          public void addTransformer(ClassFileTransformer transformer) {}
+        });
+
+    NarrativeTraceAgent.control().addPackage("com.example.*");
+
+    assertThat(NarrativeTraceAgent.control().packages())
+        .containsExactly("ai.narrativetrace.test", "com.example");
+  }
 }
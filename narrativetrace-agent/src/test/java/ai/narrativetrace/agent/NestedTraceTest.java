@@ -1,6 +1,7 @@
 package ai.narrativetrace.agent;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import ai.narrativetrace.core.context.ThreadLocalNarrativeContext;
 import ai.narrativetrace.core.event.TraceOutcome;
@@ -59,4 +60,37 @@ class NestedTraceTest {
     assertThat(((TraceOutcome.Returned) root.children().get(0).outcome()).renderedValue())
         .isEqualTo("15");
   }
+
+  @Test
+  void errorsModeRecordsOnlyTheFramesAnExceptionPassesThrough() throws Exception {
+    var loader = new MultiClassLoader(getClass().getClassLoader());
+    for (var name : new String[] {"Calculator", "OrderProcessor"}) {
+      var internalName = "ai/narrativetrace/agent/sample/" + name;
+      var bytes =
+          getClass().getClassLoader().getResourceAsStream(internalName + ".class").readAllBytes();
+      loader.addClass(
+          internalName.replace('/', '.'),
+          ClassTransformer.transform(bytes, internalName, AgentConfig.Mode.ERRORS));
+    }
+    var clazz = loader.loadClass("ai.narrativetrace.agent.sample.OrderProcessor");
+    var instance = clazz.getDeclaredConstructor().newInstance();
+
+    assertThat(clazz.getMethod("processOrder", int.class, int.class).invoke(instance, 10, 5))
+        .isEqualTo(15);
+    assertThat(context.captureTrace().isEmpty()).isTrue();
+
+    assertThatThrownBy(
+            () -> clazz.getMethod("splitOrder", int.class, int.class).invoke(instance, 10, 0))
+        .hasCauseInstanceOf(ArithmeticException.class);
+
+    var roots = context.captureTrace().roots();
+    assertThat(roots).hasSize(1);
+    var split = roots.get(0);
+    assertThat(split.signature().methodName()).isEqualTo("splitOrder");
+    assertThat(split.outcome()).isInstanceOf(TraceOutcome.Threw.class);
+    assertThat(split.children()).hasSize(1);
+    var divide = split.children().get(0);
+    assertThat(divide.signature().methodName()).isEqualTo("divide");
+    assertThat(divide.signature().parameters().get(1).renderedValue()).isEqualTo("0");
+  }
 }
@@ -0,0 +1,65 @@
+package ai.narrativetrace.agent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ai.narrativetrace.core.context.ThreadLocalNarrativeContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+class OfflineWeaverTest {
+
+  private static final String CALCULATOR = "ai/narrativetrace/agent/sample/Calculator";
+
+  private ThreadLocalNarrativeContext context;
+
+  @BeforeEach
+  void setUp() {
+    context = new ThreadLocalNarrativeContext();
+    context.reset();
+    AgentRuntime.setContext(context);
+  }
+
+  @Test
+  void wovenClassIsTracedWithoutTheAgent() throws Exception {
+    var weaver = new OfflineWeaver(AgentConfig.parse("packages=ai.narrativetrace.agent.sample"));
+
+    var woven = weaver.weave(calculatorBytes(), CALCULATOR);
+
+    var loader =
+        new ByteArrayClassLoader(
+            getClass().getClassLoader(), woven, "ai.narrativetrace.agent.sample.Calculator");
+    var clazz = loader.loadClass("ai.narrativetrace.agent.sample.Calculator");
+    var instance = clazz.getDeclaredConstructor().newInstance();
+    clazz.getMethod("add", int.class, int.class).invoke(instance, 3, 4);
+
+    var root = context.captureTrace().roots().get(0);
+    assertThat(root.signature().methodName()).isEqualTo("add");
+  }
+
+  @Test
+  void classesOutsideThePackagesAreLeftAsTheyAre() throws Exception {
+    var weaver = new OfflineWeaver(AgentConfig.parse("packages=com.example"));
+    var bytes = calculatorBytes();
+
+    assertThat(weaver.weave(bytes, CALCULATOR)).isSameAs(bytes);
+  }
+
+  @Test
+  void rejectsClassFilesBeforeJava11() {
+    var cw = new ClassWriter(0);
+    cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "test/Legacy", null, "java/lang/Object", null);
+    cw.visitEnd();
+    var weaver = new OfflineWeaver(AgentConfig.parse("packages=test"));
+
+    assertThatThrownBy(() -> weaver.weave(cw.toByteArray(), "test/Legacy"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("test/Legacy");
+  }
+
+  private byte[] calculatorBytes() throws Exception {
+    return getClass().getClassLoader().getResourceAsStream(CALCULATOR + ".class").readAllBytes();
+  }
+}
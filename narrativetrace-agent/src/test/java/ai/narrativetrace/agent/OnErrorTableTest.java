@@ -0,0 +1,38 @@
+package ai.narrativetrace.agent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class OnErrorTableTest {
+
+  private final ClassLoader loader = getClass().getClassLoader();
+
+  @Test
+  void mostSpecificTypeWinsRegardlessOfDeclarationOrder() {
+    var table =
+        OnErrorTable.resolve(
+            new String[] {"any failure", "bad argument", "runtime failure"},
+            new String[] {
+              "Ljava/lang/Throwable;",
+              "Ljava/lang/IllegalArgumentException;",
+              "Ljava/lang/RuntimeException;"
+            },
+            loader);
+
+    assertThat(table.match(new NumberFormatException())).isEqualTo("bad argument");
+    assertThat(table.match(new IllegalStateException())).isEqualTo("runtime failure");
+    assertThat(table.match(new AssertionError())).isEqualTo("any failure");
+  }
+
+  @Test
+  void unresolvableTypesNeverMatch() {
+    var table =
+        OnErrorTable.resolve(
+            new String[] {"missing", "invalid"},
+            new String[] {"Lcom/nonexistent/FakeException;", "InvalidDescriptor"},
+            loader);
+
+    assertThat(table.match(new RuntimeException())).isNull();
+  }
+}
@@ -0,0 +1,68 @@
+package ai.narrativetrace.agent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+class TransformCacheTest {
+
+  private static final String CALCULATOR = "ai/narrativetrace/agent/sample/Calculator";
+
+  @TempDir Path directory;
+
+  @Test
+  void storesTransformedClassesAndReusesThem() throws Exception {
+    var bytes = calculatorBytes();
+    var config = config(AgentConfig.Mode.TRACE);
+    var cache = new TransformCache(directory);
+
+    var transformed = cache.transform(bytes, CALCULATOR, config);
+    var entry = cache.entry(TransformCache.key(bytes, CALCULATOR, config));
+
+    assertThat(entry).hasBinaryContent(transformed);
+
+    Files.write(entry, new byte[] {42});
+
+    assertThat(cache.transform(bytes, CALCULATOR, config)).containsExactly(42);
+  }
+
+  @Test
+  void keyChangesWithTheInstrumentationSettings() throws Exception {
+    var bytes = calculatorBytes();
+
+    var trace = TransformCache.key(bytes, CALCULATOR, config(AgentConfig.Mode.TRACE));
+    var errors = TransformCache.key(bytes, CALCULATOR, config(AgentConfig.Mode.ERRORS));
+
+    assertThat(trace).isNotEqualTo(errors);
+    assertThat(TransformCache.key(bytes, CALCULATOR, config(AgentConfig.Mode.TRACE)))
+        .isEqualTo(trace);
+  }
+
+  @Test
+  void classFilesBeforeJava11AreNotCached() throws Exception {
+    var cw = new ClassWriter(0);
+    cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "test/Legacy", null, "java/lang/Object", null);
+    cw.visitEnd();
+
+    var cache = new TransformCache(directory);
+    cache.transform(cw.toByteArray(), "test/Legacy", config(AgentConfig.Mode.TRACE));
+
+    assertThat(directory).isEmptyDirectory();
+    assertThat(ClassTransformer.isPortable(new byte[4])).isFalse();
+  }
+
+  private AgentConfig config(AgentConfig.Mode mode) {
+    return new AgentConfig(
+        List.of("ai/narrativetrace/"), mode, AgentConfig.TrivialMethods.DEFAULT, directory);
+  }
+
+  private byte[] calculatorBytes() throws Exception {
+    return getClass().getClassLoader().getResourceAsStream(CALCULATOR + ".class").readAllBytes();
+  }
+}
@@ -0,0 +1,65 @@
+package ai.narrativetrace.agent.sample;
+
+import ai.narrativetrace.core.annotation.Traced;
+import java.util.Objects;
+
+public class Account {
+
+  private String owner;
+  private long balance;
+
+  public record Entry(String memo, long amount) {}
+
+  public String getOwner() {
+    return owner;
+  }
+
+  public void setOwner(String owner) {
+    this.owner = owner;
+  }
+
+  public Account owner(String owner) {
+    this.owner = owner;
+    return this;
+  }
+
+  public String currency() {
+    return "EUR";
+  }
+
+  @Traced
+  public long getBalance() {
+    return balance;
+  }
+
+  public long fee(long amount) {
+    return amount > 1000 ? amount / 100 : 10;
+  }
+
+  public Entry withdraw(long amount) {
+    if (amount > balance) {
+      throw new IllegalStateException("Insufficient funds");
+    }
+    balance -= amount;
+    return new Entry("withdrawal", amount);
+  }
+
+  public void deposit(long amount) {
+    balance += amount;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Account account && Objects.equals(owner, account.owner);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(owner);
+  }
+
+  @Override
+  public String toString() {
+    return "Account[" + owner + "]";
+  }
+}
@@ -7,4 +7,8 @@ public class OrderProcessor {
   public int processOrder(int price, int quantity) {
     return calculator.add(price, quantity);
   }
+
+  public int splitOrder(int total, int parts) {
+    return calculator.divide(total, parts);
+  }
 }
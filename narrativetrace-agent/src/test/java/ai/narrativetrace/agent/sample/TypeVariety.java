@@ -43,4 +43,20 @@ public class TypeVariety {
   public int manyParams(int a, int b, int c, int d, int e, int f, int g) {
     return a + b + c + d + e + f + g;
   }
+
+  public long doubled(long amount) {
+    return amount * 2;
+  }
+
+  public double halved(double value) {
+    return value / 2;
+  }
+
+  public int incremented(short value) {
+    return value + 1;
+  }
+
+  public String joined(String prefix, int count, char suffix) {
+    return prefix + count + suffix;
+  }
 }
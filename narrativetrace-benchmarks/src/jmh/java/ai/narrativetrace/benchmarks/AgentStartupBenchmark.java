@@ -0,0 +1,127 @@
+package ai.narrativetrace.benchmarks;
+
+import ai.narrativetrace.agent.AgentConfig;
+import ai.narrativetrace.agent.NarrativeClassFileTransformer;
+import ai.narrativetrace.core.context.NarrativeContext;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Classes the agent instruments per second while an application starts, over the first {@value
+ * #CLASS_COUNT} classes of {@code narrativetrace-core}.
+ *
+ * <p>{@code noCache} weaves every class. {@code coldCache} weaves them into an empty {@code cache=}
+ * directory, as the first start does; {@code warmCache} loads them from the entries an earlier
+ * start stored.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class AgentStartupBenchmark {
+
+  private static final int CLASS_COUNT = 64;
+
+  private final List<String> classNames = new ArrayList<>();
+  private final List<byte[]> classFiles = new ArrayList<>();
+  private NarrativeClassFileTransformer uncached;
+  private NarrativeClassFileTransformer warm;
+  private NarrativeClassFileTransformer cold;
+  private Path warmDirectory;
+  private Path coldDirectory;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    var location =
+        Path.of(NarrativeContext.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    try (var jar = Files.isDirectory(location) ? null : FileSystems.newFileSystem(location)) {
+      var root = jar == null ? location : jar.getPath("/");
+      List<Path> files;
+      try (var paths = Files.walk(root)) {
+        files =
+            paths
+                .filter(path -> path.toString().endsWith(".class"))
+                .filter(path -> !path.endsWith("module-info.class"))
+                .sorted(Comparator.comparing(Path::toString))
+                .limit(CLASS_COUNT)
+                .toList();
+      }
+      for (var file : files) {
+        var name = root.relativize(file).toString().replace('\\', '/');
+        classNames.add(name.substring(0, name.length() - ".class".length()));
+        classFiles.add(Files.readAllBytes(file));
+      }
+    }
+    uncached = transformer(null);
+    warmDirectory = Files.createTempDirectory("narrativetrace-warm-cache");
+    warm = transformer(warmDirectory);
+    for (int i = 0; i < classFiles.size(); i++) {
+      transform(warm, i);
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void emptyColdCache() throws IOException {
+    coldDirectory = Files.createTempDirectory("narrativetrace-cold-cache");
+    cold = transformer(coldDirectory);
+  }
+
+  @TearDown(Level.Invocation)
+  public void deleteColdCache() throws IOException {
+    delete(coldDirectory);
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteWarmCache() throws IOException {
+    delete(warmDirectory);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CLASS_COUNT)
+  public void noCache(Blackhole bh) {
+    transformAll(uncached, bh);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CLASS_COUNT)
+  public void coldCache(Blackhole bh) {
+    transformAll(cold, bh);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CLASS_COUNT)
+  public void warmCache(Blackhole bh) {
+    transformAll(warm, bh);
+  }
+
+  private void transformAll(NarrativeClassFileTransformer transformer, Blackhole bh) {
+    for (int i = 0; i < classFiles.size(); i++) {
+      bh.consume(transform(transformer, i));
+    }
+  }
+
+  private byte[] transform(NarrativeClassFileTransformer transformer, int index) {
+    return transformer.transform(null, classNames.get(index), null, null, classFiles.get(index));
+  }
+
+  private static NarrativeClassFileTransformer transformer(Path cacheDirectory) {
+    var config = AgentConfig.parse("packages=ai.narrativetrace.core");
+    return new NarrativeClassFileTransformer(
+        new AgentConfig(config.packages(), config.mode(), config.trivial(), cacheDirectory));
+  }
+
+  private static void delete(Path directory) throws IOException {
+    try (var paths = Files.walk(directory)) {
+      for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+}
@@ -2,10 +2,13 @@ package ai.narrativetrace.benchmarks;
 
 import ai.narrativetrace.core.config.NarrativeTraceConfig;
 import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.context.JournalingNarrativeContext;
 import ai.narrativetrace.core.context.NarrativeContext;
 import ai.narrativetrace.core.context.NoopNarrativeContext;
 import ai.narrativetrace.core.context.ThreadLocalNarrativeContext;
 import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.export.RequestContext;
+import ai.narrativetrace.core.export.TraceExporter;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.*;
@@ -18,12 +21,15 @@ public class ContextOverheadBenchmark {
 
   private static final MethodSignature SIGNATURE =
       new MethodSignature("TestService", "execute", List.of(), null, null);
+  private static final RequestContext REQUEST = new RequestContext("GET", "/test", 200, 1L);
+  private static final TraceExporter DISCARD = (tree, request) -> {};
 
   private NarrativeContext detailContext;
   private NarrativeContext narrativeContext;
   private NarrativeContext summaryContext;
   private NarrativeContext errorsContext;
   private NarrativeContext offContext;
+  private JournalingNarrativeContext journalingContext;
 
   @Setup(Level.Trial)
   public void setup() {
@@ -34,6 +40,13 @@ public class ContextOverheadBenchmark {
         new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.SUMMARY));
     errorsContext = new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.ERRORS));
     offContext = new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.OFF));
+    journalingContext =
+        new JournalingNarrativeContext(new NarrativeTraceConfig(TracingLevel.DETAIL));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    journalingContext.close();
   }
 
   @Setup(Level.Invocation)
@@ -43,6 +56,7 @@ public class ContextOverheadBenchmark {
     summaryContext.reset();
     errorsContext.reset();
     offContext.reset();
+    journalingContext.reset();
   }
 
   @Benchmark
@@ -59,6 +73,34 @@ public class ContextOverheadBenchmark {
     bh.consume(narrativeContext.captureTrace());
   }
 
+  @Benchmark
+  public void context_enterExitPair_DETAIL() {
+    detailContext.enterMethod(SIGNATURE);
+    detailContext.exitMethodWithReturn("result");
+  }
+
+  @Benchmark
+  public void context_enterExitPair_NARRATIVE() {
+    narrativeContext.enterMethod(SIGNATURE);
+    narrativeContext.exitMethodWithReturn("result");
+  }
+
+  /** Request-thread cost of a one-call request, capture and export included. */
+  @Benchmark
+  public void context_request_DETAIL() {
+    detailContext.enterMethod(SIGNATURE);
+    detailContext.exitMethodWithReturn("result");
+    DISCARD.export(detailContext.captureTrace(), REQUEST);
+  }
+
+  /** Same request with assembly and export left to the journal's background thread. */
+  @Benchmark
+  public void context_request_JOURNALED() {
+    journalingContext.enterMethod(SIGNATURE);
+    journalingContext.exitMethodWithReturn("result");
+    journalingContext.completeRequest(REQUEST, DISCARD);
+  }
+
   @Benchmark
   public void context_enterExit_SUMMARY(Blackhole bh) {
     summaryContext.enterMethod(SIGNATURE);
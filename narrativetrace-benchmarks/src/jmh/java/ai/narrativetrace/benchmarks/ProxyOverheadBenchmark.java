@@ -24,14 +24,17 @@ public class ProxyOverheadBenchmark {
   private ErrorService proxyError;
   private PlainService proxyNoop;
   private PlainService proxyOff;
+  private NarratedInterpolatedService proxyNarratedErrors;
 
   private NarrativeContext detailContext;
   private NarrativeContext offContext;
+  private NarrativeContext errorsContext;
 
   @Setup(Level.Trial)
   public void setup() {
     detailContext = new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.DETAIL));
     offContext = new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.OFF));
+    errorsContext = new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.ERRORS));
 
     PlainService plainImpl = input -> "result:" + input;
 
@@ -68,12 +71,19 @@ public class ProxyOverheadBenchmark {
         NarrativeTraceProxy.trace(plainImpl, PlainService.class, NoopNarrativeContext.INSTANCE);
 
     proxyOff = NarrativeTraceProxy.trace(plainImpl, PlainService.class, offContext);
+
+    proxyNarratedErrors =
+        NarrativeTraceProxy.trace(
+            (NarratedInterpolatedService) input -> "result:" + input,
+            NarratedInterpolatedService.class,
+            errorsContext);
   }
 
   @Setup(Level.Invocation)
   public void resetContexts() {
     detailContext.reset();
     offContext.reset();
+    errorsContext.reset();
   }
 
   @Benchmark
@@ -120,4 +130,9 @@ public class ProxyOverheadBenchmark {
   public void proxy_OFF(Blackhole bh) {
     bh.consume(proxyOff.execute("test"));
   }
+
+  @Benchmark
+  public void proxy_ERRORS_success(Blackhole bh) {
+    bh.consume(proxyNarratedErrors.execute("test"));
+  }
 }
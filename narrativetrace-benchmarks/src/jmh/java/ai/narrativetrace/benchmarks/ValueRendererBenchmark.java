@@ -0,0 +1,59 @@
+package ai.narrativetrace.benchmarks;
+
+import ai.narrativetrace.core.render.ValueRenderer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of rendering one captured value. Run with {@code -PjmhProfilers=gc} to compare
+ * gc.alloc.rate.norm, which should be close to the size of the single rendered String.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ValueRendererBenchmark {
+
+  public record Address(String street, String city, int zip) {}
+
+  public record Customer(String name, Address address, List<String> tags) {}
+
+  public record Order(long id, Customer customer, List<Integer> quantities, double total) {}
+
+  private final ValueRenderer renderer = new ValueRenderer();
+  private Order nestedRecord;
+  private List<Address> collection;
+  private long[] array;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    var address = new Address("1 Main Street", "Springfield", 12345);
+    nestedRecord =
+        new Order(
+            42L, new Customer("Ada", address, List.of("vip", "beta")), List.of(1, 2, 3), 99.5);
+    collection =
+        List.of(
+            address,
+            new Address("2 Side Road", "Shelbyville", 54321),
+            new Address("3 High Street", "Ogdenville", 11111),
+            new Address("4 Low Street", "North Haverbrook", 22222),
+            new Address("5 Park Lane", "Capital City", 33333),
+            new Address("6 Elm Street", "Cypress Creek", 44444));
+    array = new long[] {1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L};
+  }
+
+  @Benchmark
+  public String render_nestedRecord() {
+    return renderer.render(nestedRecord);
+  }
+
+  @Benchmark
+  public String render_collectionOfRecords() {
+    return renderer.render(collection);
+  }
+
+  @Benchmark
+  public String render_primitiveArray() {
+    return renderer.render(array);
+  }
+}
@@ -0,0 +1,97 @@
+package ai.narrativetrace.benchmarks;
+
+import ai.narrativetrace.core.config.NarrativeTraceConfig;
+import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.context.NarrativeContext;
+import ai.narrativetrace.core.context.ScopedNarrativeContext;
+import ai.narrativetrace.core.context.ThreadLocalNarrativeContext;
+import ai.narrativetrace.core.event.MethodSignature;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * 100k concurrent virtual threads, each tracing a small call tree, with the ThreadLocal and the
+ * scoped context. Run with {@code -prof gc} to compare per-thread allocation. Requires a JDK with
+ * virtual threads (21+); the scoped context only uses {@code ScopedValue} on 25+.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class VirtualThreadContextBenchmark {
+
+  private static final int THREADS = 100_000;
+  private static final MethodSignature ROOT =
+      new MethodSignature("OrderService", "placeOrder", List.of(), null, null);
+  private static final MethodSignature CHILD =
+      new MethodSignature("InventoryService", "reserve", List.of(), null, null);
+
+  private ThreadLocalNarrativeContext threadLocalContext;
+  private ScopedNarrativeContext scopedContext;
+  private ExecutorService executor;
+
+  @Setup(Level.Trial)
+  public void setup() throws ReflectiveOperationException {
+    var config = new NarrativeTraceConfig(TracingLevel.DETAIL);
+    threadLocalContext = new ThreadLocalNarrativeContext(config);
+    scopedContext = new ScopedNarrativeContext(config);
+    // Compiled for Java 17, so the virtual-thread executor is looked up reflectively.
+    executor =
+        (ExecutorService)
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark
+  public int threadLocal_100kVirtualThreads() throws Exception {
+    return runAll(
+        () -> {
+          traceRequest(threadLocalContext);
+          threadLocalContext.reset();
+        });
+  }
+
+  @Benchmark
+  public int scoped_100kVirtualThreads() throws Exception {
+    return runAll(() -> scopedContext.run(() -> traceRequest(scopedContext)));
+  }
+
+  private int runAll(Runnable request) throws Exception {
+    var start = new CountDownLatch(1);
+    var futures = new ArrayList<Future<?>>(THREADS);
+    for (int i = 0; i < THREADS; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                request.run();
+                return null;
+              }));
+    }
+    start.countDown();
+    for (var future : futures) {
+      future.get();
+    }
+    return futures.size();
+  }
+
+  private static void traceRequest(NarrativeContext context) {
+    context.enterMethod(ROOT);
+    for (int i = 0; i < 3; i++) {
+      context.enterMethod(CHILD);
+      context.exitMethodWithReturn("true");
+    }
+    context.exitMethodWithReturn("\"order-42\"");
+  }
+}
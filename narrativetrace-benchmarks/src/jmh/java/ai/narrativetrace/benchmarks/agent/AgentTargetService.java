@@ -4,4 +4,12 @@ public class AgentTargetService {
   public String execute(String input) {
     return "result:" + input;
   }
+
+  public long scale(long amount) {
+    return amount * 3;
+  }
+
+  public String reserve(String sku, int quantity) {
+    return sku + "x" + quantity;
+  }
 }
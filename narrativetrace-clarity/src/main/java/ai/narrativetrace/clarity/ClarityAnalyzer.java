@@ -1,6 +1,7 @@
 package ai.narrativetrace.clarity;
 
 import ai.narrativetrace.core.event.TraceNode;
+import ai.narrativetrace.core.event.TraceOutcome;
 import ai.narrativetrace.core.tree.TraceTree;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -271,6 +272,9 @@ public final class ClarityAnalyzer {
   private List<TraceNode> flattenNodes(List<TraceNode> nodes) {
     var result = new ArrayList<TraceNode>();
     for (var node : nodes) {
+      if (node.outcome() instanceof TraceOutcome.Elided) {
+        continue; // synthetic, carries no names to score
+      }
       result.add(node);
       result.addAll(flattenNodes(node.children()));
     }
@@ -418,4 +418,29 @@ class ClarityAnalyzerTest {
     // These should produce different scores (not bucket-collapsed)
     assertThat(result1.methodNameScore()).isNotEqualTo(result2.methodNameScore());
   }
+
+  @Test
+  void elidedNodesAreNotScored() {
+    var elided =
+        new TraceNode(
+            new MethodSignature("BatchJob", "…", List.of()),
+            List.of(),
+            new TraceOutcome.Elided(42, 17_000_000L),
+            17_000_000L);
+    var root =
+        new TraceNode(
+            new MethodSignature("BatchJob", "run", List.of()),
+            List.of(elided),
+            new TraceOutcome.Returned(null),
+            20_000_000L);
+    var tree = new DefaultTraceTree(List.of(root));
+
+    var withoutElided =
+        new DefaultTraceTree(
+            List.of(
+                new TraceNode(
+                    root.signature(), List.of(), root.outcome(), root.durationNanos())));
+
+    assertThat(analyzer.analyze(tree)).isEqualTo(analyzer.analyze(withoutElided));
+  }
 }
@@ -10,3 +10,40 @@ dependencies {
     testImplementation("org.assertj:assertj-core:3.27.3")
     testImplementation("net.jqwik:jqwik:1.9.2")
 }
+
+// Multi-release jar: classes under src/main/java25 replace their Java 17 counterparts on Java 25+
+// (ScopedValue-backed bindings for ScopedNarrativeContext). Needs a JDK 25 toolchain, so it is
+// opt-in: ./gradlew build -Pjava25
+val java25 by sourceSets.creating {
+    java.srcDir("src/main/java25")
+}
+
+if (providers.gradleProperty("java25").isPresent) {
+    tasks.named<JavaCompile>("compileJava25Java") {
+        javaCompiler.set(javaToolchains.compilerFor {
+            languageVersion.set(JavaLanguageVersion.of(25))
+        })
+        options.release.set(25)
+    }
+
+    tasks.named<Jar>("jar") {
+        into("META-INF/versions/25") {
+            from(java25.output)
+        }
+        manifest {
+            attributes("Multi-Release" to "true")
+        }
+    }
+} else {
+    tasks.named("compileJava25Java") { enabled = false }
+
+    // A jar without META-INF/versions/25 silently falls back to ThreadLocal bindings on Java 25,
+    // so never publish one.
+    tasks.matching { it.name.startsWith("publish") }.configureEach {
+        doFirst {
+            throw GradleException("Publishing needs the Java 25 classes: build with -Pjava25")
+        }
+    }
+}
+
+tasks.named("pmdJava25") { enabled = false }
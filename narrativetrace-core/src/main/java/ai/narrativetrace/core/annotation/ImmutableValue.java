@@ -0,0 +1,36 @@
+package ai.narrativetrace.core.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares that instances of a type never change after construction.
+ *
+ * <p>Capture sites keep arguments of immutable types as they are and render them only when the
+ * trace is read, so calls in traces that are sampled out or dropped cost no rendering. Strings,
+ * boxed primitives and {@code java.time} types are recognized without the annotation, as are enums
+ * without a custom {@code toString()} and records of such components whose accessors only return
+ * their fields and that declare no {@link NarrativeSummary} method. Values rendered by a registered
+ * {@code TypeRenderer}, or holding such a component, are rendered at capture time. Annotate other
+ * types, including those with custom rendering, to have them deferred too; their rendering then
+ * runs on the thread that reads the trace.
+ *
+ * <pre>{@code
+ * @ImmutableValue
+ * public final class Money {
+ *     private final long cents;
+ *     private final Currency currency;
+ *     // ...
+ * }
+ * }</pre>
+ *
+ * <p>Annotating a type whose instances do change makes traces show the value at the time the
+ * trace was read, not at the time of the call.
+ *
+ * @see ai.narrativetrace.core.render.ValueRenderer#capture(Object)
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ImmutableValue {}
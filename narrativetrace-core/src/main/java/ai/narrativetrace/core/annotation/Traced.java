@@ -0,0 +1,27 @@
+package ai.narrativetrace.core.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps a method in the trace that the agent would otherwise skip as trivial.
+ *
+ * <p>The bytecode agent does not instrument getters, setters, constant returns, record accessors,
+ * and {@code equals}/{@code hashCode}/{@code toString}, because they dominate call counts without
+ * adding to the narrative. Annotate a method to instrument it anyway:
+ *
+ * <pre>{@code
+ * @Traced
+ * public Status status() {
+ *   return status;
+ * }
+ * }</pre>
+ *
+ * <p>Methods annotated with {@link Narrated @Narrated} or {@link OnError @OnError} are never
+ * treated as trivial.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Traced {}
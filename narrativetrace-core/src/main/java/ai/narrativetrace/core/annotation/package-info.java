@@ -6,6 +6,7 @@
  * ai.narrativetrace.core.annotation.OnErrors @OnErrors} provide exception-specific templates.
  * {@link ai.narrativetrace.core.annotation.NotTraced @NotTraced} suppresses parameters from trace
  * output. {@link ai.narrativetrace.core.annotation.NarrativeSummary @NarrativeSummary} overrides
- * how a type renders in trace output.
+ * how a type renders in trace output. {@link ai.narrativetrace.core.annotation.Traced @Traced}
+ * keeps a method the agent would skip as trivial.
  */
 package ai.narrativetrace.core.annotation;
@@ -0,0 +1,101 @@
+package ai.narrativetrace.core.config;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Head-based sampling: decides at the start of each root call whether it is traced at all.
+ *
+ * <p>Set via {@link NarrativeTraceConfig#setSampling(HeadSampling)}. The decision is taken when a
+ * root call asks the context whether it is active, and holds until that call returns, so threads
+ * without request boundaries, such as schedulers, are sampled per root too. An unsampled root is
+ * entered with nothing captured, and every call nested in it sees {@code isActive() == false},
+ * exactly like {@link TracingLevel#OFF}.
+ *
+ * <p>With a key supplier the decision is deterministic: the key (for example a propagated trace id)
+ * is hashed with {@link String#hashCode()}, mixed with the SplitMix64 finalizer, and the top 53
+ * bits taken as a fraction in {@code [0, 1)}. The request is sampled if that fraction is below the
+ * rate, so every service using the same key and rate reaches the same verdict. Without a key, or
+ * when the supplier returns {@code null}, the decision is random.
+ *
+ * <pre>{@code
+ * config.setSampling(HeadSampling.rate(0.01, () -> MDC.get("traceId")));
+ * }</pre>
+ *
+ * @param rate fraction of requests to trace, in {@code [0, 1]}
+ * @param keySupplier supplies the sampling key on the deciding thread, or {@code null} for random
+ *     sampling
+ * @see NarrativeTraceConfig#setSampling(HeadSampling)
+ */
+public record HeadSampling(double rate, Supplier<String> keySupplier) {
+
+  /** Traces every request. */
+  public static final HeadSampling ALWAYS = new HeadSampling(1.0, null);
+
+  /**
+   * Creates a sampling policy.
+   *
+   * @throws IllegalArgumentException if {@code rate} is outside {@code [0, 1]}
+   */
+  public HeadSampling {
+    if (!(rate >= 0.0 && rate <= 1.0)) {
+      throw new IllegalArgumentException("Sampling rate must be between 0 and 1, got " + rate);
+    }
+  }
+
+  /**
+   * Samples requests at random.
+   *
+   * @param rate fraction of requests to trace, in {@code [0, 1]}
+   * @return the sampling policy
+   */
+  public static HeadSampling rate(double rate) {
+    return new HeadSampling(rate, null);
+  }
+
+  /**
+   * Samples requests deterministically by key.
+   *
+   * @param rate fraction of requests to trace, in {@code [0, 1]}
+   * @param keySupplier supplies the key (trace id, user id) on the deciding thread
+   * @return the sampling policy
+   */
+  public static HeadSampling rate(double rate, Supplier<String> keySupplier) {
+    return new HeadSampling(rate, keySupplier);
+  }
+
+  /**
+   * Decides whether the current request is traced, using the key supplier if present.
+   *
+   * @return {@code true} if the request should be traced
+   */
+  public boolean sample() {
+    if (rate >= 1.0) {
+      return true;
+    }
+    return isSampled(keySupplier != null ? keySupplier.get() : null);
+  }
+
+  /**
+   * Decides whether a request with the given key is traced.
+   *
+   * @param key the sampling key, or {@code null} for a random decision
+   * @return {@code true} if the request should be traced
+   */
+  public boolean isSampled(String key) {
+    if (rate >= 1.0) {
+      return true;
+    }
+    if (rate <= 0.0) {
+      return false;
+    }
+    long bits = key != null ? mix(key.hashCode()) : ThreadLocalRandom.current().nextLong();
+    return (bits >>> 11) * 0x1.0p-53 < rate;
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
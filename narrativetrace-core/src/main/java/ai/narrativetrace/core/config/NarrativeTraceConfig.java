@@ -1,5 +1,9 @@
 package ai.narrativetrace.core.config;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
 /**
  * Runtime configuration for trace capture behavior.
  *
@@ -12,14 +16,23 @@ package ai.narrativetrace.core.config;
  *
  * // Change level at runtime (thread-safe)
  * config.setLevel(TracingLevel.DETAIL);
+ *
+ * // Trace 1% of requests, consistently per trace id
+ * config.setSampling(HeadSampling.rate(0.01, () -> MDC.get("traceId")));
  * }</pre>
  *
  * @see TracingLevel
+ * @see HeadSampling
+ * @see TraceLimits
  * @see ai.narrativetrace.core.context.ThreadLocalNarrativeContext
  */
 public final class NarrativeTraceConfig {
 
   private volatile TracingLevel level;
+  private volatile HeadSampling sampling = HeadSampling.ALWAYS;
+  private volatile TraceLimits limits = TraceLimits.UNLIMITED;
+  private volatile boolean foldRepeatedCalls;
+  private final List<Consumer<TracingLevel>> levelListeners = new CopyOnWriteArrayList<>();
 
   /** Creates a config with default level ({@link TracingLevel#DETAIL}). */
   public NarrativeTraceConfig() {
@@ -47,11 +60,96 @@ public final class NarrativeTraceConfig {
   /**
    * Changes the tracing level at runtime.
    *
-   * <p>The change is immediately visible to all threads (volatile write).
+   * <p>The change is immediately visible to all threads (volatile write). {@linkplain
+   * #addLevelListener Level listeners} are notified afterwards, on the calling thread.
    *
    * @param level the new tracing level
    */
   public void setLevel(TracingLevel level) {
     this.level = level;
+    for (var listener : levelListeners) {
+      listener.accept(level);
+    }
+  }
+
+  /**
+   * Registers a callback run after every {@link #setLevel} call, for components that cache
+   * decisions derived from the level (such as the agent's linked call sites).
+   *
+   * @param listener receives the new level
+   */
+  public void addLevelListener(Consumer<TracingLevel> listener) {
+    levelListeners.add(listener);
+  }
+
+  /**
+   * Removes a callback registered with {@link #addLevelListener}.
+   *
+   * @param listener the callback to remove
+   */
+  public void removeLevelListener(Consumer<TracingLevel> listener) {
+    levelListeners.remove(listener);
+  }
+
+  /**
+   * Returns the head sampling policy.
+   *
+   * @return the active policy ({@link HeadSampling#ALWAYS} unless changed)
+   */
+  public HeadSampling sampling() {
+    return sampling;
+  }
+
+  /**
+   * Changes the head sampling policy at runtime.
+   *
+   * <p>Takes effect for root calls that start after the change.
+   *
+   * @param sampling the new sampling policy
+   */
+  public void setSampling(HeadSampling sampling) {
+    this.sampling = sampling;
+  }
+
+  /**
+   * Returns the trace size limits.
+   *
+   * @return the active limits ({@link TraceLimits#UNLIMITED} unless changed)
+   */
+  public TraceLimits limits() {
+    return limits;
+  }
+
+  /**
+   * Changes the trace size limits at runtime.
+   *
+   * @param limits the new limits
+   */
+  public void setLimits(TraceLimits limits) {
+    this.limits = limits;
+  }
+
+  /**
+   * Returns whether consecutive sibling calls to the same method are folded into one node.
+   *
+   * @return {@code true} if repeated calls are folded (default {@code false})
+   */
+  public boolean foldRepeatedCalls() {
+    return foldRepeatedCalls;
+  }
+
+  /**
+   * Enables or disables folding of repeated calls at runtime.
+   *
+   * <p>When enabled, a call that returns right after a sibling call to the same method that also
+   * returned is merged into that sibling's node instead of being recorded separately. The merged
+   * node keeps the first call's parameters and children, and reports the call count, the
+   * min/max/total duration and the first and last return values as a {@link
+   * ai.narrativetrace.core.event.TraceOutcome.Repeated} outcome. Root calls are never folded.
+   *
+   * @param foldRepeatedCalls {@code true} to fold repeated calls
+   */
+  public void setFoldRepeatedCalls(boolean foldRepeatedCalls) {
+    this.foldRepeatedCalls = foldRepeatedCalls;
   }
 }
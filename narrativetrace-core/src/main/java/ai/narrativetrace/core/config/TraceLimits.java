@@ -0,0 +1,42 @@
+package ai.narrativetrace.core.config;
+
+/**
+ * Upper bounds on how much of a call tree {@code ThreadLocalNarrativeContext} records.
+ *
+ * <p>Calls beyond a limit are not recorded; they are counted and timed instead, and show up as one
+ * synthetic {@link ai.narrativetrace.core.event.TraceOutcome.Elided} node at the end of the
+ * enclosing call's children ("42 more calls elided (total 17 ms)"). This keeps the memory held per
+ * trace predictable for long loops under a single root.
+ *
+ * <pre>{@code
+ * config.setLimits(new TraceLimits(10_000, 64, 500));
+ * }</pre>
+ *
+ * @param maxNodesPerRoot maximum recorded calls under one root call, root included
+ * @param maxDepth maximum recorded nesting depth (a root alone has depth 1)
+ * @param maxChildrenPerNode maximum recorded direct children of any call
+ * @see NarrativeTraceConfig#setLimits(TraceLimits)
+ */
+public record TraceLimits(int maxNodesPerRoot, int maxDepth, int maxChildrenPerNode) {
+
+  /** No limits (the default). */
+  public static final TraceLimits UNLIMITED =
+      new TraceLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+  /**
+   * Creates a set of limits.
+   *
+   * @throws IllegalArgumentException if any limit is less than 1
+   */
+  public TraceLimits {
+    if (maxNodesPerRoot < 1 || maxDepth < 1 || maxChildrenPerNode < 1) {
+      throw new IllegalArgumentException(
+          "Trace limits must be at least 1, got nodes="
+              + maxNodesPerRoot
+              + ", depth="
+              + maxDepth
+              + ", children="
+              + maxChildrenPerNode);
+    }
+  }
+}
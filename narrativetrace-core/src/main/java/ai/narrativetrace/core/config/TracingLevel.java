@@ -26,7 +26,10 @@ public enum TracingLevel {
   /** No trace capture. {@code NarrativeContext.isActive()} returns {@code false}. */
   OFF,
 
-  /** Only exception paths are recorded. Successful calls are discarded. */
+  /**
+   * Only exception paths are recorded. Successful calls are discarded before anything about them
+   * is rendered; calls on an exception path are rendered with full parameter values.
+   */
   ERRORS,
 
   /** Root and leaf calls only. Intermediate call frames are pruned. */
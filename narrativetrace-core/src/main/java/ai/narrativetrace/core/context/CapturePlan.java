@@ -0,0 +1,65 @@
+package ai.narrativetrace.core.context;
+
+import ai.narrativetrace.core.config.TracingLevel;
+
+/**
+ * Tells proxies and agents which parts of a call the context will actually keep.
+ *
+ * <p>Obtained per call via {@link NarrativeContext#capturePlan()}. Capture sites consult the plan
+ * before doing any work, so values that the context would discard are never rendered:
+ *
+ * <pre>{@code
+ * var plan = context.capturePlan();
+ * var rendered = plan.parameterValues() ? renderer.render(arg) : "";
+ * }</pre>
+ *
+ * <p>Skipped parameter values are reported as an empty string, skipped return values as {@code
+ * null}, and skipped narration as {@code null}.
+ *
+ * @param parameterValues whether parameter values should be rendered via {@code ValueRenderer}
+ * @param returnValue whether return values should be rendered via {@code ValueRenderer}
+ * @param narration whether {@code @Narrated} templates should be resolved
+ * @see NarrativeContext#capturePlan()
+ */
+public record CapturePlan(boolean parameterValues, boolean returnValue, boolean narration) {
+
+  /** Captures everything. */
+  public static final CapturePlan FULL = new CapturePlan(true, true, true);
+
+  /** Captures nothing (inactive context). */
+  public static final CapturePlan NONE = new CapturePlan(false, false, false);
+
+  private static final CapturePlan[] BY_LEVEL = {
+    NONE, // OFF
+    new CapturePlan(false, false, true), // ERRORS — successful calls are discarded
+    new CapturePlan(false, true, true), // SUMMARY
+    new CapturePlan(false, true, true), // NARRATIVE
+    FULL // DETAIL
+  };
+
+  /**
+   * Returns the plan matching what {@link ThreadLocalNarrativeContext} keeps at the given level.
+   *
+   * @param level the tracing level
+   * @return a shared plan instance (no allocation)
+   */
+  public static CapturePlan forLevel(TracingLevel level) {
+    return BY_LEVEL[level.ordinal()];
+  }
+
+  /**
+   * Returns a plan that captures everything either this plan or {@code other} captures.
+   *
+   * @param other the plan to merge with
+   * @return the combined plan
+   */
+  public CapturePlan union(CapturePlan other) {
+    if (other == this || other == NONE) {
+      return this;
+    }
+    return new CapturePlan(
+        parameterValues || other.parameterValues,
+        returnValue || other.returnValue,
+        narration || other.narration);
+  }
+}
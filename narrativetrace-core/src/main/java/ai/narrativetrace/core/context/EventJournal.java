@@ -0,0 +1,387 @@
+package ai.narrativetrace.core.context;
+
+import ai.narrativetrace.core.config.HeadSampling;
+import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.event.TraceNode;
+import ai.narrativetrace.core.export.RequestContext;
+import ai.narrativetrace.core.export.TraceExporter;
+import ai.narrativetrace.core.tree.DefaultTraceTree;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Single-producer, single-consumer ring of fixed-size trace records for one thread.
+ *
+ * <p>The owning thread appends a kind, a timestamp and up to two references (an already rendered
+ * signature, return value, exception or request) per record and publishes its position with an
+ * ordered write, so appending never locks or allocates. The {@link TraceAssembler} thread replays
+ * the records into a {@link TraceStack} through a {@link StackRecorder} and exports each completed
+ * request.
+ *
+ * <p>When the ring is full the producer never waits, so a stalled or stopped assembler cannot block
+ * the request thread. It drops records until the next request boundary, which it then journals as
+ * a reset, so the affected request is never exported half built. A boundary or scope record that
+ * finds no space leaves the request discarding and is retried at the next boundary; a scope whose
+ * opening was not journaled records nothing, and a scope close that was not journaled is written
+ * before anything else once there is room.
+ */
+final class EventJournal implements LongSupplier {
+
+  private static final byte ENTER = 0;
+  private static final byte RETURN = 1;
+  private static final byte THROW = 2;
+  private static final byte ATTACH = 3;
+  private static final byte OPEN_SCOPE = 4;
+  private static final byte CLOSE_SCOPE = 5;
+  private static final byte RESET = 6;
+  private static final byte COMPLETE = 7;
+  private static final byte DISCARD_ROOT = 8;
+  private static final TracingLevel[] LEVELS = TracingLevel.values();
+
+  private final Thread owner;
+  private final int capacity;
+  private final int mask;
+  private final byte[] kinds;
+  private final byte[] levels;
+  private final long[] timestamps;
+  private final Object[] values;
+  private final Object[] details;
+  private final AtomicLong published = new AtomicLong();
+  private final AtomicLong consumed = new AtomicLong();
+
+  // Producer side, touched only by the owner thread.
+  private long tail;
+  private long cachedHead;
+  private int depth;
+  private boolean dirty;
+  private boolean discarding;
+  private boolean scopeLost;
+  private int pendingCloses;
+  private RootSampling rootSampling = new RootSampling();
+  private final ArrayDeque<ProducerScope> producerScopes = new ArrayDeque<>();
+
+  // Consumer side, touched by the assembler, or by the owner once the journal is drained.
+  private TraceStack stack;
+  private final ArrayDeque<TraceStack> suspended = new ArrayDeque<>();
+  private long replayNanos;
+
+  /**
+   * Creates an empty journal.
+   *
+   * @param owner the only thread that appends to this journal
+   * @param capacity ring size in records, a power of two
+   */
+  EventJournal(Thread owner, int capacity) {
+    this.owner = owner;
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    this.kinds = new byte[capacity];
+    this.levels = new byte[capacity];
+    this.timestamps = new long[capacity];
+    this.values = new Object[capacity];
+    this.details = new Object[capacity];
+    this.stack = newReplayStack();
+  }
+
+  Thread owner() {
+    return owner;
+  }
+
+  /** Returns the current root's head sampling verdict, deciding it on first use. */
+  boolean isSampled(HeadSampling sampling) {
+    return rootSampling.isSampled(sampling);
+  }
+
+  /** As {@link TraceStack#isActive}: only calls nested in an unsampled root are not reported. */
+  boolean isActive(HeadSampling sampling) {
+    return rootSampling.isActive(sampling);
+  }
+
+  TraceStack.SampleDecision sampleDecision() {
+    return rootSampling.decision();
+  }
+
+  void enter(MethodSignature signature, TracingLevel level) {
+    depth++;
+    offer(ENTER, level, signature, null);
+  }
+
+  /** Enters a call under an unsampled verdict; nothing is journaled. */
+  void enterUnsampled() {
+    rootSampling.enterUnsampled();
+  }
+
+  void exitWithReturn(String renderedReturnValue, TracingLevel level) {
+    if (rootSampling.exitUnsampled(depth)) {
+      return;
+    }
+    if (depth > 0) {
+      depth--;
+      offer(RETURN, level, renderedReturnValue, null);
+      rootSampling.release(depth);
+    }
+  }
+
+  void exitWithException(Throwable exception, String errorContext, TracingLevel level) {
+    if (rootSampling.exitUnsampled(depth)) {
+      return;
+    }
+    if (depth > 0) {
+      depth--;
+      offer(THROW, level, exception, errorContext);
+      rootSampling.release(depth);
+    }
+  }
+
+  /**
+   * Returns a queue whose subtrees the assembler will attach to the innermost open call, or {@code
+   * null} if no call is open or records are being dropped.
+   */
+  Queue<TraceNode> attachmentPoint() {
+    if (depth == 0) {
+      return null;
+    }
+    var queue = new ConcurrentLinkedQueue<TraceNode>();
+    return offer(ATTACH, queue, null) ? queue : null;
+  }
+
+  /** Starts recording into a fresh stack, as {@link ContextSnapshot#activate()} does. */
+  void openScope(TraceStack.SampleDecision inherited) {
+    producerScopes.push(
+        new ProducerScope(depth, rootSampling, discarding, scopeLost));
+    scopeLost = !tryAppend(OPEN_SCOPE, null, null);
+    depth = 0;
+    rootSampling = new RootSampling();
+    rootSampling.inherit(inherited);
+    discarding = scopeLost;
+  }
+
+  /**
+   * Ends the innermost scope, handing its roots to {@code attachmentPoint} if not {@code null}. A
+   * scope that overflowed hands over nothing.
+   */
+  void closeScope(Queue<TraceNode> attachmentPoint) {
+    if (!scopeLost && !tryAppend(CLOSE_SCOPE, discarding ? null : attachmentPoint, null)) {
+      pendingCloses++;
+    }
+    var scope = producerScopes.pop();
+    depth = scope.depth();
+    rootSampling = scope.rootSampling();
+    scopeLost = scope.scopeLost();
+    // Until the owed closes are written, records would land in the wrong stack.
+    discarding = scope.discarding() || pendingCloses > 0;
+  }
+
+  /** Drops the newest completed root; a request already overflowing is dropped anyway. */
+  void discardLastRoot() {
+    if (depth == 0) {
+      offer(DISCARD_ROOT, null, null);
+    }
+  }
+
+  /** Forgets the current request. */
+  void reset() {
+    boolean journaled = !(dirty || discarding) || boundary(RESET, null, null);
+    endRequest(journaled);
+  }
+
+  /**
+   * Ends the current request; the assembler exports it if anything was recorded.
+   *
+   * @return {@code false} if the request was dropped because the journal overflowed
+   */
+  boolean complete(RequestContext requestContext, TraceExporter exporter) {
+    if (discarding) {
+      endRequest(boundary(RESET, null, null));
+      return false;
+    }
+    boolean journaled = !dirty || boundary(COMPLETE, requestContext, exporter);
+    endRequest(journaled);
+    return journaled;
+  }
+
+  /** Appends a request boundary, which a scope that was never opened on the assembler drops. */
+  private boolean boundary(byte kind, Object value, Object detail) {
+    return !scopeLost && tryAppend(kind, value, detail);
+  }
+
+  /** Ends the request; one whose boundary was not journaled keeps discarding until the next. */
+  private void endRequest(boolean journaled) {
+    discarding = !journaled || pendingCloses > 0;
+    dirty = false;
+    depth = 0;
+    rootSampling.clear();
+  }
+
+  private boolean offer(byte kind, Object value, Object detail) {
+    return offer(kind, TracingLevel.OFF, value, detail);
+  }
+
+  private boolean offer(byte kind, TracingLevel level, Object value, Object detail) {
+    if (discarding) {
+      return false;
+    }
+    if (!hasSpace()) {
+      discarding = true;
+      return false;
+    }
+    append(kind, level, value, detail);
+    return true;
+  }
+
+  /** Appends a structural record if there is room, after any scope closes still owed. */
+  private boolean tryAppend(byte kind, Object value, Object detail) {
+    while (pendingCloses > 0 && hasSpace()) {
+      append(CLOSE_SCOPE, TracingLevel.OFF, null, null);
+      pendingCloses--;
+    }
+    if (pendingCloses > 0 || !hasSpace()) {
+      return false;
+    }
+    append(kind, TracingLevel.OFF, value, detail);
+    return true;
+  }
+
+  private boolean hasSpace() {
+    if (tail - cachedHead == capacity) {
+      cachedHead = consumed.get();
+    }
+    return tail - cachedHead < capacity;
+  }
+
+  /** Calls carry the level they were recorded at; other records ignore theirs. */
+  private void append(byte kind, TracingLevel level, Object value, Object detail) {
+    int index = (int) tail & mask;
+    kinds[index] = kind;
+    levels[index] = (byte) level.ordinal();
+    timestamps[index] = System.nanoTime();
+    values[index] = value;
+    details[index] = detail;
+    tail++;
+    published.lazySet(tail);
+    dirty = true;
+  }
+
+  /** Whether the consumer has replayed everything the owner appended. */
+  boolean isDrained() {
+    return consumed.get() == published.get();
+  }
+
+  /**
+   * Replays published records up to, but not including, the next request completion. The
+   * completion stays pending until {@link #completePending()}, so the assembler can first catch up
+   * with scopes that other threads closed before the request ended. Must only be called by one
+   * consumer at a time.
+   *
+   * @return the number of records replayed
+   */
+  int drain(StackRecorder recorder) {
+    long head = consumed.get();
+    long available = published.get();
+    long position = head;
+    while (position < available) {
+      int index = (int) position & mask;
+      if (kinds[index] == COMPLETE) {
+        break;
+      }
+      replay(
+          recorder,
+          kinds[index],
+          LEVELS[levels[index]],
+          timestamps[index],
+          values[index],
+          details[index]);
+      values[index] = null;
+      details[index] = null;
+      position++;
+    }
+    consumed.lazySet(position);
+    return (int) (position - head);
+  }
+
+  boolean hasPendingCompletion() {
+    long head = consumed.get();
+    return head < published.get() && kinds[(int) head & mask] == COMPLETE;
+  }
+
+  /** Exports the request whose completion {@link #drain} stopped at. */
+  void completePending() {
+    long head = consumed.get();
+    int index = (int) head & mask;
+    var requestContext = (RequestContext) values[index];
+    var exporter = (TraceExporter) details[index];
+    values[index] = null;
+    details[index] = null;
+    var roots = stack.roots();
+    clearReplayStack();
+    consumed.lazySet(head + 1);
+    if (!roots.isEmpty()) {
+      try {
+        exporter.export(new DefaultTraceTree(roots), requestContext);
+      } catch (VirtualMachineError e) {
+        throw e;
+      } catch (Throwable t) { // NOPMD AvoidCatchingThrowable - exporters may throw LinkageError
+        // Observability failure must never stop the assembler, or tracing ends for good
+      }
+    }
+  }
+
+  /** Returns the stack being replayed into; only safe to read once the journal is drained. */
+  TraceStack replayStack() {
+    return stack;
+  }
+
+  @Override
+  public long getAsLong() {
+    return replayNanos;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void replay(
+      StackRecorder recorder,
+      byte kind,
+      TracingLevel level,
+      long timestamp,
+      Object value,
+      Object detail) {
+    replayNanos = timestamp;
+    switch (kind) {
+      case ENTER -> recorder.enter(stack, (MethodSignature) value, level);
+      case RETURN -> recorder.exitWithReturn(stack, (String) value, level);
+      case THROW -> recorder.exitWithException(stack, (Throwable) value, (String) detail, level);
+      case ATTACH -> stack.adopt((Queue<TraceNode>) value);
+      case OPEN_SCOPE -> {
+        suspended.push(stack);
+        stack = newReplayStack();
+      }
+      case CLOSE_SCOPE -> {
+        if (value != null) {
+          ((Queue<TraceNode>) value).addAll(stack.roots());
+        }
+        stack = suspended.pop();
+      }
+      case RESET -> clearReplayStack();
+      case DISCARD_ROOT -> stack.discardLastRoot();
+      default -> throw new IllegalStateException("Unknown journal record " + kind);
+    }
+  }
+
+  private TraceStack newReplayStack() {
+    var replayStack = new TraceStack(this);
+    // Sampling was decided on the recording thread; everything journaled is sampled.
+    replayStack.inheritSampleDecision(TraceStack.SampleDecision.SAMPLED);
+    return replayStack;
+  }
+
+  private void clearReplayStack() {
+    stack.clear();
+    stack.inheritSampleDecision(TraceStack.SampleDecision.SAMPLED);
+  }
+
+  private record ProducerScope(
+      int depth, RootSampling rootSampling, boolean discarding, boolean scopeLost) {}
+}
@@ -0,0 +1,296 @@
+package ai.narrativetrace.core.context;
+
+import ai.narrativetrace.core.config.HeadSampling;
+import ai.narrativetrace.core.config.NarrativeTraceConfig;
+import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.event.TraceNode;
+import ai.narrativetrace.core.export.RequestContext;
+import ai.narrativetrace.core.export.TraceExporter;
+import ai.narrativetrace.core.tree.DefaultTraceTree;
+import ai.narrativetrace.core.tree.TraceTree;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link NarrativeContext} that moves trace assembly and export off the request thread.
+ *
+ * <p>Each recording thread appends fixed-size enter and exit records to its own lock-free ring
+ * journal. A background assembler thread replays the journals into trace trees, applying the
+ * tracing level, {@linkplain NarrativeTraceConfig#setLimits limits} and {@linkplain
+ * NarrativeTraceConfig#setFoldRepeatedCalls folding} exactly as {@link ThreadLocalNarrativeContext}
+ * does, and hands each finished request to its exporter. Each call is journaled with the tracing
+ * level in force when it was entered or exited, so a level change applies to calls made after it
+ * however far the assembler lags behind. The request thread only pays for
+ * rendering signatures and return values and for the journal writes.
+ *
+ * <pre>{@code
+ * var context = new JournalingNarrativeContext(config);
+ * var filter = new NarrativeTraceFilter(context, new Slf4jTraceExporter());
+ * }</pre>
+ *
+ * <p>{@code NarrativeTraceFilter} recognizes this context and ends each request with {@link
+ * #completeRequest(RequestContext, TraceExporter)} instead of capturing and exporting inline.
+ * {@link #captureTrace()} still works, but waits for the assembler to catch up with the calling
+ * thread, so it is meant for tests and request-free code.
+ *
+ * <p>Signatures are resolved on the recording thread when a call is entered, because parameters
+ * may change or be unsafe to render once the call returns; at {@code ERRORS} level they are
+ * therefore rendered without parameter values instead of being deferred to the exception path.
+ *
+ * <p>A journal that fills up because the assembler fell behind drops the rest of its current
+ * request rather than blocking the request thread; see {@link #droppedRequests()}. This holds for
+ * request boundaries too, so a stalled or closed assembler never blocks a recording thread. Each
+ * recording thread holds a journal of the configured capacity, created when it first records, so
+ * this context suits pools of platform threads better than large numbers of virtual threads.
+ * Journals of threads that have died are dropped once the assembler has replayed them.
+ *
+ * <p>{@linkplain #snapshot() Snapshots} behave as in {@link ThreadLocalNarrativeContext}: work
+ * traced in a scope activated from a snapshot taken inside a call is attached to that call.
+ *
+ * @see ThreadLocalNarrativeContext
+ */
+public final class JournalingNarrativeContext implements NarrativeContext, AutoCloseable {
+
+  /** Default journal size per recording thread, in records. */
+  public static final int DEFAULT_JOURNAL_CAPACITY = 1024;
+
+  private final NarrativeTraceConfig config;
+  private final TraceAssembler assembler;
+  private final int journalCapacity;
+  private final ThreadLocal<EventJournal> journals;
+  private final AtomicLong droppedRequests = new AtomicLong();
+
+  /** Creates a context with default configuration ({@code TracingLevel.DETAIL}). */
+  public JournalingNarrativeContext() {
+    this(new NarrativeTraceConfig());
+  }
+
+  /**
+   * Creates a context with the given configuration and the default journal capacity.
+   *
+   * @param config the tracing configuration (level can be changed at runtime)
+   */
+  public JournalingNarrativeContext(NarrativeTraceConfig config) {
+    this(config, DEFAULT_JOURNAL_CAPACITY);
+  }
+
+  /**
+   * Creates a context and starts its assembler thread.
+   *
+   * @param config the tracing configuration (level can be changed at runtime)
+   * @param journalCapacity records per recording thread, a power of two
+   * @throws IllegalArgumentException if {@code journalCapacity} is not a positive power of two
+   */
+  public JournalingNarrativeContext(NarrativeTraceConfig config, int journalCapacity) {
+    if (journalCapacity <= 0 || Integer.bitCount(journalCapacity) != 1) {
+      throw new IllegalArgumentException(
+          "Journal capacity must be a positive power of two, got " + journalCapacity);
+    }
+    this.config = config;
+    this.journalCapacity = journalCapacity;
+    this.assembler = new TraceAssembler(new StackRecorder(config));
+    this.journals = new ThreadLocal<>();
+    assembler.start();
+  }
+
+  /**
+   * Returns the journal size per recording thread.
+   *
+   * @return the capacity in records
+   */
+  public int journalCapacity() {
+    return journalCapacity;
+  }
+
+  @Override
+  public boolean isActive() {
+    if (!isRecording()) {
+      return false;
+    }
+    var sampling = config.sampling();
+    return sampling == HeadSampling.ALWAYS || journal().isActive(sampling);
+  }
+
+  @Override
+  public CapturePlan capturePlan() {
+    if (!isRecording()) {
+      return CapturePlan.NONE;
+    }
+    var sampling = config.sampling();
+    if (sampling != HeadSampling.ALWAYS && !journal().isSampled(sampling)) {
+      return CapturePlan.NONE;
+    }
+    return CapturePlan.forLevel(config.level());
+  }
+
+  @Override
+  public void enterMethod(MethodSignature signature) {
+    var level = config.level();
+    if (isRecording(level)) {
+      var journal = journal();
+      if (records(journal)) {
+        journal.enter(signature, level);
+      }
+    }
+  }
+
+  @Override
+  public void enterMethod(SignatureResolver resolver, Object[] args) {
+    var level = config.level();
+    if (isRecording(level)) {
+      var journal = journal();
+      if (records(journal)) {
+        journal.enter(resolver.resolve(args, CapturePlan.forLevel(level)), level);
+      }
+    }
+  }
+
+  @Override
+  public void exitMethodWithReturn(String renderedReturnValue) {
+    var journal = journals.get();
+    if (journal != null) {
+      journal.exitWithReturn(renderedReturnValue, config.level());
+    }
+  }
+
+  @Override
+  public void exitMethodWithException(Throwable exception, String errorContext) {
+    var journal = journals.get();
+    if (journal != null) {
+      journal.exitWithException(exception, errorContext, config.level());
+    }
+  }
+
+  /**
+   * Ends the calling thread's request and hands its trace to {@code exporter} on the assembler
+   * thread. Nothing is exported if no call was recorded. The calling thread's context is reset.
+   *
+   * @param requestContext metadata about the request
+   * @param exporter receives the assembled trace; exceptions it throws are ignored
+   */
+  public void completeRequest(RequestContext requestContext, TraceExporter exporter) {
+    var journal = journals.get();
+    if (journal != null && !journal.complete(requestContext, exporter)) {
+      droppedRequests.incrementAndGet();
+    }
+  }
+
+  /**
+   * Returns how many requests were dropped because a journal overflowed.
+   *
+   * @return the number of dropped requests since creation
+   */
+  public long droppedRequests() {
+    return droppedRequests.get();
+  }
+
+  /**
+   * Returns the calling thread's completed roots once the assembler has replayed everything
+   * recorded so far. If the assembler has not caught up within five seconds, the trace is reported
+   * empty.
+   *
+   * @return the captured trace tree
+   */
+  @Override
+  public TraceTree captureTrace() {
+    var journal = journals.get();
+    if (journal == null || !assembler.awaitCatchUp()) {
+      return new DefaultTraceTree(List.of());
+    }
+    return new DefaultTraceTree(journal.replayStack().roots());
+  }
+
+  @Override
+  public void reset() {
+    var journal = journals.get();
+    if (journal != null) {
+      journal.reset();
+    }
+  }
+
+  @Override
+  public void discardLastRoot() {
+    var journal = journals.get();
+    if (journal != null) {
+      journal.discardLastRoot();
+    }
+  }
+
+  @Override
+  public ContextSnapshot snapshot() {
+    var journal = journals.get();
+    if (journal == null) {
+      return new JournalContextSnapshot(this, TraceStack.SampleDecision.UNDECIDED, null);
+    }
+    return new JournalContextSnapshot(this, journal.sampleDecision(), journal.attachmentPoint());
+  }
+
+  /**
+   * Stops the assembler after it has replayed and exported everything journaled so far. The
+   * context records nothing afterwards.
+   */
+  @Override
+  public void close() {
+    try {
+      assembler.stop();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Whether calls are traced at all; checked before touching the calling thread's journal. */
+  private boolean isRecording() {
+    return isRecording(config.level());
+  }
+
+  private boolean isRecording(TracingLevel level) {
+    return level.isEnabled(TracingLevel.ERRORS) && assembler.isRunning();
+  }
+
+  /** Returns the calling thread's journal, creating and registering it on first use. */
+  private EventJournal journal() {
+    var journal = journals.get();
+    if (journal == null) {
+      journal = assembler.register(new EventJournal(Thread.currentThread(), journalCapacity));
+      journals.set(journal);
+    }
+    return journal;
+  }
+
+  /** Whether the call being entered is journaled; an unsampled one is only counted. */
+  private boolean records(EventJournal journal) {
+    var sampling = config.sampling();
+    if (sampling == HeadSampling.ALWAYS || journal.isSampled(sampling)) {
+      return true;
+    }
+    journal.enterUnsampled();
+    return false;
+  }
+
+  private static final class JournalContextSnapshot implements ContextSnapshot {
+    private final JournalingNarrativeContext context;
+    private final TraceStack.SampleDecision sampleDecision;
+    private final Queue<TraceNode> attachmentPoint;
+
+    JournalContextSnapshot(
+        JournalingNarrativeContext context,
+        TraceStack.SampleDecision sampleDecision,
+        Queue<TraceNode> attachmentPoint) {
+      this.context = context;
+      this.sampleDecision = sampleDecision;
+      this.attachmentPoint = attachmentPoint;
+    }
+
+    @Override
+    public ContextScope activate() {
+      if (!context.isRecording()) {
+        return () -> {};
+      }
+      var journal = context.journal();
+      journal.openScope(sampleDecision);
+      return () -> journal.closeScope(attachmentPoint);
+    }
+  }
+}
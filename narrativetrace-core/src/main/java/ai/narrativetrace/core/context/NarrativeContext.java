@@ -24,6 +24,10 @@ import ai.narrativetrace.core.tree.TraceTree;
  *   <li>{@link ThreadLocalNarrativeContext} — default, zero-dependency, ThreadLocal-based
  *   <li>{@code ai.narrativetrace.slf4j.Slf4jNarrativeContext} — routes events through SLF4J with
  *       MDC
+ *   <li>{@link ScopedNarrativeContext} — records only inside explicit scopes, for virtual threads
+ *   <li>{@link JournalingNarrativeContext} — journals calls and assembles traces off-thread
+ *   <li>{@link TailSamplingNarrativeContext} — keeps only traces matching a {@link
+ *       TailSamplingPolicy}
  * </ul>
  *
  * @see ThreadLocalNarrativeContext
@@ -43,6 +47,19 @@ public interface NarrativeContext {
     return true;
   }
 
+  /**
+   * Returns what this context will keep from the call about to be recorded.
+   *
+   * <p>Proxies and agents call this after {@link #isActive()} and before rendering anything, so
+   * that parameter values, return values and narration the context would discard are never
+   * computed. The default implementation captures everything while active.
+   *
+   * @return the capture plan for the next call (never {@code null})
+   */
+  default CapturePlan capturePlan() {
+    return isActive() ? CapturePlan.FULL : CapturePlan.NONE;
+  }
+
   /**
    * Records entry into a method.
    *
@@ -55,6 +72,21 @@ public interface NarrativeContext {
    */
   void enterMethod(MethodSignature signature);
 
+  /**
+   * Records entry into a method whose signature is built from raw arguments on demand.
+   *
+   * <p>Contexts that discard most calls can hold on to {@code args} and only invoke the resolver
+   * for calls they keep. The caller must not modify {@code args} after the call. The default
+   * implementation resolves the signature immediately against {@link #capturePlan()} and
+   * delegates to {@link #enterMethod(MethodSignature)}.
+   *
+   * @param resolver builds the signature from the arguments
+   * @param args the raw call arguments (never {@code null}; empty for no-arg methods)
+   */
+  default void enterMethod(SignatureResolver resolver, Object[] args) {
+    enterMethod(resolver.resolve(args, capturePlan()));
+  }
+
   /**
    * Records a normal method return.
    *
@@ -72,6 +104,26 @@ public interface NarrativeContext {
    */
   void exitMethodWithException(Throwable exception, String errorContext);
 
+  /**
+   * Records a call that was only observed once it threw, without a matching {@link #enterMethod}.
+   *
+   * <p>Used by instrumentation that skips the success path entirely and reports each frame from
+   * its exception handler, innermost first. Contexts that support it nest the previously recorded
+   * sibling under this call when that sibling threw {@code exception} or one of its causes, so the
+   * frames an exception propagates through form a single branch. The default implementation
+   * records the call as a leaf.
+   *
+   * @param resolver builds the signature from the arguments
+   * @param args the argument values at the time of the throw (never {@code null})
+   * @param exception the thrown exception
+   * @param errorContext the resolved {@code @OnError} template, or {@code null}
+   */
+  default void recordFailure(
+      SignatureResolver resolver, Object[] args, Throwable exception, String errorContext) {
+    enterMethod(resolver, args);
+    exitMethodWithException(exception, errorContext);
+  }
+
   /**
    * Returns the immutable trace tree accumulated since the last {@link #reset()}.
    *
@@ -82,6 +134,19 @@ public interface NarrativeContext {
   /** Clears all accumulated trace state. Call between tests or requests. */
   void reset();
 
+  /**
+   * Discards the most recently completed root call and everything recorded beneath it, leaving
+   * earlier roots and request state such as the head sampling decision untouched. Does nothing
+   * while a call is open.
+   *
+   * <p>Called between roots by decorators that decide after the fact not to keep a root, such as
+   * {@link TailSamplingNarrativeContext}. The default implementation falls back to {@link
+   * #reset()}, which drops the whole request.
+   */
+  default void discardLastRoot() {
+    reset();
+  }
+
   /**
    * Creates a snapshot for cross-thread trace propagation.
    *
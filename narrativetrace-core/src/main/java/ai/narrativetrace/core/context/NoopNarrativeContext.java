@@ -19,15 +19,27 @@ public final class NoopNarrativeContext implements NarrativeContext {
     return false;
   }
 
+  @Override
+  public CapturePlan capturePlan() {
+    return CapturePlan.NONE;
+  }
+
   @Override
   public void enterMethod(MethodSignature signature) {}
 
+  @Override
+  public void enterMethod(SignatureResolver resolver, Object[] args) {}
+
   @Override
   public void exitMethodWithReturn(String renderedReturnValue) {}
 
   @Override
   public void exitMethodWithException(Throwable exception, String errorContext) {}
 
+  @Override
+  public void recordFailure(
+      SignatureResolver resolver, Object[] args, Throwable exception, String errorContext) {}
+
   @Override
   public TraceTree captureTrace() {
     return EMPTY_TREE;
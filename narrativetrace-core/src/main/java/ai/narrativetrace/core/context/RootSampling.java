@@ -0,0 +1,90 @@
+package ai.narrativetrace.core.context;
+
+import ai.narrativetrace.core.config.HeadSampling;
+import ai.narrativetrace.core.context.TraceStack.SampleDecision;
+
+/**
+ * Head sampling state of one recording stack: the verdict for the current root call and the depth
+ * of calls nested in an unsampled root.
+ *
+ * <p>The verdict is decided when the root first asks for it and released once the root and every
+ * call in it have exited, so each root decides afresh. A verdict inherited from a parent thread
+ * holds for every root instead.
+ *
+ * <p>Shared by {@link TraceStack} and {@link EventJournal}, which count their recorded calls
+ * themselves and pass that depth in.
+ */
+final class RootSampling {
+
+  private SampleDecision decision = SampleDecision.UNDECIDED;
+  private boolean inherited;
+  private int unsampledDepth;
+
+  /** Returns the current root's verdict, deciding it on first use. */
+  boolean isSampled(HeadSampling sampling) {
+    if (decision == SampleDecision.UNDECIDED) {
+      decision = sampling.sample() ? SampleDecision.SAMPLED : SampleDecision.UNSAMPLED;
+    }
+    return decision == SampleDecision.SAMPLED;
+  }
+
+  /**
+   * Returns whether the next call should be reported at all. An unsampled root is still reported,
+   * so that its exit is seen and the next root can decide afresh; only the calls nested in it, and
+   * the calls of a stack that inherited an unsampled verdict, are not.
+   */
+  boolean isActive(HeadSampling sampling) {
+    return isSampled(sampling) || (unsampledDepth == 0 && !inherited);
+  }
+
+  SampleDecision decision() {
+    return decision;
+  }
+
+  /** Adopts a parent thread's verdict for every root. */
+  void inherit(SampleDecision parentDecision) {
+    decision = parentDecision;
+    inherited = parentDecision != SampleDecision.UNDECIDED;
+  }
+
+  /** Enters a call under an unsampled verdict; only the nesting depth is kept. */
+  void enterUnsampled() {
+    unsampledDepth++;
+  }
+
+  boolean inUnsampledCall() {
+    return unsampledDepth > 0;
+  }
+
+  /**
+   * Consumes the exit of a call entered by {@link #enterUnsampled()}, if one is open.
+   *
+   * @param depth the number of recorded calls still open
+   */
+  boolean exitUnsampled(int depth) {
+    if (unsampledDepth == 0) {
+      return false;
+    }
+    if (--unsampledDepth == 0) {
+      release(depth);
+    }
+    return true;
+  }
+
+  /**
+   * Lets the next root decide afresh once no call is open.
+   *
+   * @param depth the number of recorded calls still open
+   */
+  void release(int depth) {
+    if (depth == 0 && unsampledDepth == 0 && !inherited) {
+      decision = SampleDecision.UNDECIDED;
+    }
+  }
+
+  void clear() {
+    decision = SampleDecision.UNDECIDED;
+    inherited = false;
+    unsampledDepth = 0;
+  }
+}
@@ -0,0 +1,66 @@
+package ai.narrativetrace.core.context;
+
+/**
+ * Binds a value to the current thread for the extent of an operation.
+ *
+ * <p>This is the Java 17 variant, backed by a {@link ThreadLocal}. The multi-release jar carries a
+ * {@code ScopedValue}-backed variant under {@code META-INF/versions/25} with the same API, which
+ * forked {@code StructuredTaskScope} subtasks inherit and which costs nothing on threads that never
+ * bind a value.
+ *
+ * @param <T> the bound value type
+ */
+final class ScopedBinding<T> {
+
+  private final ThreadLocal<T> bound = new ThreadLocal<>();
+
+  /** Returns the value bound on the current thread, or {@code null} if none. */
+  T current() {
+    return bound.get();
+  }
+
+  /** Runs {@code op} with {@code value} bound, restoring the previous binding afterwards. */
+  <R, X extends Throwable> R call(T value, Op<R, X> op) throws X {
+    var previous = bound.get();
+    bound.set(value);
+    try {
+      return op.call();
+    } finally {
+      if (previous == null) {
+        bound.remove();
+      } else {
+        bound.set(previous);
+      }
+    }
+  }
+
+  /**
+   * Binds {@code value} until {@link #restore} is called with the returned previous value. Calls
+   * must nest on the thread that opened the binding.
+   */
+  T open(T value) {
+    var previous = bound.get();
+    bound.set(value);
+    return previous;
+  }
+
+  /** Ends a binding made by {@link #open}, reinstating {@code previous}. */
+  void restore(T previous) {
+    if (previous == null) {
+      bound.remove();
+    } else {
+      bound.set(previous);
+    }
+  }
+
+  /**
+   * An operation run with a value bound.
+   *
+   * @param <R> the result type
+   * @param <X> the exception type thrown
+   */
+  @FunctionalInterface
+  interface Op<R, X extends Throwable> {
+    R call() throws X;
+  }
+}
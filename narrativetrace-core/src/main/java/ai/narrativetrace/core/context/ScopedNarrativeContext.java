@@ -0,0 +1,290 @@
+package ai.narrativetrace.core.context;
+
+import ai.narrativetrace.core.config.NarrativeTraceConfig;
+import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.event.TraceNode;
+import ai.narrativetrace.core.tree.DefaultTraceTree;
+import ai.narrativetrace.core.tree.TraceTree;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * {@link NarrativeContext} that records only inside explicit trace scopes, for virtual-thread
+ * workloads.
+ *
+ * <p>{@link ThreadLocalNarrativeContext} allocates a call stack on every thread that touches a
+ * traced bean, which adds up when a service starts millions of short-lived virtual threads. This
+ * context instead binds a call stack for the extent of {@link #run(Runnable)} or {@link
+ * #call(Callable)}. Outside a scope it is inactive and holds no per-thread state. On Java 25 and
+ * later the binding is a {@code ScopedValue} (the jar is multi-release); on older runtimes it falls
+ * back to a {@code ThreadLocal} that is cleared when the scope ends.
+ *
+ * <pre>{@code
+ * var context = new ScopedNarrativeContext(config);
+ * context.run(() -> {
+ *     orderService.placeOrder(order);
+ *     exporter.export(context.captureTrace());
+ * });
+ * }</pre>
+ *
+ * <p>Each scope belongs to the thread that opened it. Subtasks forked in a {@code
+ * StructuredTaskScope} inherit the binding but do not record into the parent's stack, which is not
+ * thread-safe; wrap them with a {@linkplain #snapshot() snapshot} to give each subtask its own
+ * scope that inherits the parent's head sampling decision. When a wrapped subtask finishes, its
+ * roots are attached as children of the call that took the snapshot:
+ *
+ * <pre>{@code
+ * var snapshot = context.snapshot();
+ * try (var scope = StructuredTaskScope.open()) {
+ *     scope.fork(snapshot.wrap(() -> inventory.reserve(order)));
+ *     scope.join();
+ * }
+ * }</pre>
+ *
+ * <p>Where a task boundary is not a lambda, such as a servlet filter or a callback pair, {@link
+ * #open()} and {@link ContextSnapshot#activate()} bind a scope until the returned {@link
+ * ContextScope} is closed. On Java 25 such a binding is held in a {@code ThreadLocal} rather than a
+ * {@code ScopedValue}, so forked subtasks do not inherit it; close it on the thread that opened it.
+ *
+ * @see ThreadLocalNarrativeContext
+ */
+public final class ScopedNarrativeContext implements NarrativeContext {
+
+  private final NarrativeTraceConfig config;
+  private final StackRecorder recorder;
+  private final ScopedBinding<Scope> binding = new ScopedBinding<>();
+
+  /** Creates a context with default configuration ({@code TracingLevel.DETAIL}). */
+  public ScopedNarrativeContext() {
+    this(new NarrativeTraceConfig());
+  }
+
+  /**
+   * Creates a context with the given configuration.
+   *
+   * @param config the tracing configuration (level can be changed at runtime)
+   */
+  public ScopedNarrativeContext(NarrativeTraceConfig config) {
+    this.config = config;
+    this.recorder = new StackRecorder(config);
+  }
+
+  /**
+   * Runs {@code task} inside a trace scope. If the current thread is already in a scope of this
+   * context, the task joins it.
+   *
+   * @param task the work to trace
+   */
+  public void run(Runnable task) {
+    inScope(
+        TraceStack.SampleDecision.UNDECIDED,
+        null,
+        () -> {
+          task.run();
+          return null;
+        });
+  }
+
+  /**
+   * Calls {@code task} inside a trace scope. If the current thread is already in a scope of this
+   * context, the task joins it.
+   *
+   * @param task the work to trace
+   * @param <T> the result type
+   * @return the task's result
+   * @throws Exception if the task throws
+   */
+  public <T> T call(Callable<T> task) throws Exception {
+    return inScope(TraceStack.SampleDecision.UNDECIDED, null, task::call);
+  }
+
+  /**
+   * Opens a trace scope on the current thread that lasts until the returned scope is closed. If the
+   * current thread is already in a scope of this context, the returned scope joins it and closing
+   * it does nothing.
+   *
+   * @return the scope to close, on this thread, when the traced work ends
+   */
+  public ContextScope open() {
+    return open(TraceStack.SampleDecision.UNDECIDED, null);
+  }
+
+  @Override
+  public boolean isActive() {
+    if (!config.level().isEnabled(TracingLevel.ERRORS)) {
+      return false;
+    }
+    var stack = stack();
+    return stack != null && recorder.isActive(stack);
+  }
+
+  @Override
+  public CapturePlan capturePlan() {
+    var stack = stack();
+    return stack != null ? recorder.capturePlan(stack) : CapturePlan.NONE;
+  }
+
+  @Override
+  public void enterMethod(MethodSignature signature) {
+    var stack = stack();
+    if (stack != null) {
+      recorder.enter(stack, signature);
+    }
+  }
+
+  @Override
+  public void enterMethod(SignatureResolver resolver, Object[] args) {
+    var stack = stack();
+    if (stack != null) {
+      recorder.enter(stack, resolver, args);
+    }
+  }
+
+  @Override
+  public void exitMethodWithReturn(String renderedReturnValue) {
+    var stack = stack();
+    if (stack != null) {
+      recorder.exitWithReturn(stack, renderedReturnValue);
+    }
+  }
+
+  @Override
+  public void exitMethodWithException(Throwable exception, String errorContext) {
+    var stack = stack();
+    if (stack != null) {
+      recorder.exitWithException(stack, exception, errorContext);
+    }
+  }
+
+  @Override
+  public void recordFailure(
+      SignatureResolver resolver, Object[] args, Throwable exception, String errorContext) {
+    var stack = stack();
+    if (stack != null) {
+      recorder.recordFailure(stack, resolver, args, exception, errorContext);
+    }
+  }
+
+  /**
+   * Returns the trace recorded in the current scope, or an empty tree outside a scope.
+   *
+   * @return the captured trace tree
+   */
+  @Override
+  public TraceTree captureTrace() {
+    var stack = stack();
+    return new DefaultTraceTree(stack != null ? stack.roots() : List.of());
+  }
+
+  @Override
+  public void reset() {
+    var stack = stack();
+    if (stack != null) {
+      stack.clear();
+    }
+  }
+
+  @Override
+  public void discardLastRoot() {
+    var stack = stack();
+    if (stack != null) {
+      stack.discardLastRoot();
+    }
+  }
+
+  @Override
+  public ContextSnapshot snapshot() {
+    var stack = stack();
+    if (stack == null) {
+      return new ScopedContextSnapshot(this, TraceStack.SampleDecision.UNDECIDED, null);
+    }
+    return new ScopedContextSnapshot(this, stack.sampleDecision(), stack.attachmentPoint());
+  }
+
+  private TraceStack stack() {
+    var scope = binding.current();
+    return scope != null && scope.owner() == Thread.currentThread() ? scope.stack() : null;
+  }
+
+  private <R, X extends Throwable> R inScope(
+      TraceStack.SampleDecision sampleDecision,
+      Queue<TraceNode> attachmentPoint,
+      ScopedBinding.Op<R, X> op)
+      throws X {
+    if (stack() != null) {
+      return op.call();
+    }
+    var stack = new TraceStack();
+    stack.inheritSampleDecision(sampleDecision);
+    try {
+      return binding.call(new Scope(Thread.currentThread(), stack), op);
+    } finally {
+      if (attachmentPoint != null) {
+        attachmentPoint.addAll(stack.roots());
+      }
+    }
+  }
+
+  private ContextScope open(
+      TraceStack.SampleDecision sampleDecision, Queue<TraceNode> attachmentPoint) {
+    if (stack() != null) {
+      return () -> {};
+    }
+    var stack = new TraceStack();
+    stack.inheritSampleDecision(sampleDecision);
+    var previous = binding.open(new Scope(Thread.currentThread(), stack));
+    return () -> {
+      binding.restore(previous);
+      if (attachmentPoint != null) {
+        attachmentPoint.addAll(stack.roots());
+      }
+    };
+  }
+
+  private record Scope(Thread owner, TraceStack stack) {}
+
+  private static final class ScopedContextSnapshot implements ContextSnapshot {
+    private final ScopedNarrativeContext context;
+    private final TraceStack.SampleDecision sampleDecision;
+    private final Queue<TraceNode> attachmentPoint;
+
+    ScopedContextSnapshot(
+        ScopedNarrativeContext context,
+        TraceStack.SampleDecision sampleDecision,
+        Queue<TraceNode> attachmentPoint) {
+      this.context = context;
+      this.sampleDecision = sampleDecision;
+      this.attachmentPoint = attachmentPoint;
+    }
+
+    @Override
+    public ContextScope activate() {
+      return context.open(sampleDecision, attachmentPoint);
+    }
+
+    @Override
+    public Runnable wrap(Runnable task) {
+      return () ->
+          context.inScope(
+              sampleDecision,
+              attachmentPoint,
+              () -> {
+                task.run();
+                return null;
+              });
+    }
+
+    @Override
+    public <T> Callable<T> wrap(Callable<T> task) {
+      return () -> context.inScope(sampleDecision, attachmentPoint, task::call);
+    }
+
+    @Override
+    public <T> Supplier<T> wrap(Supplier<T> task) {
+      return () -> context.inScope(sampleDecision, attachmentPoint, task::get);
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package ai.narrativetrace.core.context;
+
+import ai.narrativetrace.core.event.MethodSignature;
+
+/**
+ * Builds the {@link MethodSignature} of a traced call from its raw arguments, on demand.
+ *
+ * <p>Passed to {@link NarrativeContext#enterMethod(SignatureResolver, Object[])} in place of a
+ * prebuilt signature. A context that keeps only some calls can then defer parameter rendering and
+ * narration until it knows the call is worth keeping — at {@code ERRORS} level, {@link
+ * ThreadLocalNarrativeContext} resolves signatures only for calls that exit with an exception.
+ *
+ * <p>Resolvers are typically created once per traced method and shared across calls, so entering
+ * a deferred call allocates nothing beyond the argument array the caller already holds.
+ *
+ * @see NarrativeContext#enterMethod(SignatureResolver, Object[])
+ */
+@FunctionalInterface
+public interface SignatureResolver {
+
+  /**
+   * Builds the signature for one call.
+   *
+   * @param args the raw call arguments (never {@code null}; empty for no-arg methods)
+   * @param plan which parts of the signature to render; skipped parameter values are reported as
+   *     an empty string and skipped narration as {@code null}
+   * @return the resolved signature
+   */
+  MethodSignature resolve(Object[] args, CapturePlan plan);
+}
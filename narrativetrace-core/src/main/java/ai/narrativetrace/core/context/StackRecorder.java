@@ -0,0 +1,152 @@
+package ai.narrativetrace.core.context;
+
+import ai.narrativetrace.core.config.HeadSampling;
+import ai.narrativetrace.core.config.NarrativeTraceConfig;
+import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.event.MethodSignature;
+
+/**
+ * Applies a {@link NarrativeTraceConfig} to a {@link TraceStack}: tracing level, head sampling,
+ * trace limits and repeat folding.
+ *
+ * <p>Head sampling is decided per root. A root that is not sampled is still entered and exited,
+ * with nothing captured, so that the stack sees it end; the calls nested in it report {@link
+ * NarrativeContext#isActive()} {@code false}.
+ *
+ * <p>Shared by the contexts that differ only in how they find the current thread's stack.
+ */
+final class StackRecorder {
+
+  private final NarrativeTraceConfig config;
+
+  StackRecorder(NarrativeTraceConfig config) {
+    this.config = config;
+  }
+
+  TracingLevel level() {
+    return config.level();
+  }
+
+  boolean isSampled(TraceStack traceStack) {
+    var sampling = config.sampling();
+    return sampling == HeadSampling.ALWAYS || traceStack.isSampled(sampling);
+  }
+
+  /** Whether the next call should be reported; the level is checked by the caller. */
+  boolean isActive(TraceStack traceStack) {
+    var sampling = config.sampling();
+    return sampling == HeadSampling.ALWAYS || traceStack.isActive(sampling);
+  }
+
+  /** Captures nothing for an unsampled root, which is reported only so that its end is seen. */
+  CapturePlan capturePlan(TraceStack traceStack) {
+    var level = config.level();
+    if (!level.isEnabled(TracingLevel.ERRORS) || !isSampled(traceStack)) {
+      return CapturePlan.NONE;
+    }
+    return CapturePlan.forLevel(level);
+  }
+
+  void enter(TraceStack traceStack, MethodSignature signature) {
+    enter(traceStack, signature, config.level());
+  }
+
+  /** Enters a call at the level in force when it was recorded, which a replay passes in. */
+  void enter(TraceStack traceStack, MethodSignature signature, TracingLevel level) {
+    if (!level.isEnabled(TracingLevel.ERRORS) || !admit(traceStack)) {
+      return;
+    }
+    traceStack.push(signature, !level.isEnabled(TracingLevel.DETAIL));
+  }
+
+  void enter(TraceStack traceStack, SignatureResolver resolver, Object[] args) {
+    var level = config.level();
+    if (!level.isEnabled(TracingLevel.ERRORS) || !admit(traceStack)) {
+      return;
+    }
+    if (level == TracingLevel.ERRORS) {
+      traceStack.pushDeferred(resolver, args);
+    } else {
+      traceStack.push(
+          resolver.resolve(args, CapturePlan.forLevel(level)),
+          !level.isEnabled(TracingLevel.DETAIL));
+    }
+  }
+
+  private boolean admit(TraceStack traceStack) {
+    if (!isSampled(traceStack)) {
+      traceStack.enterUnsampled();
+      return false;
+    }
+    return traceStack.admit(config.limits());
+  }
+
+  void exitWithReturn(TraceStack traceStack, String renderedReturnValue) {
+    exitWithReturn(traceStack, renderedReturnValue, config.level());
+  }
+
+  void exitWithReturn(TraceStack traceStack, String renderedReturnValue, TracingLevel level) {
+    if (traceStack.exitUnsampled() || traceStack.isEmpty() || traceStack.exitSkipped()) return;
+    if (!level.isEnabled(TracingLevel.ERRORS)) {
+      traceStack.discard();
+    } else if (level == TracingLevel.ERRORS) {
+      traceStack.discard();
+    } else if (level == TracingLevel.SUMMARY) {
+      boolean isLeaf = traceStack.isTopLeaf();
+      boolean isRoot = traceStack.size() == 1;
+      if (isRoot || isLeaf) {
+        pop(traceStack, renderedReturnValue);
+      } else {
+        traceStack.discardAndPromoteChildren();
+      }
+    } else {
+      pop(traceStack, renderedReturnValue);
+    }
+    traceStack.releaseSampleDecision();
+  }
+
+  void exitWithException(TraceStack traceStack, Throwable exception, String errorContext) {
+    exitWithException(traceStack, exception, errorContext, config.level());
+  }
+
+  void exitWithException(
+      TraceStack traceStack, Throwable exception, String errorContext, TracingLevel level) {
+    if (traceStack.exitUnsampled() || traceStack.isEmpty() || traceStack.exitSkipped()) return;
+    if (!level.isEnabled(TracingLevel.ERRORS)) {
+      traceStack.discard();
+    } else {
+      traceStack.pop(exception, errorContext);
+    }
+    traceStack.releaseSampleDecision();
+  }
+
+  void recordFailure(
+      TraceStack traceStack,
+      SignatureResolver resolver,
+      Object[] args,
+      Throwable exception,
+      String errorContext) {
+    if (!config.level().isEnabled(TracingLevel.ERRORS)) {
+      return;
+    }
+    if (config.sampling() != HeadSampling.ALWAYS) {
+      traceStack.observeFailure(exception);
+    }
+    if (!isSampled(traceStack)) {
+      return;
+    }
+    if (!traceStack.admit(config.limits())) {
+      traceStack.exitSkipped();
+      return;
+    }
+    traceStack.pushFailure(resolver, args, exception, errorContext);
+  }
+
+  private void pop(TraceStack traceStack, String renderedReturnValue) {
+    if (config.foldRepeatedCalls()) {
+      traceStack.popFolding(renderedReturnValue);
+    } else {
+      traceStack.pop(renderedReturnValue);
+    }
+  }
+}
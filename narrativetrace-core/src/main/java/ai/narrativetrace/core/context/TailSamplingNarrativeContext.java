@@ -0,0 +1,187 @@
+package ai.narrativetrace.core.context;
+
+import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.tree.TraceTree;
+
+/**
+ * {@link NarrativeContext} decorator that keeps only traces matching a {@link TailSamplingPolicy}.
+ *
+ * <p>Calls are recorded by the delegate as usual. When a root call (depth 0) completes, the policy
+ * decides from the root's duration, its exception outcomes and an optional predicate whether the
+ * trace is retained. Roots that are not retained are dropped immediately via the delegate's
+ * {@link NarrativeContext#discardLastRoot()}, so a request boundary such as {@code
+ * NarrativeTraceFilter} sees an empty tree and exports nothing, while the rest of the request's
+ * state, such as its head sampling decision, is left alone. Once a root on the thread has been
+ * retained, later roots are kept until the next {@link #reset()} so the exported trace stays
+ * complete.
+ *
+ * <p>Calls {@linkplain #recordFailure reported only after they threw} are passed to the delegate,
+ * which nests each frame under the next one out. Such a failure branch has no exit to complete it,
+ * so it is judged as one root when the next root call starts or the trace is captured.
+ *
+ * <pre>{@code
+ * var context =
+ *     new TailSamplingNarrativeContext(
+ *         new ThreadLocalNarrativeContext(),
+ *         TailSamplingPolicy.failures().orSlowerThan(Duration.ofMillis(500)));
+ * var filter = new NarrativeTraceFilter(context, new Slf4jTraceExporter());
+ * }</pre>
+ *
+ * <p>Root durations are measured by this decorator, so the policy's cheap criteria never build a
+ * {@code TraceNode}; only a {@link TailSamplingPolicy#retainIf()} predicate does.
+ *
+ * @see TailSamplingPolicy
+ */
+public final class TailSamplingNarrativeContext implements NarrativeContext {
+
+  private final NarrativeContext delegate;
+  private final TailSamplingPolicy policy;
+  private final ThreadLocal<RootState> rootState = ThreadLocal.withInitial(RootState::new);
+
+  /**
+   * Creates a sampling decorator.
+   *
+   * @param delegate the context that records calls
+   * @param policy decides which completed roots are retained
+   */
+  public TailSamplingNarrativeContext(NarrativeContext delegate, TailSamplingPolicy policy) {
+    this.delegate = delegate;
+    this.policy = policy;
+  }
+
+  @Override
+  public boolean isActive() {
+    return delegate.isActive();
+  }
+
+  @Override
+  public CapturePlan capturePlan() {
+    return delegate.capturePlan();
+  }
+
+  @Override
+  public void enterMethod(MethodSignature signature) {
+    enter();
+    delegate.enterMethod(signature);
+  }
+
+  @Override
+  public void enterMethod(SignatureResolver resolver, Object[] args) {
+    enter();
+    delegate.enterMethod(resolver, args);
+  }
+
+  @Override
+  public void exitMethodWithReturn(String renderedReturnValue) {
+    delegate.exitMethodWithReturn(renderedReturnValue);
+    var state = rootState.get();
+    if (state.exit()) {
+      completeRoot(state, System.nanoTime() - state.rootStartNanos);
+    }
+  }
+
+  @Override
+  public void exitMethodWithException(Throwable exception, String errorContext) {
+    delegate.exitMethodWithException(exception, errorContext);
+    var state = rootState.get();
+    state.sawException = true;
+    if (state.exit()) {
+      completeRoot(state, System.nanoTime() - state.rootStartNanos);
+    }
+  }
+
+  @Override
+  public void recordFailure(
+      SignatureResolver resolver, Object[] args, Throwable exception, String errorContext) {
+    delegate.recordFailure(resolver, args, exception, errorContext);
+    var state = rootState.get();
+    state.sawException = true;
+    if (state.depth == 0) {
+      state.failureBranchOpen = true;
+    }
+  }
+
+  @Override
+  public TraceTree captureTrace() {
+    completeFailureBranch(rootState.get());
+    return delegate.captureTrace();
+  }
+
+  @Override
+  public void reset() {
+    rootState.remove();
+    delegate.reset();
+  }
+
+  @Override
+  public void discardLastRoot() {
+    delegate.discardLastRoot();
+  }
+
+  @Override
+  public ContextSnapshot snapshot() {
+    return delegate.snapshot();
+  }
+
+  private void enter() {
+    var state = rootState.get();
+    if (state.depth == 0) {
+      completeFailureBranch(state);
+    }
+    state.enter();
+  }
+
+  /** Judges the failure branch recorded at depth 0, if any, as a completed root. */
+  private void completeFailureBranch(RootState state) {
+    if (state.failureBranchOpen) {
+      state.failureBranchOpen = false;
+      completeRoot(state, 0L); // its duration is not observed
+    }
+  }
+
+  private void completeRoot(RootState state, long durationNanos) {
+    if (retains(state, durationNanos)) {
+      state.retained = true;
+    } else if (!state.retained) {
+      delegate.discardLastRoot();
+    }
+    state.sawException = false;
+  }
+
+  private boolean retains(RootState state, long durationNanos) {
+    if (policy.retainFailures() && state.sawException) {
+      return true;
+    }
+    if (durationNanos >= policy.slowThresholdNanos()) {
+      return true;
+    }
+    if (policy.retainIf() == null) {
+      return false;
+    }
+    var roots = delegate.captureTrace().roots();
+    return !roots.isEmpty() && policy.retainIf().test(roots.get(roots.size() - 1));
+  }
+
+  private static final class RootState {
+    int depth;
+    long rootStartNanos;
+    boolean sawException;
+    boolean retained;
+    boolean failureBranchOpen;
+
+    void enter() {
+      if (depth == 0) {
+        rootStartNanos = System.nanoTime();
+      }
+      depth++;
+    }
+
+    /** Returns {@code true} when the exit completes a root call. */
+    boolean exit() {
+      if (depth == 0) {
+        return false;
+      }
+      return --depth == 0;
+    }
+  }
+}
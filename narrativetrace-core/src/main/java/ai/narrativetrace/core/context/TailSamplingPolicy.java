@@ -0,0 +1,83 @@
+package ai.narrativetrace.core.context;
+
+import ai.narrativetrace.core.event.TraceNode;
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Decides, when a root call completes, whether its trace is worth keeping.
+ *
+ * <p>A root is retained if any enabled criterion matches. The cheap criteria are checked first;
+ * the predicate is only evaluated — and the root's {@link TraceNode} only built — when neither
+ * matched:
+ *
+ * <ol>
+ *   <li>{@code retainFailures} — the root, or any call beneath it, exited with an exception
+ *   <li>{@code slowThresholdNanos} — the root took at least this long
+ *   <li>{@code retainIf} — a custom predicate over the completed root node
+ * </ol>
+ *
+ * <pre>{@code
+ * var policy = TailSamplingPolicy.failures().orSlowerThan(Duration.ofMillis(500));
+ * var context = new TailSamplingNarrativeContext(new ThreadLocalNarrativeContext(), policy);
+ * }</pre>
+ *
+ * @param slowThresholdNanos minimum root duration that retains the trace, or {@link Long#MAX_VALUE}
+ *     to disable the threshold
+ * @param retainFailures whether traces containing an exception are retained
+ * @param retainIf additional predicate over the root node, or {@code null} for none
+ * @see TailSamplingNarrativeContext
+ */
+public record TailSamplingPolicy(
+    long slowThresholdNanos, boolean retainFailures, Predicate<TraceNode> retainIf) {
+
+  /**
+   * Retains traces in which any call exited with an exception.
+   *
+   * @return a failures-only policy
+   */
+  public static TailSamplingPolicy failures() {
+    return new TailSamplingPolicy(Long.MAX_VALUE, true, null);
+  }
+
+  /**
+   * Retains traces whose root call took at least {@code threshold}.
+   *
+   * @param threshold the minimum root duration
+   * @return a latency-only policy
+   */
+  public static TailSamplingPolicy slowerThan(Duration threshold) {
+    return new TailSamplingPolicy(threshold.toNanos(), false, null);
+  }
+
+  /**
+   * Returns a policy that additionally retains traces containing an exception.
+   *
+   * @return the widened policy
+   */
+  public TailSamplingPolicy orFailures() {
+    return new TailSamplingPolicy(slowThresholdNanos, true, retainIf);
+  }
+
+  /**
+   * Returns a policy that additionally retains roots slower than {@code threshold}.
+   *
+   * @param threshold the minimum root duration
+   * @return the widened policy
+   */
+  public TailSamplingPolicy orSlowerThan(Duration threshold) {
+    return new TailSamplingPolicy(
+        Math.min(slowThresholdNanos, threshold.toNanos()), retainFailures, retainIf);
+  }
+
+  /**
+   * Returns a policy that additionally retains roots matching {@code predicate}.
+   *
+   * @param predicate tested against the completed root node
+   * @return the widened policy
+   */
+  public TailSamplingPolicy or(Predicate<TraceNode> predicate) {
+    return new TailSamplingPolicy(
+        slowThresholdNanos, retainFailures, retainIf == null ? predicate : retainIf.or(predicate));
+  }
+}
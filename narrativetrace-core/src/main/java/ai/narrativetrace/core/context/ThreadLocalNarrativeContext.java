@@ -1,33 +1,54 @@
 package ai.narrativetrace.core.context;
 
+import ai.narrativetrace.core.config.HeadSampling;
 import ai.narrativetrace.core.config.NarrativeTraceConfig;
 import ai.narrativetrace.core.config.TracingLevel;
 import ai.narrativetrace.core.event.MethodSignature;
-import ai.narrativetrace.core.event.ParameterCapture;
 import ai.narrativetrace.core.event.TraceNode;
-import ai.narrativetrace.core.event.TraceOutcome;
 import ai.narrativetrace.core.tree.DefaultTraceTree;
 import ai.narrativetrace.core.tree.TraceTree;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
-import java.util.List;
+import java.util.Queue;
 
 /**
- * Default {@link NarrativeContext} implementation using a ThreadLocal Deque-based call stack.
+ * Default {@link NarrativeContext} implementation using a ThreadLocal call stack.
  *
- * <p>Each thread maintains an independent call stack. Method entries push frames; exits pop them
- * and build the trace tree bottom-up. The {@link ai.narrativetrace.core.config.TracingLevel}
- * controls what gets captured:
+ * <p>Each thread maintains an independent call stack backed by a reusable frame arena. Method
+ * entries claim pooled frame slots and exits link them into their parent, so the enter/exit path
+ * does not allocate; the immutable trace tree is only built by {@link #captureTrace()}. {@link
+ * #reset()} clears the arena for the next request on the same thread; it drops every recorded value
+ * and shrinks an arena that a large trace grew beyond a thousand slots. The {@link
+ * ai.narrativetrace.core.config.TracingLevel} controls what gets captured:
  *
  * <ul>
  *   <li>{@code OFF} — nothing captured, {@link #isActive()} returns {@code false}
- *   <li>{@code ERRORS} — only exception paths recorded
+ *   <li>{@code ERRORS} — only exception paths recorded; calls entered through {@link
+ *       #enterMethod(SignatureResolver, Object[])} keep just their raw arguments and are rendered
+ *       only if they exit with an exception
  *   <li>{@code SUMMARY} — root and leaf calls only (intermediate calls pruned)
  *   <li>{@code NARRATIVE} — all calls without parameter values
  *   <li>{@code DETAIL} — all calls with full parameter values
  * </ul>
  *
+ * <p>{@linkplain NarrativeTraceConfig#setLimits Trace limits} bound the nodes recorded per root,
+ * the depth and the fan-out per call; calls beyond them are summarized in a synthetic {@link
+ * ai.narrativetrace.core.event.TraceOutcome.Elided} node.
+ *
+ * <p>With {@linkplain NarrativeTraceConfig#setFoldRepeatedCalls folding} enabled, consecutive
+ * sibling calls to the same method are merged while capturing into one {@link
+ * ai.narrativetrace.core.event.TraceOutcome.Repeated} node.
+ *
+ * <p>With {@linkplain NarrativeTraceConfig#setSampling head sampling} configured, every root call
+ * decides whether it is traced, whether or not the thread ever sees a {@link #reset()}. An
+ * unsampled root is entered with a {@link #capturePlan()} that captures nothing, and every call
+ * nested in it reports {@link #isActive()} {@code false}. Snapshots carry the verdict to child
+ * threads.
+ *
+ * <p>A {@linkplain #snapshot() snapshot} taken inside a traced call remembers that call. When a
+ * scope activated from it closes, the roots traced on the child thread are attached as children of
+ * that call, so work fanned out to executors or {@code CompletableFuture}s shows up in the parent
+ * trace. Many threads can attach to the same call at once. Snapshots taken outside any call leave
+ * the child's trace separate.
+ *
  * <p>This class has zero external dependencies.
  *
  * <pre>{@code
@@ -42,6 +63,7 @@ import java.util.List;
 public final class ThreadLocalNarrativeContext implements NarrativeContext {
 
   private final NarrativeTraceConfig config;
+  private final StackRecorder recorder;
   private final ThreadLocal<TraceStack> stackHolder = ThreadLocal.withInitial(TraceStack::new);
 
   /** Creates a context with default configuration ({@code TracingLevel.DETAIL}). */
@@ -56,11 +78,23 @@ public final class ThreadLocalNarrativeContext implements NarrativeContext {
    */
   public ThreadLocalNarrativeContext(NarrativeTraceConfig config) {
     this.config = config;
+    this.recorder = new StackRecorder(config);
   }
 
   @Override
   public boolean isActive() {
-    return config.level().isEnabled(TracingLevel.ERRORS);
+    if (!config.level().isEnabled(TracingLevel.ERRORS)) {
+      return false;
+    }
+    return config.sampling() == HeadSampling.ALWAYS || recorder.isActive(stackHolder.get());
+  }
+
+  @Override
+  public CapturePlan capturePlan() {
+    if (config.sampling() == HeadSampling.ALWAYS) {
+      return CapturePlan.forLevel(config.level());
+    }
+    return recorder.capturePlan(stackHolder.get());
   }
 
   @Override
@@ -68,57 +102,31 @@ public final class ThreadLocalNarrativeContext implements NarrativeContext {
     if (!config.level().isEnabled(TracingLevel.ERRORS)) {
       return;
     }
-    if (!config.level().isEnabled(TracingLevel.DETAIL)) {
-      signature = suppressParameterValues(signature);
-    }
-    stackHolder.get().push(signature);
+    recorder.enter(stackHolder.get(), signature);
   }
 
-  private MethodSignature suppressParameterValues(MethodSignature signature) {
-    var suppressed =
-        signature.parameters().stream()
-            .map(p -> new ParameterCapture(p.name(), "", p.redacted()))
-            .toList();
-    return new MethodSignature(
-        signature.className(),
-        signature.methodName(),
-        suppressed,
-        signature.narration(),
-        signature.errorContext());
+  @Override
+  public void enterMethod(SignatureResolver resolver, Object[] args) {
+    if (!config.level().isEnabled(TracingLevel.ERRORS)) {
+      return;
+    }
+    recorder.enter(stackHolder.get(), resolver, args);
   }
 
   @Override
   public void exitMethodWithReturn(String renderedReturnValue) {
-    var traceStack = stackHolder.get();
-    if (traceStack.isEmpty()) return;
-    var level = config.level();
-    if (!level.isEnabled(TracingLevel.ERRORS)) {
-      traceStack.discard();
-    } else if (level == TracingLevel.ERRORS) {
-      traceStack.discard();
-    } else if (level == TracingLevel.SUMMARY) {
-      var frame = traceStack.peek();
-      boolean isLeaf = frame != null && frame.children.isEmpty();
-      boolean isRoot = traceStack.size() == 1;
-      if (isRoot || isLeaf) {
-        traceStack.pop(new TraceOutcome.Returned(renderedReturnValue));
-      } else {
-        traceStack.discardAndPromoteChildren();
-      }
-    } else {
-      traceStack.pop(new TraceOutcome.Returned(renderedReturnValue));
-    }
+    recorder.exitWithReturn(stackHolder.get(), renderedReturnValue);
   }
 
   @Override
   public void exitMethodWithException(Throwable exception, String errorContext) {
-    var traceStack = stackHolder.get();
-    if (traceStack.isEmpty()) return;
-    if (!config.level().isEnabled(TracingLevel.ERRORS)) {
-      traceStack.discard();
-      return;
-    }
-    traceStack.pop(new TraceOutcome.Threw(exception), errorContext);
+    recorder.exitWithException(stackHolder.get(), exception, errorContext);
+  }
+
+  @Override
+  public void recordFailure(
+      SignatureResolver resolver, Object[] args, Throwable exception, String errorContext) {
+    recorder.recordFailure(stackHolder.get(), resolver, args, exception, errorContext);
   }
 
   @Override
@@ -128,12 +136,18 @@ public final class ThreadLocalNarrativeContext implements NarrativeContext {
 
   @Override
   public void reset() {
-    stackHolder.remove();
+    stackHolder.get().clear();
+  }
+
+  @Override
+  public void discardLastRoot() {
+    stackHolder.get().discardLastRoot();
   }
 
   @Override
   public ContextSnapshot snapshot() {
-    return new ThreadLocalContextSnapshot(this);
+    var stack = stackHolder.get();
+    return new ThreadLocalContextSnapshot(this, stack.sampleDecision(), stack.attachmentPoint());
   }
 
   TraceStack swapStack(TraceStack replacement) {
@@ -144,87 +158,29 @@ public final class ThreadLocalNarrativeContext implements NarrativeContext {
 
   private static final class ThreadLocalContextSnapshot implements ContextSnapshot {
     private final ThreadLocalNarrativeContext context;
+    private final TraceStack.SampleDecision sampleDecision;
+    private final Queue<TraceNode> attachmentPoint;
 
-    ThreadLocalContextSnapshot(ThreadLocalNarrativeContext context) {
+    ThreadLocalContextSnapshot(
+        ThreadLocalNarrativeContext context,
+        TraceStack.SampleDecision sampleDecision,
+        Queue<TraceNode> attachmentPoint) {
       this.context = context;
+      this.sampleDecision = sampleDecision;
+      this.attachmentPoint = attachmentPoint;
     }
 
     @Override
     public ContextScope activate() {
-      var previous = context.swapStack(new TraceStack());
-      return () -> context.swapStack(previous);
-    }
-  }
-
-  private static final class TraceStack {
-    private final List<TraceNode> roots = new ArrayList<>();
-    private final Deque<Frame> stack = new ArrayDeque<>();
-
-    void push(MethodSignature signature) {
-      stack.push(new Frame(signature));
-    }
-
-    Frame peek() {
-      return stack.peek();
-    }
-
-    boolean isEmpty() {
-      return stack.isEmpty();
-    }
-
-    int size() {
-      return stack.size();
-    }
-
-    void discard() {
-      stack.pop();
-    }
-
-    void discardAndPromoteChildren() {
-      var frame = stack.pop();
-      if (!stack.isEmpty()) {
-        stack.peek().children.addAll(frame.children);
-      }
-    }
-
-    void pop(TraceOutcome outcome) {
-      pop(outcome, null);
-    }
-
-    void pop(TraceOutcome outcome, String errorContext) {
-      var frame = stack.pop();
-      long durationNanos = System.nanoTime() - frame.entryTimeNanos;
-      var signature = frame.signature;
-      if (errorContext != null) {
-        signature =
-            new MethodSignature(
-                signature.className(),
-                signature.methodName(),
-                signature.parameters(),
-                signature.narration(),
-                errorContext);
-      }
-      var node = new TraceNode(signature, List.copyOf(frame.children), outcome, durationNanos);
-      if (stack.isEmpty()) {
-        roots.add(node);
-      } else {
-        stack.peek().children.add(node);
-      }
-    }
-
-    List<TraceNode> roots() {
-      return List.copyOf(roots);
-    }
-
-    private static final class Frame {
-      final MethodSignature signature;
-      final long entryTimeNanos;
-      final List<TraceNode> children = new ArrayList<>();
-
-      Frame(MethodSignature signature) {
-        this.signature = signature;
-        this.entryTimeNanos = System.nanoTime();
-      }
+      var stack = new TraceStack();
+      stack.inheritSampleDecision(sampleDecision);
+      var previous = context.swapStack(stack);
+      return () -> {
+        if (attachmentPoint != null) {
+          attachmentPoint.addAll(stack.roots());
+        }
+        context.swapStack(previous);
+      };
     }
   }
 }
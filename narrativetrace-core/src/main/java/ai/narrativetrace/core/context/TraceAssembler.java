@@ -0,0 +1,132 @@
+package ai.narrativetrace.core.context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background thread that drains every {@link EventJournal} of a {@link JournalingNarrativeContext}.
+ *
+ * <p>The assembler polls the registered journals and parks with an increasing back-off while they
+ * are all empty, so recording threads never have to signal it. A completed request is exported
+ * only after every journal has been caught up, so subtrees handed over by other threads are
+ * attached in time. Journals whose owner thread has died are dropped once drained.
+ */
+final class TraceAssembler implements Runnable {
+
+  private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  /** How long {@link #awaitCatchUp()} waits for a stalled assembler. */
+  static final long CATCH_UP_TIMEOUT_SECONDS = 5;
+
+  private final StackRecorder recorder;
+  private final List<EventJournal> journals = new CopyOnWriteArrayList<>();
+  private final Thread thread;
+  private volatile boolean running = true;
+  private volatile long completedPasses;
+
+  TraceAssembler(StackRecorder recorder) {
+    this.recorder = recorder;
+    this.thread = new Thread(this, "narrativetrace-assembler");
+    thread.setDaemon(true);
+  }
+
+  void start() {
+    thread.start();
+  }
+
+  EventJournal register(EventJournal journal) {
+    journals.add(journal);
+    return journal;
+  }
+
+  boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Waits until the assembler has replayed everything published before the call, on every journal.
+   * Once the thread has finished, the caller drains the journals itself.
+   *
+   * @return {@code false} if the assembler did not catch up within {@link
+   *     #CATCH_UP_TIMEOUT_SECONDS}
+   */
+  boolean awaitCatchUp() {
+    // The pass in progress may have read a journal before the caller's last write.
+    long target = completedPasses + 2;
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CATCH_UP_TIMEOUT_SECONDS);
+    while (completedPasses < target) {
+      if (!thread.isAlive()) {
+        drainAll();
+        return true;
+      }
+      if (System.nanoTime() - deadline > 0) {
+        return false;
+      }
+      LockSupport.unpark(thread);
+      Thread.yield();
+    }
+    return true;
+  }
+
+  /** Stops the thread after it has drained the journals, waiting for it to finish. */
+  void stop() throws InterruptedException {
+    running = false;
+    LockSupport.unpark(thread);
+    thread.join();
+  }
+
+  @Override
+  public void run() {
+    try {
+      long parkNanos = MIN_PARK_NANOS;
+      while (running) {
+        int replayed = drainAll();
+        completedPasses++;
+        if (replayed > 0) {
+          parkNanos = MIN_PARK_NANOS;
+        } else {
+          LockSupport.parkNanos(this, parkNanos);
+          parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+        }
+      }
+      drainAll();
+    } finally {
+      // An assembler that died stops the context recording, rather than filling every journal.
+      running = false;
+    }
+  }
+
+  private synchronized int drainAll() {
+    int replayed = 0;
+    for (var journal : journals) {
+      replayed += journal.drain(recorder);
+    }
+    var completing = new ArrayList<EventJournal>();
+    for (var journal : journals) {
+      if (journal.hasPendingCompletion()) {
+        completing.add(journal);
+      }
+    }
+    if (!completing.isEmpty()) {
+      // Scopes closed on other threads before these requests ended were published before the
+      // completions were read, so one more pass attaches them before the requests are exported.
+      for (var journal : journals) {
+        replayed += journal.drain(recorder);
+      }
+      for (var journal : completing) {
+        journal.completePending();
+        replayed++;
+      }
+    }
+    for (var journal : journals) {
+      if (!journal.owner().isAlive() && journal.isDrained()) {
+        journals.remove(journal);
+      }
+    }
+    return replayed;
+  }
+}
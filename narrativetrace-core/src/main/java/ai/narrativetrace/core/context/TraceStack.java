@@ -0,0 +1,642 @@
+package ai.narrativetrace.core.context;
+
+import ai.narrativetrace.core.config.HeadSampling;
+import ai.narrativetrace.core.config.TraceLimits;
+import ai.narrativetrace.core.event.MethodDescriptor;
+import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.event.TraceNode;
+import ai.narrativetrace.core.event.TraceOutcome;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-thread call stack backed by a reusable arena of frame slots.
+ *
+ * <p>Every traced call claims the next slot in entry order. A slot holds the signature, a primitive
+ * entry timestamp and the outcome, and is linked into its parent's child chain by slot index, so
+ * entering and exiting a method allocates nothing once the arena has grown to the thread's usual
+ * trace size. {@link TraceNode}s are only built when {@link #roots()} is called, and {@link
+ * #clear()} recycles the slots for the next request, dropping the arena instead if it grew beyond
+ * {@value #MAX_RETAINED_CAPACITY} slots.
+ *
+ * <p>A slot can also be entered <em>deferred</em>: it then holds only a {@link SignatureResolver}
+ * and the raw argument array, and the signature is resolved when the frame completes with an
+ * exception. Deferred frames that return normally are discarded without ever being rendered.
+ *
+ * <p>Calls reported only after they threw are {@linkplain #pushFailure recorded} as completed
+ * frames; each one wraps the newest sibling if that sibling threw the same exception, so the
+ * frames an exception propagates through form one branch, innermost at the bottom.
+ *
+ * <p>Calls rejected by {@link TraceLimits} never claim a slot: they are counted and timed on the
+ * innermost recorded frame, which materializes them as a trailing {@link TraceOutcome.Elided}
+ * node.
+ *
+ * <p>With folding enabled, a returning call whose previous sibling is a returning call to the same
+ * method is merged into that sibling and its slots are released at once, so a loop of identical
+ * calls occupies one slot (plus the first call's subtree) however long it runs. Calls whose
+ * subtree received work from other threads or elided calls are kept as they are.
+ *
+ * <p>Other threads contribute to an open frame through its {@linkplain #attachmentPoint()
+ * attachment point}, a lock-free queue of completed subtrees that the frame materializes after its
+ * own children. It is the only part of the stack touched by more than one thread. A stack that is
+ * rebuilt from a journal on another thread instead {@linkplain #adopt adopts} queues created by the
+ * recording thread.
+ *
+ * <p>Timestamps come from a clock that defaults to {@link System#nanoTime()}; a replaying stack
+ * supplies the times recorded in the journal.
+ */
+final class TraceStack {
+
+  private static final int INITIAL_CAPACITY = 64;
+  private static final int INITIAL_DEPTH = 16;
+  private static final int MAX_RETAINED_CAPACITY = 1024;
+  private static final int NONE = -1;
+
+  /** Exception paths are rare, so deferred frames that reach one are rendered in full. */
+  private static final CapturePlan EXCEPTION_PATH_PLAN = new CapturePlan(true, false, true);
+
+  private Frame[] frames = new Frame[INITIAL_CAPACITY];
+  private int[] open = new int[INITIAL_DEPTH];
+  private int depth;
+  private int used;
+  private int firstRoot = NONE;
+  private int lastRoot = NONE;
+  private final List<TraceNode> materializedRoots = new ArrayList<>();
+  private int lastMaterializedRoot = NONE;
+  private final RootSampling rootSampling = new RootSampling();
+  private Throwable failureBranch;
+  private int rootFirstSlot;
+  private int skippedDepth;
+  private long skippedStartNanos;
+  private final LongSupplier clock;
+
+  TraceStack() {
+    this(System::nanoTime);
+  }
+
+  TraceStack(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  void push(MethodSignature signature, boolean suppressValues) {
+    claim().enter(signature, suppressValues, clock.getAsLong());
+  }
+
+  void pushDeferred(SignatureResolver resolver, Object[] args) {
+    claim().enterDeferred(resolver, args, clock.getAsLong());
+  }
+
+  private Frame claim() {
+    if (used == frames.length) {
+      frames = Arrays.copyOf(frames, frames.length * 2);
+    }
+    if (depth == open.length) {
+      open = Arrays.copyOf(open, open.length * 2);
+    }
+    var frame = frames[used];
+    if (frame == null) {
+      frame = new Frame();
+      frames[used] = frame;
+    }
+    open[depth++] = used++;
+    return frame;
+  }
+
+  /** Returns the current root's head sampling verdict, deciding it on first use. */
+  boolean isSampled(HeadSampling sampling) {
+    return rootSampling.isSampled(sampling);
+  }
+
+  /** Returns whether the next call should be reported at all; see {@link RootSampling}. */
+  boolean isActive(HeadSampling sampling) {
+    return rootSampling.isActive(sampling);
+  }
+
+  SampleDecision sampleDecision() {
+    return rootSampling.decision();
+  }
+
+  /** Adopts a parent thread's verdict for every root on this stack. */
+  void inheritSampleDecision(SampleDecision decision) {
+    rootSampling.inherit(decision);
+  }
+
+  /** Enters a call under an unsampled verdict; only the nesting depth is kept. */
+  void enterUnsampled() {
+    rootSampling.enterUnsampled();
+  }
+
+  /** Consumes the exit of a call entered by {@link #enterUnsampled()}, if one is open. */
+  boolean exitUnsampled() {
+    return rootSampling.exitUnsampled(depth);
+  }
+
+  /** Lets the next root decide sampling afresh once no call is open. */
+  void releaseSampleDecision() {
+    rootSampling.release(depth);
+  }
+
+  /**
+   * Notes a call {@linkplain #pushFailure reported after it threw}. Such calls arrive innermost
+   * first without entries, so a new root is recognized by an exception that does not continue the
+   * previous one's branch.
+   */
+  void observeFailure(Throwable exception) {
+    if (depth > 0 || rootSampling.inUnsampledCall()) {
+      return;
+    }
+    if (failureBranch == null || !isCausedBy(exception, failureBranch)) {
+      releaseSampleDecision();
+    }
+    failureBranch = exception;
+  }
+
+  /**
+   * Decides whether the call about to be entered is recorded under {@code limits}.
+   *
+   * <p>Must be called before every push. A rejected call, and everything it calls, is counted on
+   * the innermost recorded frame; its exit must be reported to {@link #exitSkipped()}.
+   */
+  boolean admit(TraceLimits limits) {
+    if (skippedDepth > 0) {
+      frames[open[depth - 1]].elidedCalls++;
+      skippedDepth++;
+      return false;
+    }
+    if (depth == 0) {
+      rootFirstSlot = used;
+      return true;
+    }
+    var parent = frames[open[depth - 1]];
+    if (depth >= limits.maxDepth()
+        || parent.childCount >= limits.maxChildrenPerNode()
+        || used - rootFirstSlot >= limits.maxNodesPerRoot()) {
+      parent.elidedCalls++;
+      skippedDepth = 1;
+      skippedStartNanos = clock.getAsLong();
+      return false;
+    }
+    return true;
+  }
+
+  /** Consumes the exit of a call rejected by {@link #admit}, if one is open. */
+  boolean exitSkipped() {
+    if (skippedDepth == 0) {
+      return false;
+    }
+    skippedDepth--;
+    if (skippedDepth == 0) {
+      frames[open[depth - 1]].elidedNanos += clock.getAsLong() - skippedStartNanos;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the queue through which other threads attach completed subtrees to the innermost open
+   * frame, or {@code null} if no call is open.
+   */
+  Queue<TraceNode> attachmentPoint() {
+    if (depth == 0) {
+      return null;
+    }
+    var frame = frames[open[depth - 1]];
+    if (frame.attached == null) {
+      frame.attached = new ConcurrentLinkedQueue<>();
+    }
+    return frame.attached;
+  }
+
+  /**
+   * Materializes the subtrees that other threads add to {@code queue} as children of the innermost
+   * open frame. Ignored if no call is open.
+   */
+  void adopt(Queue<TraceNode> queue) {
+    if (depth == 0) {
+      return;
+    }
+    var frame = frames[open[depth - 1]];
+    if (frame.adopted == null) {
+      frame.adopted = new ArrayList<>(2);
+    }
+    frame.adopted.add(queue);
+  }
+
+  boolean isEmpty() {
+    return depth == 0;
+  }
+
+  int size() {
+    return depth;
+  }
+
+  boolean isTopLeaf() {
+    return depth > 0 && frames[open[depth - 1]].firstChild == NONE;
+  }
+
+  /** Drops the innermost frame together with everything recorded beneath it. */
+  void discard() {
+    release(open[--depth]);
+  }
+
+  /** Drops the innermost frame but hands its completed children to the enclosing frame. */
+  void discardAndPromoteChildren() {
+    var frame = frames[open[--depth]];
+    if (depth > 0) {
+      var parent = frames[open[depth - 1]];
+      if (frame.firstChild != NONE) {
+        appendChain(frame.firstChild, frame.lastChild);
+        parent.childCount += frame.childCount;
+      }
+      parent.elidedCalls += frame.elidedCalls;
+      parent.elidedNanos += frame.elidedNanos;
+      if (frame.attached != null) {
+        // Share the queue so subtrees still being traced elsewhere land on the parent too.
+        if (parent.attached == null) {
+          parent.attached = frame.attached;
+        } else {
+          parent.attached.addAll(frame.attached);
+        }
+      }
+      if (frame.adopted != null) {
+        if (parent.adopted == null) {
+          parent.adopted = frame.adopted;
+        } else {
+          parent.adopted.addAll(frame.adopted);
+        }
+      }
+    }
+    frame.clear();
+  }
+
+  void pop(String renderedReturnValue) {
+    var frame = complete();
+    frame.returnValue = renderedReturnValue;
+  }
+
+  /** Like {@link #pop(String)}, but folds the call into a matching previous sibling if any. */
+  void popFolding(String renderedReturnValue) {
+    if (depth < 2) {
+      pop(renderedReturnValue);
+      return;
+    }
+    int slot = open[depth - 1];
+    var frame = frames[slot];
+    var parent = frames[open[depth - 2]];
+    if (parent.lastChild == NONE
+        || !frames[parent.lastChild].canAbsorb(frame)
+        || carriesOtherWork(slot)) {
+      pop(renderedReturnValue);
+      return;
+    }
+    long durationNanos = clock.getAsLong() - frame.entryTimeNanos;
+    frames[parent.lastChild].absorb(durationNanos, renderedReturnValue);
+    depth--;
+    // The folded call is the newest slot, so releasing it frees its whole subtree.
+    release(slot);
+  }
+
+  /**
+   * Whether the subtree starting at {@code slot} holds work that folding would lose: subtrees
+   * attached by other threads, or calls elided by the limits.
+   */
+  private boolean carriesOtherWork(int slot) {
+    // The subtree of the innermost open frame is the arena's tail.
+    for (int i = slot; i < used; i++) {
+      var frame = frames[i];
+      if (frame.attached != null || frame.adopted != null || frame.elidedCalls > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  void pop(Throwable exception, String errorContext) {
+    var frame = complete();
+    frame.threw = true;
+    frame.exception = exception;
+    frame.errorContext = errorContext;
+  }
+
+  /**
+   * Records a call that was only observed after it threw. If the newest completed sibling threw
+   * {@code exception} or one of its causes, it becomes the new call's only child.
+   */
+  void pushFailure(
+      SignatureResolver resolver, Object[] args, Throwable exception, String errorContext) {
+    int previous = depth > 0 ? frames[open[depth - 1]].lastChild : lastRoot;
+    boolean nests =
+        previous != NONE
+            && (depth > 0 || previous != lastMaterializedRoot)
+            && frames[previous].threw
+            && isCausedBy(exception, frames[previous].exception);
+    long now = clock.getAsLong();
+    if (!nests) {
+      claim().enter(resolver.resolve(args, EXCEPTION_PATH_PLAN), false, now);
+      pop(exception, errorContext);
+      return;
+    }
+    // Swap the fresh frame into the previous sibling's slot, which its parent already links to,
+    // and move the previous sibling to the new slot beneath it.
+    int slot = used;
+    var frame = claim();
+    depth--;
+    var child = frames[previous];
+    frames[previous] = frame;
+    frames[slot] = child;
+    frame.enter(resolver.resolve(args, EXCEPTION_PATH_PLAN), false, now - child.durationNanos);
+    frame.durationNanos = child.durationNanos;
+    frame.threw = true;
+    frame.exception = exception;
+    frame.errorContext = errorContext;
+    frame.firstChild = slot;
+    frame.lastChild = slot;
+    frame.childCount = 1;
+  }
+
+  private static boolean isCausedBy(Throwable exception, Throwable candidate) {
+    // Bounded, since cause chains can be cyclic.
+    var current = exception;
+    for (int i = 0; current != null && i < 64; i++) {
+      if (current == candidate) {
+        return true;
+      }
+      current = current.getCause();
+    }
+    return false;
+  }
+
+  List<TraceNode> roots() {
+    int next = lastMaterializedRoot == NONE ? firstRoot : frames[lastMaterializedRoot].nextSibling;
+    for (int slot = next; slot != NONE; slot = frames[slot].nextSibling) {
+      materializedRoots.add(materialize(slot));
+      lastMaterializedRoot = slot;
+    }
+    return List.copyOf(materializedRoots);
+  }
+
+  /**
+   * Drops the newest completed root and its subtree, keeping earlier roots and the sampling
+   * verdict. Ignored while a call is open.
+   */
+  void discardLastRoot() {
+    if (depth > 0 || lastRoot == NONE) {
+      return;
+    }
+    int root = lastRoot;
+    int previous = NONE;
+    for (int slot = firstRoot; slot != root; slot = frames[slot].nextSibling) {
+      previous = slot;
+    }
+    if (lastMaterializedRoot == root) {
+      materializedRoots.remove(materializedRoots.size() - 1);
+      lastMaterializedRoot = previous;
+    }
+    if (previous == NONE) {
+      firstRoot = NONE;
+    } else {
+      frames[previous].nextSibling = NONE;
+    }
+    lastRoot = previous;
+    // The newest root's subtree is the arena's tail.
+    release(root);
+  }
+
+  /** Forgets all recorded calls, keeping the arena for reuse unless it grew unusually large. */
+  void clear() {
+    for (int i = 0; i < used; i++) {
+      frames[i].clear();
+    }
+    if (frames.length > MAX_RETAINED_CAPACITY) {
+      frames = new Frame[INITIAL_CAPACITY];
+    }
+    if (open.length > MAX_RETAINED_CAPACITY) {
+      open = new int[INITIAL_DEPTH];
+    }
+    used = 0;
+    depth = 0;
+    firstRoot = NONE;
+    lastRoot = NONE;
+    materializedRoots.clear();
+    lastMaterializedRoot = NONE;
+    rootSampling.clear();
+    failureBranch = null;
+    rootFirstSlot = 0;
+    skippedDepth = 0;
+  }
+
+  private Frame complete() {
+    int slot = open[depth - 1];
+    var frame = frames[slot];
+    long exitTimeNanos = clock.getAsLong();
+    // Resolve while the frame is still open: rendering may call back into traced code.
+    frame.resolveDeferred();
+    depth--;
+    frame.durationNanos = exitTimeNanos - frame.entryTimeNanos;
+    if (depth > 0) {
+      frames[open[depth - 1]].childCount++;
+    }
+    appendChain(slot, slot);
+    return frame;
+  }
+
+  private void appendChain(int first, int last) {
+    frames[last].nextSibling = NONE;
+    if (depth == 0) {
+      if (firstRoot == NONE) {
+        firstRoot = first;
+      } else {
+        frames[lastRoot].nextSibling = first;
+      }
+      lastRoot = last;
+      return;
+    }
+    var parent = frames[open[depth - 1]];
+    if (parent.firstChild == NONE) {
+      parent.firstChild = first;
+    } else {
+      frames[parent.lastChild].nextSibling = first;
+    }
+    parent.lastChild = last;
+  }
+
+  private void release(int slot) {
+    // Slots are claimed in entry order, so the released frame's subtree is the arena's tail.
+    for (int i = slot; i < used; i++) {
+      frames[i].clear();
+    }
+    used = slot;
+  }
+
+  private TraceNode materialize(int slot) {
+    var frame = frames[slot];
+    var children = new ArrayList<TraceNode>();
+    for (int child = frame.firstChild; child != NONE; child = frames[child].nextSibling) {
+      children.add(materialize(child));
+    }
+    if (frame.attached != null) {
+      children.addAll(frame.attached);
+    }
+    if (frame.adopted != null) {
+      for (var queue : frame.adopted) {
+        children.addAll(queue);
+      }
+    }
+    if (frame.elidedCalls > 0) {
+      children.add(
+          new TraceNode(
+              new MethodSignature(frame.signature.className(), "…", List.of()),
+              List.of(),
+              new TraceOutcome.Elided(frame.elidedCalls, frame.elidedNanos),
+              frame.elidedNanos));
+    }
+    TraceOutcome outcome;
+    if (frame.threw) {
+      outcome = new TraceOutcome.Threw(frame.exception);
+    } else if (frame.repeatCount > 1) {
+      outcome =
+          new TraceOutcome.Repeated(
+              frame.repeatCount,
+              frame.minDurationNanos,
+              frame.maxDurationNanos,
+              frame.returnValue,
+              frame.lastReturnValue);
+    } else {
+      outcome = new TraceOutcome.Returned(frame.returnValue);
+    }
+    return new TraceNode(
+        frame.materializeSignature(), List.copyOf(children), outcome, frame.durationNanos);
+  }
+
+  enum SampleDecision {
+    UNDECIDED,
+    SAMPLED,
+    UNSAMPLED
+  }
+
+  private static final class Frame {
+    MethodSignature signature;
+    SignatureResolver resolver;
+    Object[] args;
+    boolean suppressValues;
+    long entryTimeNanos;
+    long durationNanos;
+    boolean threw;
+    String returnValue;
+    Throwable exception;
+    String errorContext;
+    int firstChild = NONE;
+    int lastChild = NONE;
+    int nextSibling = NONE;
+    int childCount;
+    int elidedCalls;
+    long elidedNanos;
+    int repeatCount;
+    long minDurationNanos;
+    long maxDurationNanos;
+    String lastReturnValue;
+    Queue<TraceNode> attached;
+    List<Queue<TraceNode>> adopted;
+
+    void enter(MethodSignature signature, boolean suppressValues, long entryTimeNanos) {
+      this.signature = signature;
+      this.suppressValues = suppressValues;
+      this.entryTimeNanos = entryTimeNanos;
+    }
+
+    void enterDeferred(SignatureResolver resolver, Object[] args, long entryTimeNanos) {
+      this.resolver = resolver;
+      this.args = args;
+      this.suppressValues = false;
+      this.entryTimeNanos = entryTimeNanos;
+    }
+
+    void resolveDeferred() {
+      if (resolver != null) {
+        signature = resolver.resolve(args, EXCEPTION_PATH_PLAN);
+        resolver = null;
+        args = null;
+      }
+    }
+
+    void clear() {
+      signature = null;
+      resolver = null;
+      args = null;
+      returnValue = null;
+      exception = null;
+      errorContext = null;
+      threw = false;
+      durationNanos = 0L;
+      firstChild = NONE;
+      lastChild = NONE;
+      nextSibling = NONE;
+      childCount = 0;
+      elidedCalls = 0;
+      elidedNanos = 0L;
+      repeatCount = 0;
+      minDurationNanos = 0L;
+      maxDurationNanos = 0L;
+      lastReturnValue = null;
+      attached = null;
+      adopted = null;
+    }
+
+    /** Whether {@code next}, about to return, repeats this completed call. */
+    boolean canAbsorb(Frame next) {
+      return !threw
+          && signature != null
+          && next.signature != null
+          && suppressValues == next.suppressValues
+          && isSameMethod(signature.descriptor(), next.signature.descriptor());
+    }
+
+    /**
+     * Registered descriptors are interned, so overloads with different parameters never match;
+     * signatures built from parameter lists each carry their own and are compared by content.
+     */
+    private static boolean isSameMethod(MethodDescriptor a, MethodDescriptor b) {
+      if (a == b) {
+        return true;
+      }
+      if (a.id() != MethodDescriptor.UNREGISTERED
+          || b.id() != MethodDescriptor.UNREGISTERED
+          || a.parameterCount() != b.parameterCount()
+          || !a.methodName().equals(b.methodName())
+          || !a.className().equals(b.className())) {
+        return false;
+      }
+      for (int i = 0; i < a.parameterCount(); i++) {
+        if (!a.parameterName(i).equals(b.parameterName(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    void absorb(long nextDurationNanos, String nextReturnValue) {
+      if (repeatCount == 0) {
+        repeatCount = 1;
+        minDurationNanos = durationNanos;
+        maxDurationNanos = durationNanos;
+        lastReturnValue = returnValue;
+      }
+      repeatCount++;
+      minDurationNanos = Math.min(minDurationNanos, nextDurationNanos);
+      maxDurationNanos = Math.max(maxDurationNanos, nextDurationNanos);
+      durationNanos += nextDurationNanos;
+      lastReturnValue = nextReturnValue;
+    }
+
+    MethodSignature materializeSignature() {
+      if (!suppressValues && errorContext == null) {
+        return signature;
+      }
+      var result = suppressValues ? signature.withoutParameterValues() : signature;
+      return errorContext != null ? result.withErrorContext(errorContext) : result;
+    }
+  }
+}
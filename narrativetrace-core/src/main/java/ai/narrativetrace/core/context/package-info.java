@@ -4,8 +4,13 @@
  * <p>{@link ai.narrativetrace.core.context.NarrativeContext} is the central interface for recording
  * method entries, exits, and exceptions. {@link
  * ai.narrativetrace.core.context.ThreadLocalNarrativeContext} is the default implementation using a
- * ThreadLocal Deque-based call stack. {@link ai.narrativetrace.core.context.ContextSnapshot}
- * enables cross-thread trace propagation.
+ * ThreadLocal call stack backed by a reusable frame arena. {@link
+ * ai.narrativetrace.core.context.ScopedNarrativeContext} binds the call stack to an explicit scope
+ * instead, for virtual-thread workloads. {@link
+ * ai.narrativetrace.core.context.JournalingNarrativeContext} only journals calls on the recording
+ * thread and assembles and exports traces in the background. {@link
+ * ai.narrativetrace.core.context.TailSamplingNarrativeContext} keeps only slow or failed traces.
+ * {@link ai.narrativetrace.core.context.ContextSnapshot} enables cross-thread trace propagation.
  *
  * <p>This package has zero external dependencies.
  */
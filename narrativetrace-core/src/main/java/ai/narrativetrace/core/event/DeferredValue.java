@@ -0,0 +1,17 @@
+package ai.narrativetrace.core.event;
+
+/**
+ * A parameter value kept unrendered until a {@link MethodSignature}'s parameters are first read.
+ *
+ * @see MethodSignature#deferred(MethodDescriptor, Object[], String, String)
+ */
+@FunctionalInterface
+public interface DeferredValue {
+
+  /**
+   * Renders the value. May be called on any thread, and more than once.
+   *
+   * @return the rendered value
+   */
+  String render();
+}
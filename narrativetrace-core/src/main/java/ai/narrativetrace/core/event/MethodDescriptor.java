@@ -0,0 +1,215 @@
+package ai.narrativetrace.core.event;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The static part of a traced method: class name, method name, parameter names and {@code
+ * NotTraced} flags.
+ *
+ * <p>Proxies and the agent {@linkplain #register register} one descriptor per traced method when
+ * they first see it and receive a small int id. Every {@link MethodSignature} recorded for the
+ * method then shares the descriptor and carries only its rendered values, and the id can stand in
+ * for the method wherever a compact reference is needed ({@link #byId(int)} resolves it).
+ * Registration is idempotent: equal metadata yields the same descriptor, so re-registering a method
+ * when its class is retransformed does not grow the registry.
+ *
+ * <p>Signatures built directly from a {@link ParameterCapture} list get an unregistered
+ * descriptor with id {@link #UNREGISTERED}.
+ */
+public final class MethodDescriptor {
+
+  /** Id of descriptors that were not registered. */
+  public static final int UNREGISTERED = -1;
+
+  private static final Map<Key, MethodDescriptor> INTERNED = new ConcurrentHashMap<>();
+  private static final Object REGISTRY_LOCK = new Object();
+  // Grown under REGISTRY_LOCK; the volatile write publishes new entries to byId without locking.
+  private static volatile MethodDescriptor[] registered = new MethodDescriptor[256];
+  private static int registeredCount;
+
+  private final int id;
+  private final String className;
+  private final String methodName;
+  private final String[] parameterNames;
+  private final boolean[] redacted;
+  private List<ParameterCapture> unrenderedParameters;
+
+  private MethodDescriptor(
+      int id, String className, String methodName, String[] parameterNames, boolean[] redacted) {
+    this.id = id;
+    this.className = className;
+    this.methodName = methodName;
+    this.parameterNames = parameterNames;
+    this.redacted = redacted;
+  }
+
+  /**
+   * Returns the descriptor for the given method metadata, registering it on first use.
+   *
+   * @param className simple name of the declaring class
+   * @param methodName the method name
+   * @param parameterNames the parameter names
+   * @param redacted per-parameter {@code @NotTraced} flags, same length as {@code parameterNames}
+   * @return the shared descriptor
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public static MethodDescriptor register(
+      String className, String methodName, String[] parameterNames, boolean[] redacted) {
+    if (parameterNames.length != redacted.length) {
+      throw new IllegalArgumentException(
+          "Expected "
+              + parameterNames.length
+              + " redaction flags for "
+              + className
+              + "."
+              + methodName
+              + ", got "
+              + redacted.length);
+    }
+    var descriptor = INTERNED.get(new Key(className, methodName, parameterNames, redacted));
+    return descriptor != null
+        ? descriptor
+        : registerNew(className, methodName, parameterNames, redacted);
+  }
+
+  private static MethodDescriptor registerNew(
+      String className, String methodName, String[] parameterNames, boolean[] redacted) {
+    synchronized (REGISTRY_LOCK) {
+      var existing = INTERNED.get(new Key(className, methodName, parameterNames, redacted));
+      if (existing != null) {
+        return existing;
+      }
+      var descriptor =
+          new MethodDescriptor(
+              registeredCount, className, methodName, parameterNames.clone(), redacted.clone());
+      var table = registered;
+      if (registeredCount == table.length) {
+        table = Arrays.copyOf(table, table.length * 2);
+      }
+      table[registeredCount++] = descriptor;
+      registered = table;
+      // The interned key holds the descriptor's own copies, not the caller's arrays.
+      INTERNED.put(
+          new Key(className, methodName, descriptor.parameterNames, descriptor.redacted),
+          descriptor);
+      return descriptor;
+    }
+  }
+
+  /**
+   * Returns a registered descriptor by id.
+   *
+   * @param id an id returned by {@link #id()}
+   * @return the descriptor
+   * @throws IndexOutOfBoundsException if no descriptor has that id
+   */
+  public static MethodDescriptor byId(int id) {
+    var table = registered;
+    var descriptor = id >= 0 && id < table.length ? table[id] : null;
+    if (descriptor == null) {
+      throw new IndexOutOfBoundsException("No method descriptor with id " + id);
+    }
+    return descriptor;
+  }
+
+  static MethodDescriptor unregistered(
+      String className, String methodName, List<ParameterCapture> parameters) {
+    if (parameters == null) {
+      parameters = List.of();
+    }
+    var names = new String[parameters.size()];
+    var redacted = new boolean[names.length];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = parameters.get(i).name();
+      redacted[i] = parameters.get(i).redacted();
+    }
+    return new MethodDescriptor(UNREGISTERED, className, methodName, names, redacted);
+  }
+
+  /**
+   * Returns the registry id.
+   *
+   * @return the id, or {@link #UNREGISTERED}
+   */
+  public int id() {
+    return id;
+  }
+
+  public String className() {
+    return className;
+  }
+
+  public String methodName() {
+    return methodName;
+  }
+
+  public int parameterCount() {
+    return parameterNames.length;
+  }
+
+  public String parameterName(int index) {
+    return parameterNames[index];
+  }
+
+  public boolean isRedacted(int index) {
+    return redacted[index];
+  }
+
+  /** Returns the parameters with empty rendered values, shared by every call. */
+  List<ParameterCapture> unrenderedParameters() {
+    var parameters = unrenderedParameters;
+    if (parameters == null) {
+      // Benign race: concurrent callers build equal lists.
+      var unrendered = new ParameterCapture[parameterNames.length];
+      for (int i = 0; i < unrendered.length; i++) {
+        unrendered[i] = new ParameterCapture(parameterNames[i], "", redacted[i]);
+      }
+      parameters = List.of(unrendered);
+      unrenderedParameters = parameters;
+    }
+    return parameters;
+  }
+
+  @Override
+  public String toString() {
+    return className + "." + methodName + "(" + String.join(", ", parameterNames) + ")";
+  }
+
+  /** Registry key compared by array contents, so a lookup needs no copies of the arrays. */
+  private static final class Key {
+    private final String className;
+    private final String methodName;
+    private final String[] parameterNames;
+    private final boolean[] redacted;
+    private final int hash;
+
+    Key(String className, String methodName, String[] parameterNames, boolean[] redacted) {
+      this.className = className;
+      this.methodName = methodName;
+      this.parameterNames = parameterNames;
+      this.redacted = redacted;
+      int h = className.hashCode();
+      h = 31 * h + methodName.hashCode();
+      h = 31 * h + Arrays.hashCode(parameterNames);
+      this.hash = 31 * h + Arrays.hashCode(redacted);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key other
+          && hash == other.hash
+          && className.equals(other.className)
+          && methodName.equals(other.methodName)
+          && Arrays.equals(parameterNames, other.parameterNames)
+          && Arrays.equals(redacted, other.redacted);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -1,25 +1,256 @@
 package ai.narrativetrace.core.event;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Identifies a traced method with its class, name, captured parameters, and optional
  * annotation-derived narration or error context.
  *
- * @param className simple name of the declaring class
- * @param methodName the method name
- * @param parameters captured parameter names and pre-rendered values
- * @param narration resolved {@code @Narrated} template, or {@code null}
- * @param errorContext resolved {@code @OnError} template, or {@code null}
+ * <p>The class, method and parameter names live in a shared {@link MethodDescriptor}; a signature
+ * only holds the rendered parameter values of one call, so large retained traces do not repeat the
+ * static part per node. {@link #parameters()} combines both when first read and keeps the result.
+ * Values of immutable arguments may be {@linkplain #deferred deferred} until they are first read.
+ * Equality and {@code toString} are defined over the accessors, as for a record.
  */
-public record MethodSignature(
-    String className,
-    String methodName,
-    List<ParameterCapture> parameters,
-    String narration,
-    String errorContext) {
+public final class MethodSignature {
+
+  private final MethodDescriptor descriptor;
+  // Each a rendered String or a DeferredValue, replaced by its rendering on first read
+  private final Object[] renderedValues;
+  private final String narration;
+  private final String errorContext;
+  private List<ParameterCapture> parameters;
+
+  /**
+   * Creates a signature for one call of a registered method.
+   *
+   * @param descriptor the method's shared descriptor
+   * @param renderedValues one pre-rendered value per parameter, or {@code null} if values were not
+   *     captured (reported as empty strings); the array is copied
+   * @param narration resolved {@code @Narrated} template, or {@code null}
+   * @param errorContext resolved {@code @OnError} template, or {@code null}
+   * @throws IllegalArgumentException if {@code renderedValues} does not match the parameter count
+   */
+  public MethodSignature(
+      MethodDescriptor descriptor, String[] renderedValues, String narration, String errorContext) {
+    this(
+        descriptor,
+        renderedValues != null ? (Object[]) renderedValues.clone() : null,
+        narration,
+        errorContext);
+  }
+
+  private MethodSignature(
+      MethodDescriptor descriptor, Object[] renderedValues, String narration, String errorContext) {
+    if (renderedValues != null && renderedValues.length != descriptor.parameterCount()) {
+      throw new IllegalArgumentException(
+          "Expected "
+              + descriptor.parameterCount()
+              + " rendered values for "
+              + descriptor
+              + ", got "
+              + renderedValues.length);
+    }
+    this.descriptor = descriptor;
+    this.renderedValues = renderedValues;
+    this.narration = narration;
+    this.errorContext = errorContext;
+  }
+
+  /**
+   * Creates a signature from individual parameter captures.
+   *
+   * @param className simple name of the declaring class
+   * @param methodName the method name
+   * @param parameters captured parameter names and pre-rendered values
+   * @param narration resolved {@code @Narrated} template, or {@code null}
+   * @param errorContext resolved {@code @OnError} template, or {@code null}
+   */
+  public MethodSignature(
+      String className,
+      String methodName,
+      List<ParameterCapture> parameters,
+      String narration,
+      String errorContext) {
+    this(
+        MethodDescriptor.unregistered(className, methodName, parameters),
+        renderedValues(parameters),
+        narration,
+        errorContext);
+  }
+
+  /**
+   * Creates a signature for one call whose parameter values may be rendered later.
+   *
+   * <p>Each {@link DeferredValue} is rendered the first time the parameters are read, typically
+   * by an exporter or renderer, and the result is kept. Traces that are never read never render
+   * them.
+   *
+   * @param descriptor the method's shared descriptor
+   * @param values one rendered {@code String} or {@link DeferredValue} per parameter, or {@code
+   *     null} if values were not captured; the array is owned by the signature from then on
+   * @param narration resolved {@code @Narrated} template, or {@code null}
+   * @param errorContext resolved {@code @OnError} template, or {@code null}
+   * @return the signature
+   * @throws IllegalArgumentException if {@code values} does not match the parameter count
+   */
+  public static MethodSignature deferred(
+      MethodDescriptor descriptor, Object[] values, String narration, String errorContext) {
+    return new MethodSignature(descriptor, values, narration, errorContext);
+  }
 
   public MethodSignature(String className, String methodName, List<ParameterCapture> parameters) {
     this(className, methodName, parameters, null, null);
   }
+
+  private static String[] renderedValues(List<ParameterCapture> parameters) {
+    if (parameters == null) {
+      return null;
+    }
+    var values = new String[parameters.size()];
+    boolean anyValue = false;
+    for (int i = 0; i < values.length; i++) {
+      values[i] = parameters.get(i).renderedValue();
+      anyValue |= !"".equals(values[i]);
+    }
+    return anyValue ? values : null;
+  }
+
+  /**
+   * Returns the shared descriptor of the traced method.
+   *
+   * @return the descriptor
+   */
+  public MethodDescriptor descriptor() {
+    return descriptor;
+  }
+
+  /**
+   * Returns the simple name of the declaring class.
+   *
+   * @return the class name
+   */
+  public String className() {
+    return descriptor.className();
+  }
+
+  /**
+   * Returns the method name.
+   *
+   * @return the method name
+   */
+  public String methodName() {
+    return descriptor.methodName();
+  }
+
+  /**
+   * Returns the captured parameter names and pre-rendered values. Built on first read, rendering
+   * any deferred values, and kept afterwards.
+   *
+   * @return the parameters, in declaration order
+   */
+  public List<ParameterCapture> parameters() {
+    if (renderedValues == null) {
+      return descriptor.unrenderedParameters();
+    }
+    var built = parameters;
+    if (built == null) {
+      // Benign race: concurrent readers build equal lists.
+      var captures = new ParameterCapture[renderedValues.length];
+      for (int i = 0; i < captures.length; i++) {
+        captures[i] =
+            new ParameterCapture(
+                descriptor.parameterName(i), renderedValue(i), descriptor.isRedacted(i));
+      }
+      built = List.of(captures);
+      parameters = built;
+    }
+    return built;
+  }
+
+  private String renderedValue(int index) {
+    var value = renderedValues[index];
+    if (value instanceof DeferredValue deferred) {
+      // Racing readers render the same immutable value; either result may be kept
+      var rendered = deferred.render();
+      renderedValues[index] = rendered;
+      return rendered;
+    }
+    return (String) value;
+  }
+
+  /**
+   * Returns the resolved {@code @Narrated} template.
+   *
+   * @return the narration, or {@code null}
+   */
+  public String narration() {
+    return narration;
+  }
+
+  /**
+   * Returns the resolved {@code @OnError} template.
+   *
+   * @return the error context, or {@code null}
+   */
+  public String errorContext() {
+    return errorContext;
+  }
+
+  /**
+   * Returns this signature with parameter values reported as empty strings.
+   *
+   * @return a signature sharing this one's descriptor
+   */
+  public MethodSignature withoutParameterValues() {
+    return renderedValues == null
+        ? this
+        : new MethodSignature(descriptor, null, narration, errorContext);
+  }
+
+  /**
+   * Returns this signature with a different error context.
+   *
+   * @param errorContext resolved {@code @OnError} template, or {@code null}
+   * @return a signature sharing this one's descriptor and values
+   */
+  public MethodSignature withErrorContext(String errorContext) {
+    return new MethodSignature(descriptor, renderedValues, narration, errorContext);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof MethodSignature other)) {
+      return false;
+    }
+    return Objects.equals(className(), other.className())
+        && Objects.equals(methodName(), other.methodName())
+        && parameters().equals(other.parameters())
+        && Objects.equals(narration, other.narration)
+        && Objects.equals(errorContext, other.errorContext);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(className(), methodName(), parameters(), narration, errorContext);
+  }
+
+  @Override
+  public String toString() {
+    return "MethodSignature[className="
+        + className()
+        + ", methodName="
+        + methodName()
+        + ", parameters="
+        + parameters()
+        + ", narration="
+        + narration
+        + ", errorContext="
+        + errorContext
+        + "]";
+  }
 }
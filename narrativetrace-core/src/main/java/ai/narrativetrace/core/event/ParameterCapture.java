@@ -3,7 +3,8 @@ package ai.narrativetrace.core.event;
 /**
  * A captured method parameter with its pre-rendered value.
  *
- * <p>Values are eagerly serialized at capture time via {@code ValueRenderer}. The {@code
+ * <p>Values are serialized via {@code ValueRenderer}: at capture time, or for immutable arguments
+ * when the trace is first read. The {@code
  * renderedValue} is a String that includes quotes for string values (e.g., {@code "\"order-42\""})
  * and plain text for numbers/booleans (e.g., {@code "42"}). Empty string indicates a suppressed
  * value (non-DETAIL tracing level).
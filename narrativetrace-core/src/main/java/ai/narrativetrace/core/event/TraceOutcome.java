@@ -1,13 +1,17 @@
 package ai.narrativetrace.core.event;
 
+import java.util.Objects;
+
 /**
  * Sealed interface representing how a traced method completed.
  *
- * <p>Two variants:
+ * <p>Variants:
  *
  * <ul>
  *   <li>{@link Returned} — normal completion with a pre-rendered return value
  *   <li>{@link Threw} — exceptional completion with the thrown exception
+ *   <li>{@link Repeated} — consecutive sibling calls to the same method, folded into one node
+ *   <li>{@link Elided} — synthetic node standing in for calls dropped by trace size limits
  * </ul>
  */
 public sealed interface TraceOutcome {
@@ -25,4 +29,75 @@ public sealed interface TraceOutcome {
    * @param exception the thrown exception
    */
   record Threw(Throwable exception) implements TraceOutcome {}
+
+  /**
+   * Synthetic outcome of a node that summarizes calls dropped because the trace hit a size limit.
+   *
+   * <p>Elided nodes are always the last child of the node whose calls were dropped and have no
+   * children of their own.
+   *
+   * @param calls number of calls that were not recorded, including their nested calls
+   * @param totalDurationNanos combined wall-clock duration of the outermost dropped calls
+   */
+  record Elided(int calls, long totalDurationNanos) implements TraceOutcome {
+
+    /**
+     * Returns the human-readable summary used by all renderers.
+     *
+     * @return e.g. {@code "42 more calls elided (total 17 ms)"}
+     */
+    public String describe() {
+      return calls
+          + (calls == 1 ? " more call elided" : " more calls elided")
+          + " (total "
+          + totalDurationNanos / 1_000_000
+          + " ms)";
+    }
+  }
+
+  /**
+   * Aggregated completion of consecutive sibling calls to the same method that all returned.
+   *
+   * <p>The node carries the signature and children of the first call; its duration is the sum
+   * over all folded calls. Parameter values are therefore those of the first call, even though
+   * {@code lastValue} is returned by the last one; the arguments of later calls are not kept.
+   * Calls whose subtree holds work attached from other threads or elided calls are never folded.
+   *
+   * @param calls number of folded calls (at least 2)
+   * @param minDurationNanos duration of the fastest call
+   * @param maxDurationNanos duration of the slowest call
+   * @param firstValue rendered return value of the first call, or {@code null} for void
+   * @param lastValue rendered return value of the last call, or {@code null} for void
+   */
+  record Repeated(
+      int calls, long minDurationNanos, long maxDurationNanos, String firstValue, String lastValue)
+      implements TraceOutcome {
+
+    /**
+     * Returns the return value for display: the shared value, or {@code "first … last"}.
+     *
+     * @return the rendered value, or {@code null} for void
+     */
+    public String renderedValue() {
+      if (Objects.equals(firstValue, lastValue)) {
+        return firstValue;
+      }
+      return firstValue + " … " + lastValue;
+    }
+
+    /**
+     * Returns the human-readable summary used by all renderers.
+     *
+     * @return e.g. {@code "×1000 (min 0 ms, max 3 ms)"}
+     */
+    public String describe() {
+      return "×"
+          + calls
+          + " (min "
+          + minDurationNanos / 1_000_000
+          + " ms, max "
+          + maxDurationNanos / 1_000_000
+          + " ms)";
+    }
+  }
 }
@@ -1,10 +1,14 @@
 /**
  * Trace event data models: method signatures, parameters, outcomes, and trace nodes.
  *
- * <p>All types in this package are records or sealed interfaces. {@link
- * ai.narrativetrace.core.event.TraceNode} represents a single method invocation with its
- * parameters, outcome, children, and timing. {@link ai.narrativetrace.core.event.ParameterCapture}
- * holds pre-rendered parameter values. {@link ai.narrativetrace.core.event.TraceOutcome} is a
- * sealed interface with {@code Returned} and {@code Threw} variants.
+ * <p>Most types in this package are records or sealed interfaces. {@link
+ * ai.narrativetrace.core.event.MethodSignature} is an immutable class that shares the static part
+ * of a traced method, an interned {@link ai.narrativetrace.core.event.MethodDescriptor}, across
+ * calls. {@link ai.narrativetrace.core.event.TraceNode} represents a single method invocation with
+ * its parameters, outcome, children, and timing. {@link
+ * ai.narrativetrace.core.event.ParameterCapture} holds pre-rendered parameter values. {@link
+ * ai.narrativetrace.core.event.TraceOutcome} is a sealed interface with {@code Returned} and
+ * {@code Threw} variants, plus {@code Repeated} and {@code Elided} for nodes the context aggregated
+ * or dropped.
  */
 package ai.narrativetrace.core.event;
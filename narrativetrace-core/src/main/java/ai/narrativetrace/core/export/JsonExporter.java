@@ -47,6 +47,10 @@ public final class JsonExporter {
   private void flattenNode(
       TraceNode node, int depth, Integer parentId, EmitContext ctx, StringBuilder sb) {
     int id = ctx.nextId();
+    if (node.outcome() instanceof TraceOutcome.Elided elided) {
+      appendElidedEvent(elided, id, depth, parentId, ctx, sb);
+      return;
+    }
     appendEnterEvent(node, id, depth, parentId, ctx, sb);
 
     for (var child : node.children()) {
@@ -76,6 +80,19 @@ public final class JsonExporter {
     if (node.outcome() instanceof TraceOutcome.Returned r) {
       appendCommonFields(sig, id, "exit", sb);
       sb.append("      \"returnValue\": \"").append(escapeJson(r.renderedValue())).append("\",\n");
+    } else if (node.outcome() instanceof TraceOutcome.Repeated r) {
+      appendCommonFields(sig, id, "exit", sb);
+      sb.append("      \"returnValue\": \"").append(escapeJson(r.firstValue())).append("\",\n");
+      sb.append("      \"lastReturnValue\": \"")
+          .append(escapeJson(r.lastValue()))
+          .append("\",\n");
+      sb.append("      \"calls\": ").append(r.calls()).append(",\n");
+      sb.append("      \"minDurationMs\": ")
+          .append(r.minDurationNanos() / 1_000_000)
+          .append(",\n");
+      sb.append("      \"maxDurationMs\": ")
+          .append(r.maxDurationNanos() / 1_000_000)
+          .append(",\n");
     } else if (node.outcome() instanceof TraceOutcome.Threw t) {
       appendCommonFields(sig, id, "error", sb);
       sb.append("      \"error\": {\n");
@@ -92,6 +109,25 @@ public final class JsonExporter {
     sb.append("    }");
   }
 
+  private void appendElidedEvent(
+      TraceOutcome.Elided elided,
+      int id,
+      int depth,
+      Integer parentId,
+      EmitContext ctx,
+      StringBuilder sb) {
+    ctx.appendSeparator(sb);
+    sb.append("    {\n");
+    sb.append("      \"id\": ").append(id).append(",\n");
+    sb.append("      \"type\": \"elided\",\n");
+    sb.append("      \"calls\": ").append(elided.calls()).append(",\n");
+    sb.append("      \"durationMs\": ")
+        .append(elided.totalDurationNanos() / 1_000_000)
+        .append(",\n");
+    appendFooterFields(depth, parentId, sb);
+    sb.append("    }");
+  }
+
   private void appendCommonFields(MethodSignature sig, int id, String type, StringBuilder sb) {
     sb.append("      \"id\": ").append(id).append(",\n");
     sb.append("      \"type\": \"").append(type).append("\",\n");
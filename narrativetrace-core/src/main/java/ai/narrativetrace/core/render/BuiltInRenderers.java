@@ -0,0 +1,154 @@
+package ai.narrativetrace.core.render;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * The {@link TypeRenderer}s {@link TypeRenderers} starts with.
+ *
+ * <p>Protobuf and Jackson are optional: their renderers name the types instead of referencing
+ * them, and resolve what they call from the class loader of the value being rendered.
+ */
+final class BuiltInRenderers {
+
+  private static final int MAX_HEX_BYTES = 32;
+  private static final int MAX_PLAIN_SCALE = 64;
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private static final ClassValue<MethodHandle> SHORT_DEBUG_STRING =
+      new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+          try {
+            var textFormat =
+                Class.forName("com.google.protobuf.TextFormat", false, type.getClassLoader());
+            var messageOrBuilder =
+                Class.forName("com.google.protobuf.MessageOrBuilder", false, type.getClassLoader());
+            return MethodHandles.publicLookup()
+                .findStatic(
+                    textFormat,
+                    "shortDebugString",
+                    MethodType.methodType(String.class, messageOrBuilder))
+                .asType(MethodType.methodType(String.class, Object.class));
+          } catch (ReflectiveOperationException | LinkageError e) {
+            return null; // falls back to toString()
+          }
+        }
+      };
+
+  private static final List<TypeRenderer> JDK_TYPES =
+      List.of(
+          TypeRenderer.of(BigDecimal.class, BuiltInRenderers::renderBigDecimal),
+          TypeRenderer.of(UUID.class, BuiltInRenderers::renderUuid),
+          TypeRenderer.of(Instant.class, DateTimeFormatter.ISO_INSTANT::formatTo),
+          TypeRenderer.of(
+              byte[].class, (bytes, out) -> renderHex("byte", bytes.length, i -> bytes[i], out)),
+          TypeRenderer.of(ByteBuffer.class, BuiltInRenderers::renderByteBuffer));
+
+  private BuiltInRenderers() {}
+
+  static List<TypeRenderer> all() {
+    var all = new ArrayList<>(JDK_TYPES);
+    all.add(named("com.google.protobuf.MessageOrBuilder", BuiltInRenderers::renderProtobuf));
+    all.add(named("com.fasterxml.jackson.databind.JsonNode", (node, out) -> out.append(node)));
+    return all;
+  }
+
+  /** Returns whether a renderer is a built-in one for a JDK type; those run no application code. */
+  static boolean rendersJdkType(TypeRenderer renderer) {
+    return JDK_TYPES.contains(renderer);
+  }
+
+  private static void renderBigDecimal(BigDecimal value, StringBuilder out) {
+    if (Math.abs(value.scale()) <= MAX_PLAIN_SCALE) {
+      out.append(value.toPlainString());
+    } else {
+      out.append(value);
+    }
+  }
+
+  private static void renderUuid(UUID uuid, StringBuilder out) {
+    var msb = uuid.getMostSignificantBits();
+    var lsb = uuid.getLeastSignificantBits();
+    appendHexDigits(msb >>> 32, 8, out);
+    out.append('-');
+    appendHexDigits(msb >>> 16, 4, out);
+    out.append('-');
+    appendHexDigits(msb, 4, out);
+    out.append('-');
+    appendHexDigits(lsb >>> 48, 4, out);
+    out.append('-');
+    appendHexDigits(lsb, 12, out);
+  }
+
+  private static void renderByteBuffer(ByteBuffer buffer, StringBuilder out) {
+    var position = buffer.position();
+    var length = buffer.remaining();
+    // Absolute reads leave the buffer's position untouched
+    renderHex("ByteBuffer", length, i -> buffer.get(position + i), out);
+  }
+
+  private static void renderHex(String name, int length, ByteSource bytes, StringBuilder out) {
+    out.append(name).append('[').append(length).append(']');
+    if (length == 0) {
+      return;
+    }
+    out.append(' ');
+    var shown = Math.min(length, MAX_HEX_BYTES);
+    for (var i = 0; i < shown; i++) {
+      appendHexDigits(bytes.get(i), 2, out);
+    }
+    if (length > shown) {
+      out.append('…');
+    }
+  }
+
+  static void renderProtobuf(Object message, StringBuilder out) {
+    out.append(message.getClass().getSimpleName()).append('{');
+    var shortDebugString = SHORT_DEBUG_STRING.get(message.getClass());
+    String text;
+    try {
+      text =
+          shortDebugString != null
+              ? (String) shortDebugString.invokeExact(message)
+              : message.toString().replace('\n', ' ').trim();
+    } catch (Throwable t) { // NOPMD AvoidCatchingThrowable - invokeExact declares Throwable
+      text = "<error>";
+    }
+    out.append(text).append('}');
+  }
+
+  private static void appendHexDigits(long value, int digits, StringBuilder out) {
+    for (var shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+      out.append(HEX[(int) (value >>> shift) & 0xf]);
+    }
+  }
+
+  private static TypeRenderer named(String typeName, BiConsumer<Object, StringBuilder> renderer) {
+    return new TypeRenderer() {
+      @Override
+      public String typeName() {
+        return typeName;
+      }
+
+      @Override
+      public void render(Object value, StringBuilder out) {
+        renderer.accept(value, out);
+      }
+    };
+  }
+
+  @FunctionalInterface
+  private interface ByteSource {
+    byte get(int index);
+  }
+}
@@ -47,7 +47,10 @@ public final class FrontmatterBuilder {
   }
 
   private int countNodes(TraceNode node) {
-    int count = 1;
+    if (node.outcome() instanceof TraceOutcome.Elided elided) {
+      return elided.calls();
+    }
+    int count = node.outcome() instanceof TraceOutcome.Repeated repeated ? repeated.calls() : 1;
     for (var child : node.children()) {
       count += countNodes(child);
     }
@@ -0,0 +1,128 @@
+package ai.narrativetrace.core.render;
+
+import ai.narrativetrace.core.annotation.ImmutableValue;
+import ai.narrativetrace.core.annotation.NarrativeSummary;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Decides, once per class, whether its instances can be rendered later with the same result as at
+ * capture time.
+ *
+ * <p>Rendering a deferred value must not run application code on the thread that reads the trace,
+ * so only types whose rendering is known to stay inside the JDK qualify without being asked for:
+ * strings, boxed primitives, {@code BigDecimal}, {@code BigInteger}, {@code UUID}, {@code
+ * java.time} types, enums without constant bodies or an overridden {@code toString()}, and records
+ * whose component types all qualify, whose accessors {@linkplain RecordAccessors only return their
+ * fields} and that declare no {@link NarrativeSummary} method. Records are rendered from their
+ * accessors, so their {@code toString()} does not matter. Any other type qualifies only when
+ * annotated {@link ImmutableValue}. Component types are judged as declared, so a record with a
+ * {@code List} or {@code Object} component is not immutable even if it only ever holds immutable
+ * values.
+ *
+ * <p>Whether a type's values are rendered by a registered {@link TypeRenderer} changes at runtime,
+ * so it is not part of this cached verdict; {@link #componentsSatisfy} lets the renderer apply that
+ * check to the component types as well.
+ */
+final class ImmutableTypes {
+
+  private static final Set<Class<?>> KNOWN =
+      Set.of(
+          String.class,
+          Boolean.class,
+          Character.class,
+          Byte.class,
+          Short.class,
+          Integer.class,
+          Long.class,
+          Float.class,
+          Double.class,
+          BigDecimal.class,
+          BigInteger.class,
+          UUID.class);
+
+  private static final ClassValue<Boolean> IMMUTABLE =
+      new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+          return isImmutable(type, new HashSet<>());
+        }
+      };
+
+  private ImmutableTypes() {}
+
+  static boolean isImmutable(Class<?> type) {
+    return IMMUTABLE.get(type);
+  }
+
+  private static boolean isImmutable(Class<?> type, Set<Class<?>> visiting) {
+    if (type.isPrimitive()
+        || KNOWN.contains(type)
+        || type.getClassLoader() == null && type.getName().startsWith("java.time.")
+        || type.isAnnotationPresent(ImmutableValue.class)) {
+      return true;
+    }
+    if (Enum.class.isAssignableFrom(type)) {
+      // Constant bodies make the enum class non-final and may override toString()
+      return Modifier.isFinal(type.getModifiers())
+          && toStringOf(type).getDeclaringClass() == Enum.class
+          && ValueRenderer.summaryMethod(type) == null;
+    }
+    if (!type.isRecord()
+        || ValueRenderer.summaryMethod(type) != null
+        || !RecordAccessors.onlyReturnFields(type)) {
+      return false;
+    }
+    if (!visiting.add(type)) {
+      return true; // a record referring to itself is immutable if its other components are
+    }
+    for (var component : type.getRecordComponents()) {
+      if (!isImmutable(component.getType(), visiting)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether a type and, for a record, its component types and theirs all pass a check.
+   *
+   * @param type an immutable type
+   * @param check the condition each type must meet
+   */
+  static boolean componentsSatisfy(Class<?> type, Predicate<Class<?>> check) {
+    return componentsSatisfy(type, check, new HashSet<>());
+  }
+
+  private static boolean componentsSatisfy(
+      Class<?> type, Predicate<Class<?>> check, Set<Class<?>> visiting) {
+    if (type.isPrimitive() || !visiting.add(type)) {
+      return true;
+    }
+    if (!check.test(type)) {
+      return false;
+    }
+    if (type.isRecord()) {
+      for (var component : type.getRecordComponents()) {
+        if (!componentsSatisfy(component.getType(), check, visiting)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static Method toStringOf(Class<?> type) {
+    try {
+      return type.getMethod("toString");
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("Every class has toString()", e);
+    }
+  }
+}
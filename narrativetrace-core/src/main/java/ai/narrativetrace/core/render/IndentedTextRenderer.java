@@ -22,6 +22,10 @@ public final class IndentedTextRenderer implements NarrativeRenderer {
   }
 
   private void renderNode(TraceNode node, String linePrefix, String contPrefix, StringBuilder sb) {
+    if (node.outcome() instanceof TraceOutcome.Elided elided) {
+      sb.append(linePrefix).append("… ").append(elided.describe()).append("\n");
+      return;
+    }
     var sig = node.signature();
     var params = sig.parameters().stream().map(this::renderParam).collect(Collectors.joining(", "));
     var header = sig.className() + "." + sig.methodName() + "(" + params + ")";
@@ -30,6 +34,7 @@ public final class IndentedTextRenderer implements NarrativeRenderer {
       sb.append(linePrefix).append(header);
       renderOutcomeInline(node.outcome(), sig, sb);
       renderDuration(node, sb);
+      renderRepeats(node, sb);
       sb.append("\n");
     } else {
       sb.append(linePrefix).append(header).append("\n");
@@ -42,6 +47,7 @@ public final class IndentedTextRenderer implements NarrativeRenderer {
       sb.append(contPrefix).append("└── ");
       renderOutcomeClosing(node.outcome(), sig, sb);
       renderDuration(node, sb);
+      renderRepeats(node, sb);
       sb.append("\n");
     }
   }
@@ -49,6 +55,8 @@ public final class IndentedTextRenderer implements NarrativeRenderer {
   private void renderOutcomeInline(TraceOutcome outcome, MethodSignature sig, StringBuilder sb) {
     if (outcome instanceof TraceOutcome.Returned r) {
       sb.append(" → ").append(r.renderedValue());
+    } else if (outcome instanceof TraceOutcome.Repeated r) {
+      sb.append(" → ").append(r.renderedValue());
     } else if (outcome instanceof TraceOutcome.Threw t) {
       sb.append(" !! ")
           .append(t.exception().getClass().getSimpleName())
@@ -63,6 +71,8 @@ public final class IndentedTextRenderer implements NarrativeRenderer {
   private void renderOutcomeClosing(TraceOutcome outcome, MethodSignature sig, StringBuilder sb) {
     if (outcome instanceof TraceOutcome.Returned r) {
       sb.append("→ ").append(r.renderedValue());
+    } else if (outcome instanceof TraceOutcome.Repeated r) {
+      sb.append("→ ").append(r.renderedValue());
     } else if (outcome instanceof TraceOutcome.Threw t) {
       sb.append("!! ")
           .append(t.exception().getClass().getSimpleName())
@@ -87,6 +97,12 @@ public final class IndentedTextRenderer implements NarrativeRenderer {
     }
   }
 
+  private void renderRepeats(TraceNode node, StringBuilder sb) {
+    if (node.outcome() instanceof TraceOutcome.Repeated repeated) {
+      sb.append(" ").append(repeated.describe());
+    }
+  }
+
   private String renderParam(ParameterCapture param) {
     if (param.redacted()) {
       return param.name() + ": [REDACTED]";
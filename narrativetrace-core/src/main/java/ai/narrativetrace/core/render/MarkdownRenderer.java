@@ -57,6 +57,10 @@ public final class MarkdownRenderer implements NarrativeRenderer {
 
   private void renderNode(TraceNode node, int depth, StringBuilder sb) {
     var indent = "  ".repeat(depth);
+    if (node.outcome() instanceof TraceOutcome.Elided elided) {
+      sb.append(indent).append("- *… ").append(elided.describe()).append("*\n");
+      return;
+    }
     var sig = node.signature();
     var params = sig.parameters().stream().map(this::renderParam).collect(Collectors.joining(", "));
     var methodCall = "**" + sig.className() + "." + sig.methodName() + "**(" + params + ")";
@@ -65,10 +69,12 @@ public final class MarkdownRenderer implements NarrativeRenderer {
       sb.append(indent).append("- ").append(methodCall);
       renderOutcomeInline(node.outcome(), sig, depth, sb);
       renderDuration(node, sb);
+      renderRepeats(node, sb);
       sb.append("\n");
     } else {
       sb.append(indent).append("- ").append(methodCall);
       renderDuration(node, sb);
+      renderRepeats(node, sb);
       sb.append("\n");
       renderNarration(sig, indent, sb);
       for (var child : node.children()) {
@@ -84,6 +90,8 @@ public final class MarkdownRenderer implements NarrativeRenderer {
       TraceOutcome outcome, MethodSignature sig, int depth, StringBuilder sb) {
     if (outcome instanceof TraceOutcome.Returned r) {
       sb.append(" → `").append(r.renderedValue()).append("`");
+    } else if (outcome instanceof TraceOutcome.Repeated r) {
+      sb.append(" → `").append(r.renderedValue()).append("`");
     } else if (outcome instanceof TraceOutcome.Threw t) {
       var errorIndent = "  ".repeat(depth + 1);
       sb.append("\n\n")
@@ -102,6 +110,8 @@ public final class MarkdownRenderer implements NarrativeRenderer {
       TraceOutcome outcome, MethodSignature sig, int depth, StringBuilder sb) {
     if (outcome instanceof TraceOutcome.Returned r) {
       sb.append("→ `").append(r.renderedValue()).append("`");
+    } else if (outcome instanceof TraceOutcome.Repeated r) {
+      sb.append("→ `").append(r.renderedValue()).append("`");
     } else if (outcome instanceof TraceOutcome.Threw t) {
       var errorIndent = "  ".repeat(depth + 1);
       sb.append("❌ `")
@@ -130,6 +140,12 @@ public final class MarkdownRenderer implements NarrativeRenderer {
     }
   }
 
+  private void renderRepeats(TraceNode node, StringBuilder sb) {
+    if (node.outcome() instanceof TraceOutcome.Repeated repeated) {
+      sb.append(" ").append(repeated.describe());
+    }
+  }
+
   private String renderParam(ParameterCapture param) {
     if (param.redacted()) {
       return param.name() + ": `[REDACTED]`";
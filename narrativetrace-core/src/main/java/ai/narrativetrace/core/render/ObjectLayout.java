@@ -0,0 +1,112 @@
+package ai.narrativetrace.core.render;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The components of a record, or the instance fields of any other class, resolved once per class
+ * into method handles that {@link ValueRenderer} reads values through.
+ *
+ * <p>Reflection is only used while a layout is built; rendering an instance then costs one handle
+ * invocation per member instead of copying the member arrays, checking access and invoking through
+ * {@link java.lang.reflect.Method} on every call. Members that cannot be made accessible, such as
+ * fields of classes in modules not opened to this one, keep a {@code null} handle and render as
+ * errors.
+ */
+final class ObjectLayout {
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private static final ClassValue<ObjectLayout> LAYOUTS =
+      new ClassValue<>() {
+        @Override
+        protected ObjectLayout computeValue(Class<?> type) {
+          return type.isRecord() ? ofRecord(type) : ofFields(type);
+        }
+      };
+
+  private final String simpleName;
+  private final String[] names;
+  private final MethodHandle[] getters;
+
+  private ObjectLayout(String simpleName, List<String> names, List<MethodHandle> getters) {
+    this.simpleName = simpleName;
+    this.names = names.toArray(String[]::new);
+    this.getters = getters.toArray(MethodHandle[]::new);
+  }
+
+  /** Returns the layout of a class, building it on first use. */
+  static ObjectLayout of(Class<?> type) {
+    return LAYOUTS.get(type);
+  }
+
+  String simpleName() {
+    return simpleName;
+  }
+
+  int size() {
+    return names.length;
+  }
+
+  String name(int index) {
+    return names[index];
+  }
+
+  /**
+   * Reads a member of an instance.
+   *
+   * @throws IllegalAccessException if the member could not be made accessible
+   * @throws Throwable whatever the record accessor throws
+   */
+  Object get(Object instance, int index) throws Throwable {
+    var getter = getters[index];
+    if (getter == null) {
+      throw new IllegalAccessException(names[index]);
+    }
+    return (Object) getter.invokeExact(instance);
+  }
+
+  private static ObjectLayout ofRecord(Class<?> type) {
+    var lookup = MethodHandles.lookup();
+    var names = new ArrayList<String>();
+    var getters = new ArrayList<MethodHandle>();
+    for (var component : type.getRecordComponents()) {
+      names.add(component.getName());
+      MethodHandle getter;
+      try {
+        var accessor = component.getAccessor();
+        accessor.setAccessible(true);
+        getter = lookup.unreflect(accessor).asType(GETTER_TYPE);
+      } catch (RuntimeException | IllegalAccessException e) {
+        getter = null; // renders as <error>
+      }
+      getters.add(getter);
+    }
+    return new ObjectLayout(type.getSimpleName(), names, getters);
+  }
+
+  private static ObjectLayout ofFields(Class<?> type) {
+    var lookup = MethodHandles.lookup();
+    var names = new ArrayList<String>();
+    var getters = new ArrayList<MethodHandle>();
+    for (var field : type.getDeclaredFields()) {
+      if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+        continue;
+      }
+      names.add(field.getName());
+      MethodHandle getter;
+      try {
+        field.setAccessible(true);
+        getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+      } catch (RuntimeException | IllegalAccessException e) {
+        getter = null; // renders as <error>
+      }
+      getters.add(getter);
+    }
+    return new ObjectLayout(type.getSimpleName(), names, getters);
+  }
+}
@@ -23,6 +23,10 @@ public final class ProseRenderer implements NarrativeRenderer {
 
   private void renderNode(TraceNode node, int depth, StringBuilder sb) {
     var indent = "  ".repeat(depth);
+    if (node.outcome() instanceof TraceOutcome.Elided elided) {
+      sb.append(indent).append("… ").append(elided.describe()).append(".\n");
+      return;
+    }
     var sig = node.signature();
 
     var subject = "The " + CamelCaseSplitter.toPhrase(sig.className());
@@ -42,6 +46,9 @@ public final class ProseRenderer implements NarrativeRenderer {
     } else if (!params.isEmpty()) {
       sb.append(" for ").append(params);
     }
+    if (node.outcome() instanceof TraceOutcome.Repeated repeated) {
+      sb.append(" ").append(repeated.describe());
+    }
 
     if (node.children().isEmpty()) {
       renderOutcomeInline(node.outcome(), sig, sb);
@@ -58,6 +65,8 @@ public final class ProseRenderer implements NarrativeRenderer {
   private void renderOutcomeClosing(TraceOutcome outcome, String indent, StringBuilder sb) {
     if (outcome instanceof TraceOutcome.Returned r && r.renderedValue() != null) {
       sb.append(indent).append("  Returned ").append(r.renderedValue()).append(".\n");
+    } else if (outcome instanceof TraceOutcome.Repeated r && r.renderedValue() != null) {
+      sb.append(indent).append("  Returned ").append(r.renderedValue()).append(".\n");
     } else if (outcome instanceof TraceOutcome.Threw t) {
       sb.append(indent)
           .append("  ")
@@ -71,6 +80,8 @@ public final class ProseRenderer implements NarrativeRenderer {
   private void renderOutcomeInline(TraceOutcome outcome, MethodSignature sig, StringBuilder sb) {
     if (outcome instanceof TraceOutcome.Returned r && r.renderedValue() != null) {
       sb.append(", returning ").append(r.renderedValue());
+    } else if (outcome instanceof TraceOutcome.Repeated r && r.renderedValue() != null) {
+      sb.append(", returning ").append(r.renderedValue());
     } else if (outcome instanceof TraceOutcome.Threw t) {
       sb.append(" — ")
           .append(t.exception().getClass().getSimpleName())
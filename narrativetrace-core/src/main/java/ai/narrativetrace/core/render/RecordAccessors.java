@@ -0,0 +1,144 @@
+package ai.narrativetrace.core.render;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tells from a record's class file whether each of its accessors only returns its field.
+ *
+ * <p>Reflection cannot tell the accessors javac generates from ones declared in the source, and an
+ * explicit accessor may run any code. An accessor qualifies when its bytecode is exactly {@code
+ * aload_0; getfield; return} of the component's own field, which is what javac emits for the
+ * implicit accessor and for an explicit one that does nothing else. Records whose class file cannot
+ * be read, such as hidden classes, do not qualify.
+ */
+final class RecordAccessors {
+
+  private static final int MAGIC = 0xCAFEBABE;
+  private static final int ALOAD_0 = 0x2a;
+  private static final int GETFIELD = 0xb4;
+  private static final int IRETURN = 0xac;
+  private static final int ARETURN = 0xb0;
+  private static final int ACCESSOR_LENGTH = 5;
+
+  private RecordAccessors() {}
+
+  /** Returns whether every accessor of a record only returns the component's field. */
+  static boolean onlyReturnFields(Class<?> record) {
+    var accessors = new HashMap<String, String>();
+    for (var component : record.getRecordComponents()) {
+      accessors.put(component.getName(), "()" + component.getType().descriptorString());
+    }
+    var name = record.getName();
+    var file = name.substring(name.lastIndexOf('.') + 1) + ".class";
+    try (var in = record.getResourceAsStream(file)) {
+      return in != null && new ClassFile(in).onlyReturnFields(name.replace('.', '/'), accessors);
+    } catch (IOException | RuntimeException e) {
+      return false; // a class file this reader does not understand
+    }
+  }
+
+  /** The parts of a class file needed to read its methods' code. */
+  private static final class ClassFile {
+
+    private final DataInputStream in;
+    private String[] utf8;
+    private int[] firstRef;
+    private int[] secondRef;
+
+    ClassFile(InputStream in) {
+      this.in = new DataInputStream(in);
+    }
+
+    boolean onlyReturnFields(String internalName, Map<String, String> accessors)
+        throws IOException {
+      if (in.readInt() != MAGIC) {
+        return false;
+      }
+      in.skipNBytes(4); // version
+      readConstantPool();
+      in.skipNBytes(6); // access flags, this class, super class
+      in.skipNBytes(2L * in.readUnsignedShort()); // interfaces
+      skipMembers(); // fields
+      int remaining = accessors.size();
+      for (int methods = in.readUnsignedShort(); methods > 0; methods--) {
+        in.skipNBytes(2); // access flags
+        var name = utf8[in.readUnsignedShort()];
+        var descriptor = utf8[in.readUnsignedShort()];
+        boolean accessor = descriptor.equals(accessors.get(name));
+        for (int attributes = in.readUnsignedShort(); attributes > 0; attributes--) {
+          var attribute = utf8[in.readUnsignedShort()];
+          int length = in.readInt();
+          if (accessor && attribute.equals("Code")) {
+            if (!returnsField(internalName, name, length)) {
+              return false;
+            }
+            remaining--;
+          } else {
+            in.skipNBytes(length);
+          }
+        }
+      }
+      return remaining == 0;
+    }
+
+    /** Reads a Code attribute of the given length, checking it is {@code return this.field}. */
+    private boolean returnsField(String internalName, String field, int length)
+        throws IOException {
+      in.skipNBytes(4); // max stack, max locals
+      int codeLength = in.readInt();
+      var code = in.readNBytes(codeLength);
+      in.skipNBytes(length - 8L - codeLength);
+      if (codeLength != ACCESSOR_LENGTH
+          || code[0] != (byte) ALOAD_0
+          || code[1] != (byte) GETFIELD
+          || (code[4] & 0xff) < IRETURN
+          || (code[4] & 0xff) > ARETURN) {
+        return false;
+      }
+      int fieldRef = (code[2] & 0xff) << 8 | code[3] & 0xff;
+      int owner = firstRef[fieldRef];
+      int nameAndType = secondRef[fieldRef];
+      return internalName.equals(utf8[firstRef[owner]])
+          && field.equals(utf8[firstRef[nameAndType]]);
+    }
+
+    private void readConstantPool() throws IOException {
+      int count = in.readUnsignedShort();
+      utf8 = new String[count];
+      firstRef = new int[count];
+      secondRef = new int[count];
+      for (int i = 1; i < count; i++) {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+          case 1 -> utf8[i] = in.readUTF();
+          case 7, 8, 16, 19, 20 -> firstRef[i] = in.readUnsignedShort();
+          case 9, 10, 11, 12, 17, 18 -> {
+            firstRef[i] = in.readUnsignedShort();
+            secondRef[i] = in.readUnsignedShort();
+          }
+          case 3, 4 -> in.skipNBytes(4);
+          case 5, 6 -> {
+            in.skipNBytes(8);
+            i++; // takes two entries
+          }
+          case 15 -> in.skipNBytes(3);
+          default -> throw new IOException("Unknown constant pool tag " + tag);
+        }
+      }
+    }
+
+    private void skipMembers() throws IOException {
+      for (int members = in.readUnsignedShort(); members > 0; members--) {
+        in.skipNBytes(6); // access flags, name, descriptor
+        for (int attributes = in.readUnsignedShort(); attributes > 0; attributes--) {
+          in.skipNBytes(2);
+          in.skipNBytes(in.readInt() & 0xffffffffL);
+        }
+      }
+    }
+  }
+}
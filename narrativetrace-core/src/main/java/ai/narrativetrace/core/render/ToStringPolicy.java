@@ -0,0 +1,172 @@
+package ai.narrativetrace.core.render;
+
+import ai.narrativetrace.core.config.ConfigResolver;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Which types {@link ValueRenderer} may run application code for, and how slow that code may be.
+ *
+ * <p>Values of a <em>denied</em> type are rendered as a {@code <Type@id>} placeholder: neither
+ * their {@code toString()} nor their fields or elements are touched. By default this covers the
+ * lazy-loading proxies and collections of Hibernate and EclipseLink, which query the database
+ * when they are read. When an <em>allow</em> list is set, only the types on it (and JDK types) have
+ * their custom {@code toString()} invoked; other types with a custom {@code toString()} get the
+ * placeholder too.
+ *
+ * <p>A pattern is a fully qualified class or interface name, or a package followed by {@code .*}
+ * for the package and its subpackages. A type matches if it, a superclass or an implemented
+ * interface matches.
+ *
+ * <p>A {@code toString()} or {@code @NarrativeSummary} method that takes longer than the slow
+ * threshold demotes its type: the renderer uses the placeholder for that type from then on.
+ *
+ * <pre>{@code
+ * var policy = ToStringPolicy.DEFAULT
+ *     .deny("com.example.cache.*")
+ *     .withSlowThreshold(Duration.ofMillis(2));
+ * var renderer = new ValueRenderer(policy);
+ * }</pre>
+ */
+public final class ToStringPolicy {
+
+  /** Property with semicolon-separated patterns of types to deny, in addition to the defaults. */
+  public static final String DENY_PROPERTY = "narrativetrace.render.deny";
+
+  /** Property with semicolon-separated patterns of types whose {@code toString()} may run. */
+  public static final String ALLOW_PROPERTY = "narrativetrace.render.allow";
+
+  /** Property with the slow threshold in milliseconds. */
+  public static final String SLOW_MILLIS_PROPERTY = "narrativetrace.render.slowMillis";
+
+  private static final long DEFAULT_SLOW_MILLIS = 10;
+
+  /** Denies ORM lazy-loading types and demotes types rendering slower than 10 ms. */
+  public static final ToStringPolicy DEFAULT =
+      new ToStringPolicy(
+          List.of(
+              "org.hibernate.proxy.HibernateProxy",
+              "org.hibernate.collection.spi.PersistentCollection",
+              "org.eclipse.persistence.indirection.IndirectContainer"),
+          List.of(),
+          Duration.ofMillis(DEFAULT_SLOW_MILLIS).toNanos());
+
+  private final List<String> denied;
+  private final List<String> allowed;
+  private final long slowThresholdNanos;
+
+  private ToStringPolicy(List<String> denied, List<String> allowed, long slowThresholdNanos) {
+    this.denied = List.copyOf(denied);
+    this.allowed = List.copyOf(allowed);
+    this.slowThresholdNanos = slowThresholdNanos;
+  }
+
+  /**
+   * Reads a policy from {@link #DENY_PROPERTY}, {@link #ALLOW_PROPERTY} and {@link
+   * #SLOW_MILLIS_PROPERTY}, starting from {@link #DEFAULT}.
+   *
+   * @param resolver the configuration source
+   * @return the policy
+   * @throws IllegalArgumentException if the slow threshold is not a number
+   */
+  public static ToStringPolicy fromConfig(ConfigResolver resolver) {
+    var slowMillis = resolver.resolve(SLOW_MILLIS_PROPERTY, String.valueOf(DEFAULT_SLOW_MILLIS));
+    try {
+      return DEFAULT
+          .deny(split(resolver.resolve(DENY_PROPERTY, "")))
+          .allow(split(resolver.resolve(ALLOW_PROPERTY, "")))
+          .withSlowThreshold(Duration.ofMillis(Long.parseLong(slowMillis.trim())));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(
+          "Invalid " + SLOW_MILLIS_PROPERTY + ": " + slowMillis, e);
+    }
+  }
+
+  /**
+   * Returns a policy that also denies the given types.
+   *
+   * @param patterns class names or {@code package.*} patterns
+   * @return the new policy
+   */
+  public ToStringPolicy deny(String... patterns) {
+    return new ToStringPolicy(concat(denied, patterns), allowed, slowThresholdNanos);
+  }
+
+  /**
+   * Returns a policy that also allows the given types to have their {@code toString()} invoked.
+   * Once any type is allowed, custom {@code toString()} methods of types not allowed are no longer
+   * invoked.
+   *
+   * @param patterns class names or {@code package.*} patterns
+   * @return the new policy
+   */
+  public ToStringPolicy allow(String... patterns) {
+    return new ToStringPolicy(denied, concat(allowed, patterns), slowThresholdNanos);
+  }
+
+  /**
+   * Returns a policy with a different slow threshold.
+   *
+   * @param threshold how long a {@code toString()} or summary method may take before its type is
+   *     demoted
+   * @return the new policy
+   */
+  public ToStringPolicy withSlowThreshold(Duration threshold) {
+    return new ToStringPolicy(denied, allowed, threshold.toNanos());
+  }
+
+  /** Returns whether values of a type must not be read at all. */
+  boolean denies(Class<?> type) {
+    return matchesAny(type, denied);
+  }
+
+  /** Returns whether a type's custom {@code toString()} may be invoked. */
+  boolean allowsToString(Class<?> type) {
+    return allowed.isEmpty() || type.getName().startsWith("java.") || matchesAny(type, allowed);
+  }
+
+  long slowThresholdNanos() {
+    return slowThresholdNanos;
+  }
+
+  private static boolean matchesAny(Class<?> type, List<String> patterns) {
+    if (patterns.isEmpty()) {
+      return false;
+    }
+    for (var c = type; c != null; c = c.getSuperclass()) {
+      if (matches(c.getName(), patterns)) {
+        return true;
+      }
+      for (var i : c.getInterfaces()) {
+        if (matchesAny(i, patterns)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean matches(String className, List<String> patterns) {
+    for (var pattern : patterns) {
+      if (pattern.endsWith(".*")
+          ? className.startsWith(pattern.substring(0, pattern.length() - 1))
+          : className.equals(pattern)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<String> concat(List<String> existing, String... patterns) {
+    var result = new ArrayList<>(existing);
+    for (var pattern : patterns) {
+      result.add(pattern.trim());
+    }
+    return result;
+  }
+
+  private static String[] split(String patterns) {
+    return patterns.isBlank() ? new String[0] : patterns.split(";");
+  }
+}
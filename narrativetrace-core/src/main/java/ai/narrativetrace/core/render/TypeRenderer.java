@@ -0,0 +1,63 @@
+package ai.narrativetrace.core.render;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Renders values of one type, in place of {@link ValueRenderer}'s generic handling.
+ *
+ * <p>A type renderer applies to its type and all subtypes; where several apply, the one for the
+ * most specific superclass wins, then the one for an implemented interface. Types are named rather
+ * than referenced, so renderers for optional libraries can be registered without those libraries
+ * on the classpath. Renderers are found through {@link java.util.ServiceLoader} or added with
+ * {@link TypeRenderers#register}.
+ *
+ * <p>Implementations append directly to the builder and should be cheap, since they run on the
+ * traced thread. Output beyond the renderer's character budget is cut off afterwards.
+ *
+ * <pre>{@code
+ * TypeRenderers.register(
+ *     TypeRenderer.of(Money.class, (money, out) ->
+ *         out.append(money.amount()).append(' ').append(money.currency())));
+ * }</pre>
+ *
+ * @see TypeRenderers
+ */
+public interface TypeRenderer {
+
+  /**
+   * Returns the fully qualified name of the class or interface this renderer handles.
+   *
+   * @return a binary class name such as {@code java.math.BigDecimal}
+   */
+  String typeName();
+
+  /**
+   * Appends the rendering of a value.
+   *
+   * @param value an instance of the type named by {@link #typeName()}, never {@code null}
+   * @param out the builder to append to
+   */
+  void render(Object value, StringBuilder out);
+
+  /**
+   * Creates a renderer for a type available at compile time.
+   *
+   * @param type the class or interface to render
+   * @param renderer appends the rendering of a value
+   * @param <T> the rendered type
+   * @return the renderer
+   */
+  static <T> TypeRenderer of(Class<T> type, BiConsumer<? super T, StringBuilder> renderer) {
+    return new TypeRenderer() {
+      @Override
+      public String typeName() {
+        return type.getName();
+      }
+
+      @Override
+      public void render(Object value, StringBuilder out) {
+        renderer.accept(type.cast(value), out);
+      }
+    };
+  }
+}
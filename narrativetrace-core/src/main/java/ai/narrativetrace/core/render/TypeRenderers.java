@@ -0,0 +1,108 @@
+package ai.narrativetrace.core.render;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * The {@link TypeRenderer}s every {@link ValueRenderer} consults, shared across the JVM so that the
+ * renderers the proxy and the agent create pick up registrations too.
+ *
+ * <p>The registry starts with built-in renderers for {@code BigDecimal} (plain notation), {@code
+ * UUID}, {@code Instant}, {@code byte[]} and {@code ByteBuffer} (abbreviated hex), protobuf
+ * messages (one-line text format) and Jackson {@code JsonNode}s (compact JSON). Renderers listed
+ * in {@code META-INF/services/ai.narrativetrace.core.render.TypeRenderer} are added when the
+ * registry is first used, and {@link #register} adds more at any time. A later renderer for the
+ * same type name replaces an earlier one.
+ */
+public final class TypeRenderers {
+
+  private static final Object LOCK = new Object();
+  private static volatile Map<String, TypeRenderer> renderers = Map.of();
+  private static volatile int version;
+
+  static {
+    for (var renderer : BuiltInRenderers.all()) {
+      register(renderer);
+    }
+    loadServices();
+  }
+
+  private TypeRenderers() {}
+
+  /**
+   * Adds a renderer, replacing any registered for the same type name. Values rendered after this
+   * returns use it.
+   *
+   * @param renderer the renderer
+   */
+  public static void register(TypeRenderer renderer) {
+    synchronized (LOCK) {
+      var updated = new HashMap<>(renderers);
+      updated.put(renderer.typeName(), renderer);
+      renderers = Map.copyOf(updated);
+      version++;
+    }
+  }
+
+  /** Changes whenever a renderer is registered, so cached lookups can be refreshed. */
+  static int version() {
+    return version;
+  }
+
+  /**
+   * Finds the renderer for a type: the one for the type itself or its nearest superclass, else the
+   * one for the first matching interface, searched breadth-first.
+   *
+   * @return the renderer, or {@code null} if none applies
+   */
+  static TypeRenderer find(Class<?> type) {
+    var registered = renderers;
+    for (var c = type; c != null; c = c.getSuperclass()) {
+      var renderer = registered.get(c.getName());
+      if (renderer != null) {
+        return renderer;
+      }
+    }
+    var queue = new ArrayDeque<Class<?>>();
+    var visited = new HashSet<Class<?>>();
+    for (var c = type; c != null; c = c.getSuperclass()) {
+      for (var i : c.getInterfaces()) {
+        queue.add(i);
+      }
+    }
+    while (!queue.isEmpty()) {
+      var i = queue.poll();
+      if (!visited.add(i)) {
+        continue;
+      }
+      var renderer = registered.get(i.getName());
+      if (renderer != null) {
+        return renderer;
+      }
+      for (var parent : i.getInterfaces()) {
+        queue.add(parent);
+      }
+    }
+    return null;
+  }
+
+  private static void loadServices() {
+    try {
+      ServiceLoader.load(TypeRenderer.class).stream().forEach(TypeRenderers::registerProvider);
+    } catch (ServiceConfigurationError e) {
+      // A malformed provider file; keep the renderers registered so far
+    }
+  }
+
+  private static void registerProvider(ServiceLoader.Provider<TypeRenderer> provider) {
+    try {
+      register(provider.get());
+    } catch (ServiceConfigurationError e) {
+      // Skip a provider that cannot be instantiated
+    }
+  }
+}
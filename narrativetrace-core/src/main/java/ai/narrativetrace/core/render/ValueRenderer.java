@@ -1,39 +1,125 @@
 package ai.narrativetrace.core.render;
 
+import ai.narrativetrace.core.annotation.ImmutableValue;
 import ai.narrativetrace.core.annotation.NarrativeSummary;
+import ai.narrativetrace.core.event.DeferredValue;
+import ai.narrativetrace.core.event.MethodSignature;
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.stream.BaseStream;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 /**
  * Serializes objects to string representations with array support, POJO introspection, and cycle
  * detection.
+ *
+ * <p>Records and POJOs are read through an {@link ObjectLayout} built once per class, so rendering
+ * them involves no reflection after the first instance. Nested values are appended into a single
+ * buffer, reused per thread by {@link #render(Object)}, so each rendered value allocates one
+ * {@code String}. The whole rendering of a value is limited to a character budget, which also
+ * bounds what is copied from {@code toString()} results; output beyond it is cut off and marked
+ * with {@code …}.
+ *
+ * <p>Maps, {@code Optional}s and other {@code Iterable}s are rendered item by item within the same
+ * limits, and streams are never consumed. Which types may run application code while they are
+ * rendered is decided by a {@link ToStringPolicy}; types it denies, and types whose {@code
+ * toString()} turned out to be slow, are rendered as {@code <Type@id>}.
+ *
+ * <p>How a class is rendered is decided once, on its first value, and cached per renderer. A
+ * {@link TypeRenderer} registered for the class or a supertype takes precedence over all built-in
+ * handling except the policy's deny list.
  */
 public final class ValueRenderer {
 
   private static final int DEFAULT_MAX_STRING_LENGTH = 200;
   private static final int DEFAULT_MAX_COLLECTION_ITEMS = 5;
   private static final int DEFAULT_MAX_OBJECT_FIELDS = 5;
+  private static final int DEFAULT_MAX_TOTAL_LENGTH = 1000;
+  private static final int INITIAL_BUFFER_CAPACITY = 256;
+  private static final String ELLIPSIS = "…";
+
+  private static final ThreadLocal<StringBuilder> BUFFER =
+      ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_CAPACITY));
 
   private final int maxStringLength;
   private final int maxCollectionItems;
   private final int maxObjectFields;
+  private final int maxTotalLength;
+  private final ToStringPolicy policy;
+  private final ClassValue<TypeInfo> types =
+      new ClassValue<>() {
+        @Override
+        protected TypeInfo computeValue(Class<?> type) {
+          var version = TypeRenderers.version();
+          var info = classify(type);
+          info.version = version;
+          return info;
+        }
+      };
 
   public ValueRenderer() {
-    this(DEFAULT_MAX_STRING_LENGTH, DEFAULT_MAX_COLLECTION_ITEMS, DEFAULT_MAX_OBJECT_FIELDS);
+    this(ToStringPolicy.DEFAULT);
+  }
+
+  public ValueRenderer(ToStringPolicy policy) {
+    this(
+        DEFAULT_MAX_STRING_LENGTH,
+        DEFAULT_MAX_COLLECTION_ITEMS,
+        DEFAULT_MAX_OBJECT_FIELDS,
+        DEFAULT_MAX_TOTAL_LENGTH,
+        policy);
   }
 
   public ValueRenderer(int maxStringLength, int maxCollectionItems, int maxObjectFields) {
+    this(maxStringLength, maxCollectionItems, maxObjectFields, DEFAULT_MAX_TOTAL_LENGTH);
+  }
+
+  /**
+   * Creates a renderer with explicit limits.
+   *
+   * @param maxStringLength characters kept of each string value
+   * @param maxCollectionItems items rendered of each collection or array
+   * @param maxObjectFields components or fields rendered of each record or object
+   * @param maxTotalLength characters of output per rendered value, across all nesting levels
+   */
+  public ValueRenderer(
+      int maxStringLength, int maxCollectionItems, int maxObjectFields, int maxTotalLength) {
+    this(
+        maxStringLength,
+        maxCollectionItems,
+        maxObjectFields,
+        maxTotalLength,
+        ToStringPolicy.DEFAULT);
+  }
+
+  /**
+   * Creates a renderer with explicit limits and policy.
+   *
+   * @param maxStringLength characters kept of each string value
+   * @param maxCollectionItems items rendered of each collection, map or array
+   * @param maxObjectFields components or fields rendered of each record or object
+   * @param maxTotalLength characters of output per rendered value, across all nesting levels
+   * @param policy which types may run application code while rendered
+   */
+  public ValueRenderer(
+      int maxStringLength,
+      int maxCollectionItems,
+      int maxObjectFields,
+      int maxTotalLength,
+      ToStringPolicy policy) {
     this.maxStringLength = maxStringLength;
     this.maxCollectionItems = maxCollectionItems;
     this.maxObjectFields = maxObjectFields;
+    this.maxTotalLength = maxTotalLength;
+    this.policy = policy;
   }
 
   public String render(Object value) {
@@ -46,153 +132,481 @@ public final class ValueRenderer {
       }
       return "\"" + s + "\"";
     }
-    if (value instanceof Number
-        || value instanceof Boolean
-        || value instanceof Character
-        || value instanceof Enum<?>) {
+    if (rendersPlainly(value.getClass())) {
       return value.toString();
     }
-    return renderComplex(value, Collections.newSetFromMap(new IdentityHashMap<>()));
+    var buffer = BUFFER.get();
+    if (buffer.length() > 0) {
+      // Rendering re-entered from a toString() or summary method on this thread
+      buffer = new StringBuilder(INITIAL_BUFFER_CAPACITY);
+    }
+    try {
+      render(value, buffer);
+      return buffer.toString();
+    } finally {
+      buffer.setLength(0);
+      if (buffer.capacity() > maxTotalLength * 2 + INITIAL_BUFFER_CAPACITY) {
+        buffer.trimToSize();
+      }
+    }
   }
 
-  private String render(Object value, Set<Object> seen) {
-    if (value == null) {
-      return "null";
+  /**
+   * Renders an {@code int} as {@link #render(Object)} renders its box, boxing it only if a type
+   * renderer or the policy applies to {@code Integer}.
+   *
+   * @param value the value to render
+   * @return the rendering
+   */
+  public String renderInt(int value) {
+    return rendersPlainly(Integer.class) ? Integer.toString(value) : render((Object) value);
+  }
+
+  /**
+   * Renders a {@code long} as {@link #render(Object)} renders its box, boxing it only if a type
+   * renderer or the policy applies to {@code Long}.
+   *
+   * @param value the value to render
+   * @return the rendering
+   */
+  public String renderLong(long value) {
+    return rendersPlainly(Long.class) ? Long.toString(value) : render((Object) value);
+  }
+
+  /**
+   * Renders a {@code double} as {@link #render(Object)} renders its box, boxing it only if a type
+   * renderer or the policy applies to {@code Double}.
+   *
+   * @param value the value to render
+   * @return the rendering
+   */
+  public String renderDouble(double value) {
+    return rendersPlainly(Double.class) ? Double.toString(value) : render((Object) value);
+  }
+
+  /** Whether values of a scalar class render as their {@code toString()}, decided per renderer. */
+  private boolean rendersPlainly(Class<?> type) {
+    var info = typeInfo(type);
+    return info.kind == Kind.SCALAR && !info.demoted;
+  }
+
+  /**
+   * Captures a value for a trace: renders it now, or, if its type is immutable, wraps it in a
+   * {@link DeferredValue} that renders it when the trace is read. Immutable types are those listed
+   * on {@link ImmutableValue}, unless a registered {@link TypeRenderer} renders them; other values
+   * are rendered now, since rendering them later could show a state they only reached after the
+   * call or run application code on the thread that reads the trace.
+   *
+   * @param value the value to capture, may be {@code null}
+   * @return the rendered {@code String} or a {@code DeferredValue}, for {@link
+   *     MethodSignature#deferred}
+   */
+  public Object capture(Object value) {
+    if (value != null && isDeferrable(value.getClass())) {
+      return new Deferred(this, value);
     }
-    if (value instanceof String s) {
+    return render(value);
+  }
+
+  /**
+   * Immutable types qualify unless application code renders them or, for a record, one of its
+   * components: a registered type renderer other than the built-in ones for JDK types.
+   */
+  private boolean isDeferrable(Class<?> type) {
+    var info = typeInfo(type);
+    var deferrable = info.deferrable;
+    if (deferrable == null) {
+      // Benign race: concurrent callers reach the same verdict.
+      deferrable =
+          ImmutableTypes.isImmutable(type)
+              && ImmutableTypes.componentsSatisfy(type, this::rendersWithoutApplicationCode);
+      info.deferrable = deferrable;
+    }
+    return deferrable;
+  }
+
+  private boolean rendersWithoutApplicationCode(Class<?> type) {
+    var info = typeInfo(type);
+    return info.kind != Kind.CUSTOM
+        || BuiltInRenderers.rendersJdkType(info.renderer)
+        || type.isAnnotationPresent(ImmutableValue.class);
+  }
+
+  /**
+   * Appends the rendering of a value, limited to this renderer's character budget.
+   *
+   * @param value the value to render, may be {@code null}
+   * @param out the builder to append to
+   */
+  public void render(Object value, StringBuilder out) {
+    var state = new RenderState(out, out.length() + maxTotalLength);
+    append(value, state);
+    if (out.length() > state.limit) {
+      out.setLength(state.limit);
+      state.truncated = true;
+    }
+    if (state.truncated) {
+      out.append(ELLIPSIS);
+    }
+  }
+
+  /** Decides how values of a class are rendered; runs once per class and renderer. */
+  private TypeInfo classify(Class<?> type) {
+    if (policy.denies(type)) {
+      return new TypeInfo(Kind.PLACEHOLDER, null, null);
+    }
+    var renderer = TypeRenderers.find(type);
+    if (renderer != null) {
+      return new TypeInfo(Kind.CUSTOM, renderer, null);
+    }
+    if (Number.class.isAssignableFrom(type)
+        || type == Boolean.class
+        || type == Character.class
+        || Enum.class.isAssignableFrom(type)) {
+      return new TypeInfo(Kind.SCALAR, null, null);
+    }
+    if (Collection.class.isAssignableFrom(type)) {
+      return new TypeInfo(Kind.COLLECTION, null, null);
+    }
+    if (Map.class.isAssignableFrom(type)) {
+      return new TypeInfo(Kind.MAP, null, null);
+    }
+    if (type == Optional.class) {
+      return new TypeInfo(Kind.OPTIONAL, null, null);
+    }
+    if (BaseStream.class.isAssignableFrom(type)
+        || Iterable.class.isAssignableFrom(type) && AutoCloseable.class.isAssignableFrom(type)) {
+      // Reading would consume or require closing it
+      return new TypeInfo(Kind.STREAM, null, null);
+    }
+    if (type.isArray()) {
+      return new TypeInfo(Kind.ARRAY, null, null);
+    }
+    var summary = SUMMARY_METHOD_CACHE.get(type);
+    if (type.isRecord()) {
+      return new TypeInfo(Kind.RECORD, null, summary);
+    }
+    if (!HAS_CUSTOM_TO_STRING.get(type)) {
+      var kind = Iterable.class.isAssignableFrom(type) ? Kind.ITERABLE : Kind.FIELDS;
+      return new TypeInfo(kind, null, summary);
+    }
+    var kind = policy.allowsToString(type) ? Kind.TO_STRING : Kind.PLACEHOLDER;
+    return new TypeInfo(kind, null, summary);
+  }
+
+  /** Returns the cached decision for a class, refreshed after new type renderers are registered. */
+  private TypeInfo typeInfo(Class<?> type) {
+    var info = types.get(type);
+    if (info.version != TypeRenderers.version()) {
+      types.remove(type);
+      info = types.get(type);
+    }
+    return info;
+  }
+
+  private void append(Object value, RenderState state) {
+    var out = state.out;
+    if (value == null) {
+      out.append("null");
+    } else if (value instanceof String s) {
+      out.append('"');
       if (s.length() > maxStringLength) {
-        return "\"" + s.substring(0, maxStringLength) + "…\"";
+        out.append(s, 0, maxStringLength).append(ELLIPSIS);
+      } else {
+        out.append(s);
       }
-      return "\"" + s + "\"";
+      out.append('"');
+    } else {
+      appendComplex(value, state);
     }
-    if (value instanceof Number
-        || value instanceof Boolean
-        || value instanceof Character
-        || value instanceof Enum<?>) {
-      return value.toString();
+  }
+
+  private void appendComplex(Object value, RenderState state) {
+    var info = typeInfo(value.getClass());
+    if (info.demoted) {
+      appendPlaceholder(value.getClass().getSimpleName(), value, state);
+      return;
+    }
+    if (info.summary != null && appendSummary(value, info, state)) {
+      return;
+    }
+    switch (info.kind) {
+      case SCALAR -> state.out.append(value);
+      case CUSTOM -> appendCustom(value, info.renderer, state);
+      case PLACEHOLDER -> appendPlaceholder(value.getClass().getSimpleName(), value, state);
+      case COLLECTION -> appendCollection((Collection<?>) value, state);
+      case MAP -> appendMap((Map<?, ?>) value, state);
+      case OPTIONAL -> appendOptional((Optional<?>) value, state);
+      case STREAM -> appendPlaceholder(streamName(value), value, state);
+      case ARRAY -> appendArray(value, state);
+      case RECORD -> appendMembers(value, state, '(', ')', ELLIPSIS);
+      case ITERABLE -> appendItems((Iterable<?>) value, -1, state);
+      case FIELDS -> appendFields(value, state);
+      default -> appendToString(value, info, state);
+    }
+  }
+
+  private boolean appendSummary(Object value, TypeInfo info, RenderState state) {
+    var start = System.nanoTime();
+    try {
+      appendText(String.valueOf(info.summary.invoke(value)), state);
+      return true;
+    } catch (Exception e) {
+      return false;
+    } finally {
+      demoteIfSlow(info, start);
     }
-    return renderComplex(value, seen);
   }
 
-  private String renderComplex(Object value, Set<Object> seen) {
-    if (value instanceof Collection<?> c) {
-      return renderCollection(c, seen);
+  private static void appendCustom(Object value, TypeRenderer renderer, RenderState state) {
+    var mark = state.out.length();
+    try {
+      renderer.render(value, state.out);
+    } catch (RuntimeException e) {
+      state.out.setLength(mark);
+      appendPlaceholder(value.getClass().getSimpleName(), value, state);
     }
-    if (value.getClass().isArray()) {
-      return renderArray(value, seen);
+  }
+
+  private void appendFields(Object value, RenderState state) {
+    if (!state.seen().add(value)) {
+      appendPlaceholder(value.getClass().getSimpleName(), value, state);
+      return;
     }
-    var summaryMethod = findNarrativeSummaryMethod(value.getClass());
-    if (summaryMethod != null) {
-      try {
-        return String.valueOf(summaryMethod.invoke(value));
-      } catch (Exception e) {
-        // fall through
+    appendMembers(value, state, '{', '}', "...");
+  }
+
+  private void appendToString(Object value, TypeInfo info, RenderState state) {
+    String text;
+    var start = System.nanoTime();
+    try {
+      text = value.toString();
+    } catch (Throwable t) { // NOPMD AvoidCatchingThrowable - rogue toString() may throw Error
+      text = "<" + value.getClass().getSimpleName() + ">";
+    } finally {
+      demoteIfSlow(info, start);
+    }
+    appendText(String.valueOf(text), state);
+  }
+
+  /** Appends text from application code, copying no more than the remaining budget. */
+  private static void appendText(String text, RenderState state) {
+    var room = Math.max(state.limit - state.out.length(), 0);
+    if (text.length() > room) {
+      state.out.append(text, 0, room);
+      state.truncated = true;
+    } else {
+      state.out.append(text);
+    }
+  }
+
+  private static void appendPlaceholder(String typeName, Object value, RenderState state) {
+    state
+        .out
+        .append('<')
+        .append(typeName)
+        .append('@')
+        .append(Integer.toHexString(System.identityHashCode(value)))
+        .append('>');
+  }
+
+  private static String streamName(Object value) {
+    if (value instanceof IntStream) {
+      return "IntStream";
+    }
+    if (value instanceof LongStream) {
+      return "LongStream";
+    }
+    if (value instanceof DoubleStream) {
+      return "DoubleStream";
+    }
+    if (value instanceof BaseStream<?, ?>) {
+      return "Stream";
+    }
+    return value.getClass().getSimpleName();
+  }
+
+  private void demoteIfSlow(TypeInfo info, long start) {
+    if (System.nanoTime() - start > policy.slowThresholdNanos()) {
+      info.demoted = true;
+    }
+  }
+
+  private void appendCollection(Collection<?> collection, RenderState state) {
+    appendItems(collection, collection.size(), state);
+  }
+
+  /**
+   * Appends up to {@code maxCollectionItems} items.
+   *
+   * @param size the number of items, or {@code -1} if unknown
+   */
+  private void appendItems(Iterable<?> items, int size, RenderState state) {
+    var out = state.out;
+    out.append('[');
+    int count = 0;
+    var iterator = items.iterator();
+    while (iterator.hasNext()) {
+      if (count == maxCollectionItems || state.exhausted()) {
+        break;
       }
+      if (count > 0) {
+        out.append(", ");
+      }
+      append(iterator.next(), state);
+      count++;
     }
-    if (value.getClass().isRecord()) {
-      return renderRecord(value, seen);
+    if (size > maxCollectionItems) {
+      out.append(", … (").append(size).append(" total)");
+    } else if (size < 0 && count == maxCollectionItems && iterator.hasNext()) {
+      out.append(", …");
     }
-    if (!HAS_CUSTOM_TO_STRING.get(value.getClass())) {
-      if (!seen.add(value)) {
-        return "<"
-            + value.getClass().getSimpleName()
-            + "@"
-            + Integer.toHexString(System.identityHashCode(value))
-            + ">";
+    out.append(']');
+  }
+
+  private void appendMap(Map<?, ?> map, RenderState state) {
+    var out = state.out;
+    out.append('{');
+    int count = 0;
+    for (var entry : map.entrySet()) {
+      if (count == maxCollectionItems || state.exhausted()) {
+        break;
+      }
+      if (count > 0) {
+        out.append(", ");
       }
-      return renderObject(value, seen);
+      append(entry.getKey(), state);
+      out.append(": ");
+      append(entry.getValue(), state);
+      count++;
     }
-    try {
-      return value.toString();
-    } catch (Throwable t) { // NOPMD AvoidCatchingThrowable - rogue toString() may throw Error
-      return "<" + value.getClass().getSimpleName() + ">";
+    if (map.size() > maxCollectionItems) {
+      out.append(", … (").append(map.size()).append(" total)");
     }
+    out.append('}');
   }
 
-  private String renderCollection(Collection<?> collection, Set<Object> seen) {
-    var sb = new StringBuilder("[");
-    var items =
-        collection.stream()
-            .limit(maxCollectionItems)
-            .map(item -> render(item, seen))
-            .collect(Collectors.joining(", "));
-    sb.append(items);
-    if (collection.size() > maxCollectionItems) {
-      sb.append(", … (").append(collection.size()).append(" total)");
+  private void appendOptional(Optional<?> optional, RenderState state) {
+    if (optional.isEmpty()) {
+      state.out.append("Optional.empty");
+      return;
     }
-    sb.append("]");
-    return sb.toString();
+    state.out.append("Optional[");
+    append(optional.get(), state);
+    state.out.append(']');
   }
 
-  private String renderArray(Object array, Set<Object> seen) {
+  private void appendArray(Object array, RenderState state) {
+    var out = state.out;
     var length = Array.getLength(array);
     var limit = Math.min(length, maxCollectionItems);
-    var sb = new StringBuilder("[");
-    for (var i = 0; i < limit; i++) {
+    out.append('[');
+    for (var i = 0; i < limit && !state.exhausted(); i++) {
       if (i > 0) {
-        sb.append(", ");
+        out.append(", ");
       }
-      sb.append(render(Array.get(array, i), seen));
+      append(Array.get(array, i), state);
     }
     if (length > maxCollectionItems) {
-      sb.append(", ... (").append(length).append(" total)");
-    }
-    sb.append("]");
-    return sb.toString();
-  }
-
-  private String renderRecord(Object record, Set<Object> seen) {
-    var components = record.getClass().getRecordComponents();
-    var sb = new StringBuilder(record.getClass().getSimpleName()).append("(");
-    var limit = Math.min(components.length, maxObjectFields);
-    var fields =
-        Arrays.stream(components)
-            .limit(limit)
-            .map(
-                comp -> {
-                  try {
-                    var accessor = comp.getAccessor();
-                    accessor.setAccessible(true);
-                    var val = accessor.invoke(record);
-                    return comp.getName() + ": " + render(val, seen);
-                  } catch (Exception e) {
-                    return comp.getName() + ": <error>";
-                  }
-                })
-            .collect(Collectors.joining(", "));
-    sb.append(fields);
-    if (components.length > maxObjectFields) {
-      sb.append(", …");
-    }
-    sb.append(")");
-    return sb.toString();
-  }
-
-  private String renderObject(Object obj, Set<Object> seen) {
-    var clazz = obj.getClass();
-    var fields =
-        Arrays.stream(clazz.getDeclaredFields())
-            .filter(f -> !Modifier.isStatic(f.getModifiers()) && !f.isSynthetic())
-            .toArray(Field[]::new);
-    var limit = Math.min(fields.length, maxObjectFields);
-    var sb = new StringBuilder(clazz.getSimpleName()).append("{");
-    for (var i = 0; i < limit; i++) {
+      out.append(", ... (").append(length).append(" total)");
+    }
+    out.append(']');
+  }
+
+  private void appendMembers(
+      Object value, RenderState state, char open, char close, String more) {
+    var out = state.out;
+    var layout = ObjectLayout.of(value.getClass());
+    var limit = Math.min(layout.size(), maxObjectFields);
+    out.append(layout.simpleName()).append(open);
+    for (var i = 0; i < limit && !state.exhausted(); i++) {
       if (i > 0) {
-        sb.append(", ");
+        out.append(", ");
       }
-      var field = fields[i];
+      out.append(layout.name(i)).append(": ");
+      Object member;
       try {
-        field.setAccessible(true);
-        sb.append(field.getName()).append(": ").append(render(field.get(obj), seen));
-      } catch (Exception e) {
-        sb.append(field.getName()).append(": <error>");
+        member = layout.get(value, i);
+      } catch (Throwable t) { // NOPMD AvoidCatchingThrowable - accessors may throw anything
+        out.append("<error>");
+        continue;
       }
+      append(member, state);
+    }
+    if (layout.size() > maxObjectFields) {
+      out.append(", ").append(more);
+    }
+    out.append(close);
+  }
+
+  private record Deferred(ValueRenderer renderer, Object value) implements DeferredValue {
+    @Override
+    public String render() {
+      return renderer.render(value);
     }
-    if (fields.length > maxObjectFields) {
-      sb.append(", ...");
+  }
+
+  /** How values of a class are rendered. */
+  private enum Kind {
+    SCALAR,
+    CUSTOM,
+    PLACEHOLDER,
+    COLLECTION,
+    MAP,
+    OPTIONAL,
+    STREAM,
+    ARRAY,
+    RECORD,
+    ITERABLE,
+    FIELDS,
+    TO_STRING
+  }
+
+  /** What was decided for a class, and whether it has been demoted since. */
+  private static final class TypeInfo {
+
+    private final Kind kind;
+    private final TypeRenderer renderer;
+    private final Method summary;
+    private int version;
+    private volatile boolean demoted;
+    private Boolean deferrable;
+
+    TypeInfo(Kind kind, TypeRenderer renderer, Method summary) {
+      this.kind = kind;
+      this.renderer = renderer;
+      this.summary = summary;
+    }
+  }
+
+  /** Where one value is being rendered to, and how much of the budget is left. */
+  private static final class RenderState {
+
+    private final StringBuilder out;
+    private final int limit;
+    private Set<Object> seen;
+    private boolean truncated;
+
+    RenderState(StringBuilder out, int limit) {
+      this.out = out;
+      this.limit = limit;
+    }
+
+    /** Returns whether the budget is used up, so no further items should be rendered. */
+    boolean exhausted() {
+      if (out.length() >= limit) {
+        truncated = true;
+      }
+      return truncated;
+    }
+
+    /** Objects rendered by field introspection so far, for cycle detection. */
+    Set<Object> seen() {
+      if (seen == null) {
+        seen = Collections.newSetFromMap(new IdentityHashMap<>());
+      }
+      return seen;
     }
-    sb.append("}");
-    return sb.toString();
   }
 
   private static final ClassValue<Boolean> HAS_CUSTOM_TO_STRING =
@@ -207,6 +621,11 @@ public final class ValueRenderer {
         }
       };
 
+  /** Returns the public no-argument {@link NarrativeSummary} method of a type, or {@code null}. */
+  static Method summaryMethod(Class<?> type) {
+    return SUMMARY_METHOD_CACHE.get(type);
+  }
+
   private static final ClassValue<Method> SUMMARY_METHOD_CACHE =
       new ClassValue<>() {
         @Override
@@ -220,8 +639,4 @@ public final class ValueRenderer {
           return null;
         }
       };
-
-  private static Method findNarrativeSummaryMethod(Class<?> clazz) {
-    return SUMMARY_METHOD_CACHE.get(clazz);
-  }
 }
@@ -6,6 +6,7 @@
  * {@link ai.narrativetrace.core.render.ProseRenderer}, and {@link
  * ai.narrativetrace.core.render.IndentedTextRenderer}. {@link
  * ai.narrativetrace.core.render.ValueRenderer} handles object-to-string serialization with cycle
- * detection and POJO introspection.
+ * detection and POJO introspection; {@link ai.narrativetrace.core.render.TypeRenderer}s plug in
+ * rendering for specific types.
  */
 package ai.narrativetrace.core.render;
@@ -0,0 +1,71 @@
+package ai.narrativetrace.core.context;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Binds a value to the current thread for the extent of an operation.
+ *
+ * <p>This is the Java 25 variant, backed by a {@link ScopedValue}. Bindings are inherited by
+ * subtasks forked in a {@link java.util.concurrent.StructuredTaskScope}, and threads that never
+ * bind a value carry no per-thread state at all.
+ *
+ * <p>A {@code ScopedValue} cannot be bound outside a lambda, so bindings made with {@link #open}
+ * fall back to a {@link ThreadLocal}. It is only read while such a binding is open somewhere, and
+ * takes precedence over the scoped value on the thread that opened it.
+ *
+ * @param <T> the bound value type
+ */
+final class ScopedBinding<T> {
+
+  private final ScopedValue<T> bound = ScopedValue.newInstance();
+  private final ThreadLocal<T> opened = new ThreadLocal<>();
+  private final AtomicInteger openCount = new AtomicInteger();
+
+  /** Returns the value bound on the current thread, or {@code null} if none. */
+  T current() {
+    if (openCount.get() > 0) {
+      var value = opened.get();
+      if (value != null) {
+        return value;
+      }
+    }
+    return bound.isBound() ? bound.get() : null;
+  }
+
+  /** Runs {@code op} with {@code value} bound, restoring the previous binding afterwards. */
+  <R, X extends Throwable> R call(T value, Op<R, X> op) throws X {
+    return ScopedValue.where(bound, value).call(op::call);
+  }
+
+  /**
+   * Binds {@code value} until {@link #restore} is called with the returned previous value. Calls
+   * must nest on the thread that opened the binding.
+   */
+  T open(T value) {
+    openCount.incrementAndGet();
+    var previous = opened.get();
+    opened.set(value);
+    return previous;
+  }
+
+  /** Ends a binding made by {@link #open}, reinstating {@code previous}. */
+  void restore(T previous) {
+    if (previous == null) {
+      opened.remove();
+    } else {
+      opened.set(previous);
+    }
+    openCount.decrementAndGet();
+  }
+
+  /**
+   * An operation run with a value bound.
+   *
+   * @param <R> the result type
+   * @param <X> the exception type thrown
+   */
+  @FunctionalInterface
+  interface Op<R, X extends Throwable> {
+    R call() throws X;
+  }
+}
@@ -0,0 +1,77 @@
+package ai.narrativetrace.core.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class HeadSamplingTest {
+
+  @Test
+  void alwaysSamplesEveryRequest() {
+    assertThat(HeadSampling.ALWAYS.sample()).isTrue();
+    assertThat(HeadSampling.ALWAYS.isSampled("any-key")).isTrue();
+  }
+
+  @Test
+  void zeroRateSamplesNothing() {
+    var sampling = HeadSampling.rate(0.0, () -> "trace-1");
+
+    assertThat(sampling.sample()).isFalse();
+  }
+
+  @Test
+  void sameKeyAlwaysGetsSameDecision() {
+    var sampling = HeadSampling.rate(0.5);
+
+    for (int i = 0; i < 100; i++) {
+      var key = "trace-" + i;
+      assertThat(sampling.isSampled(key)).isEqualTo(HeadSampling.rate(0.5).isSampled(key));
+    }
+  }
+
+  @Test
+  void keyedDecisionIsMonotonicInRate() {
+    for (int i = 0; i < 100; i++) {
+      var key = "user-" + i;
+      if (HeadSampling.rate(0.1).isSampled(key)) {
+        assertThat(HeadSampling.rate(0.2).isSampled(key)).isTrue();
+      }
+    }
+  }
+
+  @Test
+  void sampledFractionApproximatesRate() {
+    var sampling = HeadSampling.rate(0.1);
+    int sampled = 0;
+    for (int i = 0; i < 10_000; i++) {
+      if (sampling.isSampled("request-" + i)) {
+        sampled++;
+      }
+    }
+
+    assertThat(sampled).isBetween(800, 1200);
+  }
+
+  @Test
+  void nullKeyFallsBackToRandomDecision() {
+    var sampling = HeadSampling.rate(0.5, () -> null);
+    int sampled = 0;
+    for (int i = 0; i < 1_000; i++) {
+      if (sampling.sample()) {
+        sampled++;
+      }
+    }
+
+    assertThat(sampled).isBetween(350, 650);
+  }
+
+  @Test
+  void rejectsRateOutsideUnitInterval() {
+    assertThatThrownBy(() -> HeadSampling.rate(1.5))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("1.5");
+    assertThatThrownBy(() -> HeadSampling.rate(Double.NaN))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -2,6 +2,8 @@ package ai.narrativetrace.core.config;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 
 class NarrativeTraceConfigTest {
@@ -29,4 +31,48 @@ class NarrativeTraceConfigTest {
     config.setLevel(TracingLevel.ERRORS);
     assertThat(config.level()).isEqualTo(TracingLevel.ERRORS);
   }
+
+  @Test
+  void levelListenersSeeEveryChangeUntilRemoved() {
+    var config = new NarrativeTraceConfig();
+    var seen = new ArrayList<TracingLevel>();
+    Consumer<TracingLevel> listener = seen::add;
+    config.addLevelListener(listener);
+
+    config.setLevel(TracingLevel.OFF);
+    config.setLevel(TracingLevel.SUMMARY);
+    config.removeLevelListener(listener);
+    config.setLevel(TracingLevel.DETAIL);
+
+    assertThat(seen).containsExactly(TracingLevel.OFF, TracingLevel.SUMMARY);
+  }
+
+  @Test
+  void samplingDefaultsToAlwaysAndIsChangeable() {
+    var config = new NarrativeTraceConfig();
+    assertThat(config.sampling()).isSameAs(HeadSampling.ALWAYS);
+
+    var sampling = HeadSampling.rate(0.25);
+    config.setSampling(sampling);
+    assertThat(config.sampling()).isSameAs(sampling);
+  }
+
+  @Test
+  void limitsDefaultToUnlimitedAndAreChangeable() {
+    var config = new NarrativeTraceConfig();
+    assertThat(config.limits()).isSameAs(TraceLimits.UNLIMITED);
+
+    var limits = new TraceLimits(1_000, 32, 100);
+    config.setLimits(limits);
+    assertThat(config.limits()).isSameAs(limits);
+  }
+
+  @Test
+  void foldingRepeatedCallsIsOffByDefaultAndChangeable() {
+    var config = new NarrativeTraceConfig();
+    assertThat(config.foldRepeatedCalls()).isFalse();
+
+    config.setFoldRepeatedCalls(true);
+    assertThat(config.foldRepeatedCalls()).isTrue();
+  }
 }
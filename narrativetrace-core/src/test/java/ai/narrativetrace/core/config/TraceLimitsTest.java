@@ -0,0 +1,27 @@
+package ai.narrativetrace.core.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class TraceLimitsTest {
+
+  @Test
+  void unlimitedAllowsEverything() {
+    assertThat(TraceLimits.UNLIMITED.maxNodesPerRoot()).isEqualTo(Integer.MAX_VALUE);
+    assertThat(TraceLimits.UNLIMITED.maxDepth()).isEqualTo(Integer.MAX_VALUE);
+    assertThat(TraceLimits.UNLIMITED.maxChildrenPerNode()).isEqualTo(Integer.MAX_VALUE);
+  }
+
+  @Test
+  void rejectsLimitsBelowOne() {
+    assertThatThrownBy(() -> new TraceLimits(0, 10, 10))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("nodes=0");
+    assertThatThrownBy(() -> new TraceLimits(10, 0, 10))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new TraceLimits(10, 10, -1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
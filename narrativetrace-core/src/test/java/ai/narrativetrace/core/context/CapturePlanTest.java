@@ -0,0 +1,93 @@
+package ai.narrativetrace.core.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.narrativetrace.core.config.NarrativeTraceConfig;
+import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.tree.TraceTree;
+import org.junit.jupiter.api.Test;
+
+class CapturePlanTest {
+
+  @Test
+  void detailCapturesEverything() {
+    assertThat(CapturePlan.forLevel(TracingLevel.DETAIL)).isSameAs(CapturePlan.FULL);
+  }
+
+  @Test
+  void offCapturesNothing() {
+    assertThat(CapturePlan.forLevel(TracingLevel.OFF)).isSameAs(CapturePlan.NONE);
+  }
+
+  @Test
+  void narrativeAndSummarySkipParameterValuesButKeepReturnValues() {
+    for (var level : new TracingLevel[] {TracingLevel.NARRATIVE, TracingLevel.SUMMARY}) {
+      var plan = CapturePlan.forLevel(level);
+      assertThat(plan.parameterValues()).isFalse();
+      assertThat(plan.returnValue()).isTrue();
+      assertThat(plan.narration()).isTrue();
+    }
+  }
+
+  @Test
+  void errorsSkipsParameterAndReturnValues() {
+    var plan = CapturePlan.forLevel(TracingLevel.ERRORS);
+    assertThat(plan.parameterValues()).isFalse();
+    assertThat(plan.returnValue()).isFalse();
+    assertThat(plan.narration()).isTrue();
+  }
+
+  @Test
+  void unionCapturesWhatEitherPlanCaptures() {
+    var errors = CapturePlan.forLevel(TracingLevel.ERRORS);
+
+    var merged = errors.union(new CapturePlan(true, false, false));
+
+    assertThat(merged).isEqualTo(new CapturePlan(true, false, true));
+    assertThat(errors.union(CapturePlan.NONE)).isSameAs(errors);
+  }
+
+  @Test
+  void threadLocalContextPlanFollowsRuntimeLevelChanges() {
+    var config = new NarrativeTraceConfig(TracingLevel.DETAIL);
+    var context = new ThreadLocalNarrativeContext(config);
+    assertThat(context.capturePlan()).isSameAs(CapturePlan.FULL);
+
+    config.setLevel(TracingLevel.NARRATIVE);
+
+    assertThat(context.capturePlan().parameterValues()).isFalse();
+  }
+
+  @Test
+  void defaultPlanCapturesEverythingWhileActive() {
+    var delegate = new ThreadLocalNarrativeContext();
+    NarrativeContext minimal =
+        new NarrativeContext() {
+          @Override
+          public void enterMethod(MethodSignature signature) {}
+
+          @Override
+          public void exitMethodWithReturn(String renderedReturnValue) {}
+
+          @Override
+          public void exitMethodWithException(Throwable exception, String errorContext) {}
+
+          @Override
+          public TraceTree captureTrace() {
+            return delegate.captureTrace();
+          }
+
+          @Override
+          public void reset() {}
+
+          @Override
+          public ContextSnapshot snapshot() {
+            return delegate.snapshot();
+          }
+        };
+
+    assertThat(minimal.capturePlan()).isSameAs(CapturePlan.FULL);
+    assertThat(NoopNarrativeContext.INSTANCE.capturePlan()).isSameAs(CapturePlan.NONE);
+  }
+}
@@ -0,0 +1,325 @@
+package ai.narrativetrace.core.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ai.narrativetrace.core.config.HeadSampling;
+import ai.narrativetrace.core.config.NarrativeTraceConfig;
+import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.event.TraceOutcome;
+import ai.narrativetrace.core.export.RequestContext;
+import ai.narrativetrace.core.tree.TraceTree;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class JournalingNarrativeContextTest {
+
+  private static final RequestContext REQUEST = new RequestContext("GET", "/orders", 200, 5L);
+
+  @Test
+  void captureTraceWaitsForAssembler() {
+    try (var context = new JournalingNarrativeContext()) {
+      context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+      context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+      context.exitMethodWithReturn("true");
+      context.exitMethodWithReturn("\"order-42\"");
+
+      var roots = context.captureTrace().roots();
+
+      assertThat(roots).hasSize(1);
+      assertThat(roots.get(0).outcome()).isEqualTo(new TraceOutcome.Returned("\"order-42\""));
+      assertThat(roots.get(0).children()).hasSize(1);
+    }
+  }
+
+  @Test
+  void completeRequestExportsOnAssemblerThreadAndResets() throws Exception {
+    try (var context = new JournalingNarrativeContext()) {
+      var exported = new CompletableFuture<String>();
+      context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+      context.exitMethodWithException(new IllegalStateException("out of stock"), null);
+
+      context.completeRequest(
+          REQUEST,
+          (tree, request) ->
+              exported.complete(
+                  request.uri()
+                      + " "
+                      + tree.roots().get(0).outcome().getClass().getSimpleName()
+                      + " "
+                      + Thread.currentThread().getName()));
+
+      assertThat(exported.get(5, TimeUnit.SECONDS))
+          .isEqualTo("/orders Threw narrativetrace-assembler");
+      assertThat(context.captureTrace().isEmpty()).isTrue();
+    }
+  }
+
+  @Test
+  void exporterErrorsDoNotStopTheAssembler() throws Exception {
+    try (var context = new JournalingNarrativeContext()) {
+      context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+      context.exitMethodWithReturn("\"order-42\"");
+      context.completeRequest(
+          REQUEST,
+          (tree, request) -> {
+            throw new NoClassDefFoundError("com/example/MissingExporterDependency");
+          });
+
+      var exported = new CompletableFuture<TraceTree>();
+      context.enterMethod(new MethodSignature("OrderService", "cancelOrder", List.of()));
+      context.exitMethodWithReturn("true");
+      context.completeRequest(REQUEST, (tree, request) -> exported.complete(tree));
+
+      assertThat(exported.get(5, TimeUnit.SECONDS).roots().get(0).signature().methodName())
+          .isEqualTo("cancelOrder");
+      assertThat(context.isActive()).isTrue();
+    }
+  }
+
+  @Test
+  void completeRequestWithoutCallsExportsNothing() {
+    try (var context = new JournalingNarrativeContext()) {
+      var exports = new AtomicInteger();
+
+      context.completeRequest(REQUEST, (tree, request) -> exports.incrementAndGet());
+      context.captureTrace();
+
+      assertThat(exports).hasValue(0);
+    }
+  }
+
+  @Test
+  void appliesTracingLevelWhileAssembling() {
+    try (var context =
+        new JournalingNarrativeContext(new NarrativeTraceConfig(TracingLevel.SUMMARY))) {
+      context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+      context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+      context.enterMethod(new MethodSignature("StockRepository", "decrement", List.of()));
+      context.exitMethodWithReturn("1");
+      context.exitMethodWithReturn("true");
+      context.exitMethodWithReturn("\"order-42\"");
+
+      var root = context.captureTrace().roots().get(0);
+
+      assertThat(root.children()).hasSize(1);
+      assertThat(root.children().get(0).signature().methodName()).isEqualTo("decrement");
+    }
+  }
+
+  @Test
+  void resetDiscardsJournaledCalls() {
+    try (var context = new JournalingNarrativeContext()) {
+      context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+      context.exitMethodWithReturn("\"order-42\"");
+
+      context.reset();
+
+      assertThat(context.captureTrace().isEmpty()).isTrue();
+    }
+  }
+
+  @Test
+  void overflowingJournalDropsTheRequest() throws Exception {
+    try (var context = new JournalingNarrativeContext(new NarrativeTraceConfig(), 8)) {
+      var assemblerBusy = new CountDownLatch(1);
+      var release = new CountDownLatch(1);
+      var exported = new CompletableFuture<TraceTree>();
+      context.enterMethod(new MethodSignature("OrderService", "first", List.of()));
+      context.exitMethodWithReturn(null);
+      context.completeRequest(
+          REQUEST,
+          (tree, request) -> {
+            assemblerBusy.countDown();
+            awaitQuietly(release);
+          });
+      assemblerBusy.await(5, TimeUnit.SECONDS);
+
+      for (int i = 0; i < 8; i++) {
+        context.enterMethod(new MethodSignature("OrderService", "second", List.of()));
+        context.exitMethodWithReturn(null);
+      }
+      release.countDown();
+      context.completeRequest(REQUEST, (tree, request) -> exported.complete(tree));
+      context.captureTrace();
+
+      assertThat(context.droppedRequests()).isEqualTo(1);
+      assertThat(exported).isNotDone();
+    }
+  }
+
+  @Test
+  void replaysCallsAtTheLevelTheyWereRecordedAt() throws Exception {
+    var config = new NarrativeTraceConfig();
+    try (var context = new JournalingNarrativeContext(config)) {
+      var assemblerBusy = new CountDownLatch(1);
+      var release = new CountDownLatch(1);
+      context.enterMethod(new MethodSignature("OrderService", "first", List.of()));
+      context.exitMethodWithReturn(null);
+      context.completeRequest(
+          REQUEST,
+          (tree, request) -> {
+            assemblerBusy.countDown();
+            awaitQuietly(release);
+          });
+      assemblerBusy.await(5, TimeUnit.SECONDS);
+
+      context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+      context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+      context.exitMethodWithReturn("true");
+      context.exitMethodWithReturn("\"order-42\"");
+      config.setLevel(TracingLevel.OFF);
+      release.countDown();
+
+      var roots = context.captureTrace().roots();
+      assertThat(roots).hasSize(1);
+      assertThat(roots.get(0).children()).hasSize(1);
+    }
+  }
+
+  @Test
+  void boundariesDoNotWaitForStalledAssembler() throws Exception {
+    try (var context = new JournalingNarrativeContext(new NarrativeTraceConfig(), 8)) {
+      var assemblerBusy = new CountDownLatch(1);
+      var release = new CountDownLatch(1);
+      context.enterMethod(new MethodSignature("OrderService", "first", List.of()));
+      context.exitMethodWithReturn(null);
+      context.completeRequest(
+          REQUEST,
+          (tree, request) -> {
+            assemblerBusy.countDown();
+            awaitQuietly(release);
+          });
+      assemblerBusy.await(5, TimeUnit.SECONDS);
+
+      for (int i = 0; i < 8; i++) {
+        context.enterMethod(new MethodSignature("OrderService", "second", List.of()));
+        context.exitMethodWithReturn(null);
+      }
+      try (var scope = context.snapshot().activate()) {
+        context.enterMethod(new MethodSignature("PriceClient", "price", List.of()));
+        context.exitMethodWithReturn(null);
+      }
+      context.reset();
+      context.completeRequest(REQUEST, (tree, request) -> {});
+
+      assertThat(context.droppedRequests()).isEqualTo(1);
+      release.countDown();
+      context.captureTrace();
+
+      var exported = new CompletableFuture<TraceTree>();
+      context.reset();
+      context.enterMethod(new MethodSignature("OrderService", "third", List.of()));
+      context.exitMethodWithReturn(null);
+      context.completeRequest(REQUEST, (tree, request) -> exported.complete(tree));
+
+      var roots = exported.get(5, TimeUnit.SECONDS).roots();
+      assertThat(roots).hasSize(1);
+      assertThat(roots.get(0).signature().methodName()).isEqualTo("third");
+    }
+  }
+
+  @Test
+  void childWorkIsAttachedToCallThatTookSnapshot() throws Exception {
+    var executor = Executors.newFixedThreadPool(4);
+    try (var context = new JournalingNarrativeContext()) {
+      context.enterMethod(new MethodSignature("QuoteService", "quote", List.of()));
+      var snapshot = context.snapshot();
+      var lookups =
+          List.of("A", "B", "C").stream()
+              .map(
+                  sku ->
+                      CompletableFuture.runAsync(
+                          snapshot.wrap(
+                              (Runnable)
+                                  () -> {
+                                    context.enterMethod(
+                                        new MethodSignature("PriceClient", "price", List.of()));
+                                    context.exitMethodWithReturn(sku);
+                                  }),
+                          executor))
+              .toList();
+      lookups.forEach(CompletableFuture::join);
+      context.exitMethodWithReturn("\"quote-7\"");
+
+      var exported = new CompletableFuture<TraceTree>();
+      context.completeRequest(REQUEST, (tree, request) -> exported.complete(tree));
+
+      var root = exported.get(5, TimeUnit.SECONDS).roots().get(0);
+      assertThat(root.children()).hasSize(3);
+      assertThat(root.children().get(0).signature().className()).isEqualTo("PriceClient");
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void recordsNothingAfterClose() {
+    var context = new JournalingNarrativeContext();
+    context.close();
+
+    assertThat(context.isActive()).isFalse();
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    context.exitMethodWithReturn("\"order-42\"");
+
+    assertThat(context.captureTrace().isEmpty()).isTrue();
+  }
+
+  @Test
+  void rejectsCapacityThatIsNotAPowerOfTwo() {
+    var config = new NarrativeTraceConfig();
+
+    assertThatThrownBy(() -> new JournalingNarrativeContext(config, 1000))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("1000");
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  void discardLastRootDropsOnlyNewestRoot() {
+    try (var context = new JournalingNarrativeContext()) {
+      context.enterMethod(new MethodSignature("CartService", "validate", List.of()));
+      context.exitMethodWithReturn("true");
+      context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+      context.exitMethodWithReturn("\"order-42\"");
+
+      context.discardLastRoot();
+
+      var roots = context.captureTrace().roots();
+      assertThat(roots).hasSize(1);
+      assertThat(roots.get(0).signature().methodName()).isEqualTo("validate");
+    }
+  }
+
+  @Test
+  void decidesSamplingForEachRoot() {
+    var config = new NarrativeTraceConfig();
+    config.setSampling(HeadSampling.rate(0.0));
+    try (var context = new JournalingNarrativeContext(config)) {
+      context.enterMethod(new MethodSignature("JobScheduler", "runNightly", List.of()));
+      assertThat(context.isActive()).isFalse();
+      context.exitMethodWithReturn(null);
+
+      config.setSampling(HeadSampling.rate(1.0));
+      context.enterMethod(new MethodSignature("JobScheduler", "runHourly", List.of()));
+      context.exitMethodWithReturn(null);
+
+      assertThat(context.captureTrace().roots())
+          .extracting(root -> root.signature().methodName())
+          .containsExactly("runHourly");
+    }
+  }
+}
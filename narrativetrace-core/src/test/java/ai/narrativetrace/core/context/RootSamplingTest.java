@@ -0,0 +1,60 @@
+package ai.narrativetrace.core.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.narrativetrace.core.config.HeadSampling;
+import ai.narrativetrace.core.context.TraceStack.SampleDecision;
+import org.junit.jupiter.api.Test;
+
+class RootSamplingTest {
+
+  private static final HeadSampling NEVER = HeadSampling.rate(0.0);
+
+  @Test
+  void decidesOncePerRoot() {
+    var sampling = new RootSampling();
+
+    assertThat(sampling.isSampled(NEVER)).isFalse();
+    assertThat(sampling.isSampled(HeadSampling.ALWAYS)).isFalse();
+
+    sampling.release(0);
+    assertThat(sampling.isSampled(HeadSampling.ALWAYS)).isTrue();
+  }
+
+  @Test
+  void keepsVerdictUntilUnsampledCallsExit() {
+    var sampling = new RootSampling();
+    assertThat(sampling.isActive(NEVER)).isTrue();
+    sampling.enterUnsampled();
+    sampling.enterUnsampled();
+
+    assertThat(sampling.isActive(HeadSampling.ALWAYS)).isFalse();
+    assertThat(sampling.exitUnsampled(0)).isTrue();
+    assertThat(sampling.decision()).isEqualTo(SampleDecision.UNSAMPLED);
+    assertThat(sampling.exitUnsampled(0)).isTrue();
+    assertThat(sampling.decision()).isEqualTo(SampleDecision.UNDECIDED);
+    assertThat(sampling.exitUnsampled(0)).isFalse();
+  }
+
+  @Test
+  void keepsVerdictWhileRecordedCallsAreOpen() {
+    var sampling = new RootSampling();
+    sampling.isSampled(HeadSampling.ALWAYS);
+
+    sampling.release(1);
+
+    assertThat(sampling.decision()).isEqualTo(SampleDecision.SAMPLED);
+  }
+
+  @Test
+  void inheritedVerdictHoldsForEveryRoot() {
+    var sampling = new RootSampling();
+    sampling.inherit(SampleDecision.UNSAMPLED);
+
+    sampling.release(0);
+
+    assertThat(sampling.isActive(HeadSampling.ALWAYS)).isFalse();
+    sampling.clear();
+    assertThat(sampling.isActive(HeadSampling.ALWAYS)).isTrue();
+  }
+}
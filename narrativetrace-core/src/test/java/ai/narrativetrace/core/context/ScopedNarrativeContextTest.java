@@ -0,0 +1,199 @@
+package ai.narrativetrace.core.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ai.narrativetrace.core.config.HeadSampling;
+import ai.narrativetrace.core.config.NarrativeTraceConfig;
+import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.event.TraceOutcome;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+class ScopedNarrativeContextTest {
+
+  @Test
+  void isInactiveAndRecordsNothingOutsideScope() {
+    var context = new ScopedNarrativeContext();
+
+    assertThat(context.isActive()).isFalse();
+    assertThat(context.capturePlan()).isEqualTo(CapturePlan.NONE);
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    context.exitMethodWithReturn("\"order-42\"");
+    context.reset();
+
+    assertThat(context.captureTrace().isEmpty()).isTrue();
+  }
+
+  @Test
+  void recordsCallsInsideScope() {
+    var context = new ScopedNarrativeContext();
+
+    context.run(
+        () -> {
+          assertThat(context.isActive()).isTrue();
+          context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+          context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+          context.exitMethodWithReturn("true");
+          context.exitMethodWithReturn("\"order-42\"");
+
+          var roots = context.captureTrace().roots();
+          assertThat(roots).hasSize(1);
+          assertThat(roots.get(0).children()).hasSize(1);
+          assertThat(roots.get(0).outcome()).isEqualTo(new TraceOutcome.Returned("\"order-42\""));
+        });
+
+    assertThat(context.captureTrace().isEmpty()).isTrue();
+  }
+
+  @Test
+  void eachScopeStartsFreshAndNestedScopesJoinTheOuterOne() throws Exception {
+    var context = new ScopedNarrativeContext();
+    context.run(() -> context.enterMethod(new MethodSignature("A", "abandoned", List.of())));
+
+    int roots =
+        context.call(
+            () -> {
+              context.enterMethod(new MethodSignature("A", "outer", List.of()));
+              context.exitMethodWithReturn(null);
+              context.run(
+                  () -> {
+                    context.enterMethod(new MethodSignature("A", "inner", List.of()));
+                    context.exitMethodWithReturn(null);
+                  });
+              return context.captureTrace().roots().size();
+            });
+
+    assertThat(roots).isEqualTo(2);
+  }
+
+  @Test
+  void callPropagatesExceptions() {
+    var context = new ScopedNarrativeContext();
+
+    assertThatThrownBy(
+            () ->
+                context.call(
+                    () -> {
+                      throw new IllegalStateException("declined");
+                    }))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("declined");
+  }
+
+  @Test
+  void appliesTracingLevel() {
+    var context = new ScopedNarrativeContext(new NarrativeTraceConfig(TracingLevel.ERRORS));
+
+    context.run(
+        () -> {
+          context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+          context.exitMethodWithReturn("\"order-42\"");
+          assertThat(context.captureTrace().isEmpty()).isTrue();
+        });
+  }
+
+  @Test
+  void wrappedTaskGetsOwnScopeWithParentSamplingDecision() throws Exception {
+    var config = new NarrativeTraceConfig();
+    config.setSampling(HeadSampling.rate(0.0));
+    var context = new ScopedNarrativeContext(config);
+    var unsampled =
+        context.call(
+            () -> {
+              assertThat(context.capturePlan()).isEqualTo(CapturePlan.NONE);
+              return context.snapshot();
+            });
+    config.setSampling(HeadSampling.rate(1.0));
+    var sampled = context.call(context::snapshot);
+
+    Callable<Integer> childWork =
+        () -> {
+          context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+          context.exitMethodWithReturn("true");
+          return context.captureTrace().roots().size();
+        };
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertThat(executor.submit(unsampled.wrap(childWork)).get()).isZero();
+      assertThat(executor.submit(sampled.wrap(childWork)).get()).isEqualTo(1);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void openScopeRecordsUntilClosed() {
+    var context = new ScopedNarrativeContext();
+
+    try (var scope = context.open()) {
+      context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+      context.exitMethodWithReturn("ok");
+      assertThat(context.captureTrace().roots()).hasSize(1);
+    }
+
+    assertThat(context.isActive()).isFalse();
+    assertThat(context.captureTrace().isEmpty()).isTrue();
+  }
+
+  @Test
+  void activatedSnapshotAttachesRootsWhenClosed() throws Exception {
+    var context = new ScopedNarrativeContext();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      var children =
+          context.call(
+              () -> {
+                context.enterMethod(new MethodSignature("QuoteService", "bestPrice", List.of()));
+                var snapshot = context.snapshot();
+                executor
+                    .submit(
+                        () -> {
+                          try (var scope = snapshot.activate()) {
+                            context.enterMethod(
+                                new MethodSignature("PriceClient", "lookup", List.of()));
+                            context.exitMethodWithReturn("9.99");
+                          }
+                        })
+                    .get();
+                context.exitMethodWithReturn("9.99");
+                return context.captureTrace().roots().get(0).children();
+              });
+
+      assertThat(children).hasSize(1);
+      assertThat(children.get(0).signature().className()).isEqualTo("PriceClient");
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void wrappedSubtaskIsAttachedToCallThatTookSnapshot() throws Exception {
+    var context = new ScopedNarrativeContext();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      var children =
+          context.call(
+              () -> {
+                context.enterMethod(new MethodSignature("QuoteService", "bestPrice", List.of()));
+                Runnable lookup =
+                    () -> {
+                      context.enterMethod(new MethodSignature("PriceClient", "lookup", List.of()));
+                      context.exitMethodWithReturn("9.99");
+                    };
+                executor.submit(context.snapshot().wrap(lookup)).get();
+                context.exitMethodWithReturn("9.99");
+                return context.captureTrace().roots().get(0).children();
+              });
+
+      assertThat(children).hasSize(1);
+      assertThat(children.get(0).signature().className()).isEqualTo("PriceClient");
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
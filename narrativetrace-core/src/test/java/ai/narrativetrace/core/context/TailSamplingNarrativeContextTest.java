@@ -0,0 +1,231 @@
+package ai.narrativetrace.core.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.narrativetrace.core.config.NarrativeTraceConfig;
+import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.tree.TraceTree;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TailSamplingNarrativeContextTest {
+
+  private final ThreadLocalNarrativeContext delegate = new ThreadLocalNarrativeContext();
+
+  @Test
+  void recyclesFastSuccessfulRoot() {
+    var context = new TailSamplingNarrativeContext(delegate, TailSamplingPolicy.failures());
+
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+    context.exitMethodWithReturn("true");
+    context.exitMethodWithReturn("\"order-42\"");
+
+    assertThat(context.captureTrace().isEmpty()).isTrue();
+  }
+
+  @Test
+  void retainsRootWhoseChildThrew() {
+    var context = new TailSamplingNarrativeContext(delegate, TailSamplingPolicy.failures());
+
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    context.enterMethod(new MethodSignature("PaymentService", "charge", List.of()));
+    context.exitMethodWithException(new IllegalStateException("declined"), null);
+    context.exitMethodWithReturn("\"order-pending\"");
+
+    var tree = context.captureTrace();
+    assertThat(tree.roots()).hasSize(1);
+    assertThat(tree.roots().get(0).children()).hasSize(1);
+  }
+
+  @Test
+  void retainsRootSlowerThanThreshold() {
+    var context =
+        new TailSamplingNarrativeContext(delegate, TailSamplingPolicy.slowerThan(Duration.ZERO));
+
+    context.enterMethod(new MethodSignature("ReportService", "generate", List.of()));
+    context.exitMethodWithReturn("\"report\"");
+
+    assertThat(context.captureTrace().roots()).hasSize(1);
+  }
+
+  @Test
+  void evaluatesPredicateAgainstCompletedRoot() {
+    var policy =
+        TailSamplingPolicy.slowerThan(Duration.ofHours(1))
+            .or(root -> root.signature().methodName().equals("refund"));
+    var context = new TailSamplingNarrativeContext(delegate, policy);
+
+    context.enterMethod(new MethodSignature("PaymentService", "charge", List.of()));
+    context.exitMethodWithReturn("\"ok\"");
+    assertThat(context.captureTrace().isEmpty()).isTrue();
+
+    context.enterMethod(new MethodSignature("PaymentService", "refund", List.of()));
+    context.exitMethodWithReturn("\"ok\"");
+    assertThat(context.captureTrace().roots()).hasSize(1);
+  }
+
+  @Test
+  void keepsLaterRootsOnceRequestIsRetained() {
+    var context = new TailSamplingNarrativeContext(delegate, TailSamplingPolicy.failures());
+
+    context.enterMethod(new MethodSignature("CartService", "validate", List.of()));
+    context.exitMethodWithException(new IllegalArgumentException("empty cart"), null);
+    context.enterMethod(new MethodSignature("CartService", "clear", List.of()));
+    context.exitMethodWithReturn(null);
+
+    assertThat(context.captureTrace().roots()).hasSize(2);
+  }
+
+  @Test
+  void resetStartsNextRequestUnretained() {
+    var context = new TailSamplingNarrativeContext(delegate, TailSamplingPolicy.failures());
+    context.enterMethod(new MethodSignature("CartService", "validate", List.of()));
+    context.exitMethodWithException(new IllegalArgumentException("empty cart"), null);
+
+    context.reset();
+    context.enterMethod(new MethodSignature("CartService", "clear", List.of()));
+    context.exitMethodWithReturn(null);
+
+    assertThat(context.captureTrace().isEmpty()).isTrue();
+  }
+
+  @Test
+  void delegatesActivityAndCapturePlan() {
+    var narrative =
+        new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.NARRATIVE));
+    var context = new TailSamplingNarrativeContext(narrative, TailSamplingPolicy.failures());
+
+    assertThat(context.isActive()).isTrue();
+    assertThat(context.capturePlan()).isSameAs(narrative.capturePlan());
+    assertThat(context.snapshot()).isNotNull();
+  }
+
+  @Test
+  void passesDeferredEntriesToDelegate() {
+    var context = new TailSamplingNarrativeContext(delegate, TailSamplingPolicy.failures());
+
+    context.enterMethod(
+        (args, plan) -> new MethodSignature("PaymentService", "charge", List.of()), new Object[0]);
+    context.exitMethodWithException(new IllegalStateException("declined"), null);
+
+    assertThat(context.captureTrace().roots().get(0).signature().methodName())
+        .isEqualTo("charge");
+  }
+
+  @Test
+  void retainsFailureBranchRecordedAfterTheThrow() {
+    var context = new TailSamplingNarrativeContext(delegate, TailSamplingPolicy.failures());
+    var declined = new IllegalStateException("declined");
+
+    context.recordFailure(
+        (args, plan) -> new MethodSignature("PaymentService", "charge", List.of()),
+        new Object[0],
+        declined,
+        null);
+    context.recordFailure(
+        (args, plan) -> new MethodSignature("OrderService", "placeOrder", List.of()),
+        new Object[0],
+        declined,
+        null);
+
+    var roots = context.captureTrace().roots();
+    assertThat(roots).hasSize(1);
+    assertThat(roots.get(0).signature().methodName()).isEqualTo("placeOrder");
+    assertThat(roots.get(0).children().get(0).signature().methodName()).isEqualTo("charge");
+  }
+
+  @Test
+  void rejectsFailureBranchAsOneRoot() {
+    var context =
+        new TailSamplingNarrativeContext(
+            delegate, TailSamplingPolicy.slowerThan(Duration.ofHours(1)));
+    var declined = new IllegalStateException("declined");
+
+    context.recordFailure(
+        (args, plan) -> new MethodSignature("PaymentService", "charge", List.of()),
+        new Object[0],
+        declined,
+        null);
+    context.recordFailure(
+        (args, plan) -> new MethodSignature("OrderService", "placeOrder", List.of()),
+        new Object[0],
+        declined,
+        null);
+
+    assertThat(context.captureTrace().isEmpty()).isTrue();
+  }
+
+  @Test
+  void ignoresUnbalancedExit() {
+    var context = new TailSamplingNarrativeContext(delegate, TailSamplingPolicy.failures());
+
+    context.exitMethodWithReturn("\"orphan\"");
+
+    assertThat(context.captureTrace().isEmpty()).isTrue();
+  }
+
+  @Test
+  void rejectedRootLeavesRequestStateToDelegate() {
+    var recording = new ResetCountingContext(delegate);
+    var context = new TailSamplingNarrativeContext(recording, TailSamplingPolicy.failures());
+
+    context.enterMethod(new MethodSignature("CartService", "validate", List.of()));
+    context.exitMethodWithReturn("true");
+    context.enterMethod(new MethodSignature("CartService", "checkout", List.of()));
+    context.exitMethodWithException(new IllegalStateException("declined"), null);
+
+    assertThat(recording.resets).isZero();
+    assertThat(context.captureTrace().roots())
+        .extracting(root -> root.signature().methodName())
+        .containsExactly("checkout");
+  }
+
+  /** Forwards to a delegate, counting request resets. */
+  private static final class ResetCountingContext implements NarrativeContext {
+    private final NarrativeContext delegate;
+    int resets;
+
+    ResetCountingContext(NarrativeContext delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void enterMethod(MethodSignature signature) {
+      delegate.enterMethod(signature);
+    }
+
+    @Override
+    public void exitMethodWithReturn(String renderedReturnValue) {
+      delegate.exitMethodWithReturn(renderedReturnValue);
+    }
+
+    @Override
+    public void exitMethodWithException(Throwable exception, String errorContext) {
+      delegate.exitMethodWithException(exception, errorContext);
+    }
+
+    @Override
+    public TraceTree captureTrace() {
+      return delegate.captureTrace();
+    }
+
+    @Override
+    public void reset() {
+      resets++;
+      delegate.reset();
+    }
+
+    @Override
+    public void discardLastRoot() {
+      delegate.discardLastRoot();
+    }
+
+    @Override
+    public ContextSnapshot snapshot() {
+      return delegate.snapshot();
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package ai.narrativetrace.core.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.event.TraceNode;
+import ai.narrativetrace.core.event.TraceOutcome;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TailSamplingPolicyTest {
+
+  private static final TraceNode ROOT =
+      new TraceNode(
+          new MethodSignature("OrderService", "placeOrder", List.of()),
+          List.of(),
+          new TraceOutcome.Returned("\"order-42\""),
+          1_000L);
+
+  @Test
+  void failuresDisablesLatencyThreshold() {
+    var policy = TailSamplingPolicy.failures();
+
+    assertThat(policy.retainFailures()).isTrue();
+    assertThat(policy.slowThresholdNanos()).isEqualTo(Long.MAX_VALUE);
+    assertThat(policy.retainIf()).isNull();
+  }
+
+  @Test
+  void orSlowerThanKeepsTheLowerThreshold() {
+    var policy =
+        TailSamplingPolicy.slowerThan(Duration.ofMillis(500)).orSlowerThan(Duration.ofSeconds(2));
+
+    assertThat(policy.slowThresholdNanos()).isEqualTo(Duration.ofMillis(500).toNanos());
+    assertThat(policy.orFailures().retainFailures()).isTrue();
+  }
+
+  @Test
+  void orCombinesPredicates() {
+    var policy =
+        TailSamplingPolicy.failures()
+            .or(root -> root.durationNanos() > 5_000L)
+            .or(root -> root.signature().methodName().equals("placeOrder"));
+
+    assertThat(policy.retainIf().test(ROOT)).isTrue();
+  }
+}
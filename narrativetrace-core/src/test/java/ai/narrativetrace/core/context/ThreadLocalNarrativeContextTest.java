@@ -2,11 +2,15 @@ package ai.narrativetrace.core.context;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import ai.narrativetrace.core.config.HeadSampling;
 import ai.narrativetrace.core.config.NarrativeTraceConfig;
+import ai.narrativetrace.core.config.TraceLimits;
 import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.event.MethodDescriptor;
 import ai.narrativetrace.core.event.MethodSignature;
 import ai.narrativetrace.core.event.ParameterCapture;
 import ai.narrativetrace.core.event.TraceOutcome;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
@@ -578,10 +582,597 @@ class ThreadLocalNarrativeContextTest {
     scope.close(); // should not throw
   }
 
+  @Test
+  void resetRecyclesFramesForNextRequest() {
+    var context = new ThreadLocalNarrativeContext();
+
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+    context.exitMethodWithReturn("true");
+    context.exitMethodWithReturn("order-1");
+    context.reset();
+
+    context.enterMethod(new MethodSignature("CustomerService", "findCustomer", List.of()));
+    context.exitMethodWithReturn("customer");
+
+    var tree = context.captureTrace();
+    assertThat(tree.roots()).hasSize(1);
+    assertThat(tree.roots().get(0).signature().className()).isEqualTo("CustomerService");
+    assertThat(tree.roots().get(0).children()).isEmpty();
+  }
+
+  @Test
+  void deepNestingGrowsFrameArena() {
+    var context = new ThreadLocalNarrativeContext();
+
+    for (int i = 0; i < 500; i++) {
+      context.enterMethod(new MethodSignature("Svc", "level" + i, List.of()));
+    }
+    for (int i = 0; i < 500; i++) {
+      context.exitMethodWithReturn("ok");
+    }
+
+    var node = context.captureTrace().roots().get(0);
+    int depth = 0;
+    while (!node.children().isEmpty()) {
+      node = node.children().get(0);
+      depth++;
+    }
+    assertThat(depth).isEqualTo(499);
+    assertThat(node.signature().methodName()).isEqualTo("level499");
+  }
+
+  @Test
+  void captureTraceIsRepeatableAndPicksUpLaterRoots() {
+    var context = new ThreadLocalNarrativeContext();
+
+    context.enterMethod(new MethodSignature("Svc", "first", List.of()));
+    context.exitMethodWithReturn("1");
+    var firstCapture = context.captureTrace();
+
+    context.enterMethod(new MethodSignature("Svc", "second", List.of()));
+    context.exitMethodWithReturn("2");
+    var secondCapture = context.captureTrace();
+
+    assertThat(firstCapture.roots()).hasSize(1);
+    assertThat(secondCapture.roots()).hasSize(2);
+    assertThat(secondCapture.roots().get(0)).isSameAs(firstCapture.roots().get(0));
+    assertThat(secondCapture.roots().get(1).signature().methodName()).isEqualTo("second");
+  }
+
+  @Test
+  void errorsLevelDiscardedSubtreeDoesNotLeakIntoLaterCalls() {
+    var config = new NarrativeTraceConfig(TracingLevel.ERRORS);
+    var context = new ThreadLocalNarrativeContext(config);
+
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    context.enterMethod(new MethodSignature("PaymentService", "charge", List.of()));
+    context.exitMethodWithException(new RuntimeException("retry"), null);
+    context.exitMethodWithReturn("recovered");
+
+    context.enterMethod(new MethodSignature("OrderService", "cancelOrder", List.of()));
+    context.exitMethodWithException(new IllegalStateException("already shipped"), null);
+
+    var tree = context.captureTrace();
+    assertThat(tree.roots()).hasSize(1);
+    assertThat(tree.roots().get(0).signature().methodName()).isEqualTo("cancelOrder");
+    assertThat(tree.roots().get(0).children()).isEmpty();
+  }
+
+  @Test
+  void errorsLevelResolvesDeferredSignatureOnlyOnExceptionPath() {
+    var config = new NarrativeTraceConfig(TracingLevel.ERRORS);
+    var context = new ThreadLocalNarrativeContext(config);
+    var plans = new ArrayList<CapturePlan>();
+    SignatureResolver resolver =
+        (args, plan) -> {
+          plans.add(plan);
+          return new MethodSignature(
+              "PaymentService",
+              "charge",
+              List.of(new ParameterCapture("amount", String.valueOf(args[0]), false)));
+        };
+
+    context.enterMethod(resolver, new Object[] {10});
+    context.exitMethodWithReturn(null);
+    assertThat(plans).isEmpty();
+
+    context.enterMethod(resolver, new Object[] {20});
+    context.exitMethodWithException(new RuntimeException("declined"), "charging 20");
+
+    assertThat(plans).hasSize(1);
+    assertThat(plans.get(0).parameterValues()).isTrue();
+    var root = context.captureTrace().roots().get(0);
+    assertThat(root.signature().parameters().get(0).renderedValue()).isEqualTo("20");
+    assertThat(root.signature().errorContext()).isEqualTo("charging 20");
+  }
+
+  @Test
+  void recordedFailuresNestAsTheExceptionPropagates() {
+    var context = new ThreadLocalNarrativeContext();
+    var declined = new IllegalStateException("declined");
+    var wrapped = new RuntimeException("order failed", declined);
+
+    context.enterMethod(new MethodSignature("OrderController", "submit", List.of()));
+    context.recordFailure(failing("PaymentGateway", "charge"), new Object[0], declined, null);
+    context.recordFailure(failing("PaymentService", "pay"), new Object[0], declined, null);
+    context.recordFailure(failing("OrderService", "place"), new Object[0], wrapped, "placing");
+    context.recordFailure(
+        failing("AuditLog", "write"), new Object[0], new RuntimeException("disk full"), null);
+    context.exitMethodWithReturn("\"rejected\"");
+
+    var children = context.captureTrace().roots().get(0).children();
+    assertThat(children).hasSize(2);
+    var place = children.get(0);
+    assertThat(place.signature().methodName()).isEqualTo("place");
+    assertThat(place.signature().errorContext()).isEqualTo("placing");
+    assertThat(place.outcome()).isEqualTo(new TraceOutcome.Threw(wrapped));
+    var pay = place.children().get(0);
+    assertThat(pay.signature().methodName()).isEqualTo("pay");
+    assertThat(pay.children().get(0).signature().methodName()).isEqualTo("charge");
+    assertThat(children.get(1).signature().methodName()).isEqualTo("write");
+    assertThat(children.get(1).children()).isEmpty();
+  }
+
+  @Test
+  void deferredEntryIsResolvedUpFrontAboveErrorsLevel() {
+    var config = new NarrativeTraceConfig(TracingLevel.NARRATIVE);
+    var context = new ThreadLocalNarrativeContext(config);
+    var plans = new ArrayList<CapturePlan>();
+
+    context.enterMethod(
+        (args, plan) -> {
+          plans.add(plan);
+          return new MethodSignature("OrderService", "placeOrder", List.of());
+        },
+        new Object[0]);
+    assertThat(plans).containsExactly(CapturePlan.forLevel(TracingLevel.NARRATIVE));
+
+    context.exitMethodWithReturn("\"order-42\"");
+    assertThat(context.captureTrace().roots()).hasSize(1);
+  }
+
+  @Test
+  void unsampledRootCapturesNothingAndHidesNestedCalls() {
+    var config = new NarrativeTraceConfig();
+    config.setSampling(HeadSampling.rate(0.0));
+    var context = new ThreadLocalNarrativeContext(config);
+
+    assertThat(context.isActive()).isTrue();
+    assertThat(context.capturePlan()).isEqualTo(CapturePlan.NONE);
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    assertThat(context.isActive()).isFalse();
+    context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+    context.exitMethodWithReturn("true");
+    context.exitMethodWithReturn("\"order-42\"");
+
+    assertThat(context.captureTrace().isEmpty()).isTrue();
+  }
+
+  @Test
+  void samplingIsDecidedAgainForEachRootWithoutReset() {
+    var config = new NarrativeTraceConfig();
+    config.setSampling(HeadSampling.rate(0.0));
+    var context = new ThreadLocalNarrativeContext(config);
+    context.enterMethod(new MethodSignature("JobScheduler", "runNightly", List.of()));
+    context.exitMethodWithReturn(null);
+
+    config.setSampling(HeadSampling.rate(1.0));
+    assertThat(context.isActive()).isTrue();
+    context.enterMethod(new MethodSignature("JobScheduler", "runHourly", List.of()));
+    context.exitMethodWithException(new IllegalStateException("locked"), null);
+
+    config.setSampling(HeadSampling.rate(0.0));
+    context.enterMethod(new MethodSignature("JobScheduler", "runNightly", List.of()));
+    context.exitMethodWithReturn(null);
+
+    assertThat(context.captureTrace().roots())
+        .extracting(root -> root.signature().methodName())
+        .containsExactly("runHourly");
+  }
+
+  @Test
+  void samplingDecisionUsesKeyAtRootEntry() {
+    var config = new NarrativeTraceConfig();
+    var key = new String[] {"trace-1"};
+    var sampling = HeadSampling.rate(0.5, () -> key[0]);
+    config.setSampling(sampling);
+    var context = new ThreadLocalNarrativeContext(config);
+
+    for (var rootKey : List.of("trace-1", "trace-2", "trace-3")) {
+      key[0] = rootKey;
+      context.enterMethod(new MethodSignature("OrderService", rootKey, List.of()));
+      key[0] = "other";
+      context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+      context.exitMethodWithReturn("true");
+      context.exitMethodWithReturn(null);
+    }
+
+    assertThat(context.captureTrace().roots())
+        .allSatisfy(root -> assertThat(root.children()).hasSize(1))
+        .extracting(root -> root.signature().methodName())
+        .containsExactlyElementsOf(
+            List.of("trace-1", "trace-2", "trace-3").stream()
+                .filter(sampling::isSampled)
+                .toList());
+  }
+
+  @Test
+  void snapshotCarriesSamplingDecisionToChildThread() throws Exception {
+    var config = new NarrativeTraceConfig();
+    config.setSampling(HeadSampling.rate(0.0));
+    var context = new ThreadLocalNarrativeContext(config);
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    var snapshot = context.snapshot();
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      boolean childActive =
+          executor
+              .submit(
+                  () -> {
+                    config.setSampling(HeadSampling.rate(1.0));
+                    try (var scope = snapshot.activate()) {
+                      return context.isActive();
+                    }
+                  })
+              .get();
+      assertThat(childActive).isFalse();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void fanOutCapElidesLaterChildrenIntoOneMarker() {
+    var config = new NarrativeTraceConfig();
+    config.setLimits(new TraceLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, 3));
+    var context = new ThreadLocalNarrativeContext(config);
+
+    context.enterMethod(new MethodSignature("BatchJob", "run", List.of()));
+    for (int i = 0; i < 10; i++) {
+      context.enterMethod(new MethodSignature("ItemProcessor", "process", List.of()));
+      context.exitMethodWithReturn("ok");
+    }
+    context.exitMethodWithReturn(null);
+
+    var children = context.captureTrace().roots().get(0).children();
+    assertThat(children).hasSize(4);
+    var marker = children.get(3);
+    assertThat(marker.outcome()).isInstanceOf(TraceOutcome.Elided.class);
+    assertThat(((TraceOutcome.Elided) marker.outcome()).calls()).isEqualTo(7);
+    assertThat(((TraceOutcome.Elided) marker.outcome()).totalDurationNanos())
+        .isEqualTo(marker.durationNanos());
+  }
+
+  @Test
+  void depthCapElidesWholeSubtreeAsOneCall() {
+    var config = new NarrativeTraceConfig();
+    config.setLimits(new TraceLimits(Integer.MAX_VALUE, 2, Integer.MAX_VALUE));
+    var context = new ThreadLocalNarrativeContext(config);
+
+    context.enterMethod(new MethodSignature("A", "root", List.of()));
+    context.enterMethod(new MethodSignature("B", "child", List.of()));
+    context.enterMethod(new MethodSignature("C", "grandchild", List.of()));
+    context.enterMethod(new MethodSignature("D", "greatGrandchild", List.of()));
+    context.exitMethodWithReturn("d");
+    context.exitMethodWithReturn("c");
+    context.exitMethodWithReturn("b");
+    context.exitMethodWithReturn("a");
+
+    var root = context.captureTrace().roots().get(0);
+    assertThat(root.outcome()).isEqualTo(new TraceOutcome.Returned("a"));
+    var child = root.children().get(0);
+    assertThat(child.outcome()).isEqualTo(new TraceOutcome.Returned("b"));
+    assertThat(child.children()).hasSize(1);
+    var marker = (TraceOutcome.Elided) child.children().get(0).outcome();
+    assertThat(marker.calls()).isEqualTo(2);
+  }
+
+  @Test
+  void nodeBudgetAppliesPerRootAndResetsForNextRoot() {
+    var config = new NarrativeTraceConfig();
+    config.setLimits(new TraceLimits(3, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    var context = new ThreadLocalNarrativeContext(config);
+
+    for (int root = 0; root < 2; root++) {
+      context.enterMethod(new MethodSignature("BatchJob", "run", List.of()));
+      for (int i = 0; i < 5; i++) {
+        context.enterMethod(new MethodSignature("ItemProcessor", "process", List.of()));
+        context.exitMethodWithReturn("ok");
+      }
+      context.exitMethodWithReturn(null);
+    }
+
+    var roots = context.captureTrace().roots();
+    assertThat(roots).hasSize(2);
+    for (var root : roots) {
+      assertThat(root.children()).hasSize(3);
+      var marker = (TraceOutcome.Elided) root.children().get(2).outcome();
+      assertThat(marker.calls()).isEqualTo(3);
+    }
+  }
+
+  @Test
+  void resetClearsCallsSkippedMidFlight() {
+    var config = new NarrativeTraceConfig();
+    config.setLimits(new TraceLimits(Integer.MAX_VALUE, 1, Integer.MAX_VALUE));
+    var context = new ThreadLocalNarrativeContext(config);
+
+    context.enterMethod(new MethodSignature("A", "root", List.of()));
+    context.enterMethod(new MethodSignature("B", "abandoned", List.of()));
+    context.reset();
+
+    context.enterMethod(new MethodSignature("A", "next", List.of()));
+    context.exitMethodWithReturn("ok");
+
+    var roots = context.captureTrace().roots();
+    assertThat(roots).hasSize(1);
+    assertThat(roots.get(0).signature().methodName()).isEqualTo("next");
+    assertThat(roots.get(0).children()).isEmpty();
+  }
+
+  @Test
+  void parallelChildWorkIsAttachedToCallThatTookSnapshot() throws Exception {
+    var context = new ThreadLocalNarrativeContext();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      context.enterMethod(new MethodSignature("QuoteService", "bestPrice", List.of()));
+      var snapshot = context.snapshot();
+      var lookups = new ArrayList<CompletableFuture<String>>();
+      for (int i = 0; i < 8; i++) {
+        Supplier<String> supplier =
+            () -> {
+              context.enterMethod(new MethodSignature("PriceClient", "lookup", List.of()));
+              context.exitMethodWithReturn("9.99");
+              return "9.99";
+            };
+        lookups.add(CompletableFuture.supplyAsync(snapshot.wrap(supplier), executor));
+      }
+      CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new)).get();
+      context.exitMethodWithReturn("9.99");
+    } finally {
+      executor.shutdown();
+    }
+
+    var roots = context.captureTrace().roots();
+    assertThat(roots).hasSize(1);
+    assertThat(roots.get(0).children())
+        .hasSize(8)
+        .allMatch(child -> child.signature().className().equals("PriceClient"));
+  }
+
+  @Test
+  void childWorkAttachesAfterParentsOwnChildren() {
+    var context = new ThreadLocalNarrativeContext();
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    var snapshot = context.snapshot();
+    context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+    context.exitMethodWithReturn("true");
+
+    snapshot
+        .wrap(
+            (Runnable)
+                () -> {
+                  context.enterMethod(new MethodSignature("MailService", "confirm", List.of()));
+                  context.exitMethodWithReturn(null);
+                })
+        .run();
+    context.exitMethodWithReturn("\"order-42\"");
+
+    var children = context.captureTrace().roots().get(0).children();
+    assertThat(children)
+        .extracting(child -> child.signature().className())
+        .containsExactly("InventoryService", "MailService");
+  }
+
   private void busyWait(long nanos) {
     long start = System.nanoTime();
     while (System.nanoTime() - start < nanos) {
       Thread.onSpinWait();
     }
   }
+
+  @Test
+  void foldsConsecutiveReturningCallsToSameMethod() {
+    var config = new NarrativeTraceConfig();
+    config.setFoldRepeatedCalls(true);
+    var context = new ThreadLocalNarrativeContext(config);
+
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    for (int i = 0; i < 1000; i++) {
+      context.enterMethod(
+          new MethodSignature(
+              "InventoryService",
+              "reserve",
+              List.of(new ParameterCapture("itemId", "\"ITEM-" + i + "\"", false))));
+      context.enterMethod(new MethodSignature("StockRepository", "decrement", List.of()));
+      context.exitMethodWithReturn(null);
+      context.exitMethodWithReturn(i < 999 ? "true" : "false");
+    }
+    context.enterMethod(new MethodSignature("PaymentService", "charge", List.of()));
+    context.exitMethodWithReturn("\"ok\"");
+    context.exitMethodWithReturn("\"order-42\"");
+
+    var children = context.captureTrace().roots().get(0).children();
+    assertThat(children).hasSize(2);
+    var folded = children.get(0);
+    assertThat(folded.signature().parameters().get(0).renderedValue()).isEqualTo("\"ITEM-0\"");
+    assertThat(folded.children()).hasSize(1);
+    var repeated = (TraceOutcome.Repeated) folded.outcome();
+    assertThat(repeated.calls()).isEqualTo(1000);
+    assertThat(repeated.firstValue()).isEqualTo("true");
+    assertThat(repeated.lastValue()).isEqualTo("false");
+    assertThat(repeated.minDurationNanos()).isLessThanOrEqualTo(repeated.maxDurationNanos());
+    assertThat(folded.durationNanos()).isGreaterThanOrEqualTo(repeated.maxDurationNanos());
+    assertThat(children.get(1).outcome()).isEqualTo(new TraceOutcome.Returned("\"ok\""));
+  }
+
+  @Test
+  void doesNotFoldCallsCarryingAttachedOrElidedWork() {
+    var config = new NarrativeTraceConfig();
+    config.setFoldRepeatedCalls(true);
+    config.setLimits(new TraceLimits(100, 2, 100));
+    var context = new ThreadLocalNarrativeContext(config);
+
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+    context.exitMethodWithReturn("true");
+    context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+    var snapshot = context.snapshot();
+    try (var scope = snapshot.activate()) {
+      context.enterMethod(new MethodSignature("PriceClient", "price", List.of()));
+      context.exitMethodWithReturn("9.99");
+    }
+    context.exitMethodWithReturn("true");
+    context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+    context.enterMethod(new MethodSignature("StockRepository", "find", List.of()));
+    context.exitMethodWithReturn(null);
+    context.enterMethod(new MethodSignature("StockRepository", "decrement", List.of()));
+    context.exitMethodWithReturn(null);
+    context.exitMethodWithReturn("true");
+    context.exitMethodWithReturn("\"order-42\"");
+
+    var children = context.captureTrace().roots().get(0).children();
+    assertThat(children).hasSize(3);
+    assertThat(children).noneMatch(child -> child.outcome() instanceof TraceOutcome.Repeated);
+    assertThat(children.get(1).children().get(0).signature().className())
+        .isEqualTo("PriceClient");
+    var elided = (TraceOutcome.Elided) children.get(2).children().get(0).outcome();
+    assertThat(elided.calls()).isEqualTo(2);
+  }
+
+  @Test
+  void doesNotFoldAcrossExceptionsOrDifferentMethods() {
+    var config = new NarrativeTraceConfig();
+    config.setFoldRepeatedCalls(true);
+    var context = new ThreadLocalNarrativeContext(config);
+
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+    context.exitMethodWithException(new IllegalStateException("out of stock"), null);
+    context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+    context.exitMethodWithReturn("true");
+    context.enterMethod(new MethodSignature("InventoryService", "release", List.of()));
+    context.exitMethodWithReturn("true");
+    context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+    context.exitMethodWithReturn("true");
+    context.exitMethodWithReturn("\"order-42\"");
+
+    var children = context.captureTrace().roots().get(0).children();
+    assertThat(children).hasSize(4);
+    assertThat(children).noneMatch(child -> child.outcome() instanceof TraceOutcome.Repeated);
+  }
+
+  @Test
+  void doesNotFoldOverloads() {
+    var config = new NarrativeTraceConfig();
+    config.setFoldRepeatedCalls(true);
+    var context = new ThreadLocalNarrativeContext(config);
+    var saveUser =
+        MethodDescriptor.register("Repository", "save", new String[] {"user"}, new boolean[1]);
+    var saveOrder =
+        MethodDescriptor.register("Repository", "save", new String[] {"order"}, new boolean[1]);
+
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    context.enterMethod(MethodSignature.deferred(saveUser, new Object[] {"u"}, null, null));
+    context.exitMethodWithReturn(null);
+    context.enterMethod(MethodSignature.deferred(saveOrder, new Object[] {"o"}, null, null));
+    context.exitMethodWithReturn(null);
+    context.enterMethod(
+        new MethodSignature(
+            "Repository", "save", List.of(new ParameterCapture("user", "\"u\"", false))));
+    context.exitMethodWithReturn(null);
+    context.enterMethod(
+        new MethodSignature(
+            "Repository", "save", List.of(new ParameterCapture("order", "\"o\"", false))));
+    context.exitMethodWithReturn(null);
+    context.exitMethodWithReturn("\"order-42\"");
+
+    var children = context.captureTrace().roots().get(0).children();
+    assertThat(children).hasSize(4);
+    assertThat(children).noneMatch(child -> child.outcome() instanceof TraceOutcome.Repeated);
+  }
+
+  @Test
+  void repeatedCallsAreNotFoldedByDefault() {
+    var context = new ThreadLocalNarrativeContext();
+
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    for (int i = 0; i < 3; i++) {
+      context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+      context.exitMethodWithReturn("true");
+    }
+    context.exitMethodWithReturn("\"order-42\"");
+
+    assertThat(context.captureTrace().roots().get(0).children()).hasSize(3);
+  }
+
+  private static SignatureResolver failing(String className, String methodName) {
+    return (args, plan) -> new MethodSignature(className, methodName, List.of());
+  }
+
+  @Test
+  void discardLastRootKeepsEarlierRoots() {
+    var context = new ThreadLocalNarrativeContext();
+    context.enterMethod(new MethodSignature("CartService", "validate", List.of()));
+    context.exitMethodWithReturn("true");
+    context.captureTrace();
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+    context.enterMethod(new MethodSignature("InventoryService", "reserve", List.of()));
+    context.exitMethodWithReturn("true");
+    context.exitMethodWithReturn("\"order-1\"");
+    context.captureTrace();
+
+    context.discardLastRoot();
+    context.enterMethod(new MethodSignature("CartService", "clear", List.of()));
+    context.exitMethodWithReturn(null);
+
+    var roots = context.captureTrace().roots();
+    assertThat(roots)
+        .extracting(root -> root.signature().methodName())
+        .containsExactly("validate", "clear");
+    assertThat(roots.get(1).children()).isEmpty();
+  }
+
+  @Test
+  void discardLastRootIgnoresOpenCall() {
+    var context = new ThreadLocalNarrativeContext();
+    context.enterMethod(new MethodSignature("OrderService", "placeOrder", List.of()));
+
+    context.discardLastRoot();
+    context.exitMethodWithReturn("\"order-1\"");
+
+    assertThat(context.captureTrace().roots()).hasSize(1);
+  }
+
+  @Test
+  void failuresReportedAfterTheFactAreSampledPerExceptionBranch() {
+    var config = new NarrativeTraceConfig();
+    config.setSampling(HeadSampling.rate(1.0));
+    var context = new ThreadLocalNarrativeContext(config);
+    var declined = new IllegalStateException("declined");
+    context.recordFailure(
+        (args, plan) -> new MethodSignature("PaymentService", "charge", List.of()),
+        new Object[0],
+        declined,
+        null);
+
+    config.setSampling(HeadSampling.rate(0.0));
+    context.recordFailure(
+        (args, plan) -> new MethodSignature("OrderService", "placeOrder", List.of()),
+        new Object[0],
+        declined,
+        null);
+    context.recordFailure(
+        (args, plan) -> new MethodSignature("CartService", "validate", List.of()),
+        new Object[0],
+        new IllegalArgumentException("empty cart"),
+        null);
+
+    var roots = context.captureTrace().roots();
+    assertThat(roots).hasSize(1);
+    assertThat(roots.get(0).signature().methodName()).isEqualTo("placeOrder");
+    assertThat(roots.get(0).children()).hasSize(1);
+  }
 }
@@ -0,0 +1,91 @@
+package ai.narrativetrace.core.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MethodDescriptorTest {
+
+  @Test
+  void registeringEqualMetadataReturnsSameDescriptor() {
+    var first =
+        MethodDescriptor.register(
+            "InventoryService", "reserve", new String[] {"sku", "quantity"}, new boolean[2]);
+    var second =
+        MethodDescriptor.register(
+            "InventoryService", "reserve", new String[] {"sku", "quantity"}, new boolean[2]);
+
+    assertThat(second).isSameAs(first);
+    assertThat(MethodDescriptor.byId(first.id())).isSameAs(first);
+  }
+
+  @Test
+  void registrationDoesNotKeepCallerArrays() {
+    var names = new String[] {"orderId"};
+    var flags = new boolean[] {false};
+    var descriptor = MethodDescriptor.register("ShippingService", "ship", names, flags);
+
+    names[0] = "trackingId";
+    flags[0] = true;
+
+    assertThat(descriptor.parameterName(0)).isEqualTo("orderId");
+    assertThat(descriptor.isRedacted(0)).isFalse();
+    assertThat(
+            MethodDescriptor.register(
+                "ShippingService", "ship", new String[] {"orderId"}, new boolean[] {false}))
+        .isSameAs(descriptor);
+  }
+
+  @Test
+  void byIdRejectsUnknownIds() {
+    assertThatThrownBy(() -> MethodDescriptor.byId(Integer.MAX_VALUE))
+        .isInstanceOf(IndexOutOfBoundsException.class);
+    assertThatThrownBy(() -> MethodDescriptor.byId(MethodDescriptor.UNREGISTERED))
+        .isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  void redactionFlagsDistinguishDescriptors() {
+    var plain =
+        MethodDescriptor.register(
+            "AuthService", "login", new String[] {"password"}, new boolean[] {false});
+    var redacted =
+        MethodDescriptor.register(
+            "AuthService", "login", new String[] {"password"}, new boolean[] {true});
+
+    assertThat(redacted.id()).isNotEqualTo(plain.id());
+    assertThat(redacted.isRedacted(0)).isTrue();
+  }
+
+  @Test
+  void exposesNamesAndFlags() {
+    var descriptor =
+        MethodDescriptor.register(
+            "InventoryService", "release", new String[] {"sku"}, new boolean[] {false});
+
+    assertThat(descriptor.className()).isEqualTo("InventoryService");
+    assertThat(descriptor.methodName()).isEqualTo("release");
+    assertThat(descriptor.parameterCount()).isEqualTo(1);
+    assertThat(descriptor.parameterName(0)).isEqualTo("sku");
+    assertThat(descriptor).hasToString("InventoryService.release(sku)");
+  }
+
+  @Test
+  void signaturesBuiltFromCapturesAreUnregistered() {
+    var signature = new MethodSignature("InventoryService", "reserve", List.of());
+
+    assertThat(signature.descriptor().id()).isEqualTo(MethodDescriptor.UNREGISTERED);
+  }
+
+  @Test
+  void rejectsMismatchedRedactionFlags() {
+    var names = new String[] {"sku"};
+    var flags = new boolean[2];
+
+    assertThatThrownBy(() -> MethodDescriptor.register("InventoryService", "reserve", names, flags))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("InventoryService.reserve");
+  }
+}
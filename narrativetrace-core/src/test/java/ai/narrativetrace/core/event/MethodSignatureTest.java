@@ -1,8 +1,10 @@
 package ai.narrativetrace.core.event;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 
 class MethodSignatureTest {
@@ -50,4 +52,102 @@ class MethodSignatureTest {
     assertThat(signature.narration()).isNull();
     assertThat(signature.errorContext()).isNull();
   }
+
+  @Test
+  void signaturesOfRegisteredMethodShareDescriptor() {
+    var descriptor =
+        MethodDescriptor.register(
+            "OrderService", "placeOrder", new String[] {"customerId"}, new boolean[] {false});
+
+    var first = new MethodSignature(descriptor, new String[] {"\"C-1\""}, null, null);
+    var second = new MethodSignature(descriptor, new String[] {"\"C-2\""}, null, null);
+
+    assertThat(first.descriptor()).isSameAs(second.descriptor());
+    assertThat(second.parameters())
+        .containsExactly(new ParameterCapture("customerId", "\"C-2\"", false));
+  }
+
+  @Test
+  void equalsSignatureBuiltFromCaptures() {
+    var descriptor =
+        MethodDescriptor.register(
+            "OrderService", "placeOrder", new String[] {"customerId"}, new boolean[] {false});
+    var fromDescriptor = new MethodSignature(descriptor, new String[] {"\"C-1\""}, "n", null);
+    var fromCaptures =
+        new MethodSignature(
+            "OrderService",
+            "placeOrder",
+            List.of(new ParameterCapture("customerId", "\"C-1\"", false)),
+            "n",
+            null);
+
+    assertThat(fromDescriptor).isEqualTo(fromCaptures).hasSameHashCodeAs(fromCaptures);
+    assertThat(fromDescriptor.toString()).isEqualTo(fromCaptures.toString());
+  }
+
+  @Test
+  void withoutParameterValuesKeepsNamesOnly() {
+    var signature =
+        new MethodSignature(
+            "OrderService",
+            "placeOrder",
+            List.of(new ParameterCapture("customerId", "\"C-1\"", false)),
+            "Placing order",
+            null);
+
+    var stripped = signature.withoutParameterValues().withErrorContext("while charging");
+
+    assertThat(stripped.parameters())
+        .containsExactly(new ParameterCapture("customerId", "", false));
+    assertThat(stripped.narration()).isEqualTo("Placing order");
+    assertThat(stripped.errorContext()).isEqualTo("while charging");
+    assertThat(stripped.descriptor()).isSameAs(signature.descriptor());
+  }
+
+  @Test
+  void rejectsValueCountNotMatchingDescriptor() {
+    var descriptor =
+        MethodDescriptor.register(
+            "OrderService", "placeOrder", new String[] {"customerId"}, new boolean[] {false});
+
+    assertThatThrownBy(() -> new MethodSignature(descriptor, new String[0], null, null))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void copiesRenderedValuesAndKeepsParametersOnceBuilt() {
+    var descriptor =
+        MethodDescriptor.register(
+            "OrderService", "cancel", new String[] {"orderId"}, new boolean[] {false});
+    var values = new String[] {"42"};
+
+    var signature = new MethodSignature(descriptor, values, null, null);
+    values[0] = "43";
+
+    assertThat(signature.parameters().get(0).renderedValue()).isEqualTo("42");
+    assertThat(signature.parameters()).isSameAs(signature.parameters());
+  }
+
+  @Test
+  void rendersDeferredValuesOnceWhenFirstRead() {
+    var descriptor =
+        MethodDescriptor.register(
+            "OrderService", "ship", new String[] {"orderId", "address"}, new boolean[2]);
+    var renders = new AtomicInteger();
+    DeferredValue address =
+        () -> {
+          renders.incrementAndGet();
+          return "\"Main St\"";
+        };
+
+    var signature =
+        MethodSignature.deferred(descriptor, new Object[] {"42", address}, null, null);
+
+    assertThat(renders.get()).isZero();
+    assertThat(signature.parameters())
+        .extracting(ParameterCapture::renderedValue)
+        .containsExactly("42", "\"Main St\"");
+    signature.parameters();
+    assertThat(renders.get()).isEqualTo(1);
+  }
 }
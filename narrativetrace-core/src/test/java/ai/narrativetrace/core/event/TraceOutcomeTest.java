@@ -22,4 +22,23 @@ class TraceOutcomeTest {
     assertThat(outcome.exception()).isSameAs(exception);
     assertThat(outcome).isInstanceOf(TraceOutcome.class);
   }
+
+  @Test
+  void elidedDescribesDroppedCalls() {
+    assertThat(new TraceOutcome.Elided(42, 17_000_000L).describe())
+        .isEqualTo("42 more calls elided (total 17 ms)");
+    assertThat(new TraceOutcome.Elided(1, 0L).describe())
+        .isEqualTo("1 more call elided (total 0 ms)");
+  }
+
+  @Test
+  void repeatedDescribesCallsAndValueRange() {
+    var outcome = new TraceOutcome.Repeated(1000, 200_000L, 3_400_000L, "true", "false");
+
+    assertThat(outcome.describe()).isEqualTo("×1000 (min 0 ms, max 3 ms)");
+    assertThat(outcome.renderedValue()).isEqualTo("true … false");
+    assertThat(new TraceOutcome.Repeated(2, 0L, 0L, "true", "true").renderedValue())
+        .isEqualTo("true");
+    assertThat(new TraceOutcome.Repeated(2, 0L, 0L, null, null).renderedValue()).isNull();
+  }
 }
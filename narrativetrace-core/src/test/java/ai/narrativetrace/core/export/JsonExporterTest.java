@@ -291,4 +291,62 @@ class JsonExporterTest {
     }
     return count;
   }
+
+  @Test
+  void exportsElidedCallsAsElidedEvent() {
+    var elided =
+        new TraceNode(
+            new MethodSignature("BatchJob", "…", List.of()),
+            List.of(),
+            new TraceOutcome.Elided(42, 17_000_000L),
+            17_000_000L);
+    var root =
+        new TraceNode(
+            new MethodSignature("BatchJob", "run", List.of()),
+            List.of(elided),
+            new TraceOutcome.Returned(null),
+            20_000_000L);
+    var tree = new DefaultTraceTree(List.of(root));
+
+    var json = new JsonExporter().export(tree);
+
+    assertThat(json).contains("\"type\": \"elided\"");
+    assertThat(json).contains("\"calls\": 42");
+    assertThat(json).contains("\"durationMs\": 17");
+    assertThat(json).contains("\"parentId\": 1");
+  }
+
+  @Test
+  void exportsRepeatedCallsOnExitEvent() {
+    var save =
+        new TraceNode(
+            new MethodSignature("StockRepository", "decrement", List.of()),
+            List.of(),
+            new TraceOutcome.Returned(null),
+            1_000_000L);
+    var reserve =
+        new TraceNode(
+            new MethodSignature(
+                "InventoryService",
+                "reserve",
+                List.of(new ParameterCapture("itemId", "\"ITEM-1\"", false))),
+            List.of(save),
+            new TraceOutcome.Repeated(1000, 1_000_000L, 3_000_000L, "true", "false"),
+            1_500_000_000L);
+    var root =
+        new TraceNode(
+            new MethodSignature("OrderService", "placeOrder", List.of()),
+            List.of(reserve),
+            new TraceOutcome.Returned("\"order-42\""),
+            1_600_000_000L);
+    var tree = new DefaultTraceTree(List.of(root));
+
+    var json = new JsonExporter().export(tree);
+
+    assertThat(json).contains("\"returnValue\": \"true\"");
+    assertThat(json).contains("\"lastReturnValue\": \"false\"");
+    assertThat(json).contains("\"calls\": 1000");
+    assertThat(json).contains("\"minDurationMs\": 1");
+    assertThat(json).contains("\"maxDurationMs\": 3");
+  }
 }
@@ -136,4 +136,55 @@ class FrontmatterBuilderTest {
     assertThat(frontmatter).contains("scenario: Customer places order");
     assertThat(frontmatter).doesNotContain("scenario: \"");
   }
+
+  @Test
+  void methodCountIncludesElidedCalls() {
+    var elided =
+        new TraceNode(
+            new MethodSignature("BatchJob", "…", List.of()),
+            List.of(),
+            new TraceOutcome.Elided(42, 17_000_000L),
+            17_000_000L);
+    var root =
+        new TraceNode(
+            new MethodSignature("BatchJob", "run", List.of()),
+            List.of(elided),
+            new TraceOutcome.Returned(null),
+            20_000_000L);
+    var tree = new DefaultTraceTree(List.of(root));
+
+    var frontmatter = new FrontmatterBuilder().build(tree);
+
+    assertThat(frontmatter).contains("method_count: 43");
+  }
+
+  @Test
+  void methodCountIncludesEveryRepeatedCall() {
+    var save =
+        new TraceNode(
+            new MethodSignature("StockRepository", "decrement", List.of()),
+            List.of(),
+            new TraceOutcome.Returned(null),
+            1_000_000L);
+    var reserve =
+        new TraceNode(
+            new MethodSignature(
+                "InventoryService",
+                "reserve",
+                List.of(new ParameterCapture("itemId", "\"ITEM-1\"", false))),
+            List.of(save),
+            new TraceOutcome.Repeated(1000, 1_000_000L, 3_000_000L, "true", "false"),
+            1_500_000_000L);
+    var root =
+        new TraceNode(
+            new MethodSignature("OrderService", "placeOrder", List.of()),
+            List.of(reserve),
+            new TraceOutcome.Returned("\"order-42\""),
+            1_600_000_000L);
+    var tree = new DefaultTraceTree(List.of(root));
+
+    var frontmatter = new FrontmatterBuilder().build(tree);
+
+    assertThat(frontmatter).contains("method_count: 1002");
+  }
 }
@@ -0,0 +1,146 @@
+package ai.narrativetrace.core.render;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.narrativetrace.core.annotation.ImmutableValue;
+import ai.narrativetrace.core.annotation.NarrativeSummary;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ImmutableTypesTest {
+
+  @ImmutableValue
+  static final class Money {}
+
+  record Line(String sku, int quantity, BigDecimal price, Money total) {}
+
+  record Order(long id, Line line, LocalDate placed) {}
+
+  record Cart(List<Line> lines) {}
+
+  record Node(int value, Node next) {}
+
+  static final class Counter {
+    int count;
+  }
+
+  enum Plain {
+    ONE
+  }
+
+  enum Labeled {
+    ONE;
+
+    @Override
+    public String toString() {
+      return "one";
+    }
+  }
+
+  enum WithBody {
+    ONE {
+      @Override
+      public String toString() {
+        return "one";
+      }
+    }
+  }
+
+  enum Summarized {
+    ONE;
+
+    @NarrativeSummary
+    public String summary() {
+      return "one";
+    }
+  }
+
+  record Described(String name) {
+    @Override
+    public String toString() {
+      return "described";
+    }
+  }
+
+  record Summarizing(String name) {
+    @NarrativeSummary
+    public String summary() {
+      return name;
+    }
+  }
+
+  record Holder(Labeled label) {}
+
+  record Masked(String card) {
+    @Override
+    public String card() {
+      return "****" + card.substring(card.length() - 4);
+    }
+  }
+
+  record Explicit(String name) {
+    @Override
+    public String name() {
+      return name;
+    }
+  }
+
+  @ImmutableValue
+  record Annotated(String name) {
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  @Test
+  void recognizesValueTypesOfTheJdk() {
+    assertThat(ImmutableTypes.isImmutable(String.class)).isTrue();
+    assertThat(ImmutableTypes.isImmutable(Integer.class)).isTrue();
+    assertThat(ImmutableTypes.isImmutable(TimeUnit.class)).isTrue();
+    assertThat(ImmutableTypes.isImmutable(LocalDate.class)).isTrue();
+    assertThat(ImmutableTypes.isImmutable(ZoneId.of("UTC").getClass())).isTrue();
+  }
+
+  @Test
+  void recognizesAnnotatedTypesAndRecordsOfImmutableComponents() {
+    assertThat(ImmutableTypes.isImmutable(Money.class)).isTrue();
+    assertThat(ImmutableTypes.isImmutable(Line.class)).isTrue();
+    assertThat(ImmutableTypes.isImmutable(Order.class)).isTrue();
+    assertThat(ImmutableTypes.isImmutable(Node.class)).isTrue();
+  }
+
+  @Test
+  void judgesRecordsByTheirAccessorsNotTheirToString() {
+    assertThat(ImmutableTypes.isImmutable(Described.class)).isTrue();
+    assertThat(ImmutableTypes.isImmutable(Explicit.class)).isTrue();
+    assertThat(ImmutableTypes.isImmutable(Masked.class)).isFalse();
+  }
+
+  @Test
+  void recognizesEnumsOnlyWithoutCustomRendering() {
+    assertThat(ImmutableTypes.isImmutable(Plain.class)).isTrue();
+    assertThat(ImmutableTypes.isImmutable(Labeled.class)).isFalse();
+    assertThat(ImmutableTypes.isImmutable(WithBody.class)).isFalse();
+    assertThat(ImmutableTypes.isImmutable(WithBody.ONE.getClass())).isFalse();
+    assertThat(ImmutableTypes.isImmutable(Summarized.class)).isFalse();
+  }
+
+  @Test
+  void rejectsRecordsWithCustomRenderingUnlessAnnotated() {
+    assertThat(ImmutableTypes.isImmutable(Summarizing.class)).isFalse();
+    assertThat(ImmutableTypes.isImmutable(Holder.class)).isFalse();
+    assertThat(ImmutableTypes.isImmutable(Annotated.class)).isTrue();
+  }
+
+  @Test
+  void rejectsMutableTypesAndRecordsHoldingThem() {
+    assertThat(ImmutableTypes.isImmutable(Counter.class)).isFalse();
+    assertThat(ImmutableTypes.isImmutable(Cart.class)).isFalse();
+    assertThat(ImmutableTypes.isImmutable(int[].class)).isFalse();
+  }
+}
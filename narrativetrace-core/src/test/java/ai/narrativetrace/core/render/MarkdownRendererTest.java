@@ -314,4 +314,57 @@ class MarkdownRendererTest {
 
     assertThat(result).doesNotContain("ms");
   }
+
+  @Test
+  void rendersElidedCallsAsItalicListItem() {
+    var elided =
+        new TraceNode(
+            new MethodSignature("BatchJob", "…", List.of()),
+            List.of(),
+            new TraceOutcome.Elided(42, 17_000_000L),
+            17_000_000L);
+    var root =
+        new TraceNode(
+            new MethodSignature("BatchJob", "run", List.of()),
+            List.of(elided),
+            new TraceOutcome.Returned(null),
+            20_000_000L);
+    var tree = new DefaultTraceTree(List.of(root));
+
+    var result = new MarkdownRenderer().render(tree);
+
+    assertThat(result).contains("  - *… 42 more calls elided (total 17 ms)*");
+  }
+
+  @Test
+  void rendersRepeatedCallsWithCountAndValueRange() {
+    var save =
+        new TraceNode(
+            new MethodSignature("StockRepository", "decrement", List.of()),
+            List.of(),
+            new TraceOutcome.Returned(null),
+            1_000_000L);
+    var reserve =
+        new TraceNode(
+            new MethodSignature(
+                "InventoryService",
+                "reserve",
+                List.of(new ParameterCapture("itemId", "\"ITEM-1\"", false))),
+            List.of(save),
+            new TraceOutcome.Repeated(1000, 1_000_000L, 3_000_000L, "true", "false"),
+            1_500_000_000L);
+    var root =
+        new TraceNode(
+            new MethodSignature("OrderService", "placeOrder", List.of()),
+            List.of(reserve),
+            new TraceOutcome.Returned("\"order-42\""),
+            1_600_000_000L);
+    var tree = new DefaultTraceTree(List.of(root));
+
+    var result = new MarkdownRenderer().render(tree);
+
+    assertThat(result)
+        .contains("(itemId: `\"ITEM-1\"`) — 1500ms ⚠️ slow ×1000 (min 1 ms, max 3 ms)");
+    assertThat(result).contains("    - → `true … false`");
+  }
 }
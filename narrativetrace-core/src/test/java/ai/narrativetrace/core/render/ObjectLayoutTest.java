@@ -0,0 +1,51 @@
+package ai.narrativetrace.core.render;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class ObjectLayoutTest {
+
+  private record Point(int x, long y) {}
+
+  static class Account {
+    static final String TYPE = "checking";
+    private final String owner = "ada";
+    private final double balance = 12.5;
+  }
+
+  @Test
+  void readsRecordComponentsInDeclarationOrder() throws Throwable {
+    var layout = ObjectLayout.of(Point.class);
+    var point = new Point(3, 4L);
+
+    assertThat(layout.simpleName()).isEqualTo("Point");
+    assertThat(layout.size()).isEqualTo(2);
+    assertThat(layout.name(1)).isEqualTo("y");
+    assertThat(layout.get(point, 0)).isEqualTo(3);
+    assertThat(layout.get(point, 1)).isEqualTo(4L);
+  }
+
+  @Test
+  void readsInstanceFieldsOnly() throws Throwable {
+    var layout = ObjectLayout.of(Account.class);
+
+    assertThat(layout.size()).isEqualTo(2);
+    assertThat(layout.name(0)).isEqualTo("owner");
+    assertThat(layout.get(new Account(), 1)).isEqualTo(12.5);
+  }
+
+  @Test
+  void isBuiltOncePerClass() {
+    assertThat(ObjectLayout.of(Point.class)).isSameAs(ObjectLayout.of(Point.class));
+  }
+
+  @Test
+  void inaccessibleFieldsFailOnRead() {
+    var cleaner = java.lang.ref.Cleaner.create();
+    var layout = ObjectLayout.of(cleaner.getClass());
+
+    assertThatThrownBy(() -> layout.get(cleaner, 0)).isInstanceOf(IllegalAccessException.class);
+  }
+}
@@ -0,0 +1,64 @@
+package ai.narrativetrace.core.render;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ai.narrativetrace.core.config.ConfigResolver;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ToStringPolicyTest {
+
+  @Test
+  void deniesTypesBySupertypeOrPackage() {
+    var policy = ToStringPolicy.DEFAULT.deny("java.util.RandomAccess", "java.util.concurrent.*");
+
+    assertThat(policy.denies(ArrayList.class)).isTrue();
+    assertThat(policy.denies(java.util.concurrent.atomic.AtomicLong.class)).isTrue();
+    assertThat(policy.denies(java.util.LinkedList.class)).isFalse();
+  }
+
+  @Test
+  void allowsEveryToStringUntilAnAllowListIsSet() {
+    assertThat(ToStringPolicy.DEFAULT.allowsToString(ToStringPolicyTest.class)).isTrue();
+
+    var policy = ToStringPolicy.DEFAULT.allow("com.example.*");
+
+    assertThat(policy.allowsToString(ToStringPolicyTest.class)).isFalse();
+    assertThat(policy.allowsToString(List.class)).isTrue();
+  }
+
+  @Test
+  void readsPolicyFromProperties(@TempDir Path tempDir) throws Exception {
+    Files.writeString(
+        tempDir.resolve("narrativetrace.properties"),
+        "narrativetrace.render.deny=java.util.RandomAccess; java.lang.Iterable\n"
+            + "narrativetrace.render.slowMillis=3\n");
+    var classLoader = new URLClassLoader(new URL[] {tempDir.toUri().toURL()}, null);
+    var resolver = new ConfigResolver(classLoader);
+
+    var policy = ToStringPolicy.fromConfig(resolver);
+
+    assertThat(policy.denies(ArrayList.class)).isTrue();
+    assertThat(policy.denies(java.util.HashSet.class)).isTrue();
+    assertThat(policy.slowThresholdNanos()).isEqualTo(3_000_000L);
+  }
+
+  @Test
+  void rejectsInvalidSlowThreshold(@TempDir Path tempDir) throws Exception {
+    Files.writeString(
+        tempDir.resolve("narrativetrace.properties"), "narrativetrace.render.slowMillis=soon\n");
+    var classLoader = new URLClassLoader(new URL[] {tempDir.toUri().toURL()}, null);
+    var resolver = new ConfigResolver(classLoader);
+
+    assertThatThrownBy(() -> ToStringPolicy.fromConfig(resolver))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("soon");
+  }
+}
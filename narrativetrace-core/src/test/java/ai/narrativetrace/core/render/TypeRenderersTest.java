@@ -0,0 +1,166 @@
+package ai.narrativetrace.core.render;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.narrativetrace.core.event.DeferredValue;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class TypeRenderersTest {
+
+  private final ValueRenderer renderer = new ValueRenderer();
+
+  public record Point(int x, int y) {}
+
+  /** Registered through {@code META-INF/services} in the test resources. */
+  public static final class PointRenderer implements TypeRenderer {
+    @Override
+    public String typeName() {
+      return Point.class.getName();
+    }
+
+    @Override
+    public void render(Object value, StringBuilder out) {
+      var point = (Point) value;
+      out.append('(').append(point.x()).append(", ").append(point.y()).append(')');
+    }
+  }
+
+  record Segment(Point from, Point to) {}
+
+  record Money(long cents, String currency) {}
+
+  static class Base {
+    @Override
+    public String toString() {
+      return "base";
+    }
+  }
+
+  static class Derived extends Base {}
+
+  interface Tagged {}
+
+  static class TaggedValue implements Tagged {
+    @Override
+    public String toString() {
+      return "value";
+    }
+  }
+
+  @Test
+  void rendersBuiltInTypes() {
+    assertThat(renderer.render(new BigDecimal("1E+3"))).isEqualTo("1000");
+    assertThat(renderer.render(new BigDecimal("1E+100"))).isEqualTo("1E+100");
+    assertThat(renderer.render(UUID.fromString("123e4567-e89b-12d3-a456-426614174000")))
+        .isEqualTo("123e4567-e89b-12d3-a456-426614174000");
+    assertThat(renderer.render(Instant.parse("2026-10-17T10:15:30.123Z")))
+        .isEqualTo("2026-10-17T10:15:30.123Z");
+  }
+
+  @Test
+  void rendersBytesAsAbbreviatedHex() {
+    assertThat(renderer.render(new byte[] {1, (byte) 0xab, 0x7f})).isEqualTo("byte[3] 01ab7f");
+    assertThat(renderer.render(new byte[0])).isEqualTo("byte[0]");
+    assertThat(renderer.render(new byte[40])).isEqualTo("byte[40] " + "00".repeat(32) + "…");
+  }
+
+  @Test
+  void rendersRemainingBytesOfBufferWithoutMovingIt() {
+    var buffer = ByteBuffer.wrap(new byte[] {1, 2, 3, 4});
+    buffer.get();
+
+    assertThat(renderer.render(buffer)).isEqualTo("ByteBuffer[3] 020304");
+    assertThat(buffer.position()).isEqualTo(1);
+  }
+
+  @Test
+  void protobufMessagesFallBackToSingleLineToStringWithoutTheLibrary() {
+    var out = new StringBuilder();
+
+    BuiltInRenderers.renderProtobuf(
+        new Object() {
+          @Override
+          public String toString() {
+            return "id: 1\nname: \"a\"\n";
+          }
+        },
+        out);
+
+    assertThat(out).hasToString("{id: 1 name: \"a\"}");
+  }
+
+  @Test
+  void loadsRenderersFromServiceProviders() {
+    assertThat(renderer.render(List.of(new Point(1, 2)))).isEqualTo("[(1, 2)]");
+  }
+
+  @Test
+  void capturesValuesWithRenderersNowEvenIfImmutable() {
+    assertThat(ImmutableTypes.isImmutable(Point.class)).isTrue();
+    assertThat(renderer.capture(new Point(1, 2))).isEqualTo("(1, 2)");
+  }
+
+  @Test
+  void capturesRecordsNowWhenAComponentHasARenderer() {
+    assertThat(ImmutableTypes.isImmutable(Segment.class)).isTrue();
+    assertThat(renderer.capture(new Segment(new Point(1, 2), new Point(3, 4))))
+        .isEqualTo("Segment(from: (1, 2), to: (3, 4))");
+  }
+
+  @Test
+  void defersJdkTypesWithBuiltInRenderers() {
+    assertThat(renderer.capture(new BigDecimal("1E+3"))).isInstanceOf(DeferredValue.class);
+    assertThat(renderer.capture(UUID.randomUUID())).isInstanceOf(DeferredValue.class);
+    var captured = renderer.capture(Instant.parse("2026-10-17T10:15:30Z"));
+
+    assertThat(captured).isInstanceOf(DeferredValue.class);
+    assertThat(((DeferredValue) captured).render()).isEqualTo("2026-10-17T10:15:30Z");
+  }
+
+  @Test
+  void registeredRendererReplacesGenericRendering() {
+    var money = new Money(150, "EUR");
+    assertThat(renderer.render(money)).isEqualTo("Money(cents: 150, currency: \"EUR\")");
+
+    TypeRenderers.register(
+        TypeRenderer.of(Money.class, (m, out) -> out.append(m.cents()).append(" ct")));
+
+    assertThat(renderer.render(money)).isEqualTo("150 ct");
+  }
+
+  @Test
+  void appliesToSubclassesAndImplementations() {
+    TypeRenderers.register(TypeRenderer.of(Base.class, (b, out) -> out.append("B")));
+    TypeRenderers.register(TypeRenderer.of(Tagged.class, (t, out) -> out.append("T")));
+
+    assertThat(renderer.render(new Derived())).isEqualTo("B");
+    assertThat(renderer.render(new TaggedValue())).isEqualTo("T");
+  }
+
+  static class Failing {}
+
+  @Test
+  void failingRendererFallsBackToPlaceholder() {
+    TypeRenderers.register(
+        TypeRenderer.of(
+            Failing.class,
+            (f, out) -> {
+              out.append("partial");
+              throw new IllegalStateException("boom");
+            }));
+
+    assertThat(renderer.render(List.of(new Failing()))).startsWith("[<Failing@").endsWith(">]");
+  }
+
+  @Test
+  void denyListWinsOverRenderers() {
+    var denying = new ValueRenderer(ToStringPolicy.DEFAULT.deny(UUID.class.getName()));
+
+    assertThat(denying.render(UUID.randomUUID())).startsWith("<UUID@");
+  }
+}
@@ -3,7 +3,20 @@ package ai.narrativetrace.core.render;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import ai.narrativetrace.core.annotation.NarrativeSummary;
+import ai.narrativetrace.core.event.DeferredValue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 
 class ValueRendererTest {
@@ -363,4 +376,194 @@ class ValueRendererTest {
         .isEqualTo("FiveFieldsPojo{a: \"1\", b: \"2\", c: \"3\", d: \"4\", e: \"5\"}");
     assertThat(result).doesNotContain("...");
   }
+
+  @Test
+  void appendsToAnExistingBuilder() {
+    var out = new StringBuilder("order=");
+
+    renderer.render(List.of("a", "b"), out);
+
+    assertThat(out).hasToString("order=[\"a\", \"b\"]");
+  }
+
+  @Test
+  void totalLengthBudgetCutsOffNestedOutput() {
+    var customRenderer = new ValueRenderer(200, 5, 5, 20);
+    var result = customRenderer.render(List.of(List.of("aaaaaaaaaa", "bbbbbbbbbb"), List.of("c")));
+
+    assertThat(result).isEqualTo("[[\"aaaaaaaaaa\", \"bbbb…");
+  }
+
+  @Test
+  void outputWithinBudgetIsNotCutOff() {
+    var customRenderer = new ValueRenderer(200, 5, 5, 10);
+
+    assertThat(customRenderer.render(List.of(1, 2, 3))).isEqualTo("[1, 2, 3]");
+  }
+
+  static class Wrapper {
+    private final List<String> items;
+
+    Wrapper(List<String> items) {
+      this.items = items;
+    }
+
+    @Override
+    public String toString() {
+      return "Wrapper" + new ValueRenderer().render(items);
+    }
+  }
+
+  @Test
+  void toStringThatRendersValuesDoesNotCorruptTheOuterRendering() {
+    var result = renderer.render(List.of(new Wrapper(List.of("x")), 1));
+
+    assertThat(result).isEqualTo("[Wrapper[\"x\"], 1]");
+  }
+
+  @Test
+  void mapsRenderBoundedEntries() {
+    var map = new LinkedHashMap<String, Integer>();
+    for (var i = 1; i <= 7; i++) {
+      map.put("k" + i, i);
+    }
+
+    assertThat(renderer.render(map))
+        .isEqualTo("{\"k1\": 1, \"k2\": 2, \"k3\": 3, \"k4\": 4, \"k5\": 5, … (7 total)}");
+  }
+
+  @Test
+  void optionalsRenderTheirValue() {
+    assertThat(renderer.render(Optional.of(List.of("a")))).isEqualTo("Optional[[\"a\"]]");
+    assertThat(renderer.render(Optional.empty())).isEqualTo("Optional.empty");
+  }
+
+  @Test
+  void streamsAreNotConsumed() {
+    var stream = Stream.of(1, 2, 3);
+
+    assertThat(renderer.render(stream)).startsWith("<Stream@");
+    assertThat(stream.count()).isEqualTo(3);
+  }
+
+  @Test
+  void primitiveStreamsAndCloseableIterablesRenderAsPlaceholders() throws Exception {
+    assertThat(renderer.render(IntStream.of(1))).startsWith("<IntStream@");
+    assertThat(renderer.render(LongStream.of(1))).startsWith("<LongStream@");
+    assertThat(renderer.render(DoubleStream.of(1))).startsWith("<DoubleStream@");
+    try (var directory = Files.newDirectoryStream(Path.of("."))) {
+      assertThat(renderer.render(directory)).startsWith("<").doesNotStartWith("<Stream");
+      assertThat(directory.iterator()).isNotNull();
+    }
+  }
+
+  static class Numbers implements Iterable<Integer> {
+    @Override
+    public Iterator<Integer> iterator() {
+      return Stream.iterate(1, i -> i + 1).iterator();
+    }
+  }
+
+  @Test
+  void iterablesRenderBoundedItemsWithoutKnowingTheirSize() {
+    assertThat(renderer.render(new Numbers())).isEqualTo("[1, 2, 3, 4, 5, …]");
+  }
+
+  static class Huge {
+    @Override
+    public String toString() {
+      return "x".repeat(100_000);
+    }
+  }
+
+  @Test
+  void toStringOutputIsCutAtTheBudget() {
+    var result = new ValueRenderer(200, 5, 5, 50).render(List.of(new Huge()));
+
+    assertThat(result).isEqualTo("[" + "x".repeat(49) + "…");
+  }
+
+  static class LazyEntity {
+    @Override
+    public String toString() {
+      throw new AssertionError("toString() must not run");
+    }
+  }
+
+  @Test
+  void deniedTypesRenderAsPlaceholder() {
+    var policy = ToStringPolicy.DEFAULT.deny(LazyEntity.class.getName());
+    var entity = new LazyEntity();
+
+    assertThat(new ValueRenderer(policy).render(entity))
+        .isEqualTo("<LazyEntity@" + Integer.toHexString(System.identityHashCode(entity)) + ">");
+  }
+
+  @Test
+  void allowListRestrictsWhichToStringMethodsRun() {
+    var policy = ToStringPolicy.DEFAULT.allow(Huge.class.getName());
+    var allowedRenderer = new ValueRenderer(200, 5, 5, 40, policy);
+
+    assertThat(allowedRenderer.render(new LazyEntity())).startsWith("<LazyEntity@");
+    assertThat(allowedRenderer.render(new Huge())).isEqualTo("x".repeat(40) + "…");
+    assertThat(allowedRenderer.render(UUID.fromString("00000000-0000-0000-0000-000000000001")))
+        .isEqualTo("00000000-0000-0000-0000-000000000001");
+  }
+
+  static class Slow {
+    static int calls;
+
+    @Override
+    public String toString() {
+      calls++;
+      try {
+        Thread.sleep(5);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return "slow";
+    }
+  }
+
+  @Test
+  void slowToStringDemotesItsType() {
+    var policy = ToStringPolicy.DEFAULT.withSlowThreshold(Duration.ofMillis(1));
+    var slowRenderer = new ValueRenderer(policy);
+    Slow.calls = 0;
+
+    assertThat(slowRenderer.render(new Slow())).isEqualTo("slow");
+    assertThat(slowRenderer.render(new Slow())).startsWith("<Slow@");
+    assertThat(Slow.calls).isEqualTo(1);
+  }
+
+  @Test
+  void rendersPrimitivesAsTheirBoxes() {
+    assertThat(renderer.renderInt(42)).isEqualTo("42");
+    assertThat(renderer.renderLong(-7L)).isEqualTo("-7");
+    assertThat(renderer.renderDouble(2.5)).isEqualTo("2.5");
+
+    var denying = new ValueRenderer(ToStringPolicy.DEFAULT.deny(Long.class.getName()));
+    assertThat(denying.renderLong(7L)).startsWith("<Long@").isEqualTo(denying.render(7L));
+  }
+
+  record Shipment(String id, int items, Instant due) {}
+
+  record Batch(List<String> ids) {}
+
+  @Test
+  void captureDefersImmutableValues() {
+    var shipment = new Shipment("S-1", 2, Instant.EPOCH);
+
+    var captured = renderer.capture(shipment);
+
+    assertThat(captured).isInstanceOf(DeferredValue.class);
+    assertThat(((DeferredValue) captured).render()).isEqualTo(renderer.render(shipment));
+  }
+
+  @Test
+  void captureRendersMutableValuesNow() {
+    assertThat(renderer.capture(new Batch(List.of("a")))).isEqualTo("Batch(ids: [\"a\"])");
+    assertThat(renderer.capture(new FiveFieldsPojo())).isInstanceOf(String.class);
+    assertThat(renderer.capture(null)).isEqualTo("null");
+  }
 }
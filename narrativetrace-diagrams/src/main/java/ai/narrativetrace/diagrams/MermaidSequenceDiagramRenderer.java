@@ -28,11 +28,16 @@ public final class MermaidSequenceDiagramRenderer {
   }
 
   private void renderNode(TraceNode node, String caller, StringBuilder sb) {
+    if (node.outcome() instanceof TraceOutcome.Elided elided) {
+      renderElidedNote(elided, quoteIfNeeded(caller), sb);
+      return;
+    }
     var target = node.signature().className();
     var method = node.signature().methodName();
     var params =
         node.signature().parameters().stream().map(p -> p.name()).collect(Collectors.joining(", "));
 
+    renderLoopStart(node, sb);
     sb.append("    ")
         .append(quoteIfNeeded(caller))
         .append("->>")
@@ -56,6 +61,14 @@ public final class MermaidSequenceDiagramRenderer {
           .append(": ")
           .append(returned.renderedValue())
           .append("\n");
+    } else if (outcome instanceof TraceOutcome.Repeated repeated) {
+      sb.append("    ")
+          .append(quoteIfNeeded(target))
+          .append("-->>")
+          .append(quoteIfNeeded(caller))
+          .append(": ")
+          .append(repeated.renderedValue())
+          .append("\n    end\n");
     } else if (outcome instanceof TraceOutcome.Threw threw) {
       sb.append("    ")
           .append(quoteIfNeeded(target))
@@ -91,6 +104,10 @@ public final class MermaidSequenceDiagramRenderer {
 
   private void renderNodeWithAliases(
       TraceNode node, String caller, Map<String, String> aliases, StringBuilder sb) {
+    if (node.outcome() instanceof TraceOutcome.Elided elided) {
+      renderElidedNote(elided, aliases.get(caller), sb);
+      return;
+    }
     var target = node.signature().className();
     var method = node.signature().methodName();
     var params =
@@ -99,6 +116,7 @@ public final class MermaidSequenceDiagramRenderer {
     var callerAlias = aliases.get(caller);
     var targetAlias = aliases.get(target);
 
+    renderLoopStart(node, sb);
     sb.append("    ")
         .append(callerAlias)
         .append("->>")
@@ -122,6 +140,14 @@ public final class MermaidSequenceDiagramRenderer {
           .append(": ")
           .append(returned.renderedValue())
           .append("\n");
+    } else if (outcome instanceof TraceOutcome.Repeated repeated) {
+      sb.append("    ")
+          .append(targetAlias)
+          .append("-->>")
+          .append(callerAlias)
+          .append(": ")
+          .append(repeated.renderedValue())
+          .append("\n    end\n");
     } else if (outcome instanceof TraceOutcome.Threw threw) {
       sb.append("    ")
           .append(targetAlias)
@@ -133,6 +159,20 @@ public final class MermaidSequenceDiagramRenderer {
     }
   }
 
+  private void renderLoopStart(TraceNode node, StringBuilder sb) {
+    if (node.outcome() instanceof TraceOutcome.Repeated repeated) {
+      sb.append("    loop ").append(repeated.describe()).append("\n");
+    }
+  }
+
+  private void renderElidedNote(TraceOutcome.Elided elided, String participant, StringBuilder sb) {
+    sb.append("    Note over ")
+        .append(participant)
+        .append(": … ")
+        .append(elided.describe())
+        .append("\n");
+  }
+
   private Map<String, String> buildAliases(LinkedHashSet<String> participants) {
     var aliases = new LinkedHashMap<String, String>();
     var usedAliases = new LinkedHashSet<String>();
@@ -27,11 +27,22 @@ public final class PlantUmlSequenceDiagramRenderer {
   }
 
   private void renderNode(TraceNode node, String caller, StringBuilder sb) {
+    if (node.outcome() instanceof TraceOutcome.Elided elided) {
+      sb.append("note over ")
+          .append(quoteIfNeeded(caller))
+          .append(": … ")
+          .append(elided.describe())
+          .append("\n");
+      return;
+    }
     var target = node.signature().className();
     var method = node.signature().methodName();
     var params =
         node.signature().parameters().stream().map(p -> p.name()).collect(Collectors.joining(", "));
 
+    if (node.outcome() instanceof TraceOutcome.Repeated repeated) {
+      sb.append("loop ").append(repeated.describe()).append("\n");
+    }
     sb.append(quoteIfNeeded(caller))
         .append(" -> ")
         .append(quoteIfNeeded(target))
@@ -53,6 +64,13 @@ public final class PlantUmlSequenceDiagramRenderer {
           .append(": ")
           .append(returned.renderedValue())
           .append("\n");
+    } else if (outcome instanceof TraceOutcome.Repeated repeated) {
+      sb.append(quoteIfNeeded(target))
+          .append(" --> ")
+          .append(quoteIfNeeded(caller))
+          .append(": ")
+          .append(repeated.renderedValue())
+          .append("\nend\n");
     } else if (outcome instanceof TraceOutcome.Threw threw) {
       sb.append(quoteIfNeeded(target))
           .append(" -[#red]-> ")
@@ -114,4 +114,59 @@ class PlantUmlSequenceDiagramRendererTest {
 
     assertThat(diagram).contains("OrderService -> OrderService: placeOrder(orderId, customerId)");
   }
+
+  @Test
+  void rendersElidedCallsAsNoteOverCaller() {
+    var elided =
+        new TraceNode(
+            new MethodSignature("BatchJob", "…", List.of()),
+            List.of(),
+            new TraceOutcome.Elided(42, 17_000_000L),
+            17_000_000L);
+    var root =
+        new TraceNode(
+            new MethodSignature("BatchJob", "run", List.of()),
+            List.of(elided),
+            new TraceOutcome.Returned(null),
+            20_000_000L);
+    var tree = new DefaultTraceTree(List.of(root));
+
+    var diagram = renderer.render(tree);
+
+    assertThat(diagram).contains("note over BatchJob: … 42 more calls elided (total 17 ms)");
+  }
+
+  @Test
+  void wrapsRepeatedCallsInLoop() {
+    var save =
+        new TraceNode(
+            new MethodSignature("StockRepository", "decrement", List.of()),
+            List.of(),
+            new TraceOutcome.Returned(null),
+            1_000_000L);
+    var reserve =
+        new TraceNode(
+            new MethodSignature(
+                "InventoryService",
+                "reserve",
+                List.of(new ParameterCapture("itemId", "\"ITEM-1\"", false))),
+            List.of(save),
+            new TraceOutcome.Repeated(1000, 1_000_000L, 3_000_000L, "true", "false"),
+            1_500_000_000L);
+    var root =
+        new TraceNode(
+            new MethodSignature("OrderService", "placeOrder", List.of()),
+            List.of(reserve),
+            new TraceOutcome.Returned("\"order-42\""),
+            1_600_000_000L);
+    var tree = new DefaultTraceTree(List.of(root));
+
+    var diagram = renderer.render(tree);
+
+    assertThat(diagram)
+        .contains(
+            "loop ×1000 (min 1 ms, max 3 ms)\n"
+                + "OrderService -> InventoryService: reserve(itemId)\n");
+    assertThat(diagram).contains("InventoryService --> OrderService: true … false\nend\n");
+  }
 }
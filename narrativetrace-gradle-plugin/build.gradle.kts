@@ -3,6 +3,9 @@ plugins {
 }
 
 dependencies {
+    // Supplied at execution time by the narrativeTraceWeaver configuration
+    compileOnly(project(":narrativetrace-agent"))
+
     testImplementation("org.junit.jupiter:junit-jupiter:5.11.4")
     testImplementation("org.assertj:assertj-core:3.27.3")
 }
@@ -25,10 +28,20 @@ val functionalTest by sourceSets.creating {
 configurations[functionalTest.implementationConfigurationName].extendsFrom(configurations.testImplementation.get())
 configurations[functionalTest.runtimeOnlyConfigurationName].extendsFrom(configurations.testRuntimeOnly.get())
 
+val functionalTestWeaver by configurations.creating
+dependencies {
+    functionalTestWeaver(project(":narrativetrace-agent"))
+}
+
 val functionalTestTask = tasks.register<Test>("functionalTest") {
     testClassesDirs = functionalTest.output.classesDirs
     classpath = functionalTest.runtimeClasspath
     useJUnitPlatform()
+    val weaverClasspath = functionalTestWeaver
+    inputs.files(weaverClasspath).withNormalizer(ClasspathNormalizer::class)
+    jvmArgumentProviders.add(CommandLineArgumentProvider {
+        listOf("-Dnarrativetrace.weaverClasspath=" + weaverClasspath.asPath)
+    })
 }
 
 tasks.named("check") {
@@ -1,11 +1,16 @@
 package ai.narrativetrace.gradle;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.gradle.testkit.runner.TaskOutcome.SUCCESS;
+import static org.gradle.testkit.runner.TaskOutcome.UP_TO_DATE;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.StringJoiner;
+import java.util.jar.JarFile;
 import org.gradle.testkit.runner.GradleRunner;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -541,6 +546,68 @@ class NarrativeTracePluginFunctionalTest {
     assertThat(result.getOutput()).contains(":clarityScan");
   }
 
+  @Test
+  void weaveClassesIsNotRegisteredWithoutPackages(@TempDir Path projectDir) throws IOException {
+    writeBuildFile(projectDir, "");
+
+    var result =
+        GradleRunner.create()
+            .withProjectDir(projectDir.toFile())
+            .withPluginClasspath()
+            .withArguments("tasks", "--all")
+            .build();
+
+    assertThat(result.getOutput()).doesNotContain("weaveClasses");
+  }
+
+  @Test
+  void weaveClassesInstrumentsConfiguredPackagesForTheJar(@TempDir Path projectDir)
+      throws IOException {
+    writeWeavingBuildFile(projectDir);
+    writeWeavingSources(projectDir);
+
+    var result =
+        GradleRunner.create()
+            .withProjectDir(projectDir.toFile())
+            .withPluginClasspath()
+            .withArguments("jar")
+            .build();
+
+    assertThat(result.task(":weaveClasses").getOutcome()).isEqualTo(SUCCESS);
+    var compiled = projectDir.resolve("build/classes/java/main");
+    var woven = projectDir.resolve("build/classes/narrativetrace/main");
+    assertThat(Files.readString(woven.resolve("com/example/Greeter.class"), ISO_8859_1))
+        .contains("ai/narrativetrace/agent/AgentBootstrap");
+    assertThat(woven.resolve("other/Plain.class"))
+        .hasSameBinaryContentAs(compiled.resolve("other/Plain.class"));
+    try (var jar = new JarFile(projectDir.resolve("build/libs/test-project.jar").toFile())) {
+      var entry = jar.getInputStream(jar.getEntry("com/example/Greeter.class"));
+      assertThat(entry)
+          .hasSameContentAs(Files.newInputStream(woven.resolve("com/example/Greeter.class")));
+    }
+  }
+
+  @Test
+  void weaveClassesOnlyProcessesChangedClasses(@TempDir Path projectDir) throws IOException {
+    writeWeavingBuildFile(projectDir);
+    writeWeavingSources(projectDir);
+    var runner =
+        GradleRunner.create()
+            .withProjectDir(projectDir.toFile())
+            .withPluginClasspath()
+            .withArguments("weaveClasses");
+    runner.build();
+
+    Files.delete(projectDir.resolve("src/main/java/other/Plain.java"));
+    runner.build();
+    var result = runner.build();
+
+    assertThat(result.task(":weaveClasses").getOutcome()).isEqualTo(UP_TO_DATE);
+    var woven = projectDir.resolve("build/classes/narrativetrace/main");
+    assertThat(woven.resolve("other/Plain.class")).doesNotExist();
+    assertThat(woven.resolve("com/example/Greeter.class")).exists();
+  }
+
   private String scenarioJson(String name, double score) {
     return String.format(
         "{\"name\":\"%s\",\"overallScore\":%.2f"
@@ -561,6 +628,45 @@ class NarrativeTracePluginFunctionalTest {
     Files.writeString(dir.resolve("clarity-results.json"), json);
   }
 
+  private void writeWeavingSources(Path projectDir) throws IOException {
+    var srcDir = projectDir.resolve("src/main/java");
+    Files.createDirectories(srcDir.resolve("com/example"));
+    Files.createDirectories(srcDir.resolve("other"));
+    Files.writeString(
+        srcDir.resolve("com/example/Greeter.java"),
+        "package com.example;\n"
+            + "public class Greeter {\n"
+            + "  public String greet(String name) { return \"Hello \" + name.trim(); }\n"
+            + "}\n");
+    Files.writeString(
+        srcDir.resolve("other/Plain.java"),
+        "package other;\n"
+            + "public class Plain {\n"
+            + "  public int parse(String value) { return Integer.parseInt(value); }\n"
+            + "}\n");
+  }
+
+  private void writeWeavingBuildFile(Path projectDir) throws IOException {
+    var weaverFiles = new StringJoiner(", ");
+    var weaverClasspath = System.getProperty("narrativetrace.weaverClasspath");
+    for (var path : weaverClasspath.split(File.pathSeparator)) {
+      weaverFiles.add("\"" + path.replace('\\', '/') + "\"");
+    }
+    writeBuildFile(
+        projectDir,
+        "narrativeTrace {\n"
+            + "    manageDependencies.set(false)\n"
+            + "    weaving {\n"
+            + "        packages.add(\"com.example\")\n"
+            + "    }\n"
+            + "}\n"
+            + "dependencies {\n"
+            + "    \"narrativeTraceWeaver\"(files("
+            + weaverFiles
+            + "))\n"
+            + "}\n");
+  }
+
   private void writeJavaSource(Path projectDir) throws IOException {
     var srcDir = projectDir.resolve("src/main/java");
     Files.createDirectories(srcDir);
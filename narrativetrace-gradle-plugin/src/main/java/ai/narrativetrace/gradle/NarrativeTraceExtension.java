@@ -1,5 +1,6 @@
 package ai.narrativetrace.gradle;
 
+import java.util.List;
 import javax.inject.Inject;
 import org.gradle.api.Action;
 import org.gradle.api.file.DirectoryProperty;
@@ -17,17 +18,24 @@ public abstract class NarrativeTraceExtension {
   public abstract Property<String> getTestFramework();
 
   private final ClarityExtension clarity;
+  private final WeavingExtension weaving;
 
   @Inject
   @SuppressWarnings("PMD.ConstructorCallsOverridableMethod") // Gradle convention pattern
   public NarrativeTraceExtension(ObjectFactory objects) {
     this.clarity = objects.newInstance(ClarityExtension.class);
+    this.weaving = objects.newInstance(WeavingExtension.class);
     getEnabled().convention(true);
     getManageDependencies().convention(true);
     getTestFramework().convention("junit5");
     clarity.getMinScore().convention(0.0);
     clarity.getMaxHighIssues().convention(Integer.MAX_VALUE);
     clarity.getWarnOnly().convention(false);
+    weaving.getPackages().convention(List.of());
+    weaving.getExcludes().convention(List.of());
+    weaving.getMode().convention("trace");
+    weaving.getTrivial().convention("skip");
+    weaving.getTrivialInstructions().convention(0);
   }
 
   public ClarityExtension getClarity() {
@@ -37,4 +45,12 @@ public abstract class NarrativeTraceExtension {
   public void clarity(Action<? super ClarityExtension> action) {
     action.execute(clarity);
   }
+
+  public WeavingExtension getWeaving() {
+    return weaving;
+  }
+
+  public void weaving(Action<? super WeavingExtension> action) {
+    action.execute(weaving);
+  }
 }
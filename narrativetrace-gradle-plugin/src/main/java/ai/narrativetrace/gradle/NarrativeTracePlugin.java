@@ -3,6 +3,9 @@ package ai.narrativetrace.gradle;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.tasks.JavaExec;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.bundling.Jar;
 import org.gradle.api.tasks.compile.JavaCompile;
 import org.gradle.api.tasks.testing.Test;
 
@@ -10,6 +13,7 @@ public class NarrativeTracePlugin implements Plugin<Project> {
 
   private static final String VERSION = "0.1.0-SNAPSHOT";
   private static final String GROUP = "ai.narrativetrace";
+  private static final String WEAVER_CONFIGURATION = "narrativeTraceWeaver";
 
   @Override
   public void apply(Project project) {
@@ -17,6 +21,7 @@ public class NarrativeTracePlugin implements Plugin<Project> {
     extension
         .getOutputDir()
         .convention(project.getLayout().getBuildDirectory().dir("narrativetrace"));
+    createWeaverConfiguration(project);
 
     project.afterEvaluate(
         p -> {
@@ -30,9 +35,29 @@ public class NarrativeTracePlugin implements Plugin<Project> {
           configureTestTasks(p, extension);
           registerClarityCheckTask(p, extension);
           registerClarityScanTask(p, extension);
+          if (!extension.getWeaving().getPackages().get().isEmpty()) {
+            registerWeaveClassesTask(p, extension);
+          }
         });
   }
 
+  private void createWeaverConfiguration(Project project) {
+    project
+        .getConfigurations()
+        .create(
+            WEAVER_CONFIGURATION,
+            configuration -> {
+              configuration.setDescription("Agent classes used by the weaveClasses task");
+              configuration.setCanBeConsumed(false);
+              configuration.defaultDependencies(
+                  deps ->
+                      deps.add(
+                          project
+                              .getDependencies()
+                              .create(GROUP + ":narrativetrace-agent:" + VERSION)));
+            });
+  }
+
   private void configureCompilerFlags(Project project) {
     project
         .getTasks()
@@ -53,6 +78,10 @@ public class NarrativeTracePlugin implements Plugin<Project> {
     deps.add("testImplementation", GROUP + ":narrativetrace-clarity:" + VERSION);
     deps.add("testImplementation", GROUP + ":narrativetrace-diagrams:" + VERSION);
 
+    if (!extension.getWeaving().getPackages().get().isEmpty()) {
+      deps.add("runtimeOnly", GROUP + ":narrativetrace-agent:" + VERSION);
+    }
+
     var framework = extension.getTestFramework().get();
     if ("junit4".equals(framework)) {
       deps.add("testImplementation", GROUP + ":narrativetrace-junit4:" + VERSION);
@@ -113,6 +142,65 @@ public class NarrativeTracePlugin implements Plugin<Project> {
             });
   }
 
+  private void registerWeaveClassesTask(Project project, NarrativeTraceExtension extension) {
+    project
+        .getPlugins()
+        .withId(
+            "java",
+            plugin -> {
+              var weaving = extension.getWeaving();
+              var compiledClasses =
+                  project
+                      .getExtensions()
+                      .getByType(SourceSetContainer.class)
+                      .getByName(SourceSet.MAIN_SOURCE_SET_NAME)
+                      .getJava()
+                      .getClassesDirectory();
+              var weaveClasses =
+                  project
+                      .getTasks()
+                      .register(
+                          "weaveClasses",
+                          WeaveClassesTask.class,
+                          task -> {
+                            task.setDescription(
+                                "Instruments compiled classes for tracing without the agent");
+                            task.setGroup("build");
+                            task.getClassesDirs().from(compiledClasses);
+                            task.getWeaverClasspath()
+                                .from(project.getConfigurations().getByName(WEAVER_CONFIGURATION));
+                            task.getPackages().set(weaving.getPackages());
+                            task.getExcludes().set(weaving.getExcludes());
+                            task.getMode().set(weaving.getMode());
+                            task.getTrivial().set(weaving.getTrivial());
+                            task.getTrivialInstructions().set(weaving.getTrivialInstructions());
+                            task.getOutputDir()
+                                .set(
+                                    project
+                                        .getLayout()
+                                        .getBuildDirectory()
+                                        .dir("classes/narrativetrace/main"));
+                          });
+
+              // The woven output holds every compiled class, so it replaces them in the jar
+              project
+                  .getTasks()
+                  .named(
+                      "jar",
+                      Jar.class,
+                      jar -> {
+                        var compiledDir = compiledClasses.get().getAsFile().toPath();
+                        jar.from(weaveClasses);
+                        jar.eachFile(
+                            details -> {
+                              if (details.getFile().toPath().startsWith(compiledDir)) {
+                                details.exclude();
+                              }
+                            });
+                      });
+            });
+  }
+
   private void configureTestTasks(Project project, NarrativeTraceExtension extension) {
     project
         .getTasks()
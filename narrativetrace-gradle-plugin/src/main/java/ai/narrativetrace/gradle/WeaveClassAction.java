@@ -0,0 +1,41 @@
+package ai.narrativetrace.gradle;
+
+import ai.narrativetrace.agent.AgentConfig;
+import ai.narrativetrace.agent.OfflineWeaver;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+/** Weaves one class file; runs in a class loader holding {@code narrativetrace-agent}. */
+public abstract class WeaveClassAction implements WorkAction<WeaveClassAction.Parameters> {
+
+  public interface Parameters extends WorkParameters {
+
+    RegularFileProperty getClassFile();
+
+    Property<String> getClassName();
+
+    Property<String> getAgentArgs();
+
+    RegularFileProperty getTarget();
+  }
+
+  @Override
+  public void execute() {
+    var parameters = getParameters();
+    var source = parameters.getClassFile().get().getAsFile().toPath();
+    var target = parameters.getTarget().get().getAsFile().toPath();
+    var weaver = new OfflineWeaver(AgentConfig.parse(parameters.getAgentArgs().get()));
+    try {
+      var woven = weaver.weave(Files.readAllBytes(source), parameters.getClassName().get());
+      Files.createDirectories(target.getParent());
+      Files.write(target, woven);
+    } catch (IOException e) {
+      throw new GradleException("Failed to weave " + source + ": " + e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package ai.narrativetrace.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import javax.inject.Inject;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.FileType;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.IgnoreEmptyDirectories;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SkipWhenEmpty;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.ChangeType;
+import org.gradle.work.InputChanges;
+import org.gradle.workers.WorkerExecutor;
+
+/**
+ * Instruments compiled classes the way the agent would, so they can be packaged and run traced
+ * without {@code -javaagent}.
+ *
+ * <p>Only changed class files are woven again; removed ones are deleted from the output. Class
+ * files outside the configured packages, and other files, are copied unchanged, so the output
+ * directory replaces the compiled classes. Weaving runs in an isolated class loader on the {@code
+ * narrativeTraceWeaver} classpath.
+ */
+@CacheableTask
+public abstract class WeaveClassesTask extends DefaultTask {
+
+  @InputFiles
+  @SkipWhenEmpty
+  @IgnoreEmptyDirectories
+  @PathSensitive(PathSensitivity.RELATIVE)
+  public abstract ConfigurableFileCollection getClassesDirs();
+
+  @Classpath
+  public abstract ConfigurableFileCollection getWeaverClasspath();
+
+  @Input
+  public abstract ListProperty<String> getPackages();
+
+  @Input
+  public abstract ListProperty<String> getExcludes();
+
+  @Input
+  public abstract Property<String> getMode();
+
+  @Input
+  public abstract Property<String> getTrivial();
+
+  @Input
+  public abstract Property<Integer> getTrivialInstructions();
+
+  @OutputDirectory
+  public abstract DirectoryProperty getOutputDir();
+
+  @Inject
+  protected abstract WorkerExecutor getWorkerExecutor();
+
+  @Inject
+  protected abstract FileSystemOperations getFileSystemOperations();
+
+  @TaskAction
+  public void weave(InputChanges changes) {
+    if (!changes.isIncremental()) {
+      getFileSystemOperations().delete(spec -> spec.delete(getOutputDir()));
+    }
+    var queue =
+        getWorkerExecutor()
+            .classLoaderIsolation(spec -> spec.getClasspath().from(getWeaverClasspath()));
+    var agentArgs = agentArgs();
+
+    for (var change : changes.getFileChanges(getClassesDirs())) {
+      if (change.getFileType() == FileType.DIRECTORY) {
+        continue;
+      }
+      var path = change.getNormalizedPath();
+      var target = getOutputDir().file(path).get().getAsFile();
+      if (change.getChangeType() == ChangeType.REMOVED) {
+        getFileSystemOperations().delete(spec -> spec.delete(target));
+      } else if (path.endsWith(".class")) {
+        queue.submit(
+            WeaveClassAction.class,
+            parameters -> {
+              parameters.getClassFile().set(change.getFile());
+              parameters.getClassName().set(path.substring(0, path.length() - ".class".length()));
+              parameters.getAgentArgs().set(agentArgs);
+              parameters.getTarget().set(target);
+            });
+      } else {
+        copy(change.getFile(), target);
+      }
+    }
+  }
+
+  private String agentArgs() {
+    return "packages="
+        + String.join(";", getPackages().get())
+        + ",exclude="
+        + String.join(";", getExcludes().get())
+        + ",mode="
+        + getMode().get()
+        + ",trivial="
+        + getTrivial().get()
+        + ",trivialInstructions="
+        + getTrivialInstructions().get();
+  }
+
+  private static void copy(File source, File target) {
+    try {
+      Files.createDirectories(target.toPath().getParent());
+      Files.copy(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new GradleException("Failed to copy " + source + ": " + e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package ai.narrativetrace.gradle;
+
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+
+public abstract class WeavingExtension {
+
+  public abstract ListProperty<String> getPackages();
+
+  public abstract ListProperty<String> getExcludes();
+
+  public abstract Property<String> getMode();
+
+  public abstract Property<String> getTrivial();
+
+  public abstract Property<Integer> getTrivialInstructions();
+}
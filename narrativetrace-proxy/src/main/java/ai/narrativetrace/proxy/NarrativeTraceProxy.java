@@ -3,8 +3,13 @@ package ai.narrativetrace.proxy;
 import ai.narrativetrace.core.annotation.Narrated;
 import ai.narrativetrace.core.annotation.NotTraced;
 import ai.narrativetrace.core.annotation.OnError;
+import ai.narrativetrace.core.config.ConfigResolver;
+import ai.narrativetrace.core.context.CapturePlan;
 import ai.narrativetrace.core.context.NarrativeContext;
+import ai.narrativetrace.core.context.SignatureResolver;
+import ai.narrativetrace.core.event.MethodDescriptor;
 import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.render.ToStringPolicy;
 import ai.narrativetrace.core.render.ValueRenderer;
 import ai.narrativetrace.core.template.TemplateParser;
 import java.lang.reflect.InvocationTargetException;
@@ -32,9 +37,12 @@ import java.util.concurrent.ConcurrentHashMap;
  * the target implements an interface. Use the Java agent ({@code narrativetrace-agent}) when you
  * need to trace concrete classes or third-party code without source changes.
  *
- * <p>Parameter values are eagerly serialized via the shared {@code VALUE_RENDERER} at capture time.
- * {@code @Narrated} and {@code @OnError} templates are resolved against raw objects before
- * serialization.
+ * <p>Parameter values are serialized via the shared {@code VALUE_RENDERER} at capture time, but
+ * only the parts the context's {@link ai.narrativetrace.core.context.CapturePlan} asks for are
+ * rendered, and immutable arguments are only rendered once the trace is read. {@code @Narrated}
+ * and {@code @OnError} templates are resolved against raw objects before serialization. Signatures
+ * are handed to the context as a {@link SignatureResolver} over the raw arguments, so a context at
+ * {@code ERRORS} level renders nothing for calls that return normally.
  *
  * <p>Requires the {@code -parameters} compiler flag for meaningful parameter names.
  *
@@ -44,15 +52,35 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public final class NarrativeTraceProxy {
 
-  private static final ValueRenderer VALUE_RENDERER = new ValueRenderer();
+  private static final ValueRenderer VALUE_RENDERER =
+      new ValueRenderer(ToStringPolicy.fromConfig(new ConfigResolver()));
   private static final ConcurrentHashMap<Method, ProxyMethodMetadata> METHOD_CACHE =
       new ConcurrentHashMap<>();
+  private static final Object[] NO_ARGS = new Object[0];
 
   private NarrativeTraceProxy() {}
 
   record ProxyMethodMetadata(
       String[] paramNames, boolean[] redacted, String narratedTemplate, OnError[] onErrors) {}
 
+  /**
+   * A traced method as seen through one proxy, resolving its signature from raw arguments. Every
+   * signature shares the call site's registered descriptor.
+   */
+  record ProxyCallSite(MethodDescriptor descriptor, ProxyMethodMetadata meta)
+      implements SignatureResolver {
+
+    @Override
+    public MethodSignature resolve(Object[] args, CapturePlan plan) {
+      var narration = plan.narration() ? resolveNarration(meta, args) : null;
+      var values =
+          plan.parameterValues()
+              ? ParameterNameResolver.captureValues(meta.redacted, args, VALUE_RENDERER)
+              : null;
+      return MethodSignature.deferred(descriptor, values, narration, null);
+    }
+  }
+
   static ProxyMethodMetadata computeMetadata(Method method) {
     var parameters = method.getParameters();
     var paramNames = new String[parameters.length];
@@ -78,6 +106,7 @@ public final class NarrativeTraceProxy {
    */
   @SuppressWarnings("unchecked")
   public static <T> T trace(T target, Class<T> interfaceType, NarrativeContext context) {
+    var callSites = new ConcurrentHashMap<Method, ProxyCallSite>();
     return (T)
         Proxy.newProxyInstance(
             interfaceType.getClassLoader(),
@@ -88,26 +117,8 @@ public final class NarrativeTraceProxy {
               if (!context.isActive()) {
                 return invokeRaw(method, target, args);
               }
-              var meta = METHOD_CACHE.computeIfAbsent(method, NarrativeTraceProxy::computeMetadata);
-              var safeArgs = args != null ? args : new Object[0];
-              var narration = resolveNarration(meta, safeArgs);
-              var captures =
-                  ParameterNameResolver.resolve(
-                      meta.paramNames, meta.redacted, safeArgs, VALUE_RENDERER);
-              var signature =
-                  new MethodSignature(
-                      interfaceType.getSimpleName(), method.getName(), captures, narration, null);
-              context.enterMethod(signature);
-              try {
-                var result = method.invoke(target, args);
-                context.exitMethodWithReturn(VALUE_RENDERER.render(result));
-                return result;
-              } catch (Exception e) {
-                var cause = e instanceof InvocationTargetException ite ? ite.getCause() : e;
-                var errorContext = resolveErrorContext(meta, safeArgs, cause);
-                context.exitMethodWithException(cause, errorContext);
-                throw cause;
-              }
+              var callSite = callSite(callSites, interfaceType, method);
+              return invokeTraced(context, callSite, method, target, args);
             });
   }
 
@@ -124,6 +135,7 @@ public final class NarrativeTraceProxy {
     if (interfaces.length == 0) {
       throw new IllegalArgumentException("At least one interface is required");
     }
+    var callSites = new ConcurrentHashMap<Method, ProxyCallSite>();
     return Proxy.newProxyInstance(
         interfaces[0].getClassLoader(),
         interfaces,
@@ -133,29 +145,44 @@ public final class NarrativeTraceProxy {
           if (!context.isActive()) {
             return invokeRaw(method, target, args);
           }
-          var meta = METHOD_CACHE.computeIfAbsent(method, NarrativeTraceProxy::computeMetadata);
-          var safeArgs = args != null ? args : new Object[0];
-          var narration = resolveNarration(meta, safeArgs);
-          var captures =
-              ParameterNameResolver.resolve(
-                  meta.paramNames, meta.redacted, safeArgs, VALUE_RENDERER);
-          var className = method.getDeclaringClass().getSimpleName();
-          var signature =
-              new MethodSignature(className, method.getName(), captures, narration, null);
-          context.enterMethod(signature);
-          try {
-            var result = method.invoke(target, args);
-            context.exitMethodWithReturn(VALUE_RENDERER.render(result));
-            return result;
-          } catch (Exception e) {
-            var cause = e instanceof InvocationTargetException ite ? ite.getCause() : e;
-            var errorContext = resolveErrorContext(meta, safeArgs, cause);
-            context.exitMethodWithException(cause, errorContext);
-            throw cause;
-          }
+          var callSite = callSite(callSites, method.getDeclaringClass(), method);
+          return invokeTraced(context, callSite, method, target, args);
         });
   }
 
+  private static ProxyCallSite callSite(
+      Map<Method, ProxyCallSite> callSites, Class<?> owner, Method method) {
+    var callSite = callSites.get(method);
+    if (callSite == null) {
+      var meta = METHOD_CACHE.computeIfAbsent(method, NarrativeTraceProxy::computeMetadata);
+      // Registered here rather than in computeMetadata: the class name is the proxied interface's.
+      var descriptor =
+          MethodDescriptor.register(
+              owner.getSimpleName(), method.getName(), meta.paramNames, meta.redacted);
+      callSite = new ProxyCallSite(descriptor, meta);
+      callSites.put(method, callSite);
+    }
+    return callSite;
+  }
+
+  private static Object invokeTraced(
+      NarrativeContext context, ProxyCallSite callSite, Method method, Object target, Object[] args)
+      throws Throwable {
+    var plan = context.capturePlan();
+    var safeArgs = args != null ? args : NO_ARGS;
+    context.enterMethod(callSite, safeArgs);
+    try {
+      var result = method.invoke(target, args);
+      context.exitMethodWithReturn(plan.returnValue() ? VALUE_RENDERER.render(result) : null);
+      return result;
+    } catch (Exception e) {
+      var cause = e instanceof InvocationTargetException ite ? ite.getCause() : e;
+      var errorContext = resolveErrorContext(callSite.meta(), safeArgs, cause);
+      context.exitMethodWithException(cause, errorContext);
+      throw cause;
+    }
+  }
+
   private static Object invokeRaw(Method method, Object target, Object[] args) throws Throwable {
     try {
       return method.invoke(target, args);
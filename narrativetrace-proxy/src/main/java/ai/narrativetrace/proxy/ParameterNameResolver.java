@@ -25,6 +25,25 @@ public final class ParameterNameResolver {
     return List.copyOf(captures);
   }
 
+  /**
+   * Captures one value per parameter, for signatures built on a registered {@link
+   * ai.narrativetrace.core.event.MethodDescriptor} with {@link
+   * ai.narrativetrace.core.event.MethodSignature#deferred}.
+   *
+   * @param redacted per-parameter {@code @NotTraced} flags
+   * @param args the raw arguments
+   * @param valueRenderer captures non-redacted arguments, deferring immutable ones
+   * @return the captured values, {@code [REDACTED]} for redacted parameters
+   */
+  public static Object[] captureValues(
+      boolean[] redacted, Object[] args, ValueRenderer valueRenderer) {
+    var values = new Object[redacted.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = redacted[i] ? "[REDACTED]" : valueRenderer.capture(args[i]);
+    }
+    return values;
+  }
+
   public static List<ParameterCapture> resolve(
       Method method, Object[] args, ValueRenderer valueRenderer) {
     var parameters = method.getParameters();
@@ -3,12 +3,16 @@ package ai.narrativetrace.proxy;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import ai.narrativetrace.core.annotation.ImmutableValue;
 import ai.narrativetrace.core.annotation.Narrated;
 import ai.narrativetrace.core.annotation.NotTraced;
 import ai.narrativetrace.core.annotation.OnError;
+import ai.narrativetrace.core.config.NarrativeTraceConfig;
+import ai.narrativetrace.core.config.TracingLevel;
 import ai.narrativetrace.core.context.NarrativeContext;
 import ai.narrativetrace.core.context.NoopNarrativeContext;
 import ai.narrativetrace.core.context.ThreadLocalNarrativeContext;
+import ai.narrativetrace.core.event.MethodDescriptor;
 import ai.narrativetrace.core.event.MethodSignature;
 import ai.narrativetrace.core.event.TraceOutcome;
 import ai.narrativetrace.core.tree.TraceTree;
@@ -53,6 +57,22 @@ class NarrativeTraceProxyTest {
     assertThat(((TraceOutcome.Returned) root.outcome()).renderedValue()).isEqualTo("\"order-42\"");
   }
 
+  @Test
+  void callsShareOneRegisteredDescriptor() {
+    OrderService real = customerId -> "order-42";
+    var context = new ThreadLocalNarrativeContext();
+
+    OrderService proxy = NarrativeTraceProxy.trace(real, OrderService.class, context);
+    proxy.placeOrder("C-1");
+    proxy.placeOrder("C-2");
+
+    var roots = context.captureTrace().roots();
+    var descriptor = roots.get(0).signature().descriptor();
+    assertThat(roots.get(1).signature().descriptor()).isSameAs(descriptor);
+    assertThat(MethodDescriptor.byId(descriptor.id())).isSameAs(descriptor);
+    assertThat(roots.get(1).signature().parameters().get(0).renderedValue()).isEqualTo("\"C-2\"");
+  }
+
   interface InventoryService {
     boolean checkStock(String itemId);
   }
@@ -490,4 +510,119 @@ class NarrativeTraceProxyTest {
     assertThat(tree.roots().get(0).signature().className()).isEqualTo("Greeter");
     assertThat(tree.roots().get(1).signature().className()).isEqualTo("Auditable");
   }
+
+  interface ShippingService {
+    @Narrated("Shipping to {address}")
+    RenderCounter ship(RenderCounter address);
+  }
+
+  static final class RenderCounter {
+    final AtomicInteger renders = new AtomicInteger();
+
+    @Override
+    public String toString() {
+      renders.incrementAndGet();
+      return "counter";
+    }
+  }
+
+  @Test
+  void narrativeLevelSkipsRenderingParameterAndKeepsNarration() {
+    var config = new NarrativeTraceConfig(TracingLevel.NARRATIVE);
+    var context = new ThreadLocalNarrativeContext(config);
+    ShippingService proxy =
+        NarrativeTraceProxy.trace(
+            (ShippingService) address -> address, ShippingService.class, context);
+    var address = new RenderCounter();
+
+    proxy.ship(address);
+
+    var root = context.captureTrace().roots().get(0);
+    assertThat(root.signature().parameters().get(0).name()).isEqualTo("address");
+    assertThat(root.signature().parameters().get(0).renderedValue()).isEmpty();
+    assertThat(root.signature().narration()).isEqualTo("Shipping to counter");
+    // Rendered for the narration template and the return value, never for the parameter
+    assertThat(address.renders.get()).isEqualTo(2);
+  }
+
+  @Test
+  void errorsLevelRendersNothingForSuccessfulCall() {
+    var config = new NarrativeTraceConfig(TracingLevel.ERRORS);
+    var context = new ThreadLocalNarrativeContext(config);
+    ShippingService proxy =
+        NarrativeTraceProxy.trace(
+            (ShippingService) address -> address, ShippingService.class, context);
+    var address = new RenderCounter();
+
+    proxy.ship(address);
+
+    assertThat(context.captureTrace().isEmpty()).isTrue();
+    assertThat(address.renders.get()).isZero();
+  }
+
+  @Test
+  void errorsLevelRendersFailingCallWithParametersAndNarration() {
+    var config = new NarrativeTraceConfig(TracingLevel.ERRORS);
+    var context = new ThreadLocalNarrativeContext(config);
+    ShippingService proxy =
+        NarrativeTraceProxy.trace(
+            (ShippingService)
+                address -> {
+                  throw new IllegalStateException("no carrier");
+                },
+            ShippingService.class,
+            context);
+
+    assertThatThrownBy(() -> proxy.ship(new RenderCounter()))
+        .isInstanceOf(IllegalStateException.class);
+
+    var root = context.captureTrace().roots().get(0);
+    assertThat(root.signature().parameters().get(0).renderedValue()).isEqualTo("counter");
+    assertThat(root.signature().narration()).isEqualTo("Shipping to counter");
+    assertThat(root.outcome()).isInstanceOf(TraceOutcome.Threw.class);
+  }
+
+  @Test
+  void detailLevelStillRendersParameterValues() {
+    var context = new ThreadLocalNarrativeContext();
+    ShippingService proxy =
+        NarrativeTraceProxy.trace(
+            (ShippingService) address -> address, ShippingService.class, context);
+
+    proxy.ship(new RenderCounter());
+
+    var root = context.captureTrace().roots().get(0);
+    assertThat(root.signature().parameters().get(0).renderedValue()).isEqualTo("counter");
+    assertThat(((TraceOutcome.Returned) root.outcome()).renderedValue()).isEqualTo("counter");
+  }
+
+  interface TrackingService {
+    void track(Parcel parcel);
+  }
+
+  @ImmutableValue
+  static final class Parcel {
+    final AtomicInteger renders = new AtomicInteger();
+
+    @Override
+    public String toString() {
+      renders.incrementAndGet();
+      return "parcel";
+    }
+  }
+
+  @Test
+  void immutableArgumentsAreRenderedWhenTheTraceIsRead() {
+    var context = new ThreadLocalNarrativeContext();
+    TrackingService proxy =
+        NarrativeTraceProxy.trace((TrackingService) parcel -> {}, TrackingService.class, context);
+    var parcel = new Parcel();
+
+    proxy.track(parcel);
+    var root = context.captureTrace().roots().get(0);
+
+    assertThat(parcel.renders.get()).isZero();
+    assertThat(root.signature().parameters().get(0).renderedValue()).isEqualTo("parcel");
+    assertThat(parcel.renders.get()).isEqualTo(1);
+  }
 }
@@ -1,6 +1,8 @@
 package ai.narrativetrace.servlet;
 
+import ai.narrativetrace.core.context.JournalingNarrativeContext;
 import ai.narrativetrace.core.context.NarrativeContext;
+import ai.narrativetrace.core.context.ScopedNarrativeContext;
 import ai.narrativetrace.core.export.RequestContext;
 import ai.narrativetrace.core.export.TraceExporter;
 import jakarta.servlet.Filter;
@@ -25,6 +27,21 @@ import java.io.IOException;
  *   <li>Reset again (clean up)
  * </ol>
  *
+ * <p>Only non-empty trees are exported. To export just slow or failed requests, wrap the context
+ * in a {@link ai.narrativetrace.core.context.TailSamplingNarrativeContext}: it recycles the trace
+ * of every root call its policy rejects, so those requests reach the exporter as empty trees and
+ * are skipped.
+ *
+ * <p>With a {@link JournalingNarrativeContext} the filter skips steps 3 to 5: it hands the request
+ * context and exporter to {@link JournalingNarrativeContext#completeRequest}, and the trace is
+ * assembled and exported on the context's background thread.
+ *
+ * <p>With a {@link ScopedNarrativeContext} the whole lifecycle runs inside {@link
+ * ScopedNarrativeContext#call}, so nothing is recorded outside a request. On Java 25 the scope is
+ * a {@code ScopedValue} binding, which subtasks of a {@code StructuredTaskScope} opened by the
+ * request inherit; work handed to other threads is traced only if it is wrapped with a {@linkplain
+ * NarrativeContext#snapshot() snapshot}.
+ *
  * <p>This class has zero Spring dependencies — it works with any servlet container. For Spring
  * integration, use {@code ai.narrativetrace.spring.web.NarrativeTraceWebConfiguration}.
  *
@@ -55,30 +72,69 @@ public class NarrativeTraceFilter implements Filter {
       chain.doFilter(request, response);
       return;
     }
+    if (context instanceof ScopedNarrativeContext scoped) {
+      traceInScope(scoped, httpRequest, httpResponse, chain);
+    } else {
+      trace(httpRequest, httpResponse, chain);
+    }
+  }
+
+  private void traceInScope(
+      ScopedNarrativeContext scoped,
+      HttpServletRequest httpRequest,
+      HttpServletResponse httpResponse,
+      FilterChain chain)
+      throws IOException, ServletException {
+    try {
+      scoped.call(
+          () -> {
+            trace(httpRequest, httpResponse, chain);
+            return null;
+          });
+    } catch (IOException | ServletException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      // trace() throws nothing else, but Callable declares Exception
+      throw new ServletException(e);
+    }
+  }
+
+  private void trace(
+      HttpServletRequest httpRequest, HttpServletResponse httpResponse, FilterChain chain)
+      throws IOException, ServletException {
     context.reset();
     long startTime = System.currentTimeMillis();
     try {
-      chain.doFilter(request, response);
+      chain.doFilter(httpRequest, httpResponse);
     } finally {
-      var tree = context.captureTrace();
-      try {
-        if (!tree.isEmpty()) {
-          long duration = System.currentTimeMillis() - startTime;
-          var requestContext =
-              new RequestContext(
-                  httpRequest.getMethod(),
-                  httpRequest.getRequestURI(),
-                  httpResponse.getStatus(),
-                  duration);
-          try {
-            exporter.export(tree, requestContext);
-          } catch (Exception e) { // NOPMD
-            // Observability failure must never become a request failure
-          }
+      if (context instanceof JournalingNarrativeContext journal) {
+        journal.completeRequest(requestContext(httpRequest, httpResponse, startTime), exporter);
+      } else {
+        captureAndExport(httpRequest, httpResponse, startTime);
+      }
+    }
+  }
+
+  private void captureAndExport(
+      HttpServletRequest httpRequest, HttpServletResponse httpResponse, long startTime) {
+    var tree = context.captureTrace();
+    try {
+      if (!tree.isEmpty()) {
+        try {
+          exporter.export(tree, requestContext(httpRequest, httpResponse, startTime));
+        } catch (Exception e) { // NOPMD
+          // Observability failure must never become a request failure
         }
-      } finally {
-        context.reset();
       }
+    } finally {
+      context.reset();
     }
   }
+
+  private static RequestContext requestContext(
+      HttpServletRequest httpRequest, HttpServletResponse httpResponse, long startTime) {
+    long duration = System.currentTimeMillis() - startTime;
+    return new RequestContext(
+        httpRequest.getMethod(), httpRequest.getRequestURI(), httpResponse.getStatus(), duration);
+  }
 }
@@ -3,16 +3,24 @@ package ai.narrativetrace.servlet;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import ai.narrativetrace.core.context.JournalingNarrativeContext;
+import ai.narrativetrace.core.context.ScopedNarrativeContext;
+import ai.narrativetrace.core.context.TailSamplingNarrativeContext;
+import ai.narrativetrace.core.context.TailSamplingPolicy;
 import ai.narrativetrace.core.context.ThreadLocalNarrativeContext;
 import ai.narrativetrace.core.event.MethodSignature;
+import ai.narrativetrace.core.event.TraceOutcome;
 import ai.narrativetrace.core.export.RequestContext;
 import ai.narrativetrace.core.tree.TraceTree;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.Test;
@@ -192,4 +200,95 @@ class NarrativeTraceFilterTest {
 
     assertThat(context.captureTrace().isEmpty()).isTrue();
   }
+
+  @Test
+  void exportsOnlyRequestsRetainedByTailSampling() throws Exception {
+    var sampled = new TailSamplingNarrativeContext(context, TailSamplingPolicy.failures());
+    var exportedTrees = new ArrayList<TraceTree>();
+    var filter = new NarrativeTraceFilter(sampled, (tree, reqCtx) -> exportedTrees.add(tree));
+
+    filter.doFilter(
+        new StubHttpServletRequest(),
+        new StubHttpServletResponse(),
+        (req, res) -> {
+          sampled.enterMethod(new MethodSignature("Svc", "handle", List.of()));
+          sampled.exitMethodWithReturn("\"ok\"");
+        });
+    filter.doFilter(
+        new StubHttpServletRequest(),
+        new StubHttpServletResponse(),
+        (req, res) -> {
+          sampled.enterMethod(new MethodSignature("Svc", "handle", List.of()));
+          sampled.exitMethodWithException(new IllegalStateException("boom"), null);
+        });
+
+    assertThat(exportedTrees).hasSize(1);
+    assertThat(exportedTrees.get(0).roots().get(0).outcome())
+        .isInstanceOf(TraceOutcome.Threw.class);
+  }
+
+  @Test
+  void journalingContextExportsOnAssemblerThread() throws Exception {
+    try (var journaling = new JournalingNarrativeContext()) {
+      var exported = new CompletableFuture<String>();
+      var filter =
+          new NarrativeTraceFilter(
+              journaling,
+              (tree, reqCtx) ->
+                  exported.complete(
+                      reqCtx.uri()
+                          + " "
+                          + tree.roots().get(0).signature().methodName()
+                          + " "
+                          + Thread.currentThread().getName()));
+
+      filter.doFilter(
+          new StubHttpServletRequest("GET", "/api/orders"),
+          new StubHttpServletResponse(),
+          (req, res) -> {
+            journaling.enterMethod(new MethodSignature("Svc", "handle", List.of()));
+            journaling.exitMethodWithReturn("\"ok\"");
+          });
+
+      assertThat(exported.get(5, TimeUnit.SECONDS))
+          .isEqualTo("/api/orders handle narrativetrace-assembler");
+      assertThat(journaling.captureTrace().isEmpty()).isTrue();
+    }
+  }
+
+  @Test
+  void scopedContextRecordsInsideRequestScope() throws Exception {
+    var scoped = new ScopedNarrativeContext();
+    var exportedTrees = new ArrayList<TraceTree>();
+    FilterChain chain =
+        (req, res) -> {
+          scoped.enterMethod(new MethodSignature("Svc", "handle", List.of()));
+          scoped.exitMethodWithReturn("\"ok\"");
+        };
+
+    var filter = new NarrativeTraceFilter(scoped, (tree, reqCtx) -> exportedTrees.add(tree));
+    filter.doFilter(new StubHttpServletRequest(), new StubHttpServletResponse(), chain);
+
+    assertThat(exportedTrees).hasSize(1);
+    assertThat(exportedTrees.get(0).roots().get(0).signature().methodName()).isEqualTo("handle");
+    assertThat(scoped.isActive()).isFalse();
+  }
+
+  @Test
+  void scopedContextPassesChainExceptionsThrough() {
+    var scoped = new ScopedNarrativeContext();
+    var failure = new IOException("connection reset");
+    FilterChain chain =
+        (req, res) -> {
+          throw failure;
+        };
+
+    var filter = new NarrativeTraceFilter(scoped, (tree, reqCtx) -> {});
+
+    assertThatThrownBy(
+            () ->
+                filter.doFilter(new StubHttpServletRequest(), new StubHttpServletResponse(), chain))
+        .isSameAs(failure);
+    assertThat(scoped.isActive()).isFalse();
+  }
 }
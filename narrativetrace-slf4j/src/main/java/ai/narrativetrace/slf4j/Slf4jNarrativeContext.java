@@ -1,7 +1,9 @@
 package ai.narrativetrace.slf4j;
 
+import ai.narrativetrace.core.context.CapturePlan;
 import ai.narrativetrace.core.context.ContextSnapshot;
 import ai.narrativetrace.core.context.NarrativeContext;
+import ai.narrativetrace.core.context.SignatureResolver;
 import ai.narrativetrace.core.event.MethodSignature;
 import ai.narrativetrace.core.tree.TraceTree;
 import java.util.Map;
@@ -67,6 +69,26 @@ public final class Slf4jNarrativeContext implements NarrativeContext {
     return delegate.isActive();
   }
 
+  /**
+   * Returns the delegate's plan, widened with the values this decorator logs.
+   *
+   * <p>Parameter values are requested only while entry logging is enabled, and return values only
+   * while return logging is enabled, so a quiet logger adds no rendering work.
+   */
+  @Override
+  public CapturePlan capturePlan() {
+    var plan = delegate.capturePlan();
+    if (!delegate.isActive()) {
+      return plan;
+    }
+    boolean logsParameters = logger.isEnabledForLevel(entryLevel);
+    boolean logsReturnValue = logger.isEnabledForLevel(returnLevel);
+    if (!logsParameters && !logsReturnValue) {
+      return plan;
+    }
+    return plan.union(new CapturePlan(logsParameters, logsReturnValue, false));
+  }
+
   @Override
   public void enterMethod(MethodSignature signature) {
     int currentDepth = depth.get();
@@ -93,6 +115,20 @@ public final class Slf4jNarrativeContext implements NarrativeContext {
     delegate.enterMethod(signature);
   }
 
+  /**
+   * Resolves the signature up front only when entry logging needs it; otherwise hands the deferred
+   * call to the delegate unchanged.
+   */
+  @Override
+  public void enterMethod(SignatureResolver resolver, Object[] args) {
+    if (logger.isEnabledForLevel(entryLevel)) {
+      enterMethod(resolver.resolve(args, capturePlan()));
+      return;
+    }
+    depth.set(depth.get() + 1);
+    delegate.enterMethod(resolver, args);
+  }
+
   @Override
   public void exitMethodWithReturn(String renderedReturnValue) {
     depth.set(Math.max(0, depth.get() - 1));
@@ -132,6 +168,11 @@ public final class Slf4jNarrativeContext implements NarrativeContext {
     delegate.reset();
   }
 
+  @Override
+  public void discardLastRoot() {
+    delegate.discardLastRoot();
+  }
+
   @Override
   public ContextSnapshot snapshot() {
     return delegate.snapshot();
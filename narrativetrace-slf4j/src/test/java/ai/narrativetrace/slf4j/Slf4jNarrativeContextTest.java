@@ -2,6 +2,9 @@ package ai.narrativetrace.slf4j;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import ai.narrativetrace.core.config.NarrativeTraceConfig;
+import ai.narrativetrace.core.config.TracingLevel;
+import ai.narrativetrace.core.context.CapturePlan;
 import ai.narrativetrace.core.context.ThreadLocalNarrativeContext;
 import ai.narrativetrace.core.event.MethodSignature;
 import ai.narrativetrace.core.event.ParameterCapture;
@@ -273,4 +276,65 @@ class Slf4jNarrativeContextTest {
     assertThat(message).doesNotContain("[");
     assertThat(message).doesNotContain("]");
   }
+
+  @Test
+  void capturePlanRequestsValuesWhileLoggingIsEnabled() {
+    var delegate = new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.ERRORS));
+    var decorated = new Slf4jNarrativeContext(delegate);
+
+    var plan = decorated.capturePlan();
+
+    assertThat(plan.parameterValues()).isTrue();
+    assertThat(plan.returnValue()).isTrue();
+  }
+
+  @Test
+  void capturePlanFallsBackToDelegateWhenLoggingIsOff() {
+    logbackLogger.setLevel(Level.OFF);
+    var delegate =
+        new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.NARRATIVE));
+    var decorated = new Slf4jNarrativeContext(delegate);
+
+    assertThat(decorated.capturePlan()).isSameAs(delegate.capturePlan());
+  }
+
+  @Test
+  void capturePlanOfInactiveDelegateCapturesNothing() {
+    var decorated =
+        new Slf4jNarrativeContext(ai.narrativetrace.core.context.NoopNarrativeContext.INSTANCE);
+
+    assertThat(decorated.capturePlan()).isSameAs(CapturePlan.NONE);
+  }
+
+  @Test
+  void deferredEntryIsResolvedForLoggingWhenEntryLoggingIsEnabled() {
+    context.enterMethod(
+        (args, plan) ->
+            new MethodSignature(
+                "OrderService",
+                "placeOrder",
+                List.of(new ParameterCapture("orderId", String.valueOf(args[0]), false))),
+        new Object[] {"O-123"});
+
+    assertThat(appender.list.get(0).getFormattedMessage()).contains("orderId: O-123");
+  }
+
+  @Test
+  void deferredEntryIsPassedThroughWhenEntryLoggingIsOff() {
+    logbackLogger.setLevel(Level.WARN);
+    var delegate = new ThreadLocalNarrativeContext(new NarrativeTraceConfig(TracingLevel.ERRORS));
+    var decorated = new Slf4jNarrativeContext(delegate);
+    var resolves = new int[1];
+
+    decorated.enterMethod(
+        (args, plan) -> {
+          resolves[0]++;
+          return new MethodSignature("OrderService", "placeOrder", List.of());
+        },
+        new Object[0]);
+    decorated.exitMethodWithReturn(null);
+
+    assertThat(resolves[0]).isZero();
+    assertThat(appender.list).isEmpty();
+  }
 }